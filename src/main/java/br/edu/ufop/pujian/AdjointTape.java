@@ -0,0 +1,533 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tape for the reverse mode of automatic differentiation with intervals. An
+ * expression of an {@link Engine} is recorded once as a flat list of
+ * primitive operations, then it can be run for many boxes of the
+ * variables. {@link #forward(double[], double[])} computes the values and
+ * {@link #backward()} the whole interval gradient in one sweep, so the cost
+ * does not grow with the number of variables like in
+ * {@link GradientInterval}.
+ *
+ * The slots 0 to n-1 are the variables. The values, the local derivatives
+ * and the adjoints are kept in primitive columns made when the tape is
+ * recorded, and the functions and powers are computed on the bounds in
+ * these columns, so running the tape does not allocate.
+ *
+ * Sequences, assignments and calls of functions made with "fun" are
+ * inlined when recording. Other variables of the context, and intervals
+ * declared with A{inf,sup}, are constants with their value at that time.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class AdjointTape {
+
+    /**
+     * Operations of the tape
+     */
+    static final int VAR = 0, CONST = 1, ADD = 2, SUB = 3, MUL = 4, DIV = 5,
+            NEG = 6, PAIR = 7, POWR = 8, POWI = 9, FUNC = 10;
+
+    private int[] op, a, b;
+    private double[] param;
+    private double[] inf, sup, d1inf, d1sup, d2inf, d2sup, ainf, asup;
+    private int size, out;
+    private final int nvars;
+
+    /**
+     * Class constructor of an empty tape, with the slots of the variables
+     * @param nvars Number of independent variables
+     */
+    AdjointTape(int nvars) {
+        this.nvars = nvars;
+        int capacity = Math.max(16, 2 * nvars);
+        op = new int[capacity];
+        a = new int[capacity];
+        b = new int[capacity];
+        param = new double[capacity];
+        inf = new double[capacity];
+        sup = new double[capacity];
+        for (int i = 0; i < nvars; i++)
+            push(VAR, i, -1, 0.0);
+    }
+
+    /**
+     * Record an expression
+     *
+     * @param engine Engine with the context of the expression
+     * @param node Root of the expression
+     * @param variables Names of the independent variables
+     * @return The tape
+     * @throws SemanticError if the expression has a node without derivative
+     * or has no value
+     */
+    static AdjointTape record(Engine engine, Node node, String... variables) throws SemanticError {
+        AdjointTape tape = new AdjointTape(variables.length);
+        Recorder r = new Recorder(engine, tape);
+        for (int i = 0; i < variables.length; i++)
+            r.scope.vars.put((Sym) engine.makeSym(variables[i]), i);
+        int slot = r.eval(node);
+        if (slot < 0)
+            throw new SemanticError("The expression has no value.");
+        tape.finish(slot);
+        return tape;
+    }
+
+    /**
+     * Add an operation to the tape
+     * @return The slot of the result
+     */
+    int push(int code, int x, int y, double p) {
+        if (size == op.length) {
+            int capacity = 2 * size;
+            op = Arrays.copyOf(op, capacity);
+            a = Arrays.copyOf(a, capacity);
+            b = Arrays.copyOf(b, capacity);
+            param = Arrays.copyOf(param, capacity);
+            inf = Arrays.copyOf(inf, capacity);
+            sup = Arrays.copyOf(sup, capacity);
+        }
+        op[size] = code;
+        a[size] = x;
+        b[size] = y;
+        param[size] = p;
+        return size++;
+    }
+
+    /**
+     * Add a constant to the tape
+     * @return The slot of the constant
+     */
+    int constant(Interval value) {
+        int slot = push(CONST, -1, -1, 0.0);
+        inf[slot] = value.getInf();
+        sup[slot] = value.getSup();
+        return slot;
+    }
+
+    /**
+     * End the recording and make the columns to run the tape
+     * @param result Slot of the result
+     */
+    void finish(int result) {
+        out = result;
+        op = Arrays.copyOf(op, size);
+        a = Arrays.copyOf(a, size);
+        b = Arrays.copyOf(b, size);
+        param = Arrays.copyOf(param, size);
+        inf = Arrays.copyOf(inf, size);
+        sup = Arrays.copyOf(sup, size);
+        d1inf = new double[size];
+        d1sup = new double[size];
+        d2inf = new double[size];
+        d2sup = new double[size];
+        ainf = new double[size];
+        asup = new double[size];
+    }
+
+    /**
+     * Get the number of operations
+     * @return The length of the tape, with the variables and the constants
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of independent variables
+     * @return The length of the gradient
+     */
+    public int variables() {
+        return nvars;
+    }
+
+    /**
+     * Compute the values of the tape for a box of the variables
+     *
+     * @param xinf Lower bounds of the variables
+     * @param xsup Upper bounds of the variables
+     * @throws ArithmeticException if an interval operation is not defined,
+     * like a division by an interval that contains zero
+     */
+    public void forward(double[] xinf, double[] xsup) {
+        for (int k = 0; k < size; k++) {
+            int i = a[k], j = b[k];
+            switch (op[k]) {
+                case VAR:
+                    inf[k] = xinf[i];
+                    sup[k] = xsup[i];
+                    break;
+                case CONST:
+                    break;
+                case ADD:
+                    inf[k] = Rounding.addDown(inf[i], inf[j]);
+                    sup[k] = Rounding.addUp(sup[i], sup[j]);
+                    break;
+                case SUB:
+                    inf[k] = Rounding.addDown(inf[i], -sup[j]);
+                    sup[k] = Rounding.addUp(sup[i], -inf[j]);
+                    break;
+                case MUL:
+                    inf[k] = GradientInterval.mulInf(inf[i], sup[i], inf[j], sup[j]);
+                    sup[k] = GradientInterval.mulSup(inf[i], sup[i], inf[j], sup[j]);
+                    break;
+                case DIV:
+                    if (!(inf[j] > 0 || sup[j] < 0))
+                        throw new ArithmeticException("The interval contains zero");
+                    inf[k] = Interval.divInf(inf[i], sup[i], inf[j], sup[j]);
+                    sup[k] = Interval.divSup(inf[i], sup[i], inf[j], sup[j]);
+                    break;
+                case NEG:
+                    inf[k] = -sup[i];
+                    sup[k] = -inf[i];
+                    break;
+                case PAIR:
+                    // an interval made of two numbers is a constant
+                    inf[k] = inf[i];
+                    sup[k] = sup[j];
+                    break;
+                case POWR:
+                    InterFunctions.IPowerRInto(inf[i], sup[i], param[k], inf, sup, k);
+                    GradientFunctions.PowerRDerivativeInto(inf[i], sup[i], param[k], d1inf, d1sup, k);
+                    break;
+                case POWI:
+                    InterFunctions.IPowerIInto(inf[i], sup[i], inf[j], sup[j], inf, sup, k);
+                    GradientFunctions.PowerIBaseInto(inf[i], sup[i], inf[j], sup[j], d1inf, d1sup, k);
+                    GradientFunctions.PowerIExponentInto(inf[i], sup[i], inf[k], sup[k], d2inf, d2sup, k);
+                    break;
+                case FUNC:
+                    GradientFunctions.ValueInto(j, inf[i], sup[i], inf, sup, k);
+                    GradientFunctions.DerivativeInto(j, inf[i], sup[i], inf[k], sup[k], d1inf, d1sup, k);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + op[k]);
+            }
+        }
+    }
+
+    /**
+     * Compute the adjoints of all slots, from the last forward run. After
+     * it the adjoints of the variables are the gradient of the result.
+     */
+    public void backward() {
+        Arrays.fill(ainf, 0.0);
+        Arrays.fill(asup, 0.0);
+        ainf[out] = 1.0;
+        asup[out] = 1.0;
+        for (int k = out; k >= nvars; k--) {
+            double gi = ainf[k], gs = asup[k];
+            if (gi == 0 && gs == 0)
+                continue;
+            int i = a[k], j = b[k];
+            switch (op[k]) {
+                case ADD:
+                    accumulate(i, gi, gs);
+                    accumulate(j, gi, gs);
+                    break;
+                case SUB:
+                    accumulate(i, gi, gs);
+                    accumulate(j, -gs, -gi);
+                    break;
+                case MUL:
+                    accumulate(i, GradientInterval.mulInf(gi, gs, inf[j], sup[j]), GradientInterval.mulSup(gi, gs, inf[j], sup[j]));
+                    accumulate(j, GradientInterval.mulInf(gi, gs, inf[i], sup[i]), GradientInterval.mulSup(gi, gs, inf[i], sup[i]));
+                    break;
+                case DIV: {
+                    // t = g/v, then u gets t and v gets -t u/v
+                    double ti = Interval.divInf(gi, gs, inf[j], sup[j]);
+                    double ts = Interval.divSup(gi, gs, inf[j], sup[j]);
+                    accumulate(i, ti, ts);
+                    accumulate(j, -GradientInterval.mulSup(ti, ts, inf[k], sup[k]), -GradientInterval.mulInf(ti, ts, inf[k], sup[k]));
+                    break;
+                }
+                case NEG:
+                    accumulate(i, -gs, -gi);
+                    break;
+                case POWR:
+                case FUNC:
+                    accumulate(i, GradientInterval.mulInf(gi, gs, d1inf[k], d1sup[k]), GradientInterval.mulSup(gi, gs, d1inf[k], d1sup[k]));
+                    break;
+                case POWI:
+                    accumulate(i, GradientInterval.mulInf(gi, gs, d1inf[k], d1sup[k]), GradientInterval.mulSup(gi, gs, d1inf[k], d1sup[k]));
+                    accumulate(j, GradientInterval.mulInf(gi, gs, d2inf[k], d2sup[k]), GradientInterval.mulSup(gi, gs, d2inf[k], d2sup[k]));
+                    break;
+                default:
+                    // constants and pairs have no derivative
+                    break;
+            }
+        }
+    }
+
+    private void accumulate(int slot, double gi, double gs) {
+        ainf[slot] = Rounding.addDown(ainf[slot], gi);
+        asup[slot] = Rounding.addUp(asup[slot], gs);
+    }
+
+    /**
+     * Get the lower bound of the result of the last forward run
+     * @return The lower bound
+     */
+    public double getInf() {
+        return inf[out];
+    }
+
+    /**
+     * Get the upper bound of the result of the last forward run
+     * @return The upper bound
+     */
+    public double getSup() {
+        return sup[out];
+    }
+
+    /**
+     * Check if all the values of the last forward run are bounded. An
+     * operation that crosses a pole, like Tan, gives an unbounded value.
+     * @return true if no slot has an infinite bound
+     */
+    public boolean isBounded() {
+        for (int k = 0; k <= out; k++)
+            if (!(inf[k] > Double.NEGATIVE_INFINITY && sup[k] < Double.POSITIVE_INFINITY))
+                return false;
+        return true;
+    }
+
+    /**
+     * Get the result of the last forward run
+     * @return The enclosure of f(X)
+     */
+    public Interval getValue() {
+        return new Interval(inf[out], sup[out]);
+    }
+
+    /**
+     * Copy the gradient of the last backward run
+     * @param ginf Lower bounds of the partial derivatives
+     * @param gsup Upper bounds of the partial derivatives
+     */
+    public void gradient(double[] ginf, double[] gsup) {
+        System.arraycopy(ainf, 0, ginf, 0, nvars);
+        System.arraycopy(asup, 0, gsup, 0, nvars);
+    }
+
+    /**
+     * Run the tape forward and backward for a box
+     *
+     * @param x Box of the variables
+     * @return The value and the gradient
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public GradientInterval evaluate(Interval... x) {
+        if (x.length != nvars)
+            throw new IllegalArgumentException("Argument mismatch.");
+        double[] xinf = new double[nvars], xsup = new double[nvars];
+        for (int i = 0; i < nvars; i++) {
+            xinf[i] = x[i].getInf();
+            xsup[i] = x[i].getSup();
+        }
+        forward(xinf, xsup);
+        backward();
+        double[] ginf = new double[nvars], gsup = new double[nvars];
+        gradient(ginf, gsup);
+        return new GradientInterval(getInf(), getSup(), ginf, gsup);
+    }
+
+    /**
+     * Walks an expression like {@link GradientEvaluator}, adding its
+     * operations to a tape
+     */
+    private static final class Recorder {
+
+        /**
+         * Slots of the variables of a call, or of the program
+         */
+        private static final class Scope {
+            final Scope parent;
+            final Map<Sym, Integer> vars = new HashMap<>();
+
+            Scope(Scope parent) {
+                this.parent = parent;
+            }
+
+            Integer get(Sym sym) {
+                for (Scope s = this; s != null; s = s.parent) {
+                    Integer v = s.vars.get(sym);
+                    if (v != null)
+                        return v;
+                }
+                return null;
+            }
+        }
+
+        private final Engine engine;
+        private final AdjointTape tape;
+        private Scope scope = new Scope(null);
+
+        Recorder(Engine engine, AdjointTape tape) {
+            this.engine = engine;
+            this.tape = tape;
+        }
+
+        private static Interval interval(Node val) {
+            return (val instanceof Num) ? new Interval(((Num) val).val) : ((Inter) val).val;
+        }
+
+        /**
+         * Record an expression
+         * @return The slot of its value, or -1 for the definition of a
+         * function
+         */
+        int eval(Node node) throws SemanticError {
+            if (node instanceof Num || node instanceof Inter)
+                return tape.constant(interval(node));
+            if (node instanceof Sym)
+                return symbol((Sym) node);
+            if (node instanceof UnaryOp)
+                return unary((UnaryOp) node);
+            if (node instanceof BinOp)
+                return binary((BinOp) node);
+            if (node instanceof IntervalFunc)
+                return function((IntervalFunc) node);
+            if (node instanceof Composite)
+                return call((Composite) node);
+            if (node instanceof Func) {
+                node.eval();
+                return -1;
+            }
+            throw new SemanticError(String.format("'%s' has no derivative.", node));
+        }
+
+        private int operand(Node node) throws SemanticError {
+            int slot = eval(node);
+            if (slot < 0)
+                throw new SemanticError(String.format("'%s' has no value.", node));
+            return slot;
+        }
+
+        private int symbol(Sym sym) throws SemanticError {
+            Integer v = scope.get(sym);
+            if (v != null)
+                return v;
+            Node val = engine.context.get(sym);
+            if (val instanceof Num || val instanceof Inter)
+                return tape.constant(interval(val));
+            throw new SemanticError(String.format("Undefined variable '%s'", sym));
+        }
+
+        private int unary(UnaryOp node) throws SemanticError {
+            int x = operand(node.operand);
+            switch (node.op) {
+                case "+":
+                    return x;
+                case "-":
+                    return tape.push(NEG, x, -1, 0.0);
+                default:
+                    throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+            }
+        }
+
+        private int binary(BinOp node) throws SemanticError {
+            switch (node.op) {
+                case ";":
+                    eval(node.left);
+                    return eval(node.right);
+                case "=":
+                    if (!(node.left instanceof Sym))
+                        throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+                    int v = operand(node.right);
+                    scope.vars.put((Sym) node.left, v);
+                    return v;
+                default:
+                    break;
+            }
+            int x = operand(node.left);
+            if ("^".equals(node.op) && node.right instanceof Num)
+                return tape.push(POWR, x, -1, ((Num) node.right).val);
+            int y = operand(node.right);
+            switch (node.op) {
+                case "+":
+                    return tape.push(ADD, x, y, 0.0);
+                case "-":
+                    return tape.push(SUB, x, y, 0.0);
+                case "*":
+                    return tape.push(MUL, x, y, 0.0);
+                case "/":
+                    return tape.push(DIV, x, y, 0.0);
+                case "^":
+                    return tape.push(POWI, x, y, 0.0);
+                case ",":
+                    return tape.push(PAIR, x, y, 0.0);
+                default:
+                    throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+            }
+        }
+
+        private int function(IntervalFunc node) throws SemanticError {
+            int f = GradientFunctions.Code(node.head);
+            if (f < 0)
+                throw new SemanticError(String.format("'%s' has no derivative.", node.head));
+            return tape.push(FUNC, operand(node.arg), f, 0.0);
+        }
+
+        /**
+         * Call of a function made with "fun", inlined with the slots of the
+         * arguments bound to the parameters in a new scope
+         */
+        private int call(Composite node) throws SemanticError {
+            Integer v = scope.get(node.head);
+            if (node.bracketType == '{') {
+                // A{inf,sup} declares an interval variable
+                if (v != null)
+                    return v;
+                Node val = engine.context.get(node.head);
+                if (!(val instanceof Inter))
+                    val = node.eval();
+                return tape.constant(interval(val));
+            }
+            Node def = engine.context.get(node.head);
+            if (v != null || !(def instanceof Func))
+                throw new SemanticError(String.format("'%s' is not a function.", node.head));
+            Func func = (Func) def;
+            if (func.args.length != node.args.length)
+                throw new SemanticError("Argument mismatch.");
+            Scope callee = new Scope(scope);
+            for (int i = 0; i < func.args.length; i++)
+                callee.vars.put((Sym) func.args[i], operand(node.args[i]));
+            Scope caller = scope;
+            scope = callee;
+            try {
+                return eval(func.body);
+            } finally {
+                scope = caller;
+            }
+        }
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Affine form x0 + x1 e1 + ... + xk ek + err e, where the noise symbols ei
+ * and e are unknowns in [-1,1]. Forms that share a noise symbol are
+ * correlated, so x - x is zero and the width of a long formula does not
+ * grow like with {@link Interval}.
+ *
+ * The noise symbols are kept sparse in two primitive columns, their indices
+ * in increasing order and their coefficients, so the linear operations are
+ * merges. Every nonlinear operation adds one new noise symbol. When a form
+ * has more than {@link #getMaxSymbols()} symbols the smallest coefficients
+ * are moved to the error term, so long chains stay cheap. The maximum is
+ * read from the system property {@code pujian.affine.symbols} and can be
+ * changed with {@link #setMaxSymbols(int)}.
+ *
+ * With a verified {@link Rounding} policy the rounding errors of the
+ * coefficients are added to the error term, so {@link #toInterval()} is an
+ * enclosure. The functions of {@link InterFunctions} are in
+ * {@link AffineFunctions}.
+ *
+ * A form is immutable.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class AffineForm {
+
+    /**
+     * Default maximum number of noise symbols
+     */
+    private static final int DEFAULT_SYMBOLS = 64;
+
+    /**
+     * Maximum number of noise symbols of a form
+     */
+    private static int maxSymbols = parseSymbols(System.getProperty("pujian.affine.symbols"));
+
+    /**
+     * Last noise symbol given to a form
+     */
+    private static final AtomicInteger Symbols = new AtomicInteger();
+
+    /**
+     * Central value
+     */
+    final double center;
+
+    /**
+     * Indices of the noise symbols, in increasing order
+     */
+    final int[] idx;
+
+    /**
+     * Coefficients of the noise symbols
+     */
+    final double[] coef;
+
+    /**
+     * Error term, not negative
+     */
+    final double err;
+
+    /**
+     * Class constructor that uses the given columns without copying them
+     */
+    private AffineForm(double center, int[] idx, double[] coef, double err) {
+        this.center = center;
+        this.idx = idx;
+        this.coef = coef;
+        this.err = err;
+    }
+
+    /**
+     * Get the form of an interval, with one new noise symbol
+     *
+     * @param A The interval
+     * @return The form with the midpoint of A as central value, a point if
+     * A is a point. A form of an unbounded interval is unbounded.
+     */
+    public static AffineForm of(Interval A) {
+        double a = A.getInf(), b = A.getSup();
+        if (a == b)
+            return new AffineForm(a, new int[0], new double[0], 0.0);
+        if (Double.isInfinite(a) || Double.isInfinite(b))
+            return new AffineForm(0.0, new int[0], new double[0], Double.POSITIVE_INFINITY);
+        double m = 0.5 * a + 0.5 * b;
+        double r = Math.max(Rounding.addUp(m, -a), Rounding.addUp(b, -m));
+        return new AffineForm(m, new int[]{Symbols.incrementAndGet()}, new double[]{r}, 0.0);
+    }
+
+    /**
+     * Get the form of a number, without noise symbols
+     *
+     * @param value The number
+     * @return The form
+     */
+    public static AffineForm of(double value) {
+        return new AffineForm(value, new int[0], new double[0], 0.0);
+    }
+
+    /**
+     * Get the maximum number of noise symbols of the results
+     * @return The maximum number of noise symbols
+     */
+    public static int getMaxSymbols() {
+        return maxSymbols;
+    }
+
+    /**
+     * Change the maximum number of noise symbols of the results
+     *
+     * @param symbols The new maximum, at least one
+     * @throws IllegalArgumentException if symbols is not positive
+     */
+    public static void setMaxSymbols(int symbols) {
+        if (symbols <= 0)
+            throw new IllegalArgumentException("The number of noise symbols must be positive");
+        maxSymbols = symbols;
+    }
+
+    /**
+     * Read the maximum number of noise symbols from a property
+     */
+    private static int parseSymbols(String value) {
+        if (value == null)
+            return DEFAULT_SYMBOLS;
+        try {
+            int n = Integer.parseInt(value.trim());
+            return (n > 0) ? n : DEFAULT_SYMBOLS;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_SYMBOLS;
+        }
+    }
+
+    /**
+     * Bound of the rounding error of a computed value, zero if the rounding
+     * policy is not verified
+     */
+    private static double error(double z) {
+        return Rounding.isVerified() ? Math.ulp(z) : 0.0;
+    }
+
+    /**
+     * Bound of the rounding error of a computed sum, which is exact if it
+     * is zero
+     */
+    private static double sumError(double z) {
+        return (z == 0) ? 0.0 : error(z);
+    }
+
+    /**
+     * Make a form from the first n noise symbols, dropping the zero ones and
+     * moving the smallest ones to the error term when there are too many.
+     * The columns are changed.
+     */
+    private static AffineForm make(double center, int[] idx, double[] coef, int n, double err) {
+        int k = 0;
+        for (int i = 0; i < n; i++)
+            if (coef[i] != 0) {
+                idx[k] = idx[i];
+                coef[k++] = coef[i];
+            }
+        int extra = k - maxSymbols;
+        if (extra > 0) {
+            // magnitude of the extra-th smallest coefficient
+            double t = Double.POSITIVE_INFINITY;
+            if (extra == 1) {
+                for (int i = 0; i < k; i++)
+                    t = Math.min(t, Math.abs(coef[i]));
+            } else {
+                double[] mag = new double[k];
+                for (int i = 0; i < k; i++)
+                    mag[i] = Math.abs(coef[i]);
+                Arrays.sort(mag);
+                t = mag[extra - 1];
+            }
+            int m = 0;
+            for (int i = 0; i < k; i++) {
+                double c = Math.abs(coef[i]);
+                if (extra > 0 && c <= t) {
+                    err = Rounding.addUp(err, c);
+                    extra--;
+                } else {
+                    idx[m] = idx[i];
+                    coef[m++] = coef[i];
+                }
+            }
+            k = m;
+        }
+        return new AffineForm(center, Arrays.copyOf(idx, k), Arrays.copyOf(coef, k), err);
+    }
+
+    /**
+     * Get the number of noise symbols
+     * @return The number of noise symbols, without the error term
+     */
+    public int size() {
+        return idx.length;
+    }
+
+    /**
+     * Get the central value
+     * @return The central value
+     */
+    public double getCenter() {
+        return center;
+    }
+
+    /**
+     * Get the error term
+     * @return The coefficient of the noise symbol that is not shared
+     */
+    public double getError() {
+        return err;
+    }
+
+    /**
+     * Get the total deviation, the sum of the magnitudes of the
+     * coefficients and the error term
+     * @return An upper bound of the distance to the central value
+     */
+    public double radius() {
+        double r = err;
+        for (double c : coef)
+            r = Rounding.addUp(r, Math.abs(c));
+        return r;
+    }
+
+    /**
+     * Get the interval of the form
+     * @return [x0 - r, x0 + r] where r is the total deviation
+     */
+    public Interval toInterval() {
+        double r = radius();
+        return new Interval(Rounding.addDown(center, -r), Rounding.addUp(center, r));
+    }
+
+    /**
+     * Sum or difference of two forms
+     */
+    private AffineForm combine(AffineForm B, double s) {
+        int n = idx.length, m = B.idx.length;
+        int[] ri = new int[n + m];
+        double[] rc = new double[n + m];
+        double c = center + s * B.center;
+        double e = Rounding.addUp(Rounding.addUp(err, B.err), sumError(c));
+        int i = 0, j = 0, k = 0;
+        while (i < n || j < m) {
+            if (j == m || (i < n && idx[i] < B.idx[j])) {
+                ri[k] = idx[i];
+                rc[k++] = coef[i++];
+            } else if (i == n || B.idx[j] < idx[i]) {
+                ri[k] = B.idx[j];
+                rc[k++] = s * B.coef[j++];
+            } else {
+                double v = coef[i] + s * B.coef[j++];
+                e = Rounding.addUp(e, sumError(v));
+                ri[k] = idx[i++];
+                rc[k++] = v;
+            }
+        }
+        return make(c, ri, rc, k, e);
+    }
+
+    /**
+     * Sum two forms
+     * @param B Form to add
+     * @return The sum
+     */
+    public AffineForm add(AffineForm B) {
+        return combine(B, 1.0);
+    }
+
+    /**
+     * Subtract two forms
+     * @param B Form to subtract
+     * @return The difference
+     */
+    public AffineForm sub(AffineForm B) {
+        return combine(B, -1.0);
+    }
+
+    /**
+     * Change the sign of the form
+     * @return The negated form
+     */
+    public AffineForm INeg() {
+        double[] rc = new double[coef.length];
+        for (int i = 0; i < rc.length; i++)
+            rc[i] = -coef[i];
+        return new AffineForm(-center, idx, rc, err);
+    }
+
+    /**
+     * Multiply two forms. The linear part is exact up to rounding and the
+     * quadratic part is bounded by the product of the total deviations, in
+     * a new noise symbol.
+     *
+     * @param B Form to multiply
+     * @return The product
+     */
+    public AffineForm mult(AffineForm B) {
+        int n = idx.length, m = B.idx.length;
+        int[] ri = new int[n + m + 1];
+        double[] rc = new double[n + m + 1];
+        double a0 = center, b0 = B.center;
+        double c = a0 * b0;
+        double e = error(c);
+        int i = 0, j = 0, k = 0;
+        while (i < n || j < m) {
+            double v;
+            if (j == m || (i < n && idx[i] < B.idx[j])) {
+                ri[k] = idx[i];
+                v = b0 * coef[i++];
+            } else if (i == n || B.idx[j] < idx[i]) {
+                ri[k] = B.idx[j];
+                v = a0 * B.coef[j++];
+            } else {
+                ri[k] = idx[i];
+                double p = b0 * coef[i++], q = a0 * B.coef[j++];
+                v = p + q;
+                e = Rounding.addUp(e, Rounding.addUp(error(p), error(q)));
+            }
+            e = Rounding.addUp(e, error(v));
+            rc[k++] = v;
+        }
+        // a0 eb + b0 ea + (x - a0)(y - b0)
+        double d = Rounding.addUp(Rounding.mulUp(Math.abs(a0), B.err), Rounding.mulUp(Math.abs(b0), err));
+        d = Rounding.addUp(d, Rounding.mulUp(radius(), B.radius()));
+        if (d > 0) {
+            ri[k] = Symbols.incrementAndGet();
+            rc[k++] = d;
+        }
+        return make(c, ri, rc, k, e);
+    }
+
+    /**
+     * Divide two forms, as this times the reciprocal of B
+     *
+     * @param B Divisor
+     * @return The quotient
+     * @throws ArithmeticException if the interval of B contains zero
+     */
+    public AffineForm div(AffineForm B) {
+        return mult(AffineFunctions.Recip(B));
+    }
+
+    /**
+     * Get the form a x + z, with a new noise symbol of coefficient d
+     *
+     * @param a Slope
+     * @param z Offset
+     * @param d Magnitude of the new noise symbol
+     * @return The linear function of this form
+     */
+    AffineForm linear(double a, double z, double d) {
+        int n = idx.length;
+        int[] ri = new int[n + 1];
+        double[] rc = new double[n + 1];
+        double p = a * center, c = p + z;
+        double e = Rounding.addUp(Rounding.mulUp(Math.abs(a), err), Rounding.addUp(error(p), error(c)));
+        for (int i = 0; i < n; i++) {
+            ri[i] = idx[i];
+            rc[i] = a * coef[i];
+            e = Rounding.addUp(e, error(rc[i]));
+        }
+        if (d > 0) {
+            ri[n] = Symbols.incrementAndGet();
+            rc[n++] = d;
+        }
+        return make(c, ri, rc, n, e);
+    }
+
+    /**
+     * Min-range approximation of a function over the interval X of this
+     * form: f(x) = a x + z + d e, where the slope a is the bound of the
+     * derivative nearest to zero, so f(x) - a x is monotone and its range
+     * comes from the endpoints of X. Functions that are not monotone over X,
+     * and approximations wider than f(X), give the form of f(X). So does an
+     * unbounded f(X) or derivative, which means X contains a pole: the
+     * endpoints of X do not bound f there, whatever the sign of df.
+     *
+     * @param f The function on intervals
+     * @param fx Value of f over X
+     * @param df Enclosure of the derivative of f over X
+     * @return The approximation
+     */
+    AffineForm approximate(UnaryOperator<Interval> f, Interval fx, Interval df) {
+        Interval X = toInterval();
+        double lo = X.getInf(), hi = X.getSup();
+        if (!(fx.width() < Double.POSITIVE_INFINITY) || !(df.width() < Double.POSITIVE_INFINITY))
+            return of(fx);
+        double a = (df.getInf() >= 0) ? df.getInf() : (df.getSup() <= 0) ? df.getSup() : 0.0;
+        if (a == 0 || lo == hi || Double.isInfinite(lo) || Double.isInfinite(hi) || !Double.isFinite(a))
+            return of(fx);
+        Interval A = new Interval(a);
+        Interval ga = f.apply(new Interval(lo)).sub(A.mult(new Interval(lo)));
+        Interval gb = f.apply(new Interval(hi)).sub(A.mult(new Interval(hi)));
+        Interval g = ga.Hull(gb);
+        double z = g.midpoint();
+        double d = Math.max(Rounding.addUp(z, -g.getInf()), Rounding.addUp(g.getSup(), -z));
+        double r = Rounding.addUp(Rounding.mulUp(Math.abs(a), radius()), d);
+        // for convex or concave functions r is the radius of f(X) up to rounding
+        if (!(r <= 0.5 * fx.width() * (1 + 0x1p-40)))
+            return of(fx);
+        return linear(a, z, d);
+    }
+
+    /**
+     * Returns the central value, the noise symbols and the error term
+     * @return String like 1.5+0.5e3+0.25e7+0.001e
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(center);
+        for (int i = 0; i < idx.length; i++) {
+            if (coef[i] >= 0)
+                s.append('+');
+            s.append(coef[i]).append('e').append(idx[i]);
+        }
+        if (err > 0)
+            s.append('+').append(err).append('e');
+        return s.toString();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * The functions of {@link InterFunctions} on {@link AffineForm}. Each one is
+ * replaced over the interval of its argument by the min-range linear
+ * approximation, with the derivatives of {@link GradientFunctions}, see
+ * {@link AffineForm#approximate(java.util.function.UnaryOperator, Interval, Interval)}.
+ * The values are computed by {@link InterFunctions}, so they throw in the
+ * same cases.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class AffineFunctions {
+
+    private static final Interval One = new Interval(1.0);
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private AffineFunctions() {
+    }
+
+    /**
+     * Apply a function of {@link GradientFunctions}
+     * @param f Code of the function
+     * @param x Argument
+     * @return The approximation of the function
+     */
+    static AffineForm Apply(int f, AffineForm x) {
+        Interval X = x.toInterval();
+        Interval fx = GradientFunctions.Value(f, X);
+        return x.approximate(u -> GradientFunctions.Value(f, u), fx, GradientFunctions.Derivative(f, X, fx));
+    }
+
+    /**
+     * Cossine
+     * @param x Angle
+     * @return The approximation of the cossine
+     */
+    public static AffineForm Cos(AffineForm x) {
+        return Apply(GradientFunctions.FCOS, x);
+    }
+
+    /**
+     * Sine
+     * @param x Angle
+     * @return The approximation of the sine
+     */
+    public static AffineForm Sin(AffineForm x) {
+        return Apply(GradientFunctions.FSIN, x);
+    }
+
+    /**
+     * Tangent
+     * @param x Angle
+     * @return The approximation of the tangent
+     */
+    public static AffineForm Tan(AffineForm x) {
+        return Apply(GradientFunctions.FTAN, x);
+    }
+
+    /**
+     * Cotangent
+     * @param x Angle
+     * @return The approximation of the cotangent
+     */
+    public static AffineForm Cot(AffineForm x) {
+        return Apply(GradientFunctions.FCOT, x);
+    }
+
+    /**
+     * Arc sine
+     * @param x Sine value in [-1,1]
+     * @return The approximation of the arc sine
+     */
+    public static AffineForm ASin(AffineForm x) {
+        return Apply(GradientFunctions.FASIN, x);
+    }
+
+    /**
+     * Arc cossine
+     * @param x Cossine value in [-1,1]
+     * @return The approximation of the arc cossine
+     */
+    public static AffineForm ACos(AffineForm x) {
+        return Apply(GradientFunctions.FACOS, x);
+    }
+
+    /**
+     * Arc tangent
+     * @param x Tangent value
+     * @return The approximation of the arc tangent
+     */
+    public static AffineForm ATan(AffineForm x) {
+        return Apply(GradientFunctions.FATAN, x);
+    }
+
+    /**
+     * Hyperbolic sine
+     * @param x Argument
+     * @return The approximation of the hyperbolic sine
+     */
+    public static AffineForm Sinh(AffineForm x) {
+        return Apply(GradientFunctions.FSINH, x);
+    }
+
+    /**
+     * Hyperbolic cossine
+     * @param x Argument
+     * @return The approximation of the hyperbolic cossine
+     */
+    public static AffineForm Cosh(AffineForm x) {
+        return Apply(GradientFunctions.FCOSH, x);
+    }
+
+    /**
+     * Hyperbolic tangent
+     * @param x Argument
+     * @return The approximation of the hyperbolic tangent
+     */
+    public static AffineForm Tanh(AffineForm x) {
+        return Apply(GradientFunctions.FTANH, x);
+    }
+
+    /**
+     * Hyperbolic cotangent
+     * @param x Argument without zero
+     * @return The approximation of the hyperbolic cotangent
+     */
+    public static AffineForm Coth(AffineForm x) {
+        return Apply(GradientFunctions.FCOTH, x);
+    }
+
+    /**
+     * Inverse hyperbolic sine
+     * @param x Argument
+     * @return The approximation of the inverse hyperbolic sine
+     */
+    public static AffineForm ASinh(AffineForm x) {
+        return Apply(GradientFunctions.FASINH, x);
+    }
+
+    /**
+     * Inverse hyperbolic cossine
+     * @param x Argument not less than 1
+     * @return The approximation of the inverse hyperbolic cossine
+     */
+    public static AffineForm ACosh(AffineForm x) {
+        return Apply(GradientFunctions.FACOSH, x);
+    }
+
+    /**
+     * Inverse hyperbolic tangent
+     * @param x Argument in (-1,1)
+     * @return The approximation of the inverse hyperbolic tangent
+     */
+    public static AffineForm ATanh(AffineForm x) {
+        return Apply(GradientFunctions.FATANH, x);
+    }
+
+    /**
+     * Absolute value
+     * @param x Argument
+     * @return The approximation of the absolute value
+     */
+    public static AffineForm IAbs(AffineForm x) {
+        return Apply(GradientFunctions.FIABS, x);
+    }
+
+    /**
+     * Square
+     * @param x Argument
+     * @return The approximation of the square
+     */
+    public static AffineForm ISqr(AffineForm x) {
+        return Apply(GradientFunctions.FISQR, x);
+    }
+
+    /**
+     * Square root
+     * @param x Argument not negative
+     * @return The approximation of the square root
+     */
+    public static AffineForm Sqrt(AffineForm x) {
+        return Apply(GradientFunctions.FSQRT, x);
+    }
+
+    /**
+     * Cube root
+     * @param x Argument
+     * @return The approximation of the cube root
+     */
+    public static AffineForm Cbrt(AffineForm x) {
+        return Apply(GradientFunctions.FCBRT, x);
+    }
+
+    /**
+     * Natural logarithm
+     * @param x Argument greater than zero
+     * @return The approximation of the natural logarithm
+     */
+    public static AffineForm Log(AffineForm x) {
+        return Apply(GradientFunctions.FLOG, x);
+    }
+
+    /**
+     * Logarithm in the base 10
+     * @param x Argument greater than zero
+     * @return The approximation of the logarithm in the base 10
+     */
+    public static AffineForm Log10(AffineForm x) {
+        return Apply(GradientFunctions.FLOG10, x);
+    }
+
+    /**
+     * Exponential
+     * @param x Exponent
+     * @return The approximation of the exponential
+     */
+    public static AffineForm Exp(AffineForm x) {
+        return Apply(GradientFunctions.FEXP, x);
+    }
+
+    /**
+     * Reciprocal, with derivative -1/x^2
+     * @param x Argument
+     * @return The approximation of 1/x
+     * @throws ArithmeticException if the interval of x contains zero
+     */
+    public static AffineForm Recip(AffineForm x) {
+        Interval X = x.toInterval();
+        if (!(X.getInf() > 0 || X.getSup() < 0))
+            throw new ArithmeticException("The interval contains zero");
+        return x.approximate(u -> One.div(u), One.div(X), One.div(InterFunctions.ISqr(X)).INeg());
+    }
+
+    /**
+     * Power by a real number, with derivative y x^(y-1)
+     * @param x Base
+     * @param y Exponent
+     * @return The approximation of the power
+     * @throws ArithmeticException in the cases of
+     * {@link InterFunctions#IPowerR(Interval, double)}
+     */
+    public static AffineForm IPowerR(AffineForm x, double y) {
+        if (y == 1)
+            return x;
+        Interval X = x.toInterval();
+        return x.approximate(u -> InterFunctions.IPowerR(u, y), InterFunctions.IPowerR(X, y), GradientFunctions.PowerRDerivative(X, y));
+    }
+
+    /**
+     * Power by an interval exponent, computed on the intervals of the forms
+     * @param x Base
+     * @param y Exponent
+     * @return The form of the power, with a new noise symbol
+     * @throws ArithmeticException in the cases of
+     * {@link InterFunctions#IPowerI(Interval, Interval)}
+     */
+    public static AffineForm IPowerI(AffineForm x, AffineForm y) {
+        return AffineForm.of(InterFunctions.IPowerI(x.toInterval(), y.toInterval()));
+    }
+}
@@ -0,0 +1,885 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Branch;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiler of an expression into JVM bytecode. Every number of the
+ * expression is a double and every interval a pair of doubles, all kept in
+ * local variables, so the JIT can keep them in registers. The operations
+ * call the same rounding and bound functions as {@link Interval}, which
+ * makes the result the same as the result of the interpreter.
+ *
+ * The code is specialized for the types of the inputs: an input is either a
+ * number or an interval. It supports numbers and intervals, the variables
+ * given as inputs, the arithmetic and comparison operators, the built-in
+ * functions of {@link GradientFunctions}, branches and calls of the
+ * function itself. Anything else, or an operation that the interpreter
+ * does not define for the types, makes the compilation fail. A division by
+ * an interval with zero, which gives a union, throws {@link Deopt} while
+ * running and the caller evaluates the expression with the interpreter.
+ *
+ * The class is loaded as a hidden class when the JVM has
+ * {@code Lookup.defineHiddenClass}, otherwise with
+ * {@code Lookup.defineClass}. The class file has version 49, which needs no
+ * stack map frames.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class BytecodeCompiler {
+
+    /**
+     * Compiled expression. The inputs are read from io, a number as one
+     * value and an interval as two, and the result is written to io[0], or
+     * io[0] and io[1] for an interval.
+     */
+    public interface Kernel {
+        void run(double[] io);
+    }
+
+    /**
+     * Thrown by a compiled expression when the result is not a number or
+     * an interval
+     */
+    static final class Deopt extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Deopt() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Thrown while compiling a node that is not supported
+     */
+    private static final class Unsupported extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Deopt DEOPT = new Deopt();
+    private static final Unsupported UNSUPPORTED = new Unsupported();
+
+    static final int NUM = Operators.NUM, INTER = Operators.INTER;
+
+    private static final String PACKAGE = "br/edu/ufop/pujian/";
+    private static final String SELF = BytecodeCompiler.class.getName().replace('.', '/');
+    private static final String KERNEL = Kernel.class.getName().replace('.', '/');
+    private static final String ROUNDING = PACKAGE + "Rounding";
+    private static final String INTERVAL = PACKAGE + "Interval";
+    private static final String DD_D = "(DD)D", DDDD_D = "(DDDD)D";
+    private static final AtomicInteger CLASSES = new AtomicInteger();
+
+    private static final Method HIDDEN;
+    private static final Object OPTIONS;
+
+    static {
+        Method m = null;
+        Object options = null;
+        try {
+            Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            options = Array.newInstance(option, 0);
+            m = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                    options.getClass());
+        } catch (ReflectiveOperationException ex) {
+            // before Java 15 the classes are defined in the package
+        }
+        HIDDEN = m;
+        OPTIONS = options;
+    }
+
+    private final Func self;
+    private final Node body;
+    private final Sym[] inputs;
+    private final int[] types;
+    private final String name = PACKAGE + "BytecodeKernel" + CLASSES.incrementAndGet();
+    private String descriptor;
+    private int result;
+
+    // state of the method being generated
+    private Map<Sym, Val> vars;
+    private Pool pool;
+    private Code code;
+
+    /**
+     * Value of a node in local variables: a number in slot, or an interval
+     * with the lower bound in slot and the upper bound in slot + 2
+     */
+    private static final class Val {
+        final int type, slot;
+
+        Val(int type, int slot) {
+            this.type = type;
+            this.slot = slot;
+        }
+
+        int inf() {
+            return slot;
+        }
+
+        int sup() {
+            return (type == INTER) ? slot + 2 : slot;
+        }
+    }
+
+    /**
+     * Class constructor
+     * @param self Function of the body, which may call itself, or null
+     * @param body Expression to compile
+     * @param inputs The arguments of the function followed by the other
+     * variables of the body
+     * @param types Type of each input, {@link #NUM} or {@link #INTER}
+     */
+    BytecodeCompiler(Func self, Node body, Sym[] inputs, int[] types) {
+        this.self = self;
+        this.body = body;
+        this.inputs = inputs;
+        this.types = types;
+    }
+
+    /**
+     * Compile the expression
+     * @return The compiled expression, or null if it is not supported
+     */
+    Kernel compile() {
+        // io comes first, the upper bound of an interval result is written
+        // to io[1]
+        int size = 1;
+        StringBuilder desc = new StringBuilder("([D");
+        for (int t : types) {
+            size += (t == INTER) ? 4 : 2;
+            desc.append((t == INTER) ? "DD" : "D");
+        }
+        // a method has at most 255 slots of parameters
+        if (size > 255)
+            return null;
+        descriptor = desc.append(")D").toString();
+        // the type of a recursive call is not known, so both are tried
+        for (int type : new int[]{NUM, INTER}) {
+            byte[] bytes;
+            try {
+                bytes = generate(type);
+            } catch (Unsupported ex) {
+                continue;
+            }
+            try {
+                return (Kernel) define(bytes).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the type of the result of the compiled expression
+     * @return {@link #NUM} or {@link #INTER}
+     */
+    int getType() {
+        return result;
+    }
+
+    private static Class<?> define(byte[] bytes) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (HIDDEN != null)
+            return ((MethodHandles.Lookup) HIDDEN.invoke(lookup, bytes, true, OPTIONS)).lookupClass();
+        return lookup.defineClass(bytes);
+    }
+
+    /**
+     * Generate the class file for a type of the result
+     */
+    private byte[] generate(int type) throws Unsupported {
+        result = type;
+        pool = new Pool();
+        vars = new HashMap<>();
+        code = new Code();
+        int slot = 1;
+        for (int i = 0; i < inputs.length; i++) {
+            vars.put(inputs[i], new Val(types[i], slot));
+            slot += (types[i] == INTER) ? 4 : 2;
+        }
+        code.locals = slot;
+        Val v = emit(body);
+        if (v.type != type)
+            throw UNSUPPORTED;
+        if (type == INTER) {
+            code.op(0x2a, 1); // aload_0
+            code.iconst(1);
+            code.dload(v.sup());
+            code.op(0x52, -4); // dastore
+        }
+        code.dload(v.inf());
+        code.op(0xaf, -2); // dreturn
+        // the offsets of the jumps have 16 bits
+        if (code.length() > 32767)
+            throw UNSUPPORTED;
+        Code function = code;
+
+        Code run = new Code();
+        run.locals = 4;
+        run.op(0x2b, 1); // aload_1
+        int io = 0;
+        for (int t : types)
+            for (int k = (t == INTER) ? 2 : 1; k > 0; k--) {
+                run.op(0x2b, 1); // aload_1
+                run.iconst(io++);
+                run.op(0x31, 0); // daload
+            }
+        run.invoke(0xb8, pool, name, "f", descriptor);
+        run.dstore(2);
+        run.op(0x2b, 1);
+        run.iconst(0);
+        run.dload(2);
+        run.op(0x52, -4); // dastore
+        run.op(0xb1, 0); // return
+
+        Code init = new Code();
+        init.locals = 1;
+        init.op(0x2a, 1); // aload_0
+        init.invoke(0xb7, pool, "java/lang/Object", "<init>", "()V");
+        init.op(0xb1, 0);
+
+        try {
+            return write(function, run, init);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private byte[] write(Code function, Code run, Code init) throws IOException {
+        int thisClass = pool.cls(name);
+        int superClass = pool.cls("java/lang/Object");
+        int kernel = pool.cls(KERNEL);
+        int codeName = pool.utf8("Code");
+        int[][] methods = {
+            {0x0001, pool.utf8("<init>"), pool.utf8("()V")},
+            {0x0001, pool.utf8("run"), pool.utf8("([D)V")},
+            {0x000a, pool.utf8("f"), pool.utf8(descriptor)}
+        };
+        Code[] codes = {init, run, function};
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xcafebabe);
+        out.writeShort(0);
+        out.writeShort(49);
+        out.writeShort(pool.count);
+        out.write(pool.bytes.toByteArray());
+        out.writeShort(0x0031); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(kernel);
+        out.writeShort(0);
+        out.writeShort(methods.length);
+        for (int i = 0; i < methods.length; i++) {
+            Code c = codes[i];
+            out.writeShort(methods[i][0]);
+            out.writeShort(methods[i][1]);
+            out.writeShort(methods[i][2]);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + c.length());
+            out.writeShort(c.maxStack);
+            out.writeShort(c.locals);
+            out.writeInt(c.length());
+            out.write(c.bytes, 0, c.length());
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    // ***** Nodes *****
+
+    private Val emit(Node node) throws Unsupported {
+        if (node instanceof Num) {
+            Val v = new Val(NUM, code.local(1));
+            code.dconst(pool, ((Num) node).val);
+            code.dstore(v.slot);
+            return v;
+        }
+        if (node instanceof Inter) {
+            Interval a = ((Inter) node).val;
+            Val v = new Val(INTER, code.local(2));
+            code.dconst(pool, a.getInf());
+            code.dstore(v.inf());
+            code.dconst(pool, a.getSup());
+            code.dstore(v.sup());
+            return v;
+        }
+        if (node instanceof Sym) {
+            Val v = vars.get(node);
+            if (v == null)
+                throw UNSUPPORTED;
+            return v;
+        }
+        if (node instanceof BinOp)
+            return binOp((BinOp) node);
+        if (node instanceof UnaryOp)
+            return unaryOp((UnaryOp) node);
+        if (node instanceof IntervalFunc)
+            return function((IntervalFunc) node);
+        if (node instanceof Branch)
+            return branch((Branch) node);
+        if (node instanceof Composite)
+            return call((Composite) node);
+        throw UNSUPPORTED;
+    }
+
+    private Val binOp(BinOp node) throws Unsupported {
+        if (node.code == null || node.code == Opcode.ASSIGN)
+            throw UNSUPPORTED;
+        Val a = emit(node.left);
+        Val b = emit(node.right);
+        if (a.type == NUM && b.type == NUM)
+            return numeric(node.code, a, b);
+        switch (node.code) {
+            case ADD:
+                return order(() -> {
+                    code.dload(a.inf());
+                    code.dload(b.inf());
+                    code.invoke(0xb8, pool, ROUNDING, "addDown", DD_D);
+                }, () -> {
+                    code.dload(a.sup());
+                    code.dload(b.sup());
+                    code.invoke(0xb8, pool, ROUNDING, "addUp", DD_D);
+                });
+            case SUB:
+                return order(() -> {
+                    code.dload(a.inf());
+                    code.dload(b.sup());
+                    code.op(0x77, 0); // dneg
+                    code.invoke(0xb8, pool, ROUNDING, "addDown", DD_D);
+                }, () -> {
+                    code.dload(a.sup());
+                    code.dload(b.inf());
+                    code.op(0x77, 0);
+                    code.invoke(0xb8, pool, ROUNDING, "addUp", DD_D);
+                });
+            case MUL:
+                return order(() -> bounds(a, b, INTERVAL, "multInf"), () -> bounds(a, b, INTERVAL, "multSup"));
+            case DIV:
+                code.dload(b.inf());
+                code.dload(b.sup());
+                code.invoke(0xb8, pool, SELF, "divisor", "(DD)V");
+                return order(() -> bounds(a, b, INTERVAL, "divInf"), () -> bounds(a, b, INTERVAL, "divSup"));
+            case HULL:
+                return order(() -> {
+                    code.dload(a.inf());
+                    code.dload(b.inf());
+                    code.invoke(0xb8, pool, SELF, "hullInf", DD_D);
+                }, () -> {
+                    code.dload(a.sup());
+                    code.dload(b.sup());
+                    code.invoke(0xb8, pool, SELF, "hullSup", DD_D);
+                });
+            case POW:
+                if (b.type == NUM) {
+                    code.dload(a.inf());
+                    code.dload(a.sup());
+                    code.dload(b.slot);
+                    code.invoke(0xb8, pool, SELF, "powR", "(DDD)L" + INTERVAL + ";");
+                } else {
+                    code.dload(a.inf());
+                    code.dload(a.sup());
+                    code.dload(b.inf());
+                    code.dload(b.sup());
+                    code.invoke(0xb8, pool, SELF, "powI", "(DDDD)L" + INTERVAL + ";");
+                }
+                return unpack();
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    /**
+     * Operation on two numbers, see {@link Operators}
+     */
+    private Val numeric(Opcode op, Val a, Val b) throws Unsupported {
+        if (op == Opcode.COMMA)
+            return order(() -> code.dload(a.slot), () -> code.dload(b.slot));
+        code.dload(a.slot);
+        code.dload(b.slot);
+        switch (op) {
+            case ADD:
+                code.op(0x63, -2);
+                break;
+            case SUB:
+                code.op(0x67, -2);
+                break;
+            case MUL:
+                code.op(0x6b, -2);
+                break;
+            case DIV:
+                code.op(0x6f, -2);
+                break;
+            case MOD:
+                code.op(0x73, -2);
+                break;
+            case POW:
+                code.invoke(0xb8, pool, "java/lang/Math", "pow", DD_D);
+                break;
+            case EQ:
+            case NE:
+            case LE:
+            case LT:
+            case GE:
+            case GT:
+                code.invoke(0xb8, pool, SELF, op.name().toLowerCase(), DD_D);
+                break;
+            default:
+                throw UNSUPPORTED;
+        }
+        Val v = new Val(NUM, code.local(1));
+        code.dstore(v.slot);
+        return v;
+    }
+
+    private Val unaryOp(UnaryOp node) throws Unsupported {
+        if (node.code == null)
+            throw UNSUPPORTED;
+        Val a = emit(node.operand);
+        switch (node.code) {
+            case ADD:
+                return a;
+            case SUB:
+                if (a.type == INTER)
+                    return order(() -> {
+                        code.dload(a.sup());
+                        code.op(0x77, 0);
+                    }, () -> {
+                        code.dload(a.inf());
+                        code.op(0x77, 0);
+                    });
+                code.dload(a.slot);
+                code.op(0x77, 0);
+                break;
+            case INC:
+            case DEC:
+                if (a.type == INTER)
+                    throw UNSUPPORTED;
+                code.dload(a.slot);
+                code.op(0x0f, 2); // dconst_1
+                code.op((node.code == Opcode.INC) ? 0x63 : 0x67, -2);
+                break;
+            default:
+                throw UNSUPPORTED;
+        }
+        Val v = new Val(NUM, code.local(1));
+        code.dstore(v.slot);
+        return v;
+    }
+
+    private Val function(IntervalFunc node) throws Unsupported {
+        int f = GradientFunctions.Code(node.head);
+        if (f < 0)
+            throw UNSUPPORTED;
+        Val a = emit(node.arg);
+        // the interpreter does not take a number
+        if (a.type != INTER)
+            throw UNSUPPORTED;
+        code.iconst(f);
+        code.dload(a.inf());
+        code.dload(a.sup());
+        code.invoke(0xb8, pool, SELF, "value", "(IDD)L" + INTERVAL + ";");
+        return unpack();
+    }
+
+    private Val branch(Branch node) throws Unsupported {
+        Val head = emit(node.head);
+        // an interval is always true
+        if (head.type == INTER)
+            return emit(node.body);
+        code.dload(head.slot);
+        code.op(0x0e, 2); // dconst_0
+        code.op(0x97, -3); // dcmpl
+        int otherwise = code.jump(0x99, -1); // ifeq
+        Val a = emit(node.body);
+        Val v = new Val(a.type, code.local(a.type == INTER ? 2 : 1));
+        copy(a, v);
+        int end = code.jump(0xa7, 0); // goto
+        code.patch(otherwise);
+        Val b = emit(node.tail);
+        if (b.type != a.type)
+            throw UNSUPPORTED;
+        copy(b, v);
+        code.patch(end);
+        return v;
+    }
+
+    /**
+     * Call of the function being compiled, with arguments of the same types
+     */
+    private Val call(Composite node) throws Unsupported {
+        if (self == null || node.head != self.head || node.bracketType == '{'
+                || node.args.length != self.args.length)
+            throw UNSUPPORTED;
+        for (Node arg : self.args)
+            if (arg == node.head)
+                throw UNSUPPORTED;
+        Val[] args = new Val[node.args.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = emit(node.args[i]);
+            if (args[i].type != types[i])
+                throw UNSUPPORTED;
+        }
+        code.op(0x2a, 1); // aload_0
+        for (int i = 0; i < inputs.length; i++) {
+            Val a = (i < args.length) ? args[i] : vars.get(inputs[i]);
+            code.dload(a.inf());
+            if (a.type == INTER)
+                code.dload(a.sup());
+        }
+        code.invoke(0xb8, pool, name, "f", descriptor);
+        Val v = new Val(result, code.local(result == INTER ? 2 : 1));
+        code.dstore(v.inf());
+        if (result == INTER) {
+            code.op(0x2a, 1); // aload_0
+            code.iconst(1);
+            code.op(0x31, 0); // daload
+            code.dstore(v.sup());
+        }
+        return v;
+    }
+
+    private void copy(Val from, Val to) {
+        code.dload(from.inf());
+        code.dstore(to.inf());
+        if (to.type == INTER) {
+            code.dload(from.sup());
+            code.dstore(to.sup());
+        }
+    }
+
+    /**
+     * Emit a call with the bounds of two intervals
+     */
+    private void bounds(Val a, Val b, String owner, String method) {
+        code.dload(a.inf());
+        code.dload(a.sup());
+        code.dload(b.inf());
+        code.dload(b.sup());
+        code.invoke(0xb8, pool, owner, method, DDDD_D);
+    }
+
+    /**
+     * Store the bounds of the Interval on the stack
+     */
+    private Val unpack() {
+        Val v = new Val(INTER, code.local(2));
+        code.op(0x59, 1); // dup
+        code.invoke(0xb6, pool, INTERVAL, "getInf", "()D");
+        code.dstore(v.inf());
+        code.invoke(0xb6, pool, INTERVAL, "getSup", "()D");
+        code.dstore(v.sup());
+        return v;
+    }
+
+    /**
+     * Make an interval from two bounds as {@link Interval#Interval(double,
+     * double)} does, which swaps them if they are not in order
+     */
+    private Val order(Runnable inf, Runnable sup) {
+        int x = code.local(1), y = code.local(1);
+        inf.run();
+        code.dstore(x);
+        sup.run();
+        code.dstore(y);
+        Val v = new Val(INTER, code.local(2));
+        code.dload(x);
+        code.dload(y);
+        code.invoke(0xb8, pool, SELF, "lo", DD_D);
+        code.dstore(v.inf());
+        code.dload(x);
+        code.dload(y);
+        code.invoke(0xb8, pool, SELF, "hi", DD_D);
+        code.dstore(v.sup());
+        return v;
+    }
+
+    // ***** Functions called by the compiled code *****
+
+    static double lo(double x, double y) {
+        return (x < y) ? x : y;
+    }
+
+    static double hi(double x, double y) {
+        return (x < y) ? y : x;
+    }
+
+    static double hullInf(double a, double b) {
+        return (b < a) ? b : a;
+    }
+
+    static double hullSup(double a, double b) {
+        return (b > a) ? b : a;
+    }
+
+    static void divisor(double inf, double sup) {
+        if (!(inf > 0 || sup < 0))
+            throw DEOPT;
+    }
+
+    static Interval value(int f, double inf, double sup) {
+        return GradientFunctions.Value(f, Interval.bounds(inf, sup));
+    }
+
+    static Interval powR(double inf, double sup, double y) {
+        return InterFunctions.IPowerR(Interval.bounds(inf, sup), y);
+    }
+
+    static Interval powI(double inf, double sup, double yinf, double ysup) {
+        return InterFunctions.IPowerI(Interval.bounds(inf, sup), Interval.bounds(yinf, ysup));
+    }
+
+    static double eq(double a, double b) {
+        return (a == b) ? 1 : 0;
+    }
+
+    static double ne(double a, double b) {
+        return (a != b) ? 1 : 0;
+    }
+
+    static double le(double a, double b) {
+        return (a <= b) ? 1 : 0;
+    }
+
+    static double lt(double a, double b) {
+        return (a < b) ? 1 : 0;
+    }
+
+    static double ge(double a, double b) {
+        return (a >= b) ? 1 : 0;
+    }
+
+    static double gt(double a, double b) {
+        return (a > b) ? 1 : 0;
+    }
+
+    // ***** Class file *****
+
+    /**
+     * Constant pool of the class file
+     */
+    private static final class Pool {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final Map<String, Integer> entries = new HashMap<>();
+        int count = 1;
+
+        private int entry(String key, int size, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            try {
+                writer.write();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            entries.put(key, count);
+            count += size;
+            return count - size;
+        }
+
+        int utf8(String s) {
+            return entry("U" + s, 1, () -> {
+                out.writeByte(1);
+                out.writeUTF(s);
+            });
+        }
+
+        int cls(String name) {
+            int n = utf8(name);
+            return entry("C" + name, 1, () -> {
+                out.writeByte(7);
+                out.writeShort(n);
+            });
+        }
+
+        int dbl(double v) {
+            return entry("D" + Double.doubleToRawLongBits(v), 2, () -> {
+                out.writeByte(6);
+                out.writeLong(Double.doubleToRawLongBits(v));
+            });
+        }
+
+        int member(int tag, String owner, String name, String desc) {
+            int c = cls(owner), n = utf8(name), d = utf8(desc);
+            int nat = entry("N" + name + " " + desc, 1, () -> {
+                out.writeByte(12);
+                out.writeShort(n);
+                out.writeShort(d);
+            });
+            return entry(tag + owner + "." + name + desc, 1, () -> {
+                out.writeByte(tag);
+                out.writeShort(c);
+                out.writeShort(nat);
+            });
+        }
+
+        @FunctionalInterface
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+
+    /**
+     * Code of a method, with the depth of the stack and the number of
+     * local variables
+     */
+    private static final class Code {
+        byte[] bytes = new byte[256];
+        int size, stack, maxStack, locals;
+
+        int length() {
+            return size;
+        }
+
+        int local(int doubles) {
+            int slot = locals;
+            locals += 2 * doubles;
+            return slot;
+        }
+
+        void u1(int b) {
+            if (size == bytes.length)
+                bytes = java.util.Arrays.copyOf(bytes, 2 * size);
+            bytes[size++] = (byte) b;
+        }
+
+        void u2(int v) {
+            u1(v >> 8);
+            u1(v);
+        }
+
+        void op(int opcode, int delta) {
+            u1(opcode);
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        void op(int opcode, int delta, int index) {
+            op(opcode, delta);
+            u2(index);
+        }
+
+        void iconst(int v) {
+            if (v <= 5)
+                op(0x03 + v, 1); // iconst_<v>
+            else if (v <= 127) {
+                op(0x10, 1); // bipush
+                u1(v);
+            } else
+                op(0x11, 1, v); // sipush
+        }
+
+        void dconst(Pool pool, double v) {
+            if (Double.doubleToRawLongBits(v) == 0L)
+                op(0x0e, 2);
+            else if (v == 1.0)
+                op(0x0f, 2);
+            else
+                op(0x14, 2, pool.dbl(v)); // ldc2_w
+        }
+
+        void dload(int slot) {
+            local(0x18, slot, 2);
+        }
+
+        void dstore(int slot) {
+            local(0x39, slot, -2);
+        }
+
+        private void local(int opcode, int slot, int delta) {
+            if (slot < 256) {
+                op(opcode, delta);
+                u1(slot);
+            } else {
+                op(0xc4, 0); // wide
+                op(opcode, delta, slot);
+            }
+        }
+
+        void invoke(int opcode, Pool pool, String owner, String name, String desc) {
+            int index = (opcode == 0xb9) ? pool.member(11, owner, name, desc) : pool.member(10, owner, name, desc);
+            int delta = (opcode == 0xb8) ? 0 : -1;
+            int i = 1;
+            while (desc.charAt(i) != ')') {
+                char c = desc.charAt(i++);
+                if (c == 'D' || c == 'J')
+                    delta -= 2;
+                else if (c == 'L') {
+                    i = desc.indexOf(';', i) + 1;
+                    delta--;
+                } else if (c == '[') {
+                    while (desc.charAt(i) == '[')
+                        i++;
+                    if (desc.charAt(i++) == 'L')
+                        i = desc.indexOf(';', i) + 1;
+                    delta--;
+                } else
+                    delta--;
+            }
+            char r = desc.charAt(i + 1);
+            delta += (r == 'V') ? 0 : (r == 'D' || r == 'J') ? 2 : 1;
+            op(opcode, delta, index);
+        }
+
+        /**
+         * Emit a jump and get the position of its offset
+         */
+        int jump(int opcode, int delta) {
+            op(opcode, delta);
+            u2(0);
+            return size - 2;
+        }
+
+        /**
+         * Make the jump at the position go to the end of the code
+         */
+        void patch(int position) {
+            int offset = size - (position - 1);
+            bytes[position] = (byte) (offset >> 8);
+            bytes[position + 1] = (byte) offset;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Branch;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bytecode tier of a function defined by fun, or of an expression compiled
+ * by {@link Engine#compile(Node)}. After it is called more times than the
+ * threshold, the body is compiled by {@link BytecodeCompiler} for the types
+ * of its inputs, numbers or intervals, and the next calls with the same
+ * types run the bytecode. The inputs are the arguments and the other
+ * variables of the body, which are read from the context on each call.
+ *
+ * The tier is used only when the result is the same as the interpreter's:
+ * there is no function cache and the precision threshold of the engine is
+ * infinite. A body that cannot be compiled, or that gives a union, is left
+ * to the interpreter for those types.
+ *
+ * The threshold is read from the system property
+ * {@code pujian.bytecode.threshold} and can be changed with
+ * {@link #setThreshold(int)}. Like {@link Rounding} it is global.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class BytecodeTier {
+
+    /**
+     * Default number of calls before the body is compiled
+     */
+    private static final int DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * Maximum number of inputs, each combination of types may have its own
+     * code
+     */
+    private static final int MAX_INPUTS = 10;
+
+    /**
+     * Number of calls before the body is compiled
+     */
+    private static int threshold = parseThreshold(System.getProperty("pujian.bytecode.threshold"));
+
+    /**
+     * Mark of the types whose compilation failed
+     */
+    private static final Object FAILED = new Object();
+
+    private final Engine engine;
+    private final Func self;
+    private final Node body;
+    private final Sym[] inputs;
+    private final int params;
+    private final Object[] kernels;
+    private final int[] results;
+    private final double[] io;
+    private int calls;
+
+    /**
+     * Class constructor
+     * @param engine Engine of the body
+     * @param self Function of the body, or null for an expression
+     * @param body Body to compile
+     * @param args Arguments of the function
+     */
+    BytecodeTier(Engine engine, Func self, Node body, Node[] args) {
+        this.engine = engine;
+        this.self = self;
+        this.body = body;
+        List<Sym> syms = new ArrayList<>();
+        boolean valid = true;
+        for (Node arg : args) {
+            valid &= (arg instanceof Sym) && !syms.contains(arg);
+            if (arg instanceof Sym)
+                syms.add((Sym) arg);
+        }
+        variables(body, syms);
+        valid &= syms.size() <= MAX_INPUTS;
+        this.inputs = syms.toArray(new Sym[0]);
+        this.params = args.length;
+        this.kernels = valid ? new Object[1 << inputs.length] : null;
+        this.results = valid ? new int[1 << inputs.length] : null;
+        this.io = new double[Math.max(2, 2 * inputs.length)];
+    }
+
+    /**
+     * Get the number of calls before a body is compiled
+     * @return The threshold
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Change the number of calls before a body is compiled
+     *
+     * @param calls The new threshold, zero compiles on the first call
+     * @throws IllegalArgumentException if calls is negative
+     */
+    public static void setThreshold(int calls) {
+        if (calls < 0)
+            throw new IllegalArgumentException("The threshold must not be negative");
+        threshold = calls;
+    }
+
+    /**
+     * Read the threshold from a property
+     */
+    private static int parseThreshold(String value) {
+        if (value == null)
+            return DEFAULT_THRESHOLD;
+        try {
+            int n = Integer.parseInt(value.trim());
+            return (n >= 0) ? n : DEFAULT_THRESHOLD;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_THRESHOLD;
+        }
+    }
+
+    /**
+     * Add the variables of an expression that are not in the list yet
+     */
+    private static void variables(Node node, List<Sym> syms) {
+        if (node instanceof Sym) {
+            if (!syms.contains(node))
+                syms.add((Sym) node);
+        } else if (node instanceof BinOp) {
+            variables(((BinOp) node).left, syms);
+            variables(((BinOp) node).right, syms);
+        } else if (node instanceof UnaryOp)
+            variables(((UnaryOp) node).operand, syms);
+        else if (node instanceof IntervalFunc)
+            variables(((IntervalFunc) node).arg, syms);
+        else if (node instanceof Branch) {
+            variables(((Branch) node).head, syms);
+            variables(((Branch) node).body, syms);
+            variables(((Branch) node).tail, syms);
+        } else if (node instanceof Composite)
+            for (Node arg : ((Composite) node).args)
+                variables(arg, syms);
+    }
+
+    /**
+     * Run the compiled body if the function was called enough times
+     * @param args Values of the arguments
+     * @return The result of the body, or null if the interpreter must
+     * evaluate it
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    Node call(Node[] args) {
+        if (kernels == null)
+            return null;
+        if (calls < threshold) {
+            calls++;
+            return null;
+        }
+        if (engine.functionCache != null || engine.precisionThreshold < Double.POSITIVE_INFINITY)
+            return null;
+        int mask = 0, n = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            Node v = (i < params) ? args[i] : engine.context.get(inputs[i]);
+            if (v instanceof Num)
+                io[n++] = ((Num) v).val;
+            else if (v instanceof Inter) {
+                mask |= 1 << i;
+                io[n++] = ((Inter) v).val.getInf();
+                io[n++] = ((Inter) v).val.getSup();
+            } else
+                return null;
+        }
+        Object kernel = kernels[mask];
+        if (kernel == null) {
+            kernel = compile(mask);
+            kernels[mask] = kernel;
+        }
+        if (kernel == FAILED)
+            return null;
+        try {
+            ((BytecodeCompiler.Kernel) kernel).run(io);
+        } catch (BytecodeCompiler.Deopt ex) {
+            kernels[mask] = FAILED;
+            return null;
+        }
+        if (results[mask] == BytecodeCompiler.INTER)
+            return engine.new Inter(Interval.bounds(io[0], io[1]));
+        return engine.new Num(io[0]);
+    }
+
+    private Object compile(int mask) {
+        int[] types = new int[inputs.length];
+        for (int i = 0; i < types.length; i++)
+            types[i] = ((mask >> i) & 1) != 0 ? BytecodeCompiler.INTER : BytecodeCompiler.NUM;
+        BytecodeCompiler compiler = new BytecodeCompiler(self, body, inputs, types);
+        BytecodeCompiler.Kernel kernel = compiler.compile();
+        if (kernel == null)
+            return FAILED;
+        results[mask] = compiler.getType();
+        return kernel;
+    }
+}
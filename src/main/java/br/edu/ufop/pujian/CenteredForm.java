@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Mean value form of an expression recorded on an {@link AdjointTape}. For
+ * a box X with midpoint m the centered enclosure is
+ * f(m) + f'(X)(X - m), where f'(X) is the interval gradient over X. It is
+ * not affected by the dependency problem of the naive evaluation, so
+ * x - x gives [0,0], and its overestimation decreases quadratically with
+ * the width of X, while the naive one decreases linearly.
+ *
+ * Both enclosures are computed and the result is their intersection, so it
+ * is never wider than the naive evaluation. The tape and the columns are
+ * reused, so a box can be evaluated many times.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class CenteredForm {
+
+    private final AdjointTape tape;
+    private final double[] minf, msup, ginf, gsup;
+    private double ninf, nsup, cinf, csup;
+
+    /**
+     * Class constructor
+     * @param tape Tape of the expression
+     */
+    public CenteredForm(AdjointTape tape) {
+        this.tape = tape;
+        int n = tape.variables();
+        minf = new double[n];
+        msup = new double[n];
+        ginf = new double[n];
+        gsup = new double[n];
+    }
+
+    /**
+     * Evaluate the expression on a box
+     *
+     * @param xinf Lower bounds of the variables
+     * @param xsup Upper bounds of the variables
+     * @return The intersection of the naive and the centered enclosures
+     * @throws ArithmeticException if the naive evaluation is not defined on
+     * the box
+     */
+    public Interval evaluate(double[] xinf, double[] xsup) {
+        centered(xinf, xsup);
+        // both enclose f(X), so they can only be disjoint by a rounding bug
+        double inf = Math.max(ninf, cinf), sup = Math.min(nsup, csup);
+        if (inf > sup)
+            return new Interval(ninf, nsup);
+        return new Interval(inf, sup);
+    }
+
+    /**
+     * Compute the naive and the centered enclosures
+     */
+    private void centered(double[] xinf, double[] xsup) {
+        int n = minf.length;
+        boolean bounded = true;
+        for (int i = 0; i < n; i++) {
+            if (Double.isInfinite(xinf[i]) || Double.isInfinite(xsup[i]))
+                bounded = false;
+            minf[i] = msup[i] = Math.min(Math.max(0.5 * xinf[i] + 0.5 * xsup[i], xinf[i]), xsup[i]);
+        }
+        cinf = Double.NEGATIVE_INFINITY;
+        csup = Double.POSITIVE_INFINITY;
+        double fi = 0.0, fs = 0.0;
+        if (bounded) {
+            try {
+                tape.forward(minf, msup);
+                fi = tape.getInf();
+                fs = tape.getSup();
+            } catch (ArithmeticException e) {
+                // f is not defined at the midpoint, only the naive form is left
+                bounded = false;
+            }
+        }
+        tape.forward(xinf, xsup);
+        ninf = tape.getInf();
+        nsup = tape.getSup();
+        if (!bounded)
+            return;
+        tape.backward();
+        tape.gradient(ginf, gsup);
+        for (int i = 0; i < n; i++) {
+            double m = minf[i];
+            double di = Rounding.addDown(xinf[i], -m), ds = Rounding.addUp(xsup[i], -m);
+            fi = Rounding.addDown(fi, GradientInterval.mulInf(ginf[i], gsup[i], di, ds));
+            fs = Rounding.addUp(fs, GradientInterval.mulSup(ginf[i], gsup[i], di, ds));
+        }
+        if (!Double.isNaN(fi) && !Double.isNaN(fs)) {
+            cinf = fi;
+            csup = fs;
+        }
+    }
+
+    /**
+     * Get the naive enclosure of the last evaluation
+     * @return The value of the tape on the box
+     */
+    public Interval getNaive() {
+        return new Interval(ninf, nsup);
+    }
+
+    /**
+     * Get the centered enclosure of the last evaluation
+     * @return f(m) + f'(X)(X - m), unbounded if the box is unbounded or f
+     * is not defined at the midpoint
+     */
+    public Interval getCentered() {
+        return new Interval(cinf, csup);
+    }
+
+    /**
+     * Tell if the centered form was used by the last evaluation
+     * @return true if the centered enclosure improved a bound of the naive
+     * one
+     */
+    public boolean isCentered() {
+        return cinf > ninf || csup < nsup;
+    }
+}
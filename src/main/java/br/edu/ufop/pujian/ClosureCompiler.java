@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.Affine;
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Branch;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Context;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import br.edu.ufop.pujian.Engine.Union;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Compiler of a tree of {@link Engine.Node} into a tree of closures. The
+ * work that {@link Engine.Node#eval()} repeats on every run is done once:
+ * the operator of each node is chosen, the function of an
+ * {@link Engine.IntervalFunc} is resolved to its code, and operations on two
+ * numbers are computed without the virtual calls of the operator table. The
+ * body of a function is compiled on its first call and kept in the
+ * {@link Engine.Func}.
+ *
+ * The result of a closure is the same as the result of the node. A variable
+ * of the frame of a function, see {@link FrameLayout}, is read from its slot;
+ * the other variables are looked up in the context of the engine when the
+ * closure runs, so a program can assign them and define functions between
+ * runs. Nodes that are not compiled are evaluated by the interpreter.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class ClosureCompiler {
+
+    /**
+     * Compiled node
+     */
+    @FunctionalInterface
+    interface Code {
+        Node run() throws SemanticError;
+    }
+
+    private final Engine engine;
+    private final FrameLayout layout;
+
+    /**
+     * Class constructor
+     * @param engine Engine of the nodes
+     */
+    ClosureCompiler(Engine engine) {
+        this(engine, null);
+    }
+
+    /**
+     * Compiler of the body of a function
+     * @param engine Engine of the nodes
+     * @param layout Layout of the frames of the function, or null
+     */
+    ClosureCompiler(Engine engine, FrameLayout layout) {
+        this.engine = engine;
+        this.layout = layout;
+    }
+
+    /**
+     * Compile a node and its children
+     * @param node Root of the tree
+     * @return The closure that evaluates the node
+     */
+    Code compile(Node node) {
+        if (node instanceof BinOp)
+            return binOp((BinOp) node);
+        if (node instanceof UnaryOp)
+            return unaryOp((UnaryOp) node);
+        if (node instanceof Sym)
+            return sym((Sym) node);
+        if (node instanceof IntervalFunc)
+            return function((IntervalFunc) node);
+        if (node instanceof Composite)
+            return call((Composite) node);
+        if (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            Code head = compile(branch.head), body = compile(branch.body), tail = compile(branch.tail);
+            return () -> head.run().isTrue() ? body.run() : tail.run();
+        }
+        if (node instanceof Num || node instanceof Inter || node instanceof Union || node instanceof Affine)
+            return () -> node;
+        return node::eval;
+    }
+
+    /**
+     * Get the slot of a variable in the frame of the function
+     * @return The slot, or -1 if the variable is not in the frame
+     */
+    private int slot(Node node) {
+        return (layout != null && node instanceof Sym) ? layout.slot((Sym) node) : -1;
+    }
+
+    /**
+     * Compile a variable. A variable of the frame is read from its slot, or
+     * from the caller until the function assigns it.
+     */
+    private Code sym(Sym sym) {
+        int k = slot(sym);
+        if (k < 0)
+            return () -> {
+                Node val = engine.context.get(sym);
+                if (val == null)
+                    throw new SemanticError(String.format("Undefined variable '%s'", sym));
+                return val;
+            };
+        FrameLayout frames = layout;
+        return () -> {
+            Context c = engine.context;
+            Node val = (c.layout == frames) ? c.get(k, sym) : c.get(sym);
+            if (val == null)
+                throw new SemanticError(String.format("Undefined variable '%s'", sym));
+            return val;
+        };
+    }
+
+    private Code unaryOp(UnaryOp node) {
+        Code operand = compile(node.operand);
+        Opcode code = node.code;
+        if (code == null)
+            return () -> operand.run().doUnaryOp(node.op);
+        if (code == Opcode.SUB)
+            return () -> {
+                Node v = operand.run();
+                if (v instanceof Num)
+                    return engine.new Num(-((Num) v).val);
+                return v.doUnaryOp(code);
+            };
+        return () -> operand.run().doUnaryOp(code);
+    }
+
+    /**
+     * Compile a binary operation. An operation on two numbers gives a
+     * number, which {@link Engine#refine(Node, Node)} does not change, so it
+     * is computed here; the value refined in a former run is cleared as
+     * refine would, or the parent would take it.
+     */
+    private Code binOp(BinOp node) {
+        Opcode code = node.code;
+        Code right = compile(node.right);
+        if (code == Opcode.ASSIGN) {
+            Node target = node.left;
+            int k = slot(target);
+            if (k < 0)
+                return () -> engine.refine(node, target.doBinOp(code, right.run()));
+            FrameLayout frames = layout;
+            return () -> {
+                Node v = right.run();
+                Context c = engine.context;
+                return engine.refine(node, (c.layout == frames) ? c.set(k, v) : c.set((Sym) target, v));
+            };
+        }
+        Code left = compile(node.left);
+        if (code == null)
+            return () -> engine.refine(node, left.run().doBinOp(node.op, right.run()));
+        switch (code) {
+            case ADD:
+                return binOp(node, code, left, right, (a, b) -> a + b);
+            case SUB:
+                return binOp(node, code, left, right, (a, b) -> a - b);
+            case MUL:
+                return binOp(node, code, left, right, (a, b) -> a * b);
+            case DIV:
+                return binOp(node, code, left, right, (a, b) -> a / b);
+            case LT:
+                return binOp(node, code, left, right, (a, b) -> a < b ? 1 : 0);
+            case LE:
+                return binOp(node, code, left, right, (a, b) -> a <= b ? 1 : 0);
+            case GT:
+                return binOp(node, code, left, right, (a, b) -> a > b ? 1 : 0);
+            case GE:
+                return binOp(node, code, left, right, (a, b) -> a >= b ? 1 : 0);
+            case EQ:
+                return binOp(node, code, left, right, (a, b) -> a == b ? 1 : 0);
+            case NE:
+                return binOp(node, code, left, right, (a, b) -> a != b ? 1 : 0);
+            default:
+                return () -> engine.refine(node, left.run().doBinOp(code, right.run()));
+        }
+    }
+
+    /**
+     * Compile an operation with the operation op on two numbers
+     */
+    private Code binOp(BinOp node, Opcode code, Code left, Code right, DoubleBinaryOperator op) {
+        return () -> {
+            Node a = left.run(), b = right.run();
+            if (a instanceof Num && b instanceof Num) {
+                node.refined = null;
+                return engine.new Num(op.applyAsDouble(((Num) a).val, ((Num) b).val));
+            }
+            return engine.refine(node, a.doBinOp(code, b));
+        };
+    }
+
+    /**
+     * Compile a built-in function. An interval argument without a function
+     * cache is computed directly from the resolved code.
+     */
+    private Code function(IntervalFunc node) {
+        Code arg = compile(node.arg);
+        int f = GradientFunctions.Code(node.head);
+        if (f < 0)
+            return () -> node.eval(arg.run());
+        return () -> {
+            Node v = arg.run();
+            if (v instanceof Inter && engine.functionCache == null)
+                return engine.refine(node, engine.new Inter(GradientFunctions.Value(f, ((Inter) v).val)));
+            return node.eval(v);
+        };
+    }
+
+    /**
+     * Compile a call of a function defined by fun. The function is looked
+     * up on every call, as it may be defined again, and its body is compiled
+     * once with the layout of its frames.
+     */
+    private Code call(Composite node) {
+        if (node.bracketType == '{')
+            return node::eval;
+        Sym head = node.head;
+        Code[] args = new Code[node.args.length];
+        for (int i = 0; i < args.length; i++)
+            args[i] = compile(node.args[i]);
+        return () -> {
+            Node def = engine.context.get(head);
+            if (!(def instanceof Func))
+                return node.eval();
+            Func func = (Func) def;
+            if (func.args.length != args.length)
+                throw new SemanticError("Argument mismatch.");
+            Node[] values = new Node[args.length];
+            for (int i = 0; i < args.length; i++)
+                values[i] = args[i].run();
+            Node result = func.tier().call(values);
+            if (result != null)
+                return result;
+            FrameLayout frames = func.layout();
+            Context frame = frames.acquire(engine, engine.context);
+            for (int i = 0; i < args.length; i++)
+                frame.set((Sym) func.args[i], values[i]);
+            Code body = func.compiled;
+            if (body == null) {
+                body = new ClosureCompiler(engine, frames).compile(func.body);
+                func.compiled = body;
+            }
+            engine.context = frame;
+            try {
+                return body.run();
+            } finally {
+                engine.pop();
+                frames.release(frame);
+            }
+        };
+    }
+}
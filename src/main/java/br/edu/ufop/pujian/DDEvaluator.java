@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+
+/**
+ * Evaluates an expression tree of an {@link Engine} again with
+ * {@link DDInterval}. It is used by the adaptive precision mode of the engine.
+ *
+ * Only expressions without side effects are evaluated: numbers, intervals,
+ * variables, unary and binary operators and interval functions. Assignments,
+ * sequences, branches and function calls are refused, so the context of the
+ * engine is never changed. Operations on two numbers are done by the engine
+ * itself, so they give the same values as the normal evaluation. A node
+ * already refined by the engine gives its stored value, so refining every
+ * node of a tree computes each node once.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class DDEvaluator {
+
+    /**
+     * Value of a node: a number or an interval
+     */
+    private static final class Value {
+        final double num;
+        final DDInterval dd;
+
+        Value(double num) {
+            this.num = num;
+            this.dd = null;
+        }
+
+        Value(DDInterval dd) {
+            this.num = 0;
+            this.dd = dd;
+        }
+
+        DDInterval interval() {
+            return (dd != null) ? dd : new DDInterval(num, num);
+        }
+    }
+
+    private final Engine engine;
+
+    /**
+     * Class constructor
+     * @param engine Engine with the context of the variables
+     */
+    DDEvaluator(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Evaluate an expression in double-double
+     * @param node Root of the expression
+     * @return The interval result or null if the expression cannot be
+     * evaluated without side effects or its result is not an interval
+     * @throws SemanticError if an operation on numbers fails
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    DDInterval eval(Node node) throws SemanticError {
+        Value v = value(node);
+        return (v == null) ? null : v.dd;
+    }
+
+    private Value value(Node node) throws SemanticError {
+        if (node instanceof Num)
+            return new Value(((Num) node).val);
+        if (node instanceof Inter)
+            return new Value(new DDInterval(((Inter) node).val));
+        if (node instanceof Sym) {
+            Node val = engine.context.get((Sym) node);
+            return (val instanceof Num || val instanceof Inter) ? value(val) : null;
+        }
+        if (node instanceof UnaryOp)
+            return unary((UnaryOp) node);
+        // a child refined by its own evaluation
+        if (node.refined != null)
+            return new Value(node.refined);
+        if (node instanceof BinOp)
+            return binary((BinOp) node);
+        if (node instanceof IntervalFunc)
+            return function((IntervalFunc) node);
+        return null;
+    }
+
+    private Value unary(UnaryOp node) throws SemanticError {
+        Value a = value(node.operand);
+        if (a == null)
+            return null;
+        if (a.dd == null)
+            return number(engine.new Num(a.num).doUnaryOp(node.op));
+        switch (node.op) {
+            case "+":
+                return a;
+            case "-":
+                return new Value(a.dd.INeg());
+            default:
+                return null;
+        }
+    }
+
+    private Value binary(BinOp node) throws SemanticError {
+        if ("=".equals(node.op) || ";".equals(node.op))
+            return null;
+        Value a = value(node.left);
+        if (a == null)
+            return null;
+        Value b = value(node.right);
+        if (b == null)
+            return null;
+        if (a.dd == null && b.dd == null)
+            return number(engine.new Num(a.num).doBinOp(node.op, engine.new Num(b.num)));
+        DDInterval x = a.interval();
+        switch (node.op) {
+            case "+":
+                return new Value(x.add(b.interval()));
+            case "-":
+                return new Value(x.sub(b.interval()));
+            case "*":
+                return new Value(x.mult(b.interval()));
+            case "/":
+                return new Value(x.div(b.interval()));
+            case "&":
+                return new Value(x.Hull(b.interval()));
+            case "^":
+                if (b.dd == null) {
+                    // other real exponents are left to the double evaluation
+                    if (b.num != Math.rint(b.num) || Math.abs(b.num) > Integer.MAX_VALUE)
+                        return null;
+                    return new Value(DDInterval.IPowerN(x, (int) b.num));
+                }
+                return new Value(DDInterval.IPowerI(x, b.dd));
+            default:
+                return null;
+        }
+    }
+
+    private Value function(IntervalFunc node) throws SemanticError {
+        Value a = value(node.arg);
+        if (a == null || a.dd == null)
+            return null;
+        DDInterval x = a.dd;
+        switch (node.head) {
+            case "Cos":
+                return new Value(DDInterval.Cos(x));
+            case "Sin":
+                return new Value(DDInterval.Sin(x));
+            case "Tan":
+                return new Value(DDInterval.Tan(x));
+            case "Cot":
+                return new Value(DDInterval.Cot(x));
+            case "ASin":
+                return new Value(DDInterval.ASin(x));
+            case "ACos":
+                return new Value(DDInterval.ACos(x));
+            case "ATan":
+                return new Value(DDInterval.ATan(x));
+            case "Sinh":
+                return new Value(DDInterval.Sinh(x));
+            case "Cosh":
+                return new Value(DDInterval.Cosh(x));
+            case "Tanh":
+                return new Value(DDInterval.Tanh(x));
+            case "Coth":
+                return new Value(DDInterval.Coth(x));
+            case "IAbs":
+                return new Value(DDInterval.IAbs(x));
+            case "ISqr":
+                return new Value(DDInterval.ISqr(x));
+            case "Sqrt":
+                return new Value(DDInterval.Sqrt(x));
+            case "Log":
+                return new Value(DDInterval.Log(x));
+            case "Log10":
+                return new Value(DDInterval.Log10(x));
+            case "Exp":
+                return new Value(DDInterval.Exp(x));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Value of a node computed by the engine on numbers
+     */
+    private Value number(Node result) {
+        if (result instanceof Num)
+            return new Value(((Num) result).val);
+        if (result instanceof Inter)
+            return new Value(new DDInterval(((Inter) result).val));
+        return null;
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Interval with {@link DoubleDouble} bounds, about 106 bits of precision.
+ * It has the operations of {@link Interval} and static versions of the
+ * elementary functions of {@link InterFunctions}.
+ *
+ * Every computed bound is moved outward by a relative margin larger than
+ * the error of the double-double algorithms, so the results are enclosures.
+ * {@link #toInterval()} rounds the bounds outward to doubles.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class DDInterval {
+
+    /**
+     * Exact bits assumed for the basic operations
+     */
+    private static final int OP_BITS = 100;
+
+    /**
+     * Exact bits assumed for the elementary functions
+     */
+    private static final int FUN_BITS = 96;
+
+    private static final DoubleDouble NEG_INF = new DoubleDouble(Double.NEGATIVE_INFINITY);
+    private static final DoubleDouble POS_INF = new DoubleDouble(Double.POSITIVE_INFINITY);
+    private static final DoubleDouble MINUS_ONE = new DoubleDouble(-1.0);
+
+    /**
+     * Lower bound
+     */
+    private final DoubleDouble inf;
+
+    /**
+     * Upper bound
+     */
+    private final DoubleDouble sup;
+
+    /**
+     * Class constructor with interval limits in any order
+     *
+     * @param inf Interval inferior limit
+     * @param sup Interval superior limit
+     */
+    public DDInterval(DoubleDouble inf, DoubleDouble sup) {
+        if (inf.compareTo(sup) <= 0) {
+            this.inf = inf;
+            this.sup = sup;
+        } else {
+            this.inf = sup;
+            this.sup = inf;
+        }
+    }
+
+    /**
+     * Class constructor with double limits
+     *
+     * @param inf Interval inferior limit
+     * @param sup Interval superior limit
+     */
+    public DDInterval(double inf, double sup) {
+        this(new DoubleDouble(inf), new DoubleDouble(sup));
+    }
+
+    /**
+     * Class constructor with an {@link Interval}
+     *
+     * @param A Interval to be converted, which is exact
+     */
+    public DDInterval(Interval A) {
+        this(A.getInf(), A.getSup());
+    }
+
+    /**
+     * Get the lower bound of the interval
+     * @return The lower bound of the interval
+     */
+    public DoubleDouble getInf() {
+        return inf;
+    }
+
+    /**
+     * Get the upper bound of the interval
+     * @return The upper bound of the interval
+     */
+    public DoubleDouble getSup() {
+        return sup;
+    }
+
+    /**
+     * Round the bounds outward to doubles
+     * @return The smallest {@link Interval} that contains this interval
+     */
+    public Interval toInterval() {
+        return new Interval(inf.floorDouble(), sup.ceilDouble());
+    }
+
+    /**
+     * Unary negative operation in this interval
+     * @return Interval result
+     */
+    public DDInterval INeg() {
+        return new DDInterval(sup.neg(), inf.neg());
+    }
+
+    /**
+     * Sum two intervals
+     * @param A Interval to make the sum
+     * @return Interval result
+     */
+    public DDInterval add(DDInterval A) {
+        return new DDInterval(inf.add(A.inf).down(OP_BITS), sup.add(A.sup).up(OP_BITS));
+    }
+
+    /**
+     * Sum a real number to this interval
+     * @param a Double to make the sum
+     * @return Interval result
+     */
+    public DDInterval add(double a) {
+        return new DDInterval(inf.add(a).down(OP_BITS), sup.add(a).up(OP_BITS));
+    }
+
+    /**
+     * Subtract two intervals
+     * @param A Interval to make the subtraction
+     * @return Interval result
+     */
+    public DDInterval sub(DDInterval A) {
+        return new DDInterval(inf.sub(A.sup).down(OP_BITS), sup.sub(A.inf).up(OP_BITS));
+    }
+
+    /**
+     * Multiplies two intervals
+     * @param A Interval to make the multiplication
+     * @return Interval result
+     */
+    public DDInterval mult(DDInterval A) {
+        DoubleDouble p0 = inf.mult(A.inf), p1 = inf.mult(A.sup);
+        DoubleDouble p2 = sup.mult(A.inf), p3 = sup.mult(A.sup);
+        return new DDInterval(min(min(p0, p1), min(p2, p3)).down(OP_BITS),
+                max(max(p0, p1), max(p2, p3)).up(OP_BITS));
+    }
+
+    /**
+     * Divides two intervals
+     * @param A Interval to make the division
+     * @return Interval result
+     * @throws ArithmeticException if A contains zero
+     */
+    public DDInterval div(DDInterval A) {
+        if (!(A.inf.hi > 0 || A.sup.hi < 0))
+            throw new ArithmeticException("The interval contains zero");
+        DoubleDouble q0 = inf.div(A.inf), q1 = inf.div(A.sup);
+        DoubleDouble q2 = sup.div(A.inf), q3 = sup.div(A.sup);
+        return new DDInterval(min(min(q0, q1), min(q2, q3)).down(OP_BITS),
+                max(max(q0, q1), max(q2, q3)).up(OP_BITS));
+    }
+
+    /**
+     * Get the hull between two intervals
+     * @param B Interval
+     * @return Interval with the hull
+     */
+    public DDInterval Hull(DDInterval B) {
+        return new DDInterval(min(inf, B.inf), max(sup, B.sup));
+    }
+
+    /**
+     * Calculate the width in this interval
+     * @return Width result rounded up
+     */
+    public double width() {
+        return sup.sub(inf).up(OP_BITS).ceilDouble();
+    }
+
+    /**
+     * Tells if the interval contains a value
+     * @param x The value
+     * @return True if inf &lt;= x &lt;= sup
+     */
+    public boolean contains(double x) {
+        DoubleDouble v = new DoubleDouble(x);
+        return inf.compareTo(v) <= 0 && sup.compareTo(v) >= 0;
+    }
+
+    private static DoubleDouble min(DoubleDouble a, DoubleDouble b) {
+        return (a.compareTo(b) <= 0) ? a : b;
+    }
+
+    private static DoubleDouble max(DoubleDouble a, DoubleDouble b) {
+        return (a.compareTo(b) >= 0) ? a : b;
+    }
+
+    /**
+     * Build an interval from bounds of a function computed in any order,
+     * rounding them outward
+     */
+    private static DDInterval funBounds(DoubleDouble a, DoubleDouble b) {
+        if (a.compareTo(b) > 0) {
+            DoubleDouble tmp = a;
+            a = b;
+            b = tmp;
+        }
+        return new DDInterval(a.down(FUN_BITS), b.up(FUN_BITS));
+    }
+
+    /**
+     * Absolute error of sin and cos at x, added to the relative margin. The
+     * reduction of x by multiples of Pi/2 has an error near |x| * 2^-106, which
+     * does not become smaller near the zeros of the functions.
+     */
+    private static double trigError(DoubleDouble x) {
+        return Math.scalb(Math.abs(x.hi) + 1, -100);
+    }
+
+    /**
+     * Enclosure of sin(x)/cos(x), or cos(x)/sin(x) if tangent is false
+     * @return The enclosure or null if the divisor may be zero
+     */
+    private static DDInterval trigRatio(DoubleDouble x, boolean tangent) {
+        DoubleDouble[] sc = x.sinCos();
+        double e = trigError(x);
+        DDInterval s = new DDInterval(sc[0].down(FUN_BITS).add(-e), sc[0].up(FUN_BITS).add(e));
+        DDInterval c = new DDInterval(sc[1].down(FUN_BITS).add(-e), sc[1].up(FUN_BITS).add(e));
+        DDInterval d = tangent ? c : s;
+        if (!(d.inf.hi > 0 || d.sup.hi < 0))
+            return null;
+        return tangent ? s.div(c) : c.div(s);
+    }
+
+    /**
+     * Tells if [a,b] contains a point offset + k*period for some integer k.
+     * The test is conservative: a point close to a bound is counted.
+     */
+    private static boolean containsPeriodic(DoubleDouble a, DoubleDouble b,
+            DoubleDouble offset, DoubleDouble period) {
+        DoubleDouble ta = a.sub(offset).div(period).down(FUN_BITS).add(-trigError(a));
+        DoubleDouble tb = b.sub(offset).div(period).up(FUN_BITS).add(trigError(b));
+        DoubleDouble k = ta.neg().floor().neg();
+        return k.compareTo(tb) <= 0;
+    }
+
+    /**
+     * Sine or cosine of an interval from the points where the function has
+     * its maximum and its minimum.
+     */
+    private static DDInterval periodic(DDInterval A, DoubleDouble maxAt, DoubleDouble minAt, boolean sine) {
+        if (Double.isInfinite(A.inf.hi) || Double.isInfinite(A.sup.hi)
+                || A.sup.sub(A.inf).compareTo(DoubleDouble.TWO_PI) >= 0)
+            return new DDInterval(-1.0, 1.0);
+        DoubleDouble fa = sine ? A.inf.sin() : A.inf.cos();
+        DoubleDouble fb = sine ? A.sup.sin() : A.sup.cos();
+        DDInterval r = funBounds(fa, fb);
+        double e = Math.max(trigError(A.inf), trigError(A.sup));
+        DoubleDouble lo = r.inf.add(-e), hi = r.sup.add(e);
+        if (containsPeriodic(A.inf, A.sup, maxAt, DoubleDouble.TWO_PI))
+            hi = DoubleDouble.ONE;
+        if (containsPeriodic(A.inf, A.sup, minAt, DoubleDouble.TWO_PI))
+            lo = MINUS_ONE;
+        return new DDInterval(max(lo, MINUS_ONE), min(hi, DoubleDouble.ONE));
+    }
+
+    /**
+     * Function used to compute the sine of an interval angle
+     * @param angle Interval angle
+     * @return The sine of the interval angle
+     */
+    public static DDInterval Sin(DDInterval angle) {
+        return periodic(angle, DoubleDouble.HALF_PI, DoubleDouble.HALF_PI.neg(), true);
+    }
+
+    /**
+     * Function used to compute the cossine of an interval angle
+     * @param angle Interval angle
+     * @return The cossine of the interval angle
+     */
+    public static DDInterval Cos(DDInterval angle) {
+        return periodic(angle, DoubleDouble.ZERO, DoubleDouble.PI, false);
+    }
+
+    /**
+     * Function used to compute the tangent of an interval angle
+     * @param angle Interval angle
+     * @return The tangent, or the whole real line if the angle contains a pole
+     */
+    public static DDInterval Tan(DDInterval angle) {
+        if (Double.isInfinite(angle.inf.hi) || Double.isInfinite(angle.sup.hi)
+                || containsPeriodic(angle.inf, angle.sup, DoubleDouble.HALF_PI, DoubleDouble.PI))
+            return new DDInterval(NEG_INF, POS_INF);
+        DDInterval a = trigRatio(angle.inf, true), b = trigRatio(angle.sup, true);
+        if (a == null || b == null)
+            return new DDInterval(NEG_INF, POS_INF);
+        return new DDInterval(a.inf, b.sup);
+    }
+
+    /**
+     * Function used to compute the cotangent of an interval angle
+     * @param angle Interval angle
+     * @return The cotangent, or the whole real line if the angle contains a pole
+     */
+    public static DDInterval Cot(DDInterval angle) {
+        if (Double.isInfinite(angle.inf.hi) || Double.isInfinite(angle.sup.hi)
+                || containsPeriodic(angle.inf, angle.sup, DoubleDouble.ZERO, DoubleDouble.PI))
+            return new DDInterval(NEG_INF, POS_INF);
+        DDInterval a = trigRatio(angle.inf, false), b = trigRatio(angle.sup, false);
+        if (a == null || b == null)
+            return new DDInterval(NEG_INF, POS_INF);
+        return new DDInterval(b.inf, a.sup);
+    }
+
+    /**
+     * Function used to compute the arc sine of an interval value
+     * @param A Interval in [-1,1]
+     * @return The arc sine
+     * @throws ArithmeticException if A is not inside [-1,1]
+     */
+    public static DDInterval ASin(DDInterval A) {
+        if (A.inf.compareTo(MINUS_ONE) < 0 || A.sup.compareTo(DoubleDouble.ONE) > 0)
+            throw new ArithmeticException("ArcSin argument out of range");
+        return funBounds(A.inf.asin(), A.sup.asin());
+    }
+
+    /**
+     * Function used to compute the arc cossine of an interval value
+     * @param A Interval in [-1,1]
+     * @return The arc cossine
+     * @throws ArithmeticException if A is not inside [-1,1]
+     */
+    public static DDInterval ACos(DDInterval A) {
+        if (A.inf.compareTo(MINUS_ONE) < 0 || A.sup.compareTo(DoubleDouble.ONE) > 0)
+            throw new ArithmeticException("ArcCos argument out of range");
+        return funBounds(A.sup.acos(), A.inf.acos());
+    }
+
+    /**
+     * Function used to compute the arc tangent of an interval value
+     * @param A Interval value
+     * @return The arc tangent
+     */
+    public static DDInterval ATan(DDInterval A) {
+        return funBounds(A.inf.atan(), A.sup.atan());
+    }
+
+    /**
+     * Get e^I
+     * @param A Interval of the exponent
+     * @return Interval with the result of the operation
+     */
+    public static DDInterval Exp(DDInterval A) {
+        DoubleDouble lo = A.inf.exp().down(FUN_BITS);
+        if (lo.hi < 0)
+            lo = DoubleDouble.ZERO;
+        return new DDInterval(lo, A.sup.exp().up(FUN_BITS));
+    }
+
+    /**
+     * Get the natural logarithm of an Interval
+     * @param A Interval with positive values
+     * @return Interval with the result of logarithm function
+     * @throws ArithmeticException if A has values not positive
+     */
+    public static DDInterval Log(DDInterval A) {
+        if (A.inf.hi <= 0)
+            throw new ArithmeticException("Log argument out of range");
+        return funBounds(A.inf.log(), A.sup.log());
+    }
+
+    /**
+     * Get the logarithm with an Interval in the base 10
+     * @param A Interval with positive values
+     * @return Interval with result
+     * @throws ArithmeticException if A has values not positive
+     */
+    public static DDInterval Log10(DDInterval A) {
+        if (A.inf.hi <= 0)
+            throw new ArithmeticException("Log10 argument out of range");
+        return funBounds(A.inf.log().div(DoubleDouble.LN10), A.sup.log().div(DoubleDouble.LN10));
+    }
+
+    /**
+     * (e^x - e^-x)/2 at one point
+     */
+    private static DoubleDouble sinh(DoubleDouble x) {
+        DoubleDouble e = x.exp();
+        return e.sub(DoubleDouble.ONE.div(e)).scalb(-1);
+    }
+
+    /**
+     * (e^x + e^-x)/2 at one point
+     */
+    private static DoubleDouble cosh(DoubleDouble x) {
+        DoubleDouble e = x.exp();
+        return e.add(DoubleDouble.ONE.div(e)).scalb(-1);
+    }
+
+    /**
+     * (e^2x - 1)/(e^2x + 1) at one point
+     */
+    private static DoubleDouble tanh(DoubleDouble x) {
+        if (Math.abs(x.hi) > 40)
+            return (x.hi > 0) ? DoubleDouble.ONE : MINUS_ONE;
+        DoubleDouble e = x.scalb(1).exp();
+        return e.add(-1.0).div(e.add(1.0));
+    }
+
+    /**
+     * Get the hyperbolic sine of an interval
+     * @param A Interval value
+     * @return The hyperbolic sine
+     */
+    public static DDInterval Sinh(DDInterval A) {
+        return funBounds(sinh(A.inf), sinh(A.sup));
+    }
+
+    /**
+     * Get the hyperbolic cossine of an interval
+     * @param A Interval value
+     * @return The hyperbolic cossine
+     */
+    public static DDInterval Cosh(DDInterval A) {
+        DDInterval r = funBounds(cosh(A.inf), cosh(A.sup));
+        if (A.inf.hi <= 0 && A.sup.hi >= 0)
+            return new DDInterval(DoubleDouble.ONE, r.sup);
+        return r;
+    }
+
+    /**
+     * Get the hyperbolic tangent of an interval
+     * @param A Interval value
+     * @return The hyperbolic tangent
+     */
+    public static DDInterval Tanh(DDInterval A) {
+        DDInterval r = funBounds(tanh(A.inf), tanh(A.sup));
+        return new DDInterval(max(r.inf, MINUS_ONE), min(r.sup, DoubleDouble.ONE));
+    }
+
+    /**
+     * Get the hyperbolic cotangent of an interval
+     * @param A Interval value without zero
+     * @return The hyperbolic cotangent
+     * @throws ArithmeticException if A contains zero
+     */
+    public static DDInterval Coth(DDInterval A) {
+        if (!(A.inf.hi > 0 || A.sup.hi < 0))
+            throw new ArithmeticException("The interval contains zero");
+        return funBounds(DoubleDouble.ONE.div(tanh(A.sup)), DoubleDouble.ONE.div(tanh(A.inf)));
+    }
+
+    /**
+     * Returns an interval of the absolute value.
+     * @param A Operand to get absolute value
+     * @return The absolute value
+     */
+    public static DDInterval IAbs(DDInterval A) {
+        if (A.inf.hi >= 0)
+            return A;
+        if (A.sup.hi <= 0)
+            return A.INeg();
+        return new DDInterval(DoubleDouble.ZERO, max(A.inf.neg(), A.sup));
+    }
+
+    /**
+     * Gives the square of an interval
+     * @param A Value to get the square value
+     * @return The square of an interval
+     */
+    public static DDInterval ISqr(DDInterval A) {
+        DDInterval t = IAbs(A);
+        return new DDInterval(t.inf.sqr().down(OP_BITS), t.sup.sqr().up(OP_BITS));
+    }
+
+    /**
+     * Get the square root of an interval
+     * @param A Interval with non negative values
+     * @return The square root
+     * @throws ArithmeticException if A has negative values
+     */
+    public static DDInterval Sqrt(DDInterval A) {
+        if (A.inf.hi < 0)
+            throw new ArithmeticException("Sqrt argument out of range");
+        DoubleDouble lo = A.inf.sqrt().down(FUN_BITS);
+        if (lo.hi < 0)
+            lo = DoubleDouble.ZERO;
+        return new DDInterval(lo, A.sup.sqrt().up(FUN_BITS));
+    }
+
+    /**
+     * x^n at one point by repeated squaring. The relative error grows with
+     * the number of products, which is counted in ops.
+     */
+    private static DoubleDouble powN(DoubleDouble x, int n, int[] ops) {
+        DoubleDouble r = DoubleDouble.ONE;
+        DoubleDouble b = x;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                r = r.mult(b);
+                ops[0]++;
+            }
+            n >>>= 1;
+            if (n > 0) {
+                b = b.sqr();
+                ops[0]++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Get the power of an interval by an integer
+     * @param A Interval to be powered
+     * @param n Exponent to power
+     * @return The result of operation
+     * @throws ArithmeticException if n is negative and A contains zero
+     */
+    public static DDInterval IPowerN(DDInterval A, int n) {
+        if (n == 0)
+            return new DDInterval(1.0, 1.0);
+        long absn = Math.abs((long) n);
+        DDInterval base = ((absn & 1) == 0) ? IAbs(A) : A;
+        int[] ops = {0};
+        DoubleDouble lo = powN(base.inf, (int) absn, ops);
+        DoubleDouble hi = powN(base.sup, (int) absn, ops);
+        // every product adds less than 2^-100 of relative error
+        int bits = OP_BITS - 1 - (32 - Integer.numberOfLeadingZeros(ops[0]));
+        DDInterval r = new DDInterval(lo.down(bits), hi.up(bits));
+        if (n < 0)
+            return new DDInterval(1.0, 1.0).div(r);
+        return r;
+    }
+
+    /**
+     * Get the power of an interval with the exponent as an interval too
+     * @param pX Interval base, not negative
+     * @param pY Interval exponent
+     * @return The result of the operation
+     * @throws ArithmeticException if the base is negative or is zero with a
+     * non positive exponent
+     */
+    public static DDInterval IPowerI(DDInterval pX, DDInterval pY) {
+        if (pX.inf.hi < 0)
+            throw new ArithmeticException("Power: Base is negative");
+        if (pX.inf.hi == 0) {
+            if (pY.inf.hi <= 0)
+                throw new ArithmeticException("Power: Negative or zero exponent with zero base");
+            if (pX.sup.hi == 0)
+                return new DDInterval(0.0, 0.0);
+            DDInterval t = Exp(Log(new DDInterval(pX.sup, pX.sup)).mult(pY));
+            return new DDInterval(DoubleDouble.ZERO, t.sup);
+        }
+        return Exp(Log(pX).mult(pY));
+    }
+
+    /**
+     * Overrided method to print interval.
+     * @return String with the formated Interval
+     */
+    @Override
+    public String toString() {
+        return "[" + inf + "," + sup + "]";
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import br.edu.ufop.pujian.Engine.Union;
+
+/**
+ * Evaluates an expression tree of an {@link Engine} with
+ * {@link DecoratedInterval} and {@link DecoratedFunctions}. It is used by
+ * {@link Engine#evalDecorated(Engine.Node)} and never throws.
+ *
+ * Numbers are point intervals. Like {@link DDEvaluator} only expressions
+ * without side effects are evaluated; assignments, sequences, branches,
+ * function calls, undefined variables and operators without an interval
+ * meaning give NaI.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class DecoratedEvaluator {
+
+    private final Engine engine;
+
+    /**
+     * Class constructor
+     * @param engine Engine with the context of the variables
+     */
+    DecoratedEvaluator(Engine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Evaluate an expression
+     * @param node Root of the expression
+     * @return The decorated result
+     */
+    DecoratedInterval eval(Node node) {
+        if (node instanceof Num)
+            return new DecoratedInterval(new Interval(((Num) node).val));
+        if (node instanceof Inter)
+            return new DecoratedInterval(((Inter) node).val);
+        if (node instanceof Union) {
+            // the pieces are known, the gaps between them are not
+            IntervalUnion u = ((Union) node).val;
+            return u.isEmpty() ? DecoratedInterval.empty() : DecoratedInterval.of(u.hull(), Decoration.TRV);
+        }
+        if (node instanceof Sym) {
+            Node val = engine.context.get((Sym) node);
+            return (val instanceof Num || val instanceof Inter || val instanceof Union) ? eval(val) : DecoratedInterval.nai();
+        }
+        if (node instanceof UnaryOp)
+            return unary((UnaryOp) node);
+        if (node instanceof BinOp)
+            return binary((BinOp) node);
+        if (node instanceof IntervalFunc)
+            return function((IntervalFunc) node);
+        return DecoratedInterval.nai();
+    }
+
+    private DecoratedInterval unary(UnaryOp node) {
+        DecoratedInterval a = eval(node.operand);
+        switch (node.op) {
+            case "+":
+                return a;
+            case "-":
+                return a.INeg();
+            default:
+                return DecoratedInterval.nai();
+        }
+    }
+
+    private DecoratedInterval binary(BinOp node) {
+        if ("=".equals(node.op) || ";".equals(node.op))
+            return DecoratedInterval.nai();
+        DecoratedInterval a = eval(node.left);
+        DecoratedInterval b = eval(node.right);
+        switch (node.op) {
+            case "+":
+                return a.add(b);
+            case "-":
+                return a.sub(b);
+            case "*":
+                return a.mult(b);
+            case "/":
+                return a.div(b);
+            case "&":
+                return a.Hull(b);
+            case ",":
+                // [a,b] from two numbers, which the evaluation takes in any order
+                if (a.isEmpty() || b.isEmpty())
+                    return a.emptyWith(b);
+                return DecoratedInterval.of(Math.min(a.inf, b.inf), Math.max(a.sup, b.sup), a.decoration.min(b.decoration));
+            case "^":
+                // a point exponent is a real power
+                return DecoratedFunctions.IPowerI(a, b);
+            default:
+                return DecoratedInterval.nai();
+        }
+    }
+
+    private DecoratedInterval function(IntervalFunc node) {
+        DecoratedInterval x = eval(node.arg);
+        switch (node.head) {
+            case "Cos":
+                return DecoratedFunctions.Cos(x);
+            case "Sin":
+                return DecoratedFunctions.Sin(x);
+            case "Tan":
+                return DecoratedFunctions.Tan(x);
+            case "Cot":
+                return DecoratedFunctions.Cot(x);
+            case "ASin":
+                return DecoratedFunctions.ASin(x);
+            case "ACos":
+                return DecoratedFunctions.ACos(x);
+            case "ATan":
+                return DecoratedFunctions.ATan(x);
+            case "Sinh":
+                return DecoratedFunctions.Sinh(x);
+            case "Cosh":
+                return DecoratedFunctions.Cosh(x);
+            case "Tanh":
+                return DecoratedFunctions.Tanh(x);
+            case "Coth":
+                return DecoratedFunctions.Coth(x);
+            case "ASinh":
+                return DecoratedFunctions.ASinh(x);
+            case "ACosh":
+                return DecoratedFunctions.ACosh(x);
+            case "ATanh":
+                return DecoratedFunctions.ATanh(x);
+            case "IAbs":
+                return DecoratedFunctions.IAbs(x);
+            case "ISqr":
+                return DecoratedFunctions.ISqr(x);
+            case "Sqrt":
+                return DecoratedFunctions.Sqrt(x);
+            case "Cbrt":
+                return DecoratedFunctions.Cbrt(x);
+            case "Log":
+                return DecoratedFunctions.Log(x);
+            case "Log10":
+                return DecoratedFunctions.Log10(x);
+            case "Exp":
+                return DecoratedFunctions.Exp(x);
+            default:
+                // RAbs gives a number and unknown functions have no value
+                return DecoratedInterval.nai();
+        }
+    }
+}
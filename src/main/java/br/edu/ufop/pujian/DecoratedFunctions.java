@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * The functions of {@link InterFunctions} on {@link DecoratedInterval}. They
+ * never throw.
+ * <ul>
+ * <li> Functions defined and continuous on the whole line keep the
+ * decoration of the argument. </li>
+ * <li> The other functions are computed on the part of the argument inside
+ * their domain. The result is TRV if some value was removed and empty if
+ * nothing is left. </li>
+ * </ul>
+ * Results are DAC instead of COM when they are unbounded.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class DecoratedFunctions {
+
+    private static final double PInf = Double.POSITIVE_INFINITY;
+    private static final double NInf = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private DecoratedFunctions() {
+    }
+
+    /**
+     * The argument without decoration
+     */
+    private static Interval bare(DecoratedInterval x) {
+        return new Interval(x.inf, x.sup);
+    }
+
+    /**
+     * Decoration of a result computed on a part of the argument
+     */
+    private static Decoration restricted(DecoratedInterval x, boolean whole) {
+        return whole ? x.decoration : x.decoration.min(Decoration.TRV);
+    }
+
+    /**
+     * Get the sine
+     * @param x Angle
+     * @return The sine of x
+     */
+    public static DecoratedInterval Sin(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Sin(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the cossine
+     * @param x Angle
+     * @return The cossine of x
+     */
+    public static DecoratedInterval Cos(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Cos(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the tangent. It is TRV and unbounded if x contains a pole.
+     * @param x Angle
+     * @return The tangent of x
+     */
+    public static DecoratedInterval Tan(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        Interval r = InterFunctions.Tan(bare(x));
+        // bounded angles without a pole have a finite tangent
+        return DecoratedInterval.of(r, restricted(x, r.getSup() < PInf));
+    }
+
+    /**
+     * Get the cotangent. It is TRV and unbounded if x contains a pole.
+     * @param x Angle
+     * @return The cotangent of x
+     */
+    public static DecoratedInterval Cot(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        Interval r = InterFunctions.Cot(bare(x));
+        return DecoratedInterval.of(r, restricted(x, r.getSup() < PInf));
+    }
+
+    /**
+     * Get the arc sine on the part of x in [-1,1]
+     * @param x Sine value
+     * @return The arc sine
+     */
+    public static DecoratedInterval ASin(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        double a = Math.max(x.inf, -1.0), b = Math.min(x.sup, 1.0);
+        if (a > b)
+            return DecoratedInterval.empty();
+        return DecoratedInterval.of(InterFunctions.ASin(new Interval(a, b)), restricted(x, a == x.inf && b == x.sup));
+    }
+
+    /**
+     * Get the arc cossine on the part of x in [-1,1]
+     * @param x Cossine value
+     * @return The arc cossine
+     */
+    public static DecoratedInterval ACos(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        double a = Math.max(x.inf, -1.0), b = Math.min(x.sup, 1.0);
+        if (a > b)
+            return DecoratedInterval.empty();
+        return DecoratedInterval.of(InterFunctions.ACos(new Interval(a, b)), restricted(x, a == x.inf && b == x.sup));
+    }
+
+    /**
+     * Get the arc tangent
+     * @param x Tangent value
+     * @return The arc tangent
+     */
+    public static DecoratedInterval ATan(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.ATan(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the hyperbolic sine
+     * @param x Argument
+     * @return The hyperbolic sine
+     */
+    public static DecoratedInterval Sinh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Sinh(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the hyperbolic cossine
+     * @param x Argument
+     * @return The hyperbolic cossine
+     */
+    public static DecoratedInterval Cosh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Cosh(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the hyperbolic tangent
+     * @param x Argument
+     * @return The hyperbolic tangent
+     */
+    public static DecoratedInterval Tanh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Tanh(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the hyperbolic cotangent on the part of x without zero. Each side
+     * of zero gives a half line.
+     * @param x Argument
+     * @return The hyperbolic cotangent
+     */
+    public static DecoratedInterval Coth(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        double a = x.inf, b = x.sup;
+        if (a > 0 || b < 0)
+            return DecoratedInterval.of(InterFunctions.Coth(bare(x)), x.decoration);
+        Decoration d = restricted(x, false);
+        if (a == 0 && b == 0)
+            return DecoratedInterval.empty();
+        if (a == 0)
+            return DecoratedInterval.of(InterFunctions.Coth(new Interval(b)).getInf(), PInf, d);
+        if (b == 0)
+            return DecoratedInterval.of(NInf, InterFunctions.Coth(new Interval(a)).getSup(), d);
+        return DecoratedInterval.of(NInf, PInf, d);
+    }
+
+    /**
+     * Get the inverse hyperbolic sine
+     * @param x Argument
+     * @return The inverse hyperbolic sine
+     */
+    public static DecoratedInterval ASinh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.ASinh(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the inverse hyperbolic cossine on the part of x in [1,+inf]
+     * @param x Argument
+     * @return The inverse hyperbolic cossine
+     */
+    public static DecoratedInterval ACosh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        if (x.sup < 1.0)
+            return DecoratedInterval.empty();
+        double a = Math.max(x.inf, 1.0);
+        return DecoratedInterval.of(InterFunctions.ACosh(new Interval(a, x.sup)), restricted(x, a == x.inf));
+    }
+
+    /**
+     * Get the inverse hyperbolic tangent on the part of x in (-1,1). It is
+     * unbounded if x reaches -1 or 1.
+     * @param x Argument
+     * @return The inverse hyperbolic tangent
+     */
+    public static DecoratedInterval ATanh(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        double a = x.inf, b = x.sup;
+        if (a >= 1.0 || b <= -1.0)
+            return DecoratedInterval.empty();
+        double lo = (a > -1.0) ? InterFunctions.ATanh(new Interval(a)).getInf() : NInf;
+        double hi = (b < 1.0) ? InterFunctions.ATanh(new Interval(b)).getSup() : PInf;
+        return DecoratedInterval.of(lo, hi, restricted(x, a > -1.0 && b < 1.0));
+    }
+
+    /**
+     * Get the absolute value
+     * @param x Argument
+     * @return The absolute value
+     */
+    public static DecoratedInterval IAbs(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.IAbs(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the square
+     * @param x Argument
+     * @return The square
+     */
+    public static DecoratedInterval ISqr(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.ISqr(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the square root on the part of x in [0,+inf]
+     * @param x Argument
+     * @return The square root
+     */
+    public static DecoratedInterval Sqrt(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        if (x.sup < 0)
+            return DecoratedInterval.empty();
+        double a = Math.max(x.inf, 0.0);
+        return DecoratedInterval.of(InterFunctions.Sqrt(new Interval(a, x.sup)), restricted(x, x.inf >= 0));
+    }
+
+    /**
+     * Get the cube root
+     * @param x Argument
+     * @return The cube root
+     */
+    public static DecoratedInterval Cbrt(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Cbrt(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get the natural logarithm on the part of x in (0,+inf]. It is
+     * unbounded below if x reaches zero.
+     * @param x Argument
+     * @return The natural logarithm
+     */
+    public static DecoratedInterval Log(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        if (x.sup <= 0)
+            return DecoratedInterval.empty();
+        if (x.inf > 0)
+            return DecoratedInterval.of(InterFunctions.Log(bare(x)), x.decoration);
+        return DecoratedInterval.of(NInf, InterFunctions.Log(new Interval(x.sup)).getSup(), restricted(x, false));
+    }
+
+    /**
+     * Get the logarithm in the base 10 on the part of x in (0,+inf]
+     * @param x Argument
+     * @return The logarithm in the base 10
+     */
+    public static DecoratedInterval Log10(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        if (x.sup <= 0)
+            return DecoratedInterval.empty();
+        if (x.inf > 0)
+            return DecoratedInterval.of(InterFunctions.Log10(bare(x)), x.decoration);
+        return DecoratedInterval.of(NInf, InterFunctions.Log10(new Interval(x.sup)).getSup(), restricted(x, false));
+    }
+
+    /**
+     * Get e^x
+     * @param x Exponent
+     * @return The exponential
+     */
+    public static DecoratedInterval Exp(DecoratedInterval x) {
+        if (x.isEmpty())
+            return x;
+        return DecoratedInterval.of(InterFunctions.Exp(bare(x)), x.decoration);
+    }
+
+    /**
+     * Get x^n. A negative n is not defined at zero: it gives the hull of
+     * the values on both sides of zero.
+     * @param x Base
+     * @param n Integer exponent
+     * @return The power
+     */
+    public static DecoratedInterval IPowerN(DecoratedInterval x, int n) {
+        if (x.isEmpty())
+            return x;
+        if (n >= 0 || x.inf > 0 || x.sup < 0)
+            return DecoratedInterval.of(InterFunctions.IPowerN(bare(x), n), x.decoration);
+        if (x.inf == 0 && x.sup == 0)
+            return DecoratedInterval.empty();
+        // 1/x^|n| with the extended division
+        Interval p = (n == Integer.MIN_VALUE) ? InterFunctions.ISqr(InterFunctions.IPowerN(bare(x), -(n / 2)))
+                : InterFunctions.IPowerN(bare(x), -n);
+        IntervalUnion q = IntervalUnion.div(new Interval(1.0), p);
+        // x^|n| may underflow to zero
+        if (q.isEmpty())
+            return DecoratedInterval.empty();
+        return DecoratedInterval.of(q.hull(), restricted(x, false));
+    }
+
+    /**
+     * Get x^y for a real exponent, like
+     * {@link InterFunctions#IPowerR(Interval, double)}. Integers and p/q
+     * with an odd q accept negative bases. Other exponents are computed on
+     * the part of x in [0,+inf], without zero if y is negative.
+     * @param x Base
+     * @param y Exponent
+     * @return The power
+     */
+    public static DecoratedInterval IPowerR(DecoratedInterval x, double y) {
+        if (x.isEmpty())
+            return x;
+        if (y == Math.rint(y) && Math.abs(y) <= Integer.MAX_VALUE)
+            return IPowerN(x, (int) y);
+        int q = InterFunctions.OddRoot(y);
+        if (q != 0) {
+            // the odd root is defined on the whole line
+            DecoratedInterval root = DecoratedInterval.of(InterFunctions.IPowerQ(bare(x), 1, q), x.decoration);
+            return IPowerN(root, (int) Math.rint(y * q));
+        }
+        if (x.sup < 0 || (x.sup == 0 && y < 0) || Double.isNaN(y))
+            return DecoratedInterval.empty();
+        double a = Math.max(x.inf, 0.0), b = x.sup;
+        if (a == 0 && y < 0)
+            return DecoratedInterval.of(Math.max(Rounding.down(Math.pow(b, y)), 0.0), PInf, restricted(x, false));
+        return DecoratedInterval.of(InterFunctions.IPowerR(new Interval(a, b), y), restricted(x, x.inf >= 0));
+    }
+
+    /**
+     * Get x^y like {@link #IPowerR(DecoratedInterval, double)} on the bounds
+     * [a,b] of x, into rinf[k] and rsup[k], without creating objects. An
+     * empty result has NaN bounds.
+     * @param a Lower bound of x
+     * @param b Upper bound of x
+     * @param dec Status of the decoration of x
+     * @param y Exponent
+     * @param p Numerator of y
+     * @param q Denominator of y: 1 for an integer, the smallest odd one up
+     * to the limit of {@link InterFunctions#OddRoot(double)}, or 0
+     * @return The status of the decoration of the result
+     */
+    static byte IPowerRInto(double a, double b, byte dec, double y, int p, int q, double[] rinf, double[] rsup, int k) {
+        final byte trv = Decoration.TRV.status();
+        if (!(a <= b)) {
+            rinf[k] = rsup[k] = Double.NaN;
+            return dec;
+        }
+        if (q != 0) {
+            if (q > 1) {
+                // the odd root is defined on the whole line
+                double lo = InterFunctions.rootInf(a, q), hi = InterFunctions.rootSup(b, q);
+                a = lo;
+                b = hi;
+            }
+            if (p >= 0 || a > 0 || b < 0)
+                return result(InterFunctions.powerInf(a, b, p), InterFunctions.powerSup(a, b, p), dec, rinf, rsup, k);
+            if (a == 0 && b == 0) {
+                rinf[k] = rsup[k] = Double.NaN;
+                return trv;
+            }
+            // 1/x^|p| with the extended division
+            double c, d;
+            if (p == Integer.MIN_VALUE) {
+                double e = InterFunctions.powerInf(a, b, -(p / 2)), f = InterFunctions.powerSup(a, b, -(p / 2));
+                c = Interval.multInf(e, f, e, f);
+                d = Interval.multSup(e, f, e, f);
+            } else {
+                c = InterFunctions.powerInf(a, b, -p);
+                d = InterFunctions.powerSup(a, b, -p);
+            }
+            IntervalUnion.divHull(1.0, 1.0, c, d, rinf, rsup, k);
+            return trv;
+        }
+        if (b < 0 || (b == 0 && y < 0) || Double.isNaN(y)) {
+            rinf[k] = rsup[k] = Double.NaN;
+            return trv;
+        }
+        if (a <= 0 && y < 0) {
+            rinf[k] = Math.max(Rounding.down(Math.pow(b, y)), 0.0);
+            rsup[k] = PInf;
+            return trv;
+        }
+        // the part of x in [0,+inf]
+        double lo = (y > 0) ? Math.max(a, 0.0) : b, hi = (y > 0) ? b : Math.max(a, 0.0);
+        return result(Math.max(Rounding.down(Math.pow(lo, y)), 0.0), Rounding.up(Math.pow(hi, y)),
+                (a >= 0) ? dec : trv, rinf, rsup, k);
+    }
+
+    /**
+     * Write a result into rinf[k] and rsup[k]: DAC instead of COM if it is
+     * unbounded, and empty with NaN bounds if its bounds are not ordered
+     * @return The status of the result
+     */
+    private static byte result(double lo, double hi, byte dec, double[] rinf, double[] rsup, int k) {
+        if (!(lo <= hi)) {
+            rinf[k] = rsup[k] = Double.NaN;
+            return Decoration.TRV.status();
+        }
+        rinf[k] = lo;
+        rsup[k] = hi;
+        if (dec == Decoration.COM.status() && !(lo > NInf && hi < PInf))
+            return Decoration.DAC.status();
+        return dec;
+    }
+
+    /**
+     * Get x^y for an interval exponent, like
+     * {@link InterFunctions#IPowerI(Interval, Interval)}. It is defined for
+     * x greater than zero, and for x equal to zero when y is positive.
+     * @param x Base
+     * @param y Exponent
+     * @return The power
+     */
+    public static DecoratedInterval IPowerI(DecoratedInterval x, DecoratedInterval y) {
+        if (x.isEmpty() || y.isEmpty())
+            return x.emptyWith(y);
+        if (y.inf == y.sup)
+            return IPowerR(x, y.inf).withMin(y.decoration);
+        Decoration d = x.decoration.min(y.decoration);
+        double a = Math.max(x.inf, 0.0), b = x.sup;
+        if (b < 0 || (b == 0 && y.sup <= 0))
+            return DecoratedInterval.empty();
+        boolean whole = x.inf > 0 || (x.inf == 0 && y.inf > 0);
+        if (a > 0 || y.inf > 0)
+            return DecoratedInterval.of(InterFunctions.IPowerI(new Interval(a, b), bare(y)), whole ? d : d.min(Decoration.TRV));
+        // zero base with a non positive exponent is left out, the corners
+        // of Math.pow give the limits there
+        double p0 = Math.pow(a, y.inf), p1 = Math.pow(a, y.sup);
+        double p2 = Math.pow(b, y.inf), p3 = Math.pow(b, y.sup);
+        return DecoratedInterval.of(Math.max(Rounding.down(Math.min(Math.min(p0, p1), Math.min(p2, p3))), 0.0),
+                Rounding.up(Math.max(Math.max(p0, p1), Math.max(p2, p3))), d.min(Decoration.TRV));
+    }
+}
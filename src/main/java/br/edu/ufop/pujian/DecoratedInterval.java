@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Interval with a {@link Decoration}. The empty interval is a legal value,
+ * so the operations of this class and of {@link DecoratedFunctions} never
+ * throw: values out of the domain of an operation are removed from the
+ * argument and the decoration of the result tells that it happened.
+ *
+ * The decoration of a result is the worst of the decorations of the
+ * arguments and of the decoration of the operation on them. The empty
+ * interval is stored as [+inf,-inf].
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class DecoratedInterval {
+
+    private static final DecoratedInterval EMPTY =
+            new DecoratedInterval(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Decoration.TRV);
+    private static final DecoratedInterval NAI =
+            new DecoratedInterval(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Decoration.ILL);
+
+    final double inf, sup;
+    final Decoration decoration;
+
+    /**
+     * Class constructor with bounds already ordered
+     */
+    DecoratedInterval(double inf, double sup, Decoration decoration) {
+        this.inf = inf;
+        this.sup = sup;
+        this.decoration = decoration;
+    }
+
+    /**
+     * Class constructor of a bare interval. It is COM if it is bounded and
+     * DAC if not.
+     *
+     * @param A The interval
+     */
+    public DecoratedInterval(Interval A) {
+        this(A.getInf(), A.getSup(), bounded(A.getInf(), A.getSup()) ? Decoration.COM : Decoration.DAC);
+    }
+
+    /**
+     * Class constructor with a decoration. COM is changed to DAC for an
+     * unbounded interval.
+     *
+     * @param A The interval
+     * @param decoration The decoration
+     */
+    public DecoratedInterval(Interval A, Decoration decoration) {
+        this(A.getInf(), A.getSup(), A.getInf(), A.getSup(), decoration);
+    }
+
+    /**
+     * Class constructor that checks the decoration of the bounds
+     */
+    private DecoratedInterval(double inf, double sup, double a, double b, Decoration decoration) {
+        this(inf, sup, (decoration == Decoration.COM && !bounded(a, b)) ? Decoration.DAC : decoration);
+    }
+
+    /**
+     * Get the empty interval, which is TRV
+     * @return The empty interval
+     */
+    public static DecoratedInterval empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get the result of an invalid operation, which is ILL
+     * @return Not an interval
+     */
+    public static DecoratedInterval nai() {
+        return NAI;
+    }
+
+    /**
+     * Build a result. It is empty if inf is greater than sup, and COM
+     * becomes DAC if it is unbounded.
+     *
+     * @param inf Lower bound
+     * @param sup Upper bound
+     * @param decoration Decoration of the result
+     * @return The decorated interval
+     */
+    static DecoratedInterval of(double inf, double sup, Decoration decoration) {
+        if (decoration == Decoration.ILL)
+            return NAI;
+        if (!(inf <= sup))
+            return EMPTY;
+        return new DecoratedInterval(inf, sup, inf, sup, decoration);
+    }
+
+    /**
+     * Build a result from an interval
+     */
+    static DecoratedInterval of(Interval r, Decoration decoration) {
+        return of(r.getInf(), r.getSup(), decoration);
+    }
+
+    /**
+     * Get this interval with a decoration not better than d
+     */
+    DecoratedInterval withMin(Decoration d) {
+        if (isEmpty())
+            return (d == Decoration.ILL) ? NAI : this;
+        return of(inf, sup, decoration.min(d));
+    }
+
+    private static boolean bounded(double a, double b) {
+        return a > Double.NEGATIVE_INFINITY && b < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Get the inferior limit
+     * @return The lower bound, +inf if the interval is empty
+     */
+    public double getInf() {
+        return inf;
+    }
+
+    /**
+     * Get the superior limit
+     * @return The upper bound, -inf if the interval is empty
+     */
+    public double getSup() {
+        return sup;
+    }
+
+    /**
+     * Get the decoration
+     * @return The decoration of the interval
+     */
+    public Decoration getDecoration() {
+        return decoration;
+    }
+
+    /**
+     * Test if the interval is empty. NaI is empty too.
+     * @return True if there is no value in the interval
+     */
+    public boolean isEmpty() {
+        return !(inf <= sup);
+    }
+
+    /**
+     * Test if this is the result of an invalid operation
+     * @return True if the decoration is ILL
+     */
+    public boolean isNaI() {
+        return decoration == Decoration.ILL;
+    }
+
+    /**
+     * Get the interval without decoration
+     * @return The interval, or null if it is empty
+     */
+    public Interval toInterval() {
+        return isEmpty() ? null : new Interval(inf, sup);
+    }
+
+    /**
+     * Empty or NaI result of an operation with an empty argument
+     */
+    DecoratedInterval emptyWith(DecoratedInterval B) {
+        return (isNaI() || B.isNaI()) ? NAI : EMPTY;
+    }
+
+    /**
+     * Sum two decorated intervals
+     * @param B Interval to add
+     * @return The sum
+     */
+    public DecoratedInterval add(DecoratedInterval B) {
+        if (isEmpty() || B.isEmpty())
+            return emptyWith(B);
+        return of(Rounding.addDown(inf, B.inf), Rounding.addUp(sup, B.sup), decoration.min(B.decoration));
+    }
+
+    /**
+     * Subtract two decorated intervals
+     * @param B Interval to subtract
+     * @return The difference
+     */
+    public DecoratedInterval sub(DecoratedInterval B) {
+        if (isEmpty() || B.isEmpty())
+            return emptyWith(B);
+        return of(Rounding.addDown(inf, -B.sup), Rounding.addUp(sup, -B.inf), decoration.min(B.decoration));
+    }
+
+    /**
+     * Multiply two decorated intervals. [0,0] times an unbounded interval is
+     * [0,0].
+     * @param B Interval to multiply
+     * @return The product
+     */
+    public DecoratedInterval mult(DecoratedInterval B) {
+        if (isEmpty() || B.isEmpty())
+            return emptyWith(B);
+        Decoration d = decoration.min(B.decoration);
+        if ((inf == 0 && sup == 0) || (B.inf == 0 && B.sup == 0))
+            return of(0.0, 0.0, d);
+        return of(Interval.multInf(inf, sup, B.inf, B.sup), Interval.multSup(inf, sup, B.inf, B.sup), d);
+    }
+
+    /**
+     * Divide two decorated intervals. When the divisor contains zero the
+     * result is the hull of {@link IntervalUnion#div(Interval, Interval)}
+     * and it is TRV.
+     * @param B Divisor
+     * @return The quotient
+     */
+    public DecoratedInterval div(DecoratedInterval B) {
+        if (isEmpty() || B.isEmpty())
+            return emptyWith(B);
+        Decoration d = decoration.min(B.decoration);
+        if (B.inf > 0 || B.sup < 0)
+            return of(Interval.divInf(inf, sup, B.inf, B.sup), Interval.divSup(inf, sup, B.inf, B.sup), d);
+        IntervalUnion q = IntervalUnion.div(new Interval(inf, sup), new Interval(B.inf, B.sup));
+        if (q.isEmpty())
+            return EMPTY;
+        return of(q.hull(), d.min(Decoration.TRV));
+    }
+
+    /**
+     * Change the sign of the interval
+     * @return The negated interval
+     */
+    public DecoratedInterval INeg() {
+        if (isEmpty())
+            return this;
+        return new DecoratedInterval(-sup, -inf, decoration);
+    }
+
+    /**
+     * Get the hull of two intervals. The hull is not a function of the
+     * values, so it is TRV.
+     * @param B The other interval
+     * @return The smallest interval that contains both
+     */
+    public DecoratedInterval Hull(DecoratedInterval B) {
+        if (isNaI() || B.isNaI())
+            return NAI;
+        return of(Math.min(inf, B.inf), Math.max(sup, B.sup), Decoration.TRV);
+    }
+
+    /**
+     * Returns the bounds and the decoration, like [1.0,2.0]_com
+     * @return String with the interval and its decoration
+     */
+    @Override
+    public String toString() {
+        if (isNaI())
+            return "[nai]";
+        String d = "_" + decoration.name().toLowerCase();
+        if (isEmpty())
+            return "[empty]" + d;
+        return "[" + inf + "," + sup + "]" + d;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Decoration of a {@link DecoratedInterval}, like in the IEEE 1788 standard.
+ * It tells what is known about the function that gave the interval on the
+ * whole argument. The constants are in increasing order of quality:
+ * <ul>
+ * <li> ILL: not an interval, the result of an invalid operation. </li>
+ * <li> TRV: nothing is known, the function may not be defined on some
+ * values of the argument. Empty intervals are always TRV. </li>
+ * <li> DEF: the function is defined on the whole argument. </li>
+ * <li> DAC: the function is defined and continuous on the whole argument. </li>
+ * <li> COM: like DAC and the argument and the result are bounded. </li>
+ * </ul>
+ * The batch functions write the {@link #ordinal()} of the decoration of each
+ * element in a status column of bytes, which is read back with
+ * {@link #fromStatus(byte)}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public enum Decoration {
+    ILL, TRV, DEF, DAC, COM;
+
+    private static final Decoration[] VALUES = values();
+
+    /**
+     * Get the worse of two decorations
+     * @param other The other decoration
+     * @return The decoration with less quality
+     */
+    public Decoration min(Decoration other) {
+        return (other.ordinal() < ordinal()) ? other : this;
+    }
+
+    /**
+     * Get the value written in a status column
+     * @return The status of the decoration
+     */
+    public byte status() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Get the decoration of a value of a status column
+     * @param status Value written by a batch function
+     * @return The decoration
+     */
+    public static Decoration fromStatus(byte status) {
+        return VALUES[status];
+    }
+}
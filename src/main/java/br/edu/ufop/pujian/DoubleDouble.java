@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Real number stored as the unevaluated sum of two doubles, hi + lo, with
+ * |lo| not greater than half an ulp of hi. This gives about 106 bits of
+ * precision using only double operations.
+ *
+ * The algorithms follow the QD library of Hida, Li and Bailey. The basic
+ * operations have a relative error of a few units of 2^-104 and the
+ * elementary functions of a few units of 2^-100.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class DoubleDouble {
+
+    public static final DoubleDouble ZERO = new DoubleDouble(0.0, 0.0);
+    public static final DoubleDouble ONE = new DoubleDouble(1.0, 0.0);
+    public static final DoubleDouble PI = new DoubleDouble(0x1.921fb54442d18p+1, 0x1.1a62633145c07p-53);
+    public static final DoubleDouble TWO_PI = new DoubleDouble(0x1.921fb54442d18p+2, 0x1.1a62633145c07p-52);
+    public static final DoubleDouble HALF_PI = new DoubleDouble(0x1.921fb54442d18p+0, 0x1.1a62633145c07p-54);
+    public static final DoubleDouble LN2 = new DoubleDouble(0x1.62e42fefa39efp-1, 0x1.abc9e3b39803fp-56);
+    public static final DoubleDouble LN10 = new DoubleDouble(0x1.26bb1bbb55516p+1, -0x1.f48ad494ea3e9p-53);
+
+    /**
+     * Unit roundoff of the double-double format
+     */
+    static final double EPS = 0x1p-104;
+
+    /**
+     * 1/n! for n = 3, 4, ..., used by the Taylor series
+     */
+    private static final DoubleDouble[] INV_FACT = new DoubleDouble[28];
+
+    static {
+        DoubleDouble fact = new DoubleDouble(2.0);
+        for (int i = 0; i < INV_FACT.length; i++) {
+            fact = fact.mult(i + 3);
+            INV_FACT[i] = ONE.div(fact);
+        }
+    }
+
+    /**
+     * Leading part
+     */
+    final double hi;
+
+    /**
+     * Trailing part
+     */
+    final double lo;
+
+    /**
+     * Class constructor with a double value
+     * @param x The value
+     */
+    public DoubleDouble(double x) {
+        this.hi = x;
+        this.lo = 0.0;
+    }
+
+    /**
+     * Class constructor with the two parts. The parts are normalized.
+     * @param hi Leading part
+     * @param lo Trailing part
+     */
+    public DoubleDouble(double hi, double lo) {
+        double s = hi + lo;
+        if (Double.isInfinite(s) || Double.isNaN(s)) {
+            this.hi = s;
+            this.lo = 0.0;
+        } else {
+            this.hi = s;
+            this.lo = lo - (s - hi);
+        }
+    }
+
+    /**
+     * Get the leading part
+     * @return The leading part
+     */
+    public double getHi() {
+        return hi;
+    }
+
+    /**
+     * Get the trailing part
+     * @return The trailing part
+     */
+    public double getLo() {
+        return lo;
+    }
+
+    /**
+     * Nearest double to this number
+     * @return hi + lo rounded to a double
+     */
+    public double doubleValue() {
+        return hi + lo;
+    }
+
+    /**
+     * Largest double not greater than this number
+     * @return A double lower bound
+     */
+    public double floorDouble() {
+        return (lo < 0) ? Math.nextDown(hi) : hi;
+    }
+
+    /**
+     * Smallest double not less than this number
+     * @return A double upper bound
+     */
+    public double ceilDouble() {
+        return (lo > 0) ? Math.nextUp(hi) : hi;
+    }
+
+    /**
+     * a + b with the error term, for any a and b
+     */
+    private static DoubleDouble twoSum(double a, double b) {
+        double s = a + b;
+        double bb = s - a;
+        return new DoubleDouble(s, (a - (s - bb)) + (b - bb));
+    }
+
+    /**
+     * Sum of two double-double numbers
+     * @param b Number to be added
+     * @return this + b
+     */
+    public DoubleDouble add(DoubleDouble b) {
+        double s1 = hi + b.hi;
+        double bb = s1 - hi;
+        double s2 = (hi - (s1 - bb)) + (b.hi - bb);
+        double t1 = lo + b.lo;
+        bb = t1 - lo;
+        double t2 = (lo - (t1 - bb)) + (b.lo - bb);
+        s2 += t1;
+        double h = s1 + s2;
+        s2 = s2 - (h - s1);
+        s2 += t2;
+        if (Double.isInfinite(h) || Double.isNaN(h))
+            return new DoubleDouble(h);
+        return new DoubleDouble(h, s2);
+    }
+
+    /**
+     * Sum of a double-double and a double
+     * @param b Number to be added
+     * @return this + b
+     */
+    public DoubleDouble add(double b) {
+        double s1 = hi + b;
+        double bb = s1 - hi;
+        double s2 = (hi - (s1 - bb)) + (b - bb);
+        s2 += lo;
+        if (Double.isInfinite(s1) || Double.isNaN(s1))
+            return new DoubleDouble(s1);
+        return new DoubleDouble(s1, s2);
+    }
+
+    /**
+     * Difference of two double-double numbers
+     * @param b Number to be subtracted
+     * @return this - b
+     */
+    public DoubleDouble sub(DoubleDouble b) {
+        return add(b.neg());
+    }
+
+    /**
+     * Opposite of this number
+     * @return -this
+     */
+    public DoubleDouble neg() {
+        return new DoubleDouble(-hi, -lo);
+    }
+
+    /**
+     * Absolute value of this number
+     * @return |this|
+     */
+    public DoubleDouble abs() {
+        return (hi < 0) ? neg() : this;
+    }
+
+    /**
+     * Product of two double-double numbers
+     * @param b Number to be multiplied
+     * @return this * b
+     */
+    public DoubleDouble mult(DoubleDouble b) {
+        double p1 = hi * b.hi;
+        if (Double.isInfinite(p1) || Double.isNaN(p1) || p1 == 0)
+            return new DoubleDouble(p1);
+        double p2 = Math.fma(hi, b.hi, -p1);
+        p2 += hi * b.lo + lo * b.hi;
+        return new DoubleDouble(p1, p2);
+    }
+
+    /**
+     * Product of a double-double and a double
+     * @param b Number to be multiplied
+     * @return this * b
+     */
+    public DoubleDouble mult(double b) {
+        double p1 = hi * b;
+        if (Double.isInfinite(p1) || Double.isNaN(p1) || p1 == 0)
+            return new DoubleDouble(p1);
+        double p2 = Math.fma(hi, b, -p1);
+        p2 += lo * b;
+        return new DoubleDouble(p1, p2);
+    }
+
+    /**
+     * Square of this number
+     * @return this * this
+     */
+    public DoubleDouble sqr() {
+        return mult(this);
+    }
+
+    /**
+     * Quotient of two double-double numbers
+     * @param b Divisor
+     * @return this / b
+     */
+    public DoubleDouble div(DoubleDouble b) {
+        double q1 = hi / b.hi;
+        if (Double.isInfinite(q1) || Double.isNaN(q1) || q1 == 0)
+            return new DoubleDouble(q1);
+        DoubleDouble r = sub(b.mult(q1));
+        double q2 = r.hi / b.hi;
+        r = r.sub(b.mult(q2));
+        double q3 = r.hi / b.hi;
+        return new DoubleDouble(q1, q2).add(q3);
+    }
+
+    /**
+     * Multiply by a power of two, which is exact
+     * @param n The exponent
+     * @return this * 2^n
+     */
+    public DoubleDouble scalb(int n) {
+        return new DoubleDouble(Math.scalb(hi, n), Math.scalb(lo, n));
+    }
+
+    /**
+     * Compare two double-double numbers
+     * @param b Number to compare
+     * @return Negative, zero or positive if this is less, equal or greater than b
+     */
+    public int compareTo(DoubleDouble b) {
+        if (hi != b.hi)
+            return (hi < b.hi) ? -1 : 1;
+        return Double.compare(lo, b.lo);
+    }
+
+    /**
+     * Largest integer not greater than this number
+     * @return floor(this)
+     */
+    public DoubleDouble floor() {
+        double h = Math.floor(hi);
+        if (h == hi)
+            return new DoubleDouble(h, Math.floor(lo));
+        return new DoubleDouble(h);
+    }
+
+    /**
+     * Square root of this number
+     * @return sqrt(this)
+     * @throws ArithmeticException if the number is negative
+     */
+    public DoubleDouble sqrt() {
+        if (hi == 0)
+            return ZERO;
+        if (hi < 0)
+            throw new ArithmeticException("Sqrt argument out of range");
+        if (Double.isInfinite(hi))
+            return this;
+        double x = 1.0 / Math.sqrt(hi);
+        double ax = hi * x;
+        return twoSum(ax, sub(new DoubleDouble(ax).sqr()).hi * (x * 0.5));
+    }
+
+    /**
+     * e to the power of this number
+     * @return exp(this)
+     */
+    public DoubleDouble exp() {
+        if (hi <= -745.2)
+            return ZERO;
+        if (hi >= 709.8)
+            return new DoubleDouble(Double.POSITIVE_INFINITY);
+        if (hi == 0 && lo == 0)
+            return ONE;
+        // exp(x) = 2^m * exp(r/512)^512, |r| <= ln2/2
+        double m = Math.floor(hi / LN2.hi + 0.5);
+        DoubleDouble r = sub(LN2.mult(m)).scalb(-9);
+        DoubleDouble p = r.sqr();
+        DoubleDouble s = r.add(p.scalb(-1));
+        p = p.mult(r);
+        DoubleDouble t = p.mult(INV_FACT[0]);
+        int i = 0;
+        do {
+            s = s.add(t);
+            p = p.mult(r);
+            t = p.mult(INV_FACT[++i]);
+        } while (Math.abs(t.hi) > EPS / 512 && i < 8);
+        s = s.add(t);
+        // (1+s)^2 - 1 = 2s + s^2, nine times
+        for (int k = 0; k < 9; k++)
+            s = s.scalb(1).add(s.sqr());
+        s = s.add(1.0);
+        return s.scalb((int) m);
+    }
+
+    /**
+     * Natural logarithm of this number
+     * @return log(this)
+     * @throws ArithmeticException if the number is not positive
+     */
+    public DoubleDouble log() {
+        if (hi <= 0)
+            throw new ArithmeticException("Log argument out of range");
+        if (hi == 1 && lo == 0)
+            return ZERO;
+        if (Double.isInfinite(hi))
+            return this;
+        // One Newton step x = x + a*exp(-x) - 1 from the double logarithm
+        DoubleDouble x = new DoubleDouble(Math.log(hi));
+        return x.add(mult(x.neg().exp())).add(-1.0);
+    }
+
+    /**
+     * Sine of this number
+     * @return sin(this)
+     */
+    public DoubleDouble sin() {
+        DoubleDouble[] sc = sinCos();
+        return sc[0];
+    }
+
+    /**
+     * Cosine of this number
+     * @return cos(this)
+     */
+    public DoubleDouble cos() {
+        DoubleDouble[] sc = sinCos();
+        return sc[1];
+    }
+
+    /**
+     * Sine and cosine of this number
+     * @return An array with the sine and the cosine
+     */
+    DoubleDouble[] sinCos() {
+        // x = 2*pi*z + (pi/2)*j + t, |t| <= pi/4
+        DoubleDouble z = div(TWO_PI).add(0.5).floor();
+        DoubleDouble r = sub(TWO_PI.mult(z));
+        double j = Math.floor(r.hi / HALF_PI.hi + 0.5);
+        DoubleDouble t = r.sub(HALF_PI.mult(j));
+        DoubleDouble s = sinTaylor(t);
+        DoubleDouble c = cosTaylor(t);
+        switch ((int) j) {
+            case 1:
+                return new DoubleDouble[]{c, s.neg()};
+            case -1:
+                return new DoubleDouble[]{c.neg(), s};
+            case 2:
+            case -2:
+                return new DoubleDouble[]{s.neg(), c.neg()};
+            default:
+                return new DoubleDouble[]{s, c};
+        }
+    }
+
+    /**
+     * Taylor series of the sine for |t| &lt;= pi/4
+     */
+    private static DoubleDouble sinTaylor(DoubleDouble t) {
+        if (t.hi == 0)
+            return ZERO;
+        DoubleDouble x2 = t.sqr().neg();
+        DoubleDouble s = t;
+        DoubleDouble p = t;
+        int i = 0;
+        do {
+            p = p.mult(x2);
+            DoubleDouble term = p.mult(INV_FACT[i]);
+            s = s.add(term);
+            i += 2;
+            if (Math.abs(term.hi) <= EPS * Math.abs(s.hi))
+                break;
+        } while (i < INV_FACT.length);
+        return s;
+    }
+
+    /**
+     * Taylor series of the cosine for |t| &lt;= pi/4
+     */
+    private static DoubleDouble cosTaylor(DoubleDouble t) {
+        DoubleDouble x2 = t.sqr().neg();
+        DoubleDouble s = ONE.add(x2.scalb(-1));
+        DoubleDouble p = x2;
+        int i = 1;
+        do {
+            p = p.mult(x2);
+            DoubleDouble term = p.mult(INV_FACT[i]);
+            s = s.add(term);
+            i += 2;
+            if (Math.abs(term.hi) <= EPS)
+                break;
+        } while (i < INV_FACT.length);
+        return s;
+    }
+
+    /**
+     * Arc tangent of this number
+     * @return atan(this)
+     */
+    public DoubleDouble atan() {
+        if (hi == 0)
+            return ZERO;
+        if (Double.isInfinite(hi))
+            return (hi > 0) ? HALF_PI : HALF_PI.neg();
+        // Newton step on sin(z) - x*cos(z) = 0 from the double arc tangent
+        DoubleDouble z = new DoubleDouble(Math.atan(hi));
+        DoubleDouble[] sc = z.sinCos();
+        DoubleDouble num = sc[0].sub(mult(sc[1]));
+        DoubleDouble den = sc[1].add(mult(sc[0]));
+        return z.sub(num.div(den));
+    }
+
+    /**
+     * Arc sine of this number
+     * @return asin(this)
+     * @throws ArithmeticException if |this| &gt; 1
+     */
+    public DoubleDouble asin() {
+        DoubleDouble a = abs();
+        int c = a.compareTo(ONE);
+        if (c > 0)
+            throw new ArithmeticException("ArcSin argument out of range");
+        if (c == 0)
+            return (hi > 0) ? HALF_PI : HALF_PI.neg();
+        return div(ONE.sub(sqr()).sqrt()).atan();
+    }
+
+    /**
+     * Arc cosine of this number
+     * @return acos(this)
+     * @throws ArithmeticException if |this| &gt; 1
+     */
+    public DoubleDouble acos() {
+        return HALF_PI.sub(asin());
+    }
+
+    /**
+     * Lower bound of this number after an operation with relative error
+     * below 2^-k
+     * @param k Number of exact bits
+     * @return A smaller number
+     */
+    DoubleDouble down(int k) {
+        if (Double.isInfinite(hi) || Double.isNaN(hi))
+            return this;
+        double m = Math.scalb(Math.abs(hi), -k);
+        return add(-(m + Double.MIN_VALUE));
+    }
+
+    /**
+     * Upper bound of this number after an operation with relative error
+     * below 2^-k
+     * @param k Number of exact bits
+     * @return A greater number
+     */
+    DoubleDouble up(int k) {
+        if (Double.isInfinite(hi) || Double.isNaN(hi))
+            return this;
+        double m = Math.scalb(Math.abs(hi), -k);
+        return add(m + Double.MIN_VALUE);
+    }
+
+    /**
+     * Returns a string with the two parts of the number
+     * @return String with the number
+     */
+    @Override
+    public String toString() {
+        return hi + (lo < 0 ? "" : "+") + lo;
+    }
+}
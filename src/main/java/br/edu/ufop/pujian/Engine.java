@@ -24,10 +24,12 @@ package br.edu.ufop.pujian;
  * @author Jônata Lucas Nogueira
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class Engine {
 
@@ -41,12 +43,29 @@ public class Engine {
      */
     Context context;
 
+    /**
+     * Number of symbolic variables created, the index of the next one
+     */
+    private int symbolCount;
+
+    /**
+     * Interval results wider than this value are computed again with
+     * {@link DDInterval}. The default is infinity, so no result is refined.
+     */
+    double precisionThreshold = Double.POSITIVE_INFINITY;
+
+    /**
+     * Cache of the results of the interval functions, or null if results are
+     * not cached
+     */
+    FunctionCache functionCache;
+
     /**
      * Empty class constructor
      */
     public Engine() {
         symbols = new HashMap<>();
-        context = new Context(null);
+        context = new Context(null, new FrameLayout());
     }
 
     /**
@@ -68,6 +87,210 @@ public class Engine {
         return s.toString();
     }
 
+    /**
+     * Set the width above which an interval result of an operator or function
+     * is computed again in double-double precision. The double-double result
+     * is intersected with the double result, so the refined interval is never
+     * wider, unless both are disjoint and their hull is taken. Expressions with assignments, branches or function calls are not
+     * refined.
+     *
+     * @param width Width threshold. Use infinity to turn the refinement off.
+     */
+    public void setPrecisionThreshold(double width) {
+        this.precisionThreshold = width;
+    }
+
+    /**
+     * Get the width above which interval results are refined
+     * @return The width threshold
+     */
+    public double getPrecisionThreshold() {
+        return precisionThreshold;
+    }
+
+    /**
+     * Set the cache consulted by the interval functions before they are
+     * computed. The same cache may be shared by many engines.
+     *
+     * @param cache The cache, or null to compute every call
+     */
+    public void setFunctionCache(FunctionCache cache) {
+        this.functionCache = cache;
+    }
+
+    /**
+     * Get the cache of the interval functions
+     * @return The cache or null if results are not cached
+     */
+    public FunctionCache getFunctionCache() {
+        return functionCache;
+    }
+
+    /**
+     * Evaluate an expression with {@link DecoratedInterval}. Values out of
+     * the domain of an operation are removed and the decoration of the
+     * result tells it, so this method never throws. The expression must not
+     * have side effects, see {@link DecoratedEvaluator}.
+     *
+     * @param node Root of the expression
+     * @return The decorated result, NaI if the expression cannot be
+     * evaluated this way
+     */
+    public DecoratedInterval evalDecorated(Node node) {
+        return new DecoratedEvaluator(this).eval(node);
+    }
+
+    /**
+     * Evaluate an expression with its interval gradient, by forward mode
+     * automatic differentiation with {@link GradientInterval}. The value is
+     * the same of the normal evaluation and the gradient encloses the partial
+     * derivatives over the box of the variables.
+     *
+     * @param node Root of the expression
+     * @param variables Names of the independent variables. Each one must
+     * have a number or an interval in the context.
+     * @return The value and the gradient of the expression
+     * @throws SemanticError if a variable has no value or the expression
+     * has a node without derivative
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public GradientInterval evalGradient(Node node, String... variables) throws SemanticError {
+        return new GradientEvaluator(this, variables).eval(node);
+    }
+
+    /**
+     * Record an expression on a tape for the reverse mode of automatic
+     * differentiation. The tape can be run for many boxes of the variables
+     * and gives the whole gradient in one backward sweep, see
+     * {@link AdjointTape}.
+     *
+     * @param node Root of the expression
+     * @param variables Names of the independent variables
+     * @return The tape of the expression
+     * @throws SemanticError if the expression has a node without derivative
+     */
+    public AdjointTape recordAdjoint(Node node, String... variables) throws SemanticError {
+        return AdjointTape.record(this, node, variables);
+    }
+
+    /**
+     * Lower a program to a register machine, see {@link RegisterProgram}.
+     * The program reads and assigns the variables of the context of the
+     * engine each time it is run.
+     *
+     * @param node Root of the program
+     * @return The lowered program
+     * @throws SemanticError if the program has a node that cannot be lowered
+     */
+    public RegisterProgram lower(Node node) throws SemanticError {
+        return RegisterProgram.lower(this, node);
+    }
+
+    /**
+     * Compile an expression to be evaluated many times, see
+     * {@link ClosureCompiler}. The compiled node gives the same result as the
+     * expression, in the context of the engine at the time it is evaluated.
+     *
+     * @param node Root of the expression
+     * @return A node that evaluates the compiled expression
+     */
+    public Node compile(Node node) {
+        return new Compiled(node, new ClosureCompiler(this).compile(node));
+    }
+
+    /**
+     * Evaluate an expression with the mean value form, see
+     * {@link CenteredForm}. The result is the intersection of the normal
+     * and the centered enclosures over the box of the variables, so it is
+     * never wider than the normal evaluation. To evaluate many boxes make a
+     * {@link CenteredForm} from {@link #recordAdjoint(Node, String...)}.
+     *
+     * @param node Root of the expression
+     * @param variables Names of the independent variables. Each one must
+     * have a number or an interval in the context.
+     * @return The enclosure of the expression
+     * @throws SemanticError if a variable has no value or the expression
+     * has a node without derivative
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public Interval evalCentered(Node node, String... variables) throws SemanticError {
+        double[] xinf = new double[variables.length], xsup = new double[variables.length];
+        box(variables, xinf, xsup);
+        return new CenteredForm(recordAdjoint(node, variables)).evaluate(xinf, xsup);
+    }
+
+    /**
+     * Evaluate an expression using its monotonicity, see
+     * {@link MonotoneForm}. The variables in which the expression is
+     * monotone over their box are replaced by endpoints. To see the path
+     * taken for each variable, or to evaluate many boxes, make a
+     * {@link MonotoneForm} from {@link #recordAdjoint(Node, String...)}.
+     *
+     * @param node Root of the expression
+     * @param variables Names of the independent variables. Each one must
+     * have a number or an interval in the context.
+     * @return The enclosure of the expression
+     * @throws SemanticError if a variable has no value or the expression
+     * has a node without derivative
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public Interval evalMonotone(Node node, String... variables) throws SemanticError {
+        double[] xinf = new double[variables.length], xsup = new double[variables.length];
+        box(variables, xinf, xsup);
+        return new MonotoneForm(recordAdjoint(node, variables)).evaluate(xinf, xsup);
+    }
+
+    /**
+     * Read the box of the variables from the context
+     */
+    private void box(String[] variables, double[] xinf, double[] xsup) throws SemanticError {
+        for (int i = 0; i < variables.length; i++) {
+            Node val = context.get((Sym) makeSym(variables[i]));
+            if (val instanceof Num)
+                xinf[i] = xsup[i] = ((Num) val).val;
+            else if (val instanceof Inter) {
+                xinf[i] = ((Inter) val).val.getInf();
+                xsup[i] = ((Inter) val).val.getSup();
+            } else
+                throw new SemanticError(String.format("Variable '%s' has no value.", variables[i]));
+        }
+    }
+
+    /**
+     * Compute an interval result again with {@link DDEvaluator} if it is wider
+     * than the precision threshold. The children of the node were refined
+     * when they were evaluated, so only the node itself is computed again.
+     *
+     * @param node Node that gave the result
+     * @param result Result of the node in double precision
+     * @return The result intersected with the double-double result, or their
+     * hull if they are disjoint
+     * @throws SemanticError if an operation on numbers fails
+     */
+    Node refine(Node node, Node result) throws SemanticError {
+        node.refined = null;
+        if (!(result instanceof Inter) || !(((Inter) result).val.width() > precisionThreshold))
+            return result;
+        DDInterval dd;
+        try {
+            dd = new DDEvaluator(this).eval(node);
+        } catch (ArithmeticException ex) {
+            return result;
+        }
+        if (dd == null)
+            return result;
+        node.refined = dd;
+        Interval a = ((Inter) result).val;
+        Interval b = dd.toInterval();
+        double inf = Math.max(a.getInf(), b.getInf());
+        double sup = Math.min(a.getSup(), b.getSup());
+        // disjoint values disagree, as the double bounds of Rounding.NONE
+        // may miss the exact range: only the hull encloses both
+        if (inf > sup)
+            return new Inter(Math.min(a.getInf(), b.getInf()), Math.max(a.getSup(), b.getSup()));
+        return new Inter(inf, sup);
+    }
+
     /**
      * Create a symbolic variable without value only variable
      * 
@@ -114,7 +337,7 @@ public class Engine {
      * Function used to print all context of variables
      */
     public void printContext (){
-        Set<Engine.Sym> chaves = context.vars.keySet();
+        List<Engine.Sym> chaves = context.names();
 	for (Iterator<Engine.Sym> iterator = chaves.iterator(); iterator.hasNext();)
 	{
 		Engine.Sym chave = iterator.next();
@@ -153,6 +376,14 @@ public class Engine {
      * the main goal of this classe is to be used to generalize the types.
      */
     public class Node {
+
+        /**
+         * Double-double value of this node computed by the last
+         * {@link Engine#refine(Node, Node)}, or null. The parent of the node
+         * is evaluated after it, so {@link DDEvaluator} takes this value
+         * instead of evaluating the subtree again.
+         */
+        DDInterval refined;
         
         /**
          * Return the node
@@ -174,6 +405,18 @@ public class Engine {
             throw new SemanticError(String.format("Operation '%s' not implemented.", op));
         }
 
+        /**
+         * Make the unary operation of an opcode. By default it is the
+         * operation of its symbol, types in {@link Operators} override it.
+         *
+         * @param code The operator
+         * @return A Node with operation result
+         * @throws SemanticError
+         */
+        public Node doUnaryOp(Opcode code) throws SemanticError {
+            return doUnaryOp(code.toString());
+        }
+
         /**
          * Overridable method to make the binary operation. Must be overridable to enveloped type like Num or IntervalNum
          * @param op A string with the unary operation
@@ -189,6 +432,27 @@ public class Engine {
             throw new SemanticError(String.format("Operation '%s' not implemented.", op));
         }
 
+        /**
+         * Make the binary operation of an opcode. By default it is the
+         * operation of its symbol, types in {@link Operators} override it.
+         *
+         * @param code The operator
+         * @param other The right operator
+         * @return A Node with operation result
+         * @throws SemanticError
+         */
+        public Node doBinOp(Opcode code, Node other) throws SemanticError {
+            return doBinOp(code.toString(), other);
+        }
+
+        /**
+         * Type of the node in the table of {@link Operators}
+         * @return The type, or -1 if the node is not in the table
+         */
+        int type() {
+            return -1;
+        }
+
         /**
          * On construction
          * @return always true
@@ -243,22 +507,38 @@ public class Engine {
          */
         @Override
         public Node doUnaryOp(String op) throws SemanticError {
-            if ("-".equals(op))
-                return new Num(-this.val);
-            if ("+".equals(op))
-                return this;
-            if ("--".equals(op))
-                return new Num(this.val - 1);
-            if ("++".equals(op))
-                return new Num(this.val + 1);
-            if ("!".equals(op)) {
-                double n = val, r = 1;
-                while (n > 1) r *= n--;
-                return new Num(r);
+            Opcode code = Opcode.of(op);
+            return (code == null) ? super.doUnaryOp(op) : doUnaryOp(code);
+        }
+
+        /**
+         * Make a unary operation with the opcode of one of the operators of
+         * {@link #doUnaryOp(String)}
+         *
+         * @param code The operator
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doUnaryOp(Opcode code) throws SemanticError {
+            switch (code) {
+                case SUB:
+                    return new Num(-this.val);
+                case ADD:
+                    return this;
+                case DEC:
+                    return new Num(this.val - 1);
+                case INC:
+                    return new Num(this.val + 1);
+                case FACT:
+                    double n = val, r = 1;
+                    while (n > 1) r *= n--;
+                    return new Num(r);
+                case HASH:
+                    return new Num(this.hashCode());
+                default:
+                    return super.doUnaryOp(code.toString());
             }
-            if ("@".equals(op))
-                return new Num(this.hashCode());
-            return super.doUnaryOp(op);
         }
 
         /**
@@ -285,34 +565,36 @@ public class Engine {
          */
         @Override
         public Node doBinOp(String op, Node other) throws SemanticError {
-            Num that = (Num) other;
-            if ("+".equals(op))
-                return new Num(val + that.val);
-            if ("-".equals(op))
-                return new Num(val - that.val);
-            if ("*".equals(op))
-                return new Num(val * that.val);
-            if ("/".equals(op))
-                return new Num(val / that.val);
-            if ("%".equals(op))
-                return new Num(val % that.val);
-            if ("^".equals(op))
-                return new Num(Math.pow(val, that.val));
-            if ("==".equals(op))
-                return new Num(val == that.val ? 1 : 0);
-            if ("!=".equals(op))
-                return new Num(val != that.val ? 1 : 0);
-            if ("<=".equals(op))
-                return new Num(val <= that.val ? 1 : 0);
-            if ("<".equals(op))
-                return new Num(val < that.val ? 1 : 0);
-            if (">=".equals(op))
-                return new Num(val >= that.val ? 1 : 0);
-            if (">".equals(op))
-                return new Num(val > that.val ? 1 : 0);
-            if (",".equals(op))
-                return new Inter(val, that.val);
-            return super.doBinOp(op, other);
+            Opcode code = Opcode.of(op);
+            return (code == null) ? super.doBinOp(op, other) : doBinOp(code, other);
+        }
+
+        /**
+         * Make a binary operation with the opcode of one of the operators of
+         * {@link #doBinOp(String, Engine.Node)}, from the table of
+         * {@link Operators}. With an interval or a union the number is a
+         * point interval.
+         *
+         * @param code The operator
+         * @param other The {@link Engine.Node} with right operand
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doBinOp(Opcode code, Node other) throws SemanticError {
+            Operators.Operation f = Operators.get(Operators.NUM, other.type(), code);
+            if (f != null)
+                return f.apply(Engine.this, this, other);
+            if (other instanceof Union)
+                return new Union(new IntervalUnion(new Interval(val))).doBinOp(code, other);
+            if (other instanceof Affine)
+                return new Affine(AffineForm.of(val)).doBinOp(code, other);
+            return super.doBinOp(code.toString(), other);
+        }
+
+        @Override
+        int type() {
+            return Operators.NUM;
         }
 
         /**
@@ -383,9 +665,30 @@ public class Engine {
          */
         @Override
         public Node doUnaryOp(String op) throws SemanticError {
-            if ("=".equals(op))
-                return new Inter(this.val);
-            return super.doUnaryOp(op);
+            Opcode code = Opcode.of(op);
+            return (code == null) ? super.doUnaryOp(op) : doUnaryOp(code);
+        }
+
+        /**
+         * Make a unary operation with the opcode of the operator: = copies
+         * the interval, + and - are the sign operators
+         *
+         * @param code The operator
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doUnaryOp(Opcode code) throws SemanticError {
+            switch (code) {
+                case ASSIGN:
+                    return new Inter(this.val);
+                case ADD:
+                    return this;
+                case SUB:
+                    return new Inter(val.INeg());
+                default:
+                    return super.doUnaryOp(code.toString());
+            }
         }
         
         /**
@@ -412,57 +715,229 @@ public class Engine {
          */
         @Override
         public Node doBinOp(String op, Node other) throws SemanticError {
-            Inter that;
-            Num it;
-            switch(op) {
+            Opcode code = Opcode.of(op);
+            return (code == null) ? super.doBinOp(op, other) : doBinOp(code, other);
+        }
+
+        /**
+         * Make a binary operation with the opcode of one of the operators of
+         * {@link #doBinOp(String, Engine.Node)}, from the table of
+         * {@link Operators}. A number is a point interval.
+         *
+         * @param code The operator
+         * @param other The {@link Engine.Node} with right operand
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doBinOp(Opcode code, Node other) throws SemanticError {
+            Operators.Operation f = Operators.get(Operators.INTER, other.type(), code);
+            if (f != null)
+                return f.apply(Engine.this, this, other);
+            if (other instanceof Union)
+                return new Union(new IntervalUnion(val)).doBinOp(code, other);
+            if (other instanceof Affine)
+                return new Affine(AffineForm.of(val)).doBinOp(code, other);
+            return super.doBinOp(code.toString(), other);
+        }
+
+        @Override
+        int type() {
+            return Operators.INTER;
+        }
+    }
+
+    /**
+     * Get the node of a union: an {@link Inter} if it has one piece
+     * @param u The union
+     * @return An Inter or a {@link Engine.Union}
+     */
+    Node union(IntervalUnion u) {
+        return (u.size() == 1) ? new Inter(u.get(0)) : new Union(u);
+    }
+
+    /**
+     * Class to hold a union of intervals, given by a division by an interval
+     * with zero
+     */
+    public class Union extends Node {
+        IntervalUnion val;
+
+        /**
+         * Class constructor
+         *
+         * @param val An {@link IntervalUnion}
+         */
+        public Union(IntervalUnion val) {
+            super();
+            this.val = val;
+        }
+
+        /**
+         * Returns a String with the pieces of the union
+         * @return String with the pieces
+         */
+        @Override
+        public String toString() {
+            return val.toString();
+        }
+
+        /**
+         * Make a unary operation with the union
+         *
+         * @param op String with operator that can be: <ul>
+         * <li> = Copy the union </li>
+         * <li> - Change the sign of the union </li>
+         * </ul>
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doUnaryOp(String op) throws SemanticError {
+            if ("=".equals(op))
+                return new Union(val);
+            if ("-".equals(op))
+                return union(val.INeg());
+            return super.doUnaryOp(op);
+        }
+
+        /**
+         * Make a binary operation of the union with a number, an interval or
+         * another union
+         *
+         * @param op String with operator that can be: <ul>
+         * <li> + Add the pieces </li>
+         * <li> - Subtract the pieces </li>
+         * <li> * Multiply the pieces </li>
+         * <li> / Divide the pieces with the extended division </li>
+         * <li> &amp; Hull of the operands </li>
+         * </ul>
+         * @param other The {@link Engine.Node} with right operand
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doBinOp(String op, Node other) throws SemanticError {
+            IntervalUnion that;
+            if (other instanceof Union)
+                that = ((Union) other).val;
+            else if (other instanceof Inter)
+                that = new IntervalUnion(((Inter) other).val);
+            else if (other instanceof Num)
+                that = new IntervalUnion(new Interval(((Num) other).val));
+            else
+                return super.doBinOp(op, other);
+            switch (op) {
                 case "+":
-                    that = (Inter) other;
-                    return new Inter(val.add(that.val));
+                    return union(val.add(that));
                 case "-":
-                    that = (Inter) other;
-                    return new Inter(val.sub(that.val));
+                    return union(val.sub(that));
                 case "*":
-                    that = (Inter) other;
-                    return new Inter(val.mult(that.val));
-                case "^":
-                    if(other instanceof Num){
-                        it = (Num) other;
-                        return new Inter(InterFunctions.IPowerN(val, (int) Math.round(it.val)));
-                    }
-                    else if(other instanceof Inter){
-                        that = (Inter) other;
-                        return new Inter(InterFunctions.IPowerI(val, that.val));
-                    }
+                    return union(val.mult(that));
+                case "/":
+                    return union(val.div(that));
                 case "&":
-                    Class<?> enclosingClass = other.getClass();
-                    if (enclosingClass != null) {
-                      String classSimpleName = enclosingClass.getSimpleName();
-                      if("Num".equals(classSimpleName)){
-                          it = (Num) other;
-                          return new Inter(val.Hull(it.val));
-                      }
-                      if("Inter".equals(classSimpleName)){
-                          that = (Inter) other;
-                          Interval b = val.Hull(that.val);
-                          Inter c = new Inter(b);
-                          return c;
-                      }
-                    } else {
-                      System.out.println(getClass().getName());
-                      return null;
-                    }
+                    if (val.isEmpty() || that.isEmpty())
+                        return union(val.isEmpty() ? that : val);
+                    return new Inter(val.hull().Hull(that.hull()));
                 default:
                     return super.doBinOp(op, other);
             }
-            /*if ("+".equals(op))
-                return new Inter(val.add(that.val));
+        }
+    }
+
+    /**
+     * Class to hold an affine form, made by the function Affine from an
+     * interval. Operations with numbers and intervals give affine forms and
+     * the function Range gives the interval back.
+     */
+    public class Affine extends Node {
+        AffineForm val;
+
+        /**
+         * Class constructor
+         *
+         * @param val An {@link AffineForm}
+         */
+        public Affine(AffineForm val) {
+            super();
+            this.val = val;
+        }
+
+        /**
+         * Returns a String with the central value and the noise symbols
+         * @return String with the form
+         */
+        @Override
+        public String toString() {
+            return val.toString();
+        }
+
+        /**
+         * Make a unary operation with the form
+         *
+         * @param op String with operator that can be: <ul>
+         * <li> = Copy the form </li>
+         * <li> - Change the sign of the form </li>
+         * </ul>
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doUnaryOp(String op) throws SemanticError {
+            if ("=".equals(op))
+                return new Affine(val);
             if ("-".equals(op))
-                return new Inter(val.sub(that.val));
-            if ("*".equals(op))
-                return new Inter(val.mult(that.val));
-            return super.doBinOp(op, other);*/
+                return new Affine(val.INeg());
+            return super.doUnaryOp(op);
         }
 
+        /**
+         * Make a binary operation of the form with a number, an interval or
+         * another form
+         *
+         * @param op String with operator that can be: <ul>
+         * <li> + Add the forms </li>
+         * <li> - Subtract the forms </li>
+         * <li> * Multiply the forms </li>
+         * <li> / Divide the forms </li>
+         * <li> ^ Power by a number or an interval </li>
+         * <li> &amp; Hull of the intervals of the operands </li>
+         * </ul>
+         * @param other The {@link Engine.Node} with right operand
+         * @return A {@link Engine.Node} with the operation results
+         * @throws SemanticError
+         */
+        @Override
+        public Node doBinOp(String op, Node other) throws SemanticError {
+            AffineForm that;
+            if (other instanceof Affine)
+                that = ((Affine) other).val;
+            else if (other instanceof Inter)
+                that = AffineForm.of(((Inter) other).val);
+            else if (other instanceof Num)
+                that = AffineForm.of(((Num) other).val);
+            else
+                return super.doBinOp(op, other);
+            switch (op) {
+                case "+":
+                    return new Affine(val.add(that));
+                case "-":
+                    return new Affine(val.sub(that));
+                case "*":
+                    return new Affine(val.mult(that));
+                case "/":
+                    return new Affine(val.div(that));
+                case "^":
+                    if (other instanceof Num)
+                        return new Affine(AffineFunctions.IPowerR(val, ((Num) other).val));
+                    return new Affine(AffineFunctions.IPowerI(val, that));
+                case "&":
+                    return new Inter(val.toInterval().Hull(that.toInterval()));
+                default:
+                    return super.doBinOp(op, other);
+            }
+        }
     }
 
     /**
@@ -473,6 +948,11 @@ public class Engine {
          * Operator
          */
         String op;
+
+        /**
+         * Opcode of the operator, null if it is not a built-in operator
+         */
+        Opcode code;
         
         /**
          * Operand
@@ -487,6 +967,19 @@ public class Engine {
         public UnaryOp(String op, Node operand) {
             super();
             this.op = op;
+            this.code = Opcode.of(op);
+            this.operand = operand;
+        }
+
+        /**
+         * Class constructor with an operator resolved by the parser
+         * @param code Operator
+         * @param operand Operand
+         */
+        public UnaryOp(Opcode code, Node operand) {
+            super();
+            this.op = code.toString();
+            this.code = code;
             this.operand = operand;
         }
 
@@ -506,7 +999,8 @@ public class Engine {
          */
         @Override
         public Node eval() throws SemanticError {
-            return operand.eval().doUnaryOp(op);
+            Node v = operand.eval();
+            return (code != null) ? v.doUnaryOp(code) : v.doUnaryOp(op);
         }
     }
     
@@ -515,6 +1009,10 @@ public class Engine {
      */
     public class BinOp extends Node {
         String op;
+        /**
+         * Opcode of the operator, null if it is not a built-in operator
+         */
+        Opcode code;
         Node left;
         Node right;
 
@@ -527,6 +1025,21 @@ public class Engine {
         public BinOp(String op, Node left, Node right) {
             super();
             this.op = op;
+            this.code = Opcode.of(op);
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Class constructor with an operator resolved by the parser
+         * @param code Operator
+         * @param left Operand
+         * @param right Operand
+         */
+        public BinOp(Opcode code, Node left, Node right) {
+            super();
+            this.op = code.toString();
+            this.code = code;
             this.left = left;
             this.right = right;
         }
@@ -548,9 +1061,9 @@ public class Engine {
          */
         @Override
         public Node eval() throws SemanticError {
-            Node l = ("=".equals(op)) ? left : left.eval(); //If operator is equal put left node on l if not get node from context variable 
+            Node l = (code == Opcode.ASSIGN) ? left : left.eval(); //If operator is equal put left node on l if not get node from context variable 
             Node r = right.eval();
-            return l.doBinOp(op, r);
+            return refine(this, (code != null) ? l.doBinOp(code, r) : l.doBinOp(op, r));
         }
     }
 
@@ -592,6 +1105,11 @@ public class Engine {
          */
         String varName;
 
+        /**
+         * Index of the variable, which gives its slot in a {@link FrameLayout}
+         */
+        final int id;
+
         /**
          * Creates a symbolic variable with the name in parameter
          * @param varName Variable name 
@@ -599,6 +1117,7 @@ public class Engine {
         public Sym(String varName) {
             super();
             this.varName = varName;
+            this.id = symbolCount++;
         }
 
         /**
@@ -638,6 +1157,13 @@ public class Engine {
                 return context.set(this, other);
             return super.doBinOp(op, other);
         }
+
+        @Override
+        public Node doBinOp(Opcode code, Node other) throws SemanticError {
+            if (code == Opcode.ASSIGN)
+                return context.set(this, other);
+            return super.doBinOp(code.toString(), other);
+        }
     }
 
     /**
@@ -651,10 +1177,22 @@ public class Engine {
         Context parent;
         
         /**
-         * A hash map with a {@link Engine.Sym} as key and {@link Engine.Node} as value
+         * A hash map with a {@link Engine.Sym} as key and {@link Engine.Node} as value.
+         * In a frame it has the variables without a slot, or it is null.
          */
         Map<Sym, Node> vars;
 
+        /**
+         * Slots of the variables of a frame, or null
+         */
+        final FrameLayout layout;
+
+        /**
+         * Values of the slots of a frame, null if the variable is not in
+         * the frame
+         */
+        Object[] slots;
+
         /**
          * Class constructor
          * @param parent The instance parent of the creating instance
@@ -662,6 +1200,18 @@ public class Engine {
         public Context(Context parent) {
             this.parent = parent;
             this.vars = new HashMap<>();
+            this.layout = null;
+        }
+
+        /**
+         * Create a frame, which keeps the variables of its layout in slots
+         * @param parent The instance parent of the creating instance
+         * @param layout Slots of the variables
+         */
+        Context(Context parent, FrameLayout layout) {
+            this.parent = parent;
+            this.layout = layout;
+            this.slots = new Object[layout.size()];
         }
 
         /**
@@ -670,13 +1220,39 @@ public class Engine {
          * @return The {@link Engine.Node} with the value of the {@link Engine.Sym} operand
          */
         public Node get(Sym sym) {
-            if (vars.containsKey(sym))
-                return vars.get(sym);
-            if (parent != null)
-                return parent.get(sym);
+            for (Context c = this; c != null; c = c.parent) {
+                if (c.layout != null) {
+                    int k = c.layout.slot(sym);
+                    if (k >= 0) {
+                        Object val = (k < c.slots.length) ? c.slots[k] : null;
+                        if (val != null)
+                            return (val == FrameLayout.NULL) ? null : (Node) val;
+                        continue;
+                    }
+                }
+                if (c.vars != null) {
+                    Node val = c.vars.get(sym);
+                    if (val != null || c.vars.containsKey(sym))
+                        return val;
+                }
+            }
             return null;
         }
 
+        /**
+         * Get a variable from the slot of a frame, or from the parent if the
+         * frame does not have it yet
+         * @param slot Slot of the variable in the layout of the frame
+         * @param sym The variable
+         * @return The value, or null
+         */
+        Node get(int slot, Sym sym) {
+            Object val = slots[slot];
+            if (val == null)
+                return (parent != null) ? parent.get(sym) : null;
+            return (val == FrameLayout.NULL) ? null : (Node) val;
+        }
+
         /**
          * Set the value of a symbolic variable with the value in the val
          * 
@@ -685,9 +1261,46 @@ public class Engine {
          * @return {@link Engine.Node} with the value of the new operand
          */
         public Node set(Sym sym, Node val) {
+            if (layout != null) {
+                int k = layout.slot(sym);
+                if (k < 0 && layout.isOpen())
+                    k = layout.add(sym);
+                if (k >= 0)
+                    return set(k, val);
+                if (vars == null)
+                    vars = new HashMap<>();
+            }
             vars.put(sym, val);
             return val;
         }
+
+        /**
+         * Set the slot of a variable of a frame
+         * @param slot Slot of the variable in the layout of the frame
+         * @param val The value
+         * @return The value
+         */
+        Node set(int slot, Node val) {
+            if (slot >= slots.length)
+                slots = Arrays.copyOf(slots, Math.max(slot + 1, 2 * slots.length));
+            slots[slot] = (val == null) ? FrameLayout.NULL : val;
+            return val;
+        }
+
+        /**
+         * Get the variables of this context, without the ones of the parent
+         * @return The variables
+         */
+        List<Sym> names() {
+            List<Sym> names = new ArrayList<>();
+            if (layout != null)
+                for (int k = 0; k < slots.length && k < layout.size(); k++)
+                    if (slots[k] != null)
+                        names.add(layout.name(k));
+            if (vars != null)
+                names.addAll(vars.keySet());
+            return names;
+        }
     }
 
     /**
@@ -764,15 +1377,22 @@ public class Engine {
             Func func = (Func) node;
             if (func.args.length != this.args.length)
                 throw new SemanticError("Argument mismatch.");
-            Context newctx = new Context(context);
+            Node[] values = new Node[args.length];
+            for (int i = 0; i < args.length; i++)
+                values[i] = args[i].eval();
+            Node result = func.tier().call(values);
+            if (result != null)
+                return result;
+            FrameLayout layout = func.layout();
+            Context frame = layout.acquire(Engine.this, context);
             for (int i = 0; i < func.args.length; i++)
-                newctx.set(((Sym) func.args[i]), args[i].eval());
-            Node result;
-            Engine.this.context = newctx;
+                frame.set(((Sym) func.args[i]), values[i]);
+            Engine.this.context = frame;
             try {
                 result = func.body.eval();
             } finally {
                 pop();
+                layout.release(frame);
             }
             return result;
         }
@@ -797,6 +1417,22 @@ public class Engine {
          */
         protected Node body;
 
+        /**
+         * Body compiled by {@link ClosureCompiler} on the first compiled
+         * call, or null
+         */
+        ClosureCompiler.Code compiled;
+
+        /**
+         * Bytecode tier of the body, created on the first call
+         */
+        private BytecodeTier tier;
+
+        /**
+         * Slots of the frames of the calls, created on the first call
+         */
+        private FrameLayout layout;
+
         /**
          * Class Constructor
          * @param head The name of the function
@@ -814,6 +1450,27 @@ public class Engine {
             return context.set(head, this);
         }
 
+        /**
+         * Get the bytecode tier of the body
+         * @return The tier, which counts the calls of the function
+         */
+        BytecodeTier tier() {
+            if (tier == null)
+                tier = new BytecodeTier(Engine.this, this, body, args);
+            return tier;
+        }
+
+        /**
+         * Get the layout of the frames of the calls
+         * @return The slots of the arguments and of the variables assigned
+         * in the body
+         */
+        FrameLayout layout() {
+            if (layout == null)
+                layout = new FrameLayout(this);
+            return layout;
+        }
+
         @Override
         public String toString() {
             return "fun " + head + "(" + itemsToString(args, ",") + ") is " + body + " end";
@@ -831,15 +1488,93 @@ public class Engine {
         
         @Override
         public Node eval() throws SemanticError {
-            Inter a;
-            a = (Inter) arg.eval();
+            return eval(arg.eval());
+        }
+
+        /**
+         * Apply the function to an argument that is already evaluated
+         * @param v Value of the argument
+         * @return A {@link Engine.Node} with the result value
+         * @throws SemanticError if the function is not defined for v
+         */
+        Node eval(Node v) throws SemanticError {
+            if ("Affine".equals(head) || "Range".equals(head) || v instanceof Affine || v instanceof Union) {
+                // not refined, so a former refined value must not be taken
+                refined = null;
+                return (v instanceof Union) ? apply(((Union) v).val) : affine(v);
+            }
+            Inter a = (Inter) v;
+            FunctionCache cache = functionCache;
+            // RAbs gives a number, which is not cached
+            if (cache == null || "RAbs".equals(head))
+                return refine(this, apply(a));
+            Interval cached = cache.get(head, a.val);
+            if (cached != null)
+                return refine(this, new Inter(cached));
+            Node result = apply(a);
+            if (result instanceof Inter)
+                cache.put(head, a.val, ((Inter) result).val);
+            return refine(this, result);
+        }
+
+        /**
+         * Apply the function to an affine form. Affine makes a form from an
+         * interval and Range gives the interval of a form.
+         * @param v Argument
+         * @return A {@link Engine.Node} with the result value
+         * @throws SemanticError if the argument has no interval value
+         */
+        private Node affine(Node v) throws SemanticError {
+            AffineForm x;
+            if (v instanceof Affine)
+                x = ((Affine) v).val;
+            else if (v instanceof Inter)
+                x = AffineForm.of(((Inter) v).val);
+            else if (v instanceof Num)
+                x = AffineForm.of(((Num) v).val);
+            else
+                throw new SemanticError(String.format("Operation '%s' not implemented.", head));
+            switch (head) {
+                case "Affine":
+                    return new Affine(x);
+                case "Range":
+                    return new Inter(x.toInterval());
+                case "RAbs":
+                    return new Num(x.toInterval().RAbs());
+                default:
+                    int f = GradientFunctions.Code(head);
+                    if (f < 0)
+                        throw new SemanticError(String.format("Operation '%s' not implemented.", head));
+                    return new Affine(AffineFunctions.Apply(f, x));
+            }
+        }
+
+        /**
+         * Apply the function to every piece of a union
+         * @param u Union argument
+         * @return A {@link Engine.Node} with the result value
+         */
+        private Node apply(IntervalUnion u) {
+            if ("RAbs".equals(head))
+                return new Num(u.hull().RAbs());
+            return union(u.map(x -> ((Inter) apply(new Inter(x))).val));
+        }
+
+        /**
+         * Apply the function to an interval in double precision
+         * @param a Interval argument
+         * @return A {@link Engine.Node} with the result value
+         */
+        private Node apply(Inter a) {
             switch (head){
                 case "Cos":
                     return new Inter(InterFunctions.Cos(a.val));
                 case "Sin":
                     return new Inter(InterFunctions.Sin(a.val));
+                case "Tan":
+                    return new Inter(InterFunctions.Tan(a.val));
                 case "Cot":
-                    return new Inter(InterFunctions.Cos(a.val));
+                    return new Inter(InterFunctions.Cot(a.val));
                 case "ASin":
                     return new Inter(InterFunctions.ASin(a.val));
                 case "ACos":
@@ -854,12 +1589,22 @@ public class Engine {
                     return new Inter(InterFunctions.Tanh(a.val));
                 case "Coth":
                     return new Inter(InterFunctions.Coth(a.val));
+                case "ASinh":
+                    return new Inter(InterFunctions.ASinh(a.val));
+                case "ACosh":
+                    return new Inter(InterFunctions.ACosh(a.val));
+                case "ATanh":
+                    return new Inter(InterFunctions.ATanh(a.val));
                 case "IAbs":
                     return new Inter(InterFunctions.IAbs(a.val));
                 case "RAbs":
                     return new Num(a.val.RAbs());
                 case "ISqr":
                     return new Inter(InterFunctions.ISqr(a.val));
+                case "Sqrt":
+                    return new Inter(InterFunctions.Sqrt(a.val));
+                case "Cbrt":
+                    return new Inter(InterFunctions.Cbrt(a.val));
                 case "Log":
                     return new Inter(InterFunctions.Log(a.val));
                 case "Log10":
@@ -875,4 +1620,41 @@ public class Engine {
             return head + "(" + arg + ")";
         }
     }
+
+    /**
+     * Expression compiled by {@link #compile(Node)}
+     */
+    public class Compiled extends Node {
+        /**
+         * The expression that was compiled
+         */
+        private final Node source;
+        private final ClosureCompiler.Code code;
+        private final BytecodeTier tier;
+
+        Compiled(Node source, ClosureCompiler.Code code) {
+            this.source = source;
+            this.code = code;
+            this.tier = new BytecodeTier(Engine.this, null, source, new Node[0]);
+        }
+
+        /**
+         * Get the expression that was compiled
+         * @return The root of the expression
+         */
+        public Node getSource() {
+            return source;
+        }
+
+        @Override
+        public Node eval() throws SemanticError {
+            Node result = tier.call(null);
+            return (result != null) ? result : code.run();
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Interval with single precision bounds, used to store many intervals in
+ * less memory. See {@link FloatIntervalArray} for the column version.
+ *
+ * The conversion from {@link Interval} rounds the bounds outward. The
+ * operations are computed in double and the results are rounded outward to
+ * float, so the bounds are guaranteed with any {@link Rounding} policy.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class FloatInterval {
+
+    /**
+     * Lower bound
+     */
+    private final float inf;
+
+    /**
+     * Upper bound
+     */
+    private final float sup;
+
+    /**
+     * Class constructor with interval limits in any order
+     *
+     * @param inf Interval inferior limit
+     * @param sup Interval superior limit
+     */
+    public FloatInterval(float inf, float sup) {
+        if (inf > sup) {
+            this.inf = sup;
+            this.sup = inf;
+        } else {
+            this.inf = inf;
+            this.sup = sup;
+        }
+    }
+
+    /**
+     * Class constructor that rounds double limits outward
+     *
+     * @param inf Interval inferior limit
+     * @param sup Interval superior limit
+     */
+    public FloatInterval(double inf, double sup) {
+        this(down(Math.min(inf, sup)), up(Math.max(inf, sup)));
+    }
+
+    /**
+     * Class constructor that rounds the bounds of an {@link Interval} outward
+     *
+     * @param A Interval to be converted
+     */
+    public FloatInterval(Interval A) {
+        this(down(A.getInf()), up(A.getSup()));
+    }
+
+    /**
+     * Get the lower bound of the interval
+     * @return The lower bound of the interval
+     */
+    public float getInf() {
+        return inf;
+    }
+
+    /**
+     * Get the upper bound of the interval
+     * @return The upper bound of the interval
+     */
+    public float getSup() {
+        return sup;
+    }
+
+    /**
+     * Convert to {@link Interval}. The conversion is exact.
+     * @return A new {@link Interval} with the same bounds
+     */
+    public Interval toInterval() {
+        return new Interval(inf, sup);
+    }
+
+    /**
+     * Unary negative operation in this interval
+     * @return Interval result
+     */
+    public FloatInterval INeg() {
+        return new FloatInterval(-sup, -inf);
+    }
+
+    /**
+     * Sum two intervals
+     * @param A Interval to make the sum
+     * @return Interval result
+     */
+    public FloatInterval add(FloatInterval A) {
+        return new FloatInterval(sumDown(inf, A.inf), sumUp(sup, A.sup));
+    }
+
+    /**
+     * Subtract two intervals
+     * @param A Interval to make the subtraction
+     * @return Interval result
+     */
+    public FloatInterval sub(FloatInterval A) {
+        return new FloatInterval(sumDown(inf, -A.sup), sumUp(sup, -A.inf));
+    }
+
+    /**
+     * Multiplies two intervals. The products of two floats are exact in
+     * double.
+     * @param A Interval to make the multiplication
+     * @return Interval result
+     */
+    public FloatInterval mult(FloatInterval A) {
+        double p0 = (double) inf * A.inf, p1 = (double) inf * A.sup;
+        double p2 = (double) sup * A.inf, p3 = (double) sup * A.sup;
+        return new FloatInterval(down(Math.min(Math.min(p0, p1), Math.min(p2, p3))),
+                up(Math.max(Math.max(p0, p1), Math.max(p2, p3))));
+    }
+
+    /**
+     * Divides two intervals
+     * @param A Interval to make the division
+     * @return Interval result
+     * @throws ArithmeticException if A contains zero
+     */
+    public FloatInterval div(FloatInterval A) {
+        if (!(A.inf > 0 || A.sup < 0))
+            throw new ArithmeticException("The interval contains zero");
+        float q0 = quotDown(inf, A.inf), q1 = quotDown(inf, A.sup);
+        float q2 = quotDown(sup, A.inf), q3 = quotDown(sup, A.sup);
+        float r0 = quotUp(inf, A.inf), r1 = quotUp(inf, A.sup);
+        float r2 = quotUp(sup, A.inf), r3 = quotUp(sup, A.sup);
+        return new FloatInterval(Math.min(Math.min(q0, q1), Math.min(q2, q3)),
+                Math.max(Math.max(r0, r1), Math.max(r2, r3)));
+    }
+
+    /**
+     * Get the hull between two intervals
+     * @param B Interval
+     * @return Interval with the hull
+     */
+    public FloatInterval Hull(FloatInterval B) {
+        return new FloatInterval((B.inf < inf) ? B.inf : inf, (B.sup > sup) ? B.sup : sup);
+    }
+
+    /**
+     * Calculate the width in this interval
+     * @return Width result computed in double, which is exact
+     */
+    public double width() {
+        return (double) sup - inf;
+    }
+
+    /**
+     * Calculate the midpoint in this interval
+     * @return Midpoint result
+     */
+    public double midpoint() {
+        return ((double) inf + sup) / 2;
+    }
+
+    /**
+     * Largest float not greater than x
+     * @param x Double value
+     * @return x rounded down to float
+     */
+    static float down(double x) {
+        float f = (float) x;
+        return (f > x) ? Math.nextDown(f) : f;
+    }
+
+    /**
+     * Smallest float not less than x
+     * @param x Double value
+     * @return x rounded up to float
+     */
+    static float up(double x) {
+        float f = (float) x;
+        return (f < x) ? Math.nextUp(f) : f;
+    }
+
+    /**
+     * Lower bound of a + b as a float. The sum is rounded in double and the
+     * TwoSum error tells the side of the exact sum.
+     */
+    static float sumDown(float a, float b) {
+        double s = (double) a + b;
+        float f = (float) s;
+        if (f > s || (f == s && twoSumError(a, b, s) < 0))
+            return Math.nextDown(f);
+        return f;
+    }
+
+    /**
+     * Upper bound of a + b as a float
+     */
+    static float sumUp(float a, float b) {
+        double s = (double) a + b;
+        float f = (float) s;
+        if (f < s || (f == s && twoSumError(a, b, s) > 0))
+            return Math.nextUp(f);
+        return f;
+    }
+
+    /**
+     * Lower bound of a / b as a float. The residual a - q*b tells the side
+     * of the exact quotient.
+     */
+    static float quotDown(double a, double b) {
+        double q = a / b;
+        float f = (float) q;
+        if (f > q)
+            return Math.nextDown(f);
+        if (f == q) {
+            double r = Math.fma(-q, b, a);
+            if ((r < 0 && b > 0) || (r > 0 && b < 0))
+                return Math.nextDown(f);
+        }
+        return f;
+    }
+
+    /**
+     * Upper bound of a / b as a float
+     */
+    static float quotUp(double a, double b) {
+        double q = a / b;
+        float f = (float) q;
+        if (f < q)
+            return Math.nextUp(f);
+        if (f == q) {
+            double r = Math.fma(-q, b, a);
+            if ((r > 0 && b > 0) || (r < 0 && b < 0))
+                return Math.nextUp(f);
+        }
+        return f;
+    }
+
+    private static double twoSumError(double a, double b, double s) {
+        double bb = s - a;
+        return (a - (s - bb)) + (b - bb);
+    }
+
+    /**
+     * Overrided method to print interval.
+     * @return String with the formated Interval
+     */
+    @Override
+    public String toString() {
+        return "[" + inf + "," + sup + "]";
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Array of intervals stored as two float columns. It uses half the memory of
+ * {@link IntervalArray}: 8 bytes per interval.
+ *
+ * Values stored from doubles are rounded outward. The bulk operations are
+ * computed in double and rounded outward like in {@link FloatInterval}, so
+ * the bounds are guaranteed with any {@link Rounding} policy. The output may
+ * be the same array as one of the operands.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class FloatIntervalArray {
+
+    /**
+     * Lower bounds of the intervals
+     */
+    final float[] inf;
+
+    /**
+     * Upper bounds of the intervals
+     */
+    final float[] sup;
+
+    /**
+     * Class constructor with all intervals equal to [0,0]
+     *
+     * @param length Number of intervals in the array
+     */
+    public FloatIntervalArray(int length) {
+        this.inf = new float[length];
+        this.sup = new float[length];
+    }
+
+    /**
+     * Class constructor that uses the given columns without copying them.
+     *
+     * @param inf Lower bounds of the intervals
+     * @param sup Upper bounds of the intervals
+     * @throws IllegalArgumentException if the columns have different lengths
+     */
+    public FloatIntervalArray(float[] inf, float[] sup) {
+        if (inf.length != sup.length)
+            throw new IllegalArgumentException("The columns have different lengths");
+        this.inf = inf;
+        this.sup = sup;
+    }
+
+    /**
+     * Class constructor that rounds the intervals of an {@link IntervalArray}
+     * outward
+     *
+     * @param values Intervals to be converted
+     */
+    public FloatIntervalArray(IntervalArray values) {
+        this(values.length());
+        final double[] xinf = values.inf, xsup = values.sup;
+        for (int i = 0; i < inf.length; i++) {
+            inf[i] = FloatInterval.down(xinf[i]);
+            sup[i] = FloatInterval.up(xsup[i]);
+        }
+    }
+
+    /**
+     * Get the number of intervals in the array
+     * @return The number of intervals
+     */
+    public int length() {
+        return inf.length;
+    }
+
+    /**
+     * Get the column with the lower bounds. The column is not copied.
+     * @return The lower bounds
+     */
+    public float[] getInfs() {
+        return inf;
+    }
+
+    /**
+     * Get the column with the upper bounds. The column is not copied.
+     * @return The upper bounds
+     */
+    public float[] getSups() {
+        return sup;
+    }
+
+    /**
+     * Get one element as an {@link Interval}. The conversion is exact.
+     * @param i Index of the interval
+     * @return A new {@link Interval} with the bounds of the element
+     */
+    public Interval get(int i) {
+        return new Interval(inf[i], sup[i]);
+    }
+
+    /**
+     * Set the bounds of one element, rounding them outward. The bounds are
+     * swapped if inf_val is greater than sup_val.
+     *
+     * @param i Index of the interval
+     * @param inf_val Value to set the lower bound
+     * @param sup_val Value to set the upper bound
+     */
+    public void set(int i, double inf_val, double sup_val) {
+        inf[i] = FloatInterval.down(Math.min(inf_val, sup_val));
+        sup[i] = FloatInterval.up(Math.max(inf_val, sup_val));
+    }
+
+    /**
+     * Set one element with the bounds of an {@link Interval}, rounding them
+     * outward
+     * @param i Index of the interval
+     * @param value Interval to be stored
+     */
+    public void set(int i, Interval value) {
+        inf[i] = FloatInterval.down(value.getInf());
+        sup[i] = FloatInterval.up(value.getSup());
+    }
+
+    /**
+     * Copy all intervals to an {@link IntervalArray}. The conversion is exact.
+     *
+     * @param out Interval array that receives the intervals
+     */
+    public void toIntervalArray(IntervalArray out) {
+        if (out.length() != inf.length)
+            throw new IllegalArgumentException("The interval arrays have different lengths");
+        final double[] rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            rinf[i] = inf[i];
+            rsup[i] = sup[i];
+        }
+    }
+
+    /**
+     * Sum two interval arrays element by element
+     *
+     * @param B Interval array to make the sum
+     * @param out Interval array that receives the result
+     */
+    public void add(FloatIntervalArray B, FloatIntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        final float[] binf = B.inf, bsup = B.sup, rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            float x_inf = inf[i], x_sup = sup[i];
+            rinf[i] = FloatInterval.sumDown(x_inf, binf[i]);
+            rsup[i] = FloatInterval.sumUp(x_sup, bsup[i]);
+        }
+    }
+
+    /**
+     * Subtract two interval arrays element by element
+     *
+     * @param B Interval array to make the subtraction
+     * @param out Interval array that receives the result
+     */
+    public void sub(FloatIntervalArray B, FloatIntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        final float[] binf = B.inf, bsup = B.sup, rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            float x_inf = inf[i], x_sup = sup[i], y_inf = binf[i];
+            rinf[i] = FloatInterval.sumDown(x_inf, -bsup[i]);
+            rsup[i] = FloatInterval.sumUp(x_sup, -y_inf);
+        }
+    }
+
+    /**
+     * Multiply two interval arrays element by element
+     *
+     * @param B Interval array to make the multiplication
+     * @param out Interval array that receives the result
+     */
+    public void mult(FloatIntervalArray B, FloatIntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        final float[] binf = B.inf, bsup = B.sup, rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            double x_inf = inf[i], x_sup = sup[i], y_inf = binf[i], y_sup = bsup[i];
+            double p0 = x_inf * y_inf, p1 = x_inf * y_sup;
+            double p2 = x_sup * y_inf, p3 = x_sup * y_sup;
+            double lo01 = (p0 < p1) ? p0 : p1, lo23 = (p2 < p3) ? p2 : p3;
+            double hi01 = (p0 > p1) ? p0 : p1, hi23 = (p2 > p3) ? p2 : p3;
+            rinf[i] = FloatInterval.down((lo01 < lo23) ? lo01 : lo23);
+            rsup[i] = FloatInterval.up((hi01 > hi23) ? hi01 : hi23);
+        }
+    }
+
+    /**
+     * Divide two interval arrays element by element
+     *
+     * @param B Interval array with the divisors
+     * @param out Interval array that receives the result
+     * @throws ArithmeticException if one divisor contains zero. Nothing is
+     * written in out in this case.
+     */
+    public void div(FloatIntervalArray B, FloatIntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        final float[] binf = B.inf, bsup = B.sup, rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            if (!(binf[i] > 0 || bsup[i] < 0))
+                throw new ArithmeticException("The interval contains zero");
+        }
+        for (int i = 0; i < inf.length; i++) {
+            double x_inf = inf[i], x_sup = sup[i], y_inf = binf[i], y_sup = bsup[i];
+            // the quotient bounds are at the same corners as in Interval.div
+            double n_inf, d_inf, n_sup, d_sup;
+            if (y_inf > 0) {
+                n_inf = x_inf;
+                d_inf = (x_inf >= 0) ? y_sup : y_inf;
+                n_sup = x_sup;
+                d_sup = (x_sup >= 0) ? y_inf : y_sup;
+            } else {
+                n_inf = x_sup;
+                d_inf = (x_sup >= 0) ? y_sup : y_inf;
+                n_sup = x_inf;
+                d_sup = (x_inf >= 0) ? y_inf : y_sup;
+            }
+            rinf[i] = FloatInterval.quotDown(n_inf, d_inf);
+            rsup[i] = FloatInterval.quotUp(n_sup, d_sup);
+        }
+    }
+
+    /**
+     * Get the hull of all intervals in the array
+     *
+     * @return {@link Interval} with the hull
+     * @throws IllegalStateException if the array is empty
+     */
+    public Interval Hull() {
+        if (inf.length == 0)
+            throw new IllegalStateException("The array is empty");
+        float x_inf = inf[0], x_sup = sup[0];
+        for (int i = 1; i < inf.length; i++) {
+            x_inf = Math.min(x_inf, inf[i]);
+            x_sup = Math.max(x_sup, sup[i]);
+        }
+        return new Interval(x_inf, x_sup);
+    }
+
+    /**
+     * Verify if other array has the same length of this array
+     * @param other The other interval array
+     */
+    private void checkLength(FloatIntervalArray other) {
+        if (other.inf.length != inf.length)
+            throw new IllegalArgumentException("The interval arrays have different lengths");
+    }
+
+    /**
+     * Overrided method to print the interval array.
+     * @return String with the formated intervals
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("{");
+        for (int i = 0; i < inf.length; i++) {
+            if (i > 0)
+                s.append(',');
+            s.append('[').append(inf[i]).append(',').append(sup[i]).append(']');
+        }
+        return s.append('}').toString();
+    }
+}
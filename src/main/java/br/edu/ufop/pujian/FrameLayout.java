@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Branch;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Context;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slots of the variables of a frame, an {@link Engine.Context} that keeps
+ * its values in an array. The slot of a variable is found from the index of
+ * its {@link Engine.Sym}, without hashing.
+ *
+ * The layout of a function defined by fun has a slot for each argument and
+ * for each variable assigned in the body, which are the variables a call
+ * can create. Its frames are reused: a call takes a free frame and gives it
+ * back when it returns. The layout of the global frame of the engine is
+ * open, a slot is added for each variable that is set.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class FrameLayout {
+
+    /**
+     * Value of a slot set to null, a slot with null has no variable
+     */
+    static final Object NULL = new Object();
+
+    /**
+     * Maximum number of free frames kept
+     */
+    private static final int MAX_FREE = 64;
+
+    private final boolean open;
+    private Sym[] names = new Sym[4];
+    private int[] slots = new int[0];
+    private int size;
+    private Context[] free = new Context[4];
+    private int nfree;
+
+    /**
+     * Open layout, for the global frame
+     */
+    FrameLayout() {
+        this.open = true;
+    }
+
+    /**
+     * Layout of the frames of a function
+     * @param func The function
+     */
+    FrameLayout(Func func) {
+        this.open = false;
+        for (Node arg : func.args)
+            if (arg instanceof Sym && slot((Sym) arg) < 0)
+                add((Sym) arg);
+        List<Sym> locals = new ArrayList<>();
+        locals(func.body, locals);
+        for (Sym sym : locals)
+            if (slot(sym) < 0)
+                add(sym);
+    }
+
+    /**
+     * Add the variables a tree can create in the frame of its function: the
+     * ones assigned, the functions defined and the intervals made with
+     * braces. A function defined in the tree has its own frame.
+     */
+    private static void locals(Node node, List<Sym> syms) {
+        if (node instanceof BinOp) {
+            BinOp op = (BinOp) node;
+            if (op.code == Opcode.ASSIGN && op.left instanceof Sym)
+                syms.add((Sym) op.left);
+            locals(op.left, syms);
+            locals(op.right, syms);
+        } else if (node instanceof UnaryOp)
+            locals(((UnaryOp) node).operand, syms);
+        else if (node instanceof IntervalFunc)
+            locals(((IntervalFunc) node).arg, syms);
+        else if (node instanceof Branch) {
+            locals(((Branch) node).head, syms);
+            locals(((Branch) node).body, syms);
+            locals(((Branch) node).tail, syms);
+        } else if (node instanceof Composite) {
+            Composite c = (Composite) node;
+            if (c.bracketType == '{')
+                syms.add(c.head);
+            for (Node arg : c.args)
+                locals(arg, syms);
+        } else if (node instanceof Func)
+            syms.add(((Func) node).head);
+    }
+
+    /**
+     * Get the slot of a variable
+     * @param sym The variable
+     * @return The slot, or -1 if the layout has no slot for the variable
+     */
+    int slot(Sym sym) {
+        return (sym.id < slots.length) ? slots[sym.id] : -1;
+    }
+
+    /**
+     * Add a slot to an open layout
+     * @param sym The variable
+     * @return The slot of the variable
+     */
+    int add(Sym sym) {
+        if (sym.id >= slots.length) {
+            int n = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(sym.id + 1, 2 * n));
+            Arrays.fill(slots, n, slots.length, -1);
+        }
+        if (size == names.length)
+            names = Arrays.copyOf(names, 2 * size);
+        names[size] = sym;
+        slots[sym.id] = size;
+        return size++;
+    }
+
+    /**
+     * Check if a slot is added for each variable set in the frame
+     * @return true for the layout of the global frame
+     */
+    boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Get the number of slots
+     * @return The size of the frames
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the variable of a slot
+     * @param slot The slot
+     * @return The variable
+     */
+    Sym name(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Take a frame for a call
+     * @param engine Engine of the function
+     * @param parent Context of the caller
+     * @return A frame without variables
+     */
+    Context acquire(Engine engine, Context parent) {
+        Context frame = (nfree > 0) ? free[--nfree] : engine.new Context(null, this);
+        frame.parent = parent;
+        return frame;
+    }
+
+    /**
+     * Give back the frame of a call that returned
+     * @param frame The frame, which must not be used again
+     */
+    void release(Context frame) {
+        if (nfree == MAX_FREE)
+            return;
+        Arrays.fill(frame.slots, null);
+        frame.vars = null;
+        frame.parent = null;
+        if (nfree == free.length)
+            free = Arrays.copyOf(free, 2 * nfree);
+        free[nfree++] = frame;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the results of the interval functions, used by
+ * {@link Engine} when it is set with {@link Engine#setFunctionCache(FunctionCache)}.
+ *
+ * The key is the name of the function, the exact bits of the argument
+ * bounds and the {@link Rounding} policy in use, so a cached result is the
+ * same the function would give.
+ *
+ * The cache is set associative: a key can only be in the {@value #WAYS}
+ * slots of its set, which are kept in LRU order. The access is lock free.
+ * The entries are immutable and compared on the whole key, so concurrent
+ * updates may lose an entry but never give a wrong result. A hit does not
+ * create objects.
+ *
+ * The counters of hits, misses and evictions help to choose the capacity.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class FunctionCache {
+
+    /**
+     * Number of slots of a set
+     */
+    private static final int WAYS = 4;
+
+    /**
+     * Immutable entry of the cache
+     */
+    private static final class Entry {
+        final String function;
+        final long inf, sup;
+        final int rounding;
+        final Interval result;
+
+        Entry(String function, long inf, long sup, int rounding, Interval result) {
+            this.function = function;
+            this.inf = inf;
+            this.sup = sup;
+            this.rounding = rounding;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Slots of all sets, the most recently used first in each set
+     */
+    private final Entry[] slots;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Class constructor
+     *
+     * @param capacity Maximum number of entries. It is rounded up to a power
+     * of two, with at least {@value #WAYS} entries.
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public FunctionCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be positive");
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+        if (sets * WAYS < capacity)
+            sets <<= 1;
+        this.slots = new Entry[sets * WAYS];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Get the first slot of the set of a key
+     */
+    private int set(String function, long inf, long sup, int rounding) {
+        long h = (inf * 0x9e3779b97f4a7c15L + sup) * 31 + function.hashCode() * 4 + rounding;
+        // finalizer of MurmurHash3, so bounds with zero low bits spread too
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return ((int) h & setMask) * WAYS;
+    }
+
+    /**
+     * Get a cached result
+     *
+     * @param function Name of the function
+     * @param arg Argument of the function
+     * @return The result or null if it is not in the cache
+     */
+    public Interval get(String function, Interval arg) {
+        long inf = Double.doubleToLongBits(arg.getInf());
+        long sup = Double.doubleToLongBits(arg.getSup());
+        int rounding = Rounding.get().ordinal();
+        int base = set(function, inf, sup, rounding);
+        final Entry[] t = slots;
+        for (int w = 0; w < WAYS; w++) {
+            Entry e = t[base + w];
+            if (e == null)
+                break;
+            if (e.inf == inf && e.sup == sup && e.rounding == rounding && e.function.equals(function)) {
+                // move to the front of the set
+                for (int j = w; j > 0; j--)
+                    t[base + j] = t[base + j - 1];
+                t[base] = e;
+                hits.increment();
+                return e.result;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store a result in the front of its set. The least recently used entry
+     * of a full set is removed. The result must not be changed after it is
+     * stored.
+     *
+     * @param function Name of the function
+     * @param arg Argument of the function
+     * @param result Result of the function on arg
+     */
+    public void put(String function, Interval arg, Interval result) {
+        long inf = Double.doubleToLongBits(arg.getInf());
+        long sup = Double.doubleToLongBits(arg.getSup());
+        int rounding = Rounding.get().ordinal();
+        int base = set(function, inf, sup, rounding);
+        final Entry[] t = slots;
+        if (t[base + WAYS - 1] != null)
+            evictions.increment();
+        for (int j = WAYS - 1; j > 0; j--)
+            t[base + j] = t[base + j - 1];
+        t[base] = new Entry(function, inf, sup, rounding, result);
+    }
+
+    /**
+     * Remove all entries and reset the counters
+     */
+    public void clear() {
+        Arrays.fill(slots, null);
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Get the maximum number of entries
+     * @return The capacity
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Get the number of entries
+     * @return The number of filled slots
+     */
+    public int size() {
+        int n = 0;
+        for (Entry e : slots)
+            if (e != null)
+                n++;
+        return n;
+    }
+
+    /**
+     * Get the number of lookups that found a result
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that did not find a result
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries removed to respect the capacity
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the fraction of lookups that found a result
+     * @return The hit rate, or 0 if there was no lookup
+     */
+    public double getHitRate() {
+        long h = hits.sum(), m = misses.sum();
+        return (h + m == 0) ? 0.0 : (double) h / (h + m);
+    }
+}
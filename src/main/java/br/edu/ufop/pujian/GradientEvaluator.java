@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates an expression tree of an {@link Engine} with
+ * {@link GradientInterval}, the forward mode of automatic differentiation.
+ * It is used by {@link Engine#evalGradient(Engine.Node, String...)}.
+ *
+ * The independent variables are read from the context of the engine and
+ * get unit gradients. The other variables and all literals are constants.
+ * Sequences, assignments, definitions and calls of functions made with
+ * "fun" are evaluated. Assignments and arguments of calls are kept in
+ * scopes of this evaluator, so the context of the engine is not changed
+ * except by the definitions of functions, like in the normal evaluation.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class GradientEvaluator {
+
+    /**
+     * Values of the variables of a call, or of the program
+     */
+    private static final class Scope {
+        final Scope parent;
+        final Map<Sym, GradientInterval> vars = new HashMap<>();
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        GradientInterval get(Sym sym) {
+            for (Scope s = this; s != null; s = s.parent) {
+                GradientInterval v = s.vars.get(sym);
+                if (v != null)
+                    return v;
+            }
+            return null;
+        }
+    }
+
+    private final Engine engine;
+    private final int n;
+    private Scope scope;
+
+    /**
+     * Class constructor
+     * @param engine Engine with the context of the variables
+     * @param variables Names of the independent variables, which must have
+     * a number or an interval in the context
+     * @throws SemanticError if a variable has no value
+     */
+    GradientEvaluator(Engine engine, String... variables) throws SemanticError {
+        this.engine = engine;
+        this.n = variables.length;
+        this.scope = new Scope(null);
+        for (int i = 0; i < n; i++) {
+            Sym sym = (Sym) engine.makeSym(variables[i]);
+            Node val = engine.context.get(sym);
+            if (!(val instanceof Num || val instanceof Inter))
+                throw new SemanticError(String.format("Variable '%s' has no value.", variables[i]));
+            scope.vars.put(sym, GradientInterval.variable(interval(val), n, i));
+        }
+    }
+
+    private static Interval interval(Node val) {
+        return (val instanceof Num) ? new Interval(((Num) val).val) : ((Inter) val).val;
+    }
+
+    /**
+     * Evaluate an expression
+     * @param node Root of the expression
+     * @return The value and the gradient of the expression, or null for the
+     * definition of a function
+     * @throws SemanticError if a node or an operation has no derivative
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    GradientInterval eval(Node node) throws SemanticError {
+        if (node instanceof Num || node instanceof Inter)
+            return GradientInterval.constant(interval(node), n);
+        if (node instanceof Sym)
+            return symbol((Sym) node);
+        if (node instanceof UnaryOp)
+            return unary((UnaryOp) node);
+        if (node instanceof BinOp)
+            return binary((BinOp) node);
+        if (node instanceof IntervalFunc)
+            return function((IntervalFunc) node);
+        if (node instanceof Composite)
+            return call((Composite) node);
+        if (node instanceof Func) {
+            node.eval();
+            return null;
+        }
+        throw new SemanticError(String.format("'%s' has no derivative.", node));
+    }
+
+    private GradientInterval symbol(Sym sym) throws SemanticError {
+        GradientInterval v = scope.get(sym);
+        if (v != null)
+            return v;
+        Node val = engine.context.get(sym);
+        if (val instanceof Num || val instanceof Inter)
+            return GradientInterval.constant(interval(val), n);
+        throw new SemanticError(String.format("Undefined variable '%s'", sym));
+    }
+
+    private GradientInterval unary(UnaryOp node) throws SemanticError {
+        GradientInterval a = eval(node.operand);
+        switch (node.op) {
+            case "+":
+                return a;
+            case "-":
+                return a.INeg();
+            default:
+                throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+        }
+    }
+
+    private GradientInterval binary(BinOp node) throws SemanticError {
+        switch (node.op) {
+            case ";":
+                eval(node.left);
+                return eval(node.right);
+            case "=":
+                if (!(node.left instanceof Sym))
+                    throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+                GradientInterval v = eval(node.right);
+                scope.vars.put((Sym) node.left, v);
+                return v;
+            default:
+                break;
+        }
+        GradientInterval a = eval(node.left);
+        if ("^".equals(node.op) && node.right instanceof Num)
+            return GradientFunctions.IPowerR(a, ((Num) node.right).val);
+        GradientInterval b = eval(node.right);
+        switch (node.op) {
+            case "+":
+                return a.add(b);
+            case "-":
+                return a.sub(b);
+            case "*":
+                return a.mult(b);
+            case "/":
+                return a.div(b);
+            case "^":
+                return GradientFunctions.IPowerI(a, b);
+            case ",":
+                // an interval made of two numbers is a constant
+                return GradientInterval.constant(new Interval(a.inf, b.sup), n);
+            default:
+                throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+        }
+    }
+
+    private GradientInterval function(IntervalFunc node) throws SemanticError {
+        int f = GradientFunctions.Code(node.head);
+        if (f < 0)
+            throw new SemanticError(String.format("'%s' has no derivative.", node.head));
+        return GradientFunctions.Apply(f, eval(node.arg));
+    }
+
+    /**
+     * Call of a function made with "fun". The arguments are evaluated in
+     * the scope of the caller and bound to the parameters in a new scope.
+     */
+    private GradientInterval call(Composite node) throws SemanticError {
+        GradientInterval v = scope.get(node.head);
+        if (node.bracketType == '{') {
+            // A{inf,sup} declares an interval variable
+            if (v != null)
+                return v;
+            Node val = engine.context.get(node.head);
+            if (!(val instanceof Inter))
+                val = node.eval();
+            return GradientInterval.constant(interval(val), n);
+        }
+        Node def = engine.context.get(node.head);
+        if (v != null || !(def instanceof Func))
+            throw new SemanticError(String.format("'%s' is not a function.", node.head));
+        Func func = (Func) def;
+        if (func.args.length != node.args.length)
+            throw new SemanticError("Argument mismatch.");
+        Scope callee = new Scope(scope);
+        for (int i = 0; i < func.args.length; i++)
+            callee.vars.put((Sym) func.args[i], eval(node.args[i]));
+        Scope caller = scope;
+        scope = callee;
+        try {
+            return eval(func.body);
+        } finally {
+            scope = caller;
+        }
+    }
+}
@@ -0,0 +1,804 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * The functions of {@link InterFunctions} on {@link GradientInterval}. The
+ * value is computed by {@link InterFunctions}, so it throws in the same
+ * cases, and the gradient by the chain rule with an enclosure of the
+ * derivative over the whole argument. A derivative that is unbounded at a
+ * point of the argument, like the one of Sqrt at zero, gives an unbounded
+ * gradient.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class GradientFunctions {
+
+    private static final Interval One = new Interval(1.0);
+    private static final Interval Entire = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    private static final Interval Ln10 = new Interval(Math.nextDown(Math.log(10.0)), Math.nextUp(Math.log(10.0)));
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private GradientFunctions() {
+    }
+
+    private static Interval value(GradientInterval x) {
+        return new Interval(x.inf, x.sup);
+    }
+
+    /**
+     * Hull of 1/A, unbounded if A contains zero
+     */
+    private static Interval recip(Interval A) {
+        IntervalUnion q = IntervalUnion.div(One, A);
+        return q.isEmpty() ? Entire : q.hull();
+    }
+
+    /**
+     * Square root of a value that is not negative but may have a negative
+     * lower bound from rounding
+     */
+    private static Interval sqrt(Interval A) {
+        return InterFunctions.Sqrt(new Interval(Math.max(A.getInf(), 0.0), Math.max(A.getSup(), 0.0)));
+    }
+
+    private static Interval mul(Interval A, Interval B) {
+        double a = A.getInf(), b = A.getSup(), c = B.getInf(), d = B.getSup();
+        return new Interval(GradientInterval.mulInf(a, b, c, d), GradientInterval.mulSup(a, b, c, d));
+    }
+
+    /**
+     * Hull of a decorated result, unbounded if it is empty
+     */
+    private static Interval hull(DecoratedInterval A) {
+        return A.isEmpty() ? Entire : A.toInterval();
+    }
+
+    /**
+     * Codes of the functions, in the order of {@link #Names}
+     */
+    static final int FCOS = 0;
+    static final int FSIN = 1;
+    static final int FTAN = 2;
+    static final int FCOT = 3;
+    static final int FASIN = 4;
+    static final int FACOS = 5;
+    static final int FATAN = 6;
+    static final int FSINH = 7;
+    static final int FCOSH = 8;
+    static final int FTANH = 9;
+    static final int FCOTH = 10;
+    static final int FASINH = 11;
+    static final int FACOSH = 12;
+    static final int FATANH = 13;
+    static final int FIABS = 14;
+    static final int FISQR = 15;
+    static final int FSQRT = 16;
+    static final int FCBRT = 17;
+    static final int FLOG = 18;
+    static final int FLOG10 = 19;
+    static final int FEXP = 20;
+
+    /**
+     * Names of the functions like in {@link Engine.IntervalFunc}
+     */
+    private static final String[] Names = {
+        "Cos", "Sin", "Tan", "Cot", "ASin", "ACos", "ATan", "Sinh", "Cosh", "Tanh", "Coth", "ASinh", "ACosh", "ATanh", "IAbs", "ISqr", "Sqrt", "Cbrt", "Log", "Log10", "Exp"
+    };
+
+    /**
+     * Get the code of a function
+     * @param head Name of the function
+     * @return The code, or -1 if the function has no derivative here
+     */
+    static int Code(String head) {
+        for (int f = 0; f < Names.length; f++)
+            if (Names[f].equals(head))
+                return f;
+        return -1;
+    }
+
+    /**
+     * Value of a function, computed by {@link InterFunctions}
+     * @param f Code of the function
+     * @param u Argument
+     * @return The value of the function on u
+     */
+    static Interval Value(int f, Interval u) {
+        switch (f) {
+            case FCOS:
+                return InterFunctions.Cos(u);
+            case FSIN:
+                return InterFunctions.Sin(u);
+            case FTAN:
+                return InterFunctions.Tan(u);
+            case FCOT:
+                return InterFunctions.Cot(u);
+            case FASIN:
+                return InterFunctions.ASin(u);
+            case FACOS:
+                return InterFunctions.ACos(u);
+            case FATAN:
+                return InterFunctions.ATan(u);
+            case FSINH:
+                return InterFunctions.Sinh(u);
+            case FCOSH:
+                return InterFunctions.Cosh(u);
+            case FTANH:
+                return InterFunctions.Tanh(u);
+            case FCOTH:
+                return InterFunctions.Coth(u);
+            case FASINH:
+                return InterFunctions.ASinh(u);
+            case FACOSH:
+                return InterFunctions.ACosh(u);
+            case FATANH:
+                return InterFunctions.ATanh(u);
+            case FIABS:
+                return InterFunctions.IAbs(u);
+            case FISQR:
+                return InterFunctions.ISqr(u);
+            case FSQRT:
+                return InterFunctions.Sqrt(u);
+            case FCBRT:
+                return InterFunctions.Cbrt(u);
+            case FLOG:
+                return InterFunctions.Log(u);
+            case FLOG10:
+                return InterFunctions.Log10(u);
+            case FEXP:
+                return InterFunctions.Exp(u);
+            default:
+                throw new IllegalArgumentException("Unknown function " + f);
+        }
+    }
+
+    /**
+     * Enclosure of the derivative of a function over an argument
+     * @param f Code of the function
+     * @param u Argument
+     * @param v Value of the function on u
+     * @return The derivative of the function over u
+     */
+    static Interval Derivative(int f, Interval u, Interval v) {
+        switch (f) {
+            case FCOS:
+                return InterFunctions.Sin(u).INeg();
+            case FSIN:
+                return InterFunctions.Cos(u);
+            case FTAN:
+                // an unbounded value means u crosses a pole, where the
+                // function is not monotone
+                if (!(v.getSup() < Double.POSITIVE_INFINITY))
+                    return Entire;
+                return InterFunctions.ISqr(v).add(1.0);
+            case FCOT:
+                if (!(v.getSup() < Double.POSITIVE_INFINITY))
+                    return Entire;
+                return InterFunctions.ISqr(v).add(1.0).INeg();
+            case FASIN:
+                return recip(sqrt(One.sub(InterFunctions.ISqr(u))));
+            case FACOS:
+                return recip(sqrt(One.sub(InterFunctions.ISqr(u)))).INeg();
+            case FATAN:
+                return recip(InterFunctions.ISqr(u).add(1.0));
+            case FSINH:
+                return InterFunctions.Cosh(u);
+            case FCOSH:
+                return InterFunctions.Sinh(u);
+            case FTANH:
+                return One.sub(InterFunctions.ISqr(v));
+            case FCOTH:
+                return One.sub(InterFunctions.ISqr(v));
+            case FASINH:
+                return recip(sqrt(InterFunctions.ISqr(u).add(1.0)));
+            case FACOSH:
+                return recip(sqrt(InterFunctions.ISqr(u).sub(1.0)));
+            case FATANH:
+                return recip(One.sub(InterFunctions.ISqr(u)));
+            case FIABS:
+                return (u.getInf() >= 0) ? One : (u.getSup() <= 0) ? One.INeg() : new Interval(-1.0, 1.0);
+            case FISQR:
+                return new Interval(2.0 * u.getInf(), 2.0 * u.getSup());
+            case FSQRT:
+                return recip(new Interval(2.0 * v.getInf(), 2.0 * v.getSup()));
+            case FCBRT:
+                return recip(InterFunctions.ISqr(v).mult(new Interval(3.0)));
+            case FLOG:
+                return recip(u);
+            case FLOG10:
+                return recip(u.mult(Ln10));
+            case FEXP:
+                return v;
+            default:
+                throw new IllegalArgumentException("Unknown function " + f);
+        }
+    }
+
+    /**
+     * Value of a function like {@link #Value(int, Interval)} on the bounds
+     * [a,b], into rinf[k] and rsup[k], without creating objects
+     * @param f Code of the function
+     * @param a Lower bound of the argument
+     * @param b Upper bound of the argument
+     * @param rinf Column that receives the lower bound
+     * @param rsup Column that receives the upper bound
+     * @param k Index of the result
+     */
+    static void ValueInto(int f, double a, double b, double[] rinf, double[] rsup, int k) {
+        switch (f) {
+            case FCOS:
+                InterFunctions.CosInto(a, b, rinf, rsup, k);
+                break;
+            case FSIN:
+                InterFunctions.SinInto(a, b, rinf, rsup, k);
+                break;
+            case FTAN:
+                InterFunctions.TanInto(a, b, rinf, rsup, k);
+                break;
+            case FCOT:
+                InterFunctions.CotInto(a, b, rinf, rsup, k);
+                break;
+            case FASIN:
+                InterFunctions.ASinInto(a, b, rinf, rsup, k);
+                break;
+            case FACOS:
+                InterFunctions.ACosInto(a, b, rinf, rsup, k);
+                break;
+            case FATAN:
+                InterFunctions.ATanInto(a, b, rinf, rsup, k);
+                break;
+            case FSINH:
+                InterFunctions.SinhInto(a, b, rinf, rsup, k);
+                break;
+            case FCOSH:
+                InterFunctions.CoshInto(a, b, rinf, rsup, k);
+                break;
+            case FTANH:
+                InterFunctions.TanhInto(a, b, rinf, rsup, k);
+                break;
+            case FCOTH:
+                InterFunctions.CothInto(a, b, rinf, rsup, k);
+                break;
+            case FASINH:
+                InterFunctions.ASinhInto(a, b, rinf, rsup, k);
+                break;
+            case FACOSH:
+                InterFunctions.ACoshInto(a, b, rinf, rsup, k);
+                break;
+            case FATANH:
+                InterFunctions.ATanhInto(a, b, rinf, rsup, k);
+                break;
+            case FIABS:
+                InterFunctions.IAbsInto(a, b, rinf, rsup, k);
+                break;
+            case FISQR:
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                break;
+            case FSQRT:
+                InterFunctions.SqrtInto(a, b, rinf, rsup, k);
+                break;
+            case FCBRT:
+                InterFunctions.CbrtInto(a, b, rinf, rsup, k);
+                break;
+            case FLOG:
+                InterFunctions.LogInto(a, b, rinf, rsup, k);
+                break;
+            case FLOG10:
+                InterFunctions.Log10Into(a, b, rinf, rsup, k);
+                break;
+            case FEXP:
+                InterFunctions.ExpInto(a, b, rinf, rsup, k);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown function " + f);
+        }
+    }
+
+    /**
+     * Derivative of a function like {@link #Derivative(int, Interval, Interval)}
+     * on the bounds [a,b] of the argument and [c,d] of the value, into
+     * rinf[k] and rsup[k], without creating objects
+     * @param f Code of the function
+     * @param a Lower bound of the argument
+     * @param b Upper bound of the argument
+     * @param c Lower bound of the value
+     * @param d Upper bound of the value
+     * @param rinf Column that receives the lower bound
+     * @param rsup Column that receives the upper bound
+     * @param k Index of the result
+     */
+    static void DerivativeInto(int f, double a, double b, double c, double d, double[] rinf, double[] rsup, int k) {
+        switch (f) {
+            case FCOS:
+                InterFunctions.SinInto(a, b, rinf, rsup, k);
+                negate(rinf, rsup, k);
+                return;
+            case FSIN:
+                InterFunctions.CosInto(a, b, rinf, rsup, k);
+                return;
+            case FTAN:
+            case FCOT:
+                if (!(d < Double.POSITIVE_INFINITY)) {
+                    entire(rinf, rsup, k);
+                    return;
+                }
+                InterFunctions.ISqrInto(c, d, rinf, rsup, k);
+                rinf[k] = Rounding.addDown(rinf[k], 1.0);
+                rsup[k] = Rounding.addUp(rsup[k], 1.0);
+                if (f == FCOT)
+                    negate(rinf, rsup, k);
+                return;
+            case FASIN:
+            case FACOS:
+                // 1/sqrt(1 - x^2)
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                recipSqrtInto(Rounding.addDown(1.0, -rsup[k]), Rounding.addUp(1.0, -rinf[k]), rinf, rsup, k);
+                if (f == FACOS)
+                    negate(rinf, rsup, k);
+                return;
+            case FATAN:
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                recipInto(Rounding.addDown(rinf[k], 1.0), Rounding.addUp(rsup[k], 1.0), rinf, rsup, k);
+                return;
+            case FSINH:
+                InterFunctions.CoshInto(a, b, rinf, rsup, k);
+                return;
+            case FCOSH:
+                InterFunctions.SinhInto(a, b, rinf, rsup, k);
+                return;
+            case FTANH:
+            case FCOTH: {
+                InterFunctions.ISqrInto(c, d, rinf, rsup, k);
+                double lo = Rounding.addDown(1.0, -rsup[k]);
+                rsup[k] = Rounding.addUp(1.0, -rinf[k]);
+                rinf[k] = lo;
+                return;
+            }
+            case FASINH:
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                recipSqrtInto(Rounding.addDown(rinf[k], 1.0), Rounding.addUp(rsup[k], 1.0), rinf, rsup, k);
+                return;
+            case FACOSH:
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                recipSqrtInto(Rounding.addDown(rinf[k], -1.0), Rounding.addUp(rsup[k], -1.0), rinf, rsup, k);
+                return;
+            case FATANH:
+                InterFunctions.ISqrInto(a, b, rinf, rsup, k);
+                recipInto(Rounding.addDown(1.0, -rsup[k]), Rounding.addUp(1.0, -rinf[k]), rinf, rsup, k);
+                return;
+            case FIABS:
+                rinf[k] = (a >= 0) ? 1.0 : -1.0;
+                rsup[k] = (a >= 0 || b > 0) ? 1.0 : -1.0;
+                return;
+            case FISQR:
+                rinf[k] = 2.0 * a;
+                rsup[k] = 2.0 * b;
+                return;
+            case FSQRT:
+                recipInto(2.0 * c, 2.0 * d, rinf, rsup, k);
+                return;
+            case FCBRT: {
+                InterFunctions.ISqrInto(c, d, rinf, rsup, k);
+                double lo = rinf[k], hi = rsup[k];
+                recipInto(Interval.multInf(lo, hi, 3.0, 3.0), Interval.multSup(lo, hi, 3.0, 3.0), rinf, rsup, k);
+                return;
+            }
+            case FLOG:
+                recipInto(a, b, rinf, rsup, k);
+                return;
+            case FLOG10:
+                recipInto(Interval.multInf(a, b, Ln10.getInf(), Ln10.getSup()),
+                        Interval.multSup(a, b, Ln10.getInf(), Ln10.getSup()), rinf, rsup, k);
+                return;
+            case FEXP:
+                rinf[k] = c;
+                rsup[k] = d;
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown function " + f);
+        }
+    }
+
+    private static void negate(double[] rinf, double[] rsup, int k) {
+        double lo = -rsup[k];
+        rsup[k] = -rinf[k];
+        rinf[k] = lo;
+    }
+
+    private static void entire(double[] rinf, double[] rsup, int k) {
+        rinf[k] = Double.NEGATIVE_INFINITY;
+        rsup[k] = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Hull of 1/[c,d] like {@link #recip(Interval)}, into rinf[k] and
+     * rsup[k]
+     */
+    private static void recipInto(double c, double d, double[] rinf, double[] rsup, int k) {
+        if (c > 0 || d < 0) {
+            rinf[k] = Interval.divInf(1.0, 1.0, c, d);
+            rsup[k] = Interval.divSup(1.0, 1.0, c, d);
+            return;
+        }
+        IntervalUnion.divHull(1.0, 1.0, c, d, rinf, rsup, k);
+        if (Double.isNaN(rinf[k]))
+            entire(rinf, rsup, k);
+    }
+
+    /**
+     * Hull of 1/sqrt([c,d]) like {@link #recip(Interval)} of
+     * {@link #sqrt(Interval)}, into rinf[k] and rsup[k]
+     */
+    private static void recipSqrtInto(double c, double d, double[] rinf, double[] rsup, int k) {
+        recipInto(Rounding.sqrtDown(Math.max(c, 0.0)), Rounding.sqrtUp(Math.max(d, 0.0)), rinf, rsup, k);
+    }
+
+    /**
+     * Derivative y x^(y-1) like {@link #PowerRDerivative(Interval, double)}
+     * on the bounds [a,b] of the base, into rinf[k] and rsup[k]
+     */
+    static void PowerRDerivativeInto(double a, double b, double y, double[] rinf, double[] rsup, int k) {
+        if (y == 0) {
+            rinf[k] = rsup[k] = 0.0;
+            return;
+        }
+        double e = y - 1;
+        boolean integer = e == Math.rint(e) && Math.abs(e) <= Integer.MAX_VALUE;
+        int q = integer ? 1 : InterFunctions.OddRoot(e);
+        int p = integer ? (int) e : (int) Math.rint(e * q);
+        DecoratedFunctions.IPowerRInto(a, b, Decoration.COM.status(), e, p, q, rinf, rsup, k);
+        mulInto(rinf[k], rsup[k], y, y, rinf, rsup, k);
+    }
+
+    /**
+     * Partial derivative y x^(y-1) by the base like
+     * {@link #PowerIBase(Interval, Interval)} on the bounds [a,b] of the base
+     * and [c,d] of the exponent, into rinf[k] and rsup[k]
+     */
+    static void PowerIBaseInto(double a, double b, double c, double d, double[] rinf, double[] rsup, int k) {
+        double e = Rounding.addDown(c, -1.0), f = Rounding.addUp(d, -1.0);
+        if (e == f) {
+            boolean integer = e == Math.rint(e) && Math.abs(e) <= Integer.MAX_VALUE;
+            int q = integer ? 1 : InterFunctions.OddRoot(e);
+            int p = integer ? (int) e : (int) Math.rint(e * q);
+            DecoratedFunctions.IPowerRInto(a, b, Decoration.COM.status(), e, p, q, rinf, rsup, k);
+        } else if (b < 0 || (b == 0 && f <= 0)) {
+            rinf[k] = rsup[k] = Double.NaN;
+        } else {
+            // x^y on the part of the base in [0,+inf] has its bounds at the corners
+            double a0 = Math.max(a, 0.0);
+            double p0 = Math.pow(a0, e), p1 = Math.pow(a0, f);
+            double p2 = Math.pow(b, e), p3 = Math.pow(b, f);
+            rinf[k] = Math.max(Rounding.down(Math.min(Math.min(p0, p1), Math.min(p2, p3))), 0.0);
+            rsup[k] = Rounding.up(Math.max(Math.max(p0, p1), Math.max(p2, p3)));
+        }
+        mulInto(c, d, rinf[k], rsup[k], rinf, rsup, k);
+    }
+
+    /**
+     * Partial derivative x^y ln(x) by the exponent like
+     * {@link #PowerIExponent(Interval, Interval)} on the bounds [a,b] of the
+     * base and [v,w] of the power, into rinf[k] and rsup[k]
+     */
+    static void PowerIExponentInto(double a, double b, double v, double w, double[] rinf, double[] rsup, int k) {
+        double lo, hi;
+        if (b <= 0) {
+            lo = Double.NEGATIVE_INFINITY;
+            hi = Double.POSITIVE_INFINITY;
+        } else {
+            // the logarithm on the part of the base in (0,+inf]
+            lo = (a > 0) ? Rounding.down(Math.log(a)) : Double.NEGATIVE_INFINITY;
+            hi = Rounding.up(Math.log(b));
+        }
+        mulInto(v, w, lo, hi, rinf, rsup, k);
+    }
+
+    /**
+     * Product [a,b]*[c,d] like {@link #mul(Interval, Interval)}, where an
+     * empty operand with NaN bounds is unbounded like in
+     * {@link #hull(DecoratedInterval)}, into rinf[k] and rsup[k]
+     */
+    private static void mulInto(double a, double b, double c, double d, double[] rinf, double[] rsup, int k) {
+        if (Double.isNaN(a)) {
+            a = Double.NEGATIVE_INFINITY;
+            b = Double.POSITIVE_INFINITY;
+        }
+        if (Double.isNaN(c)) {
+            c = Double.NEGATIVE_INFINITY;
+            d = Double.POSITIVE_INFINITY;
+        }
+        rinf[k] = GradientInterval.mulInf(a, b, c, d);
+        rsup[k] = GradientInterval.mulSup(a, b, c, d);
+    }
+
+    /**
+     * Apply a function with the chain rule
+     * @param f Code of the function
+     * @param x Argument
+     * @return The value and the gradient of the function
+     */
+    static GradientInterval Apply(int f, GradientInterval x) {
+        Interval u = value(x);
+        Interval v = Value(f, u);
+        return x.chain(v, Derivative(f, u, v));
+    }
+
+    /**
+     * Cossine, with derivative -sin(x)
+     * @param x Angle
+     * @return The cossine and its gradient
+     */
+    public static GradientInterval Cos(GradientInterval x) {
+        return Apply(FCOS, x);
+    }
+
+    /**
+     * Sine, with derivative cos(x)
+     * @param x Angle
+     * @return The sine and its gradient
+     */
+    public static GradientInterval Sin(GradientInterval x) {
+        return Apply(FSIN, x);
+    }
+
+    /**
+     * Tangent, with derivative 1 + tan(x)^2
+     * @param x Angle
+     * @return The tangent and its gradient
+     */
+    public static GradientInterval Tan(GradientInterval x) {
+        return Apply(FTAN, x);
+    }
+
+    /**
+     * Cotangent, with derivative -(1 + cot(x)^2)
+     * @param x Angle
+     * @return The cotangent and its gradient
+     */
+    public static GradientInterval Cot(GradientInterval x) {
+        return Apply(FCOT, x);
+    }
+
+    /**
+     * Arc sine, with derivative 1/sqrt(1 - x^2)
+     * @param x Sine value in [-1,1]
+     * @return The arc sine and its gradient
+     */
+    public static GradientInterval ASin(GradientInterval x) {
+        return Apply(FASIN, x);
+    }
+
+    /**
+     * Arc cossine, with derivative -1/sqrt(1 - x^2)
+     * @param x Cossine value in [-1,1]
+     * @return The arc cossine and its gradient
+     */
+    public static GradientInterval ACos(GradientInterval x) {
+        return Apply(FACOS, x);
+    }
+
+    /**
+     * Arc tangent, with derivative 1/(1 + x^2)
+     * @param x Tangent value
+     * @return The arc tangent and its gradient
+     */
+    public static GradientInterval ATan(GradientInterval x) {
+        return Apply(FATAN, x);
+    }
+
+    /**
+     * Hyperbolic sine, with derivative cosh(x)
+     * @param x Argument
+     * @return The hyperbolic sine and its gradient
+     */
+    public static GradientInterval Sinh(GradientInterval x) {
+        return Apply(FSINH, x);
+    }
+
+    /**
+     * Hyperbolic cossine, with derivative sinh(x)
+     * @param x Argument
+     * @return The hyperbolic cossine and its gradient
+     */
+    public static GradientInterval Cosh(GradientInterval x) {
+        return Apply(FCOSH, x);
+    }
+
+    /**
+     * Hyperbolic tangent, with derivative 1 - tanh(x)^2
+     * @param x Argument
+     * @return The hyperbolic tangent and its gradient
+     */
+    public static GradientInterval Tanh(GradientInterval x) {
+        return Apply(FTANH, x);
+    }
+
+    /**
+     * Hyperbolic cotangent, with derivative 1 - coth(x)^2
+     * @param x Argument without zero
+     * @return The hyperbolic cotangent and its gradient
+     */
+    public static GradientInterval Coth(GradientInterval x) {
+        return Apply(FCOTH, x);
+    }
+
+    /**
+     * Inverse hyperbolic sine, with derivative 1/sqrt(1 + x^2)
+     * @param x Argument
+     * @return The inverse hyperbolic sine and its gradient
+     */
+    public static GradientInterval ASinh(GradientInterval x) {
+        return Apply(FASINH, x);
+    }
+
+    /**
+     * Inverse hyperbolic cossine, with derivative 1/sqrt(x^2 - 1)
+     * @param x Argument not less than 1
+     * @return The inverse hyperbolic cossine and its gradient
+     */
+    public static GradientInterval ACosh(GradientInterval x) {
+        return Apply(FACOSH, x);
+    }
+
+    /**
+     * Inverse hyperbolic tangent, with derivative 1/(1 - x^2)
+     * @param x Argument in (-1,1)
+     * @return The inverse hyperbolic tangent and its gradient
+     */
+    public static GradientInterval ATanh(GradientInterval x) {
+        return Apply(FATANH, x);
+    }
+
+    /**
+     * Absolute value, with derivative the sign of x, [-1,1] if x contains zero
+     * @param x Argument
+     * @return The absolute value and its gradient
+     */
+    public static GradientInterval IAbs(GradientInterval x) {
+        return Apply(FIABS, x);
+    }
+
+    /**
+     * Square, with derivative 2x
+     * @param x Argument
+     * @return The square and its gradient
+     */
+    public static GradientInterval ISqr(GradientInterval x) {
+        return Apply(FISQR, x);
+    }
+
+    /**
+     * Square root, with derivative 1/(2 sqrt(x))
+     * @param x Argument not negative
+     * @return The square root and its gradient
+     */
+    public static GradientInterval Sqrt(GradientInterval x) {
+        return Apply(FSQRT, x);
+    }
+
+    /**
+     * Cube root, with derivative 1/(3 cbrt(x)^2)
+     * @param x Argument
+     * @return The cube root and its gradient
+     */
+    public static GradientInterval Cbrt(GradientInterval x) {
+        return Apply(FCBRT, x);
+    }
+
+    /**
+     * Natural logarithm, with derivative 1/x
+     * @param x Argument greater than zero
+     * @return The natural logarithm and its gradient
+     */
+    public static GradientInterval Log(GradientInterval x) {
+        return Apply(FLOG, x);
+    }
+
+    /**
+     * Logarithm in the base 10, with derivative 1/(x ln(10))
+     * @param x Argument greater than zero
+     * @return The logarithm in the base 10 and its gradient
+     */
+    public static GradientInterval Log10(GradientInterval x) {
+        return Apply(FLOG10, x);
+    }
+
+    /**
+     * Exponential, with derivative e^x
+     * @param x Exponent
+     * @return The exponential and its gradient
+     */
+    public static GradientInterval Exp(GradientInterval x) {
+        return Apply(FEXP, x);
+    }
+
+    /**
+     * Power by a real number, with derivative y x^(y-1)
+     * @param x Base
+     * @param y Exponent
+     * @return The power and its gradient
+     * @throws ArithmeticException in the cases of
+     * {@link InterFunctions#IPowerR(Interval, double)}
+     */
+    public static GradientInterval IPowerR(GradientInterval x, double y) {
+        Interval u = value(x);
+        return x.chain(InterFunctions.IPowerR(u, y), PowerRDerivative(u, y));
+    }
+
+    /**
+     * Derivative y x^(y-1) of the power by a real number
+     * @param u Base
+     * @param y Exponent
+     * @return The derivative over u
+     */
+    static Interval PowerRDerivative(Interval u, double y) {
+        if (y == 0)
+            return new Interval(0.0);
+        // x^(y-1) may be unbounded where x^y is not, like at zero for y < 1
+        Interval p = hull(DecoratedFunctions.IPowerR(new DecoratedInterval(u), y - 1));
+        return mul(p, new Interval(y));
+    }
+
+    /**
+     * Power by an interval, with the partial derivatives y x^(y-1) by x and
+     * x^y ln(x) by y
+     * @param x Base
+     * @param y Exponent
+     * @return The power and its gradient
+     * @throws ArithmeticException in the cases of
+     * {@link InterFunctions#IPowerI(Interval, Interval)}
+     */
+    public static GradientInterval IPowerI(GradientInterval x, GradientInterval y) {
+        Interval u = value(x), w = value(y);
+        Interval v = InterFunctions.IPowerI(u, w);
+        Interval dx = PowerIBase(u, w);
+        Interval dy = PowerIExponent(u, v);
+        double a = dx.getInf(), b = dx.getSup(), c = dy.getInf(), d = dy.getSup();
+        int n = x.dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ri[i] = Rounding.addDown(GradientInterval.mulInf(a, b, x.dinf[i], x.dsup[i]),
+                    GradientInterval.mulInf(c, d, y.dinf[i], y.dsup[i]));
+            rs[i] = Rounding.addUp(GradientInterval.mulSup(a, b, x.dinf[i], x.dsup[i]),
+                    GradientInterval.mulSup(c, d, y.dinf[i], y.dsup[i]));
+        }
+        return new GradientInterval(v.getInf(), v.getSup(), ri, rs);
+    }
+
+    /**
+     * Partial derivative y x^(y-1) of x^y by the base
+     * @param u Base
+     * @param w Exponent
+     * @return The derivative over u and w
+     */
+    static Interval PowerIBase(Interval u, Interval w) {
+        return mul(w, hull(DecoratedFunctions.IPowerI(new DecoratedInterval(u), new DecoratedInterval(w.sub(1.0)))));
+    }
+
+    /**
+     * Partial derivative x^y ln(x) of x^y by the exponent
+     * @param u Base
+     * @param v Value of the power
+     * @return The derivative over u
+     */
+    static Interval PowerIExponent(Interval u, Interval v) {
+        return mul(v, hull(DecoratedFunctions.Log(new DecoratedInterval(u))));
+    }
+}
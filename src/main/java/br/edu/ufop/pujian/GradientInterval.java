@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Interval with an interval gradient, used for forward mode automatic
+ * differentiation. The value encloses f(X) and the gradient encloses the
+ * partial derivatives of f over the whole box X of the independent
+ * variables.
+ *
+ * The gradient is stored in two primitive columns, the lower and the upper
+ * bounds of the partial derivatives, so an operation creates one object and
+ * two arrays whatever the number of variables.
+ *
+ * The functions of {@link InterFunctions} are in {@link GradientFunctions}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class GradientInterval {
+
+    /**
+     * Bounds of the value
+     */
+    final double inf, sup;
+
+    /**
+     * Bounds of the partial derivatives
+     */
+    final double[] dinf, dsup;
+
+    /**
+     * Class constructor that uses the given columns without copying them
+     */
+    GradientInterval(double inf, double sup, double[] dinf, double[] dsup) {
+        this.inf = inf;
+        this.sup = sup;
+        this.dinf = dinf;
+        this.dsup = dsup;
+    }
+
+    /**
+     * Get a constant, which has a zero gradient
+     *
+     * @param value The value
+     * @param n Number of independent variables
+     * @return The constant
+     */
+    public static GradientInterval constant(Interval value, int n) {
+        return new GradientInterval(value.getInf(), value.getSup(), new double[n], new double[n]);
+    }
+
+    /**
+     * Get an independent variable, whose gradient is the i-th unit vector
+     *
+     * @param value The box of the variable
+     * @param n Number of independent variables
+     * @param i Index of the variable
+     * @return The variable
+     */
+    public static GradientInterval variable(Interval value, int n, int i) {
+        GradientInterval x = constant(value, n);
+        x.dinf[i] = 1.0;
+        x.dsup[i] = 1.0;
+        return x;
+    }
+
+    /**
+     * Get the number of independent variables
+     * @return The length of the gradient
+     */
+    public int size() {
+        return dinf.length;
+    }
+
+    /**
+     * Get the value
+     * @return The enclosure of f(X)
+     */
+    public Interval getValue() {
+        return new Interval(inf, sup);
+    }
+
+    /**
+     * Get a partial derivative
+     * @param i Index of the variable
+     * @return The enclosure of the derivative of f by the i-th variable
+     */
+    public Interval getDerivative(int i) {
+        return new Interval(dinf[i], dsup[i]);
+    }
+
+    /**
+     * Get the gradient
+     * @return The enclosures of all partial derivatives
+     */
+    public Interval[] getGradient() {
+        Interval[] g = new Interval[dinf.length];
+        for (int i = 0; i < g.length; i++)
+            g[i] = new Interval(dinf[i], dsup[i]);
+        return g;
+    }
+
+    /**
+     * Lower bound of [a,b]*[c,d] where [0,0] times an unbounded interval is
+     * zero, as a derivative that is zero stays zero
+     */
+    static double mulInf(double a, double b, double c, double d) {
+        if ((a == 0 && b == 0) || (c == 0 && d == 0))
+            return 0.0;
+        return Interval.multInf(a, b, c, d);
+    }
+
+    /**
+     * Upper bound of [a,b]*[c,d], see {@link #mulInf(double, double, double, double)}
+     */
+    static double mulSup(double a, double b, double c, double d) {
+        if ((a == 0 && b == 0) || (c == 0 && d == 0))
+            return 0.0;
+        return Interval.multSup(a, b, c, d);
+    }
+
+    /**
+     * Apply the chain rule: the result of a function with value fx and
+     * derivative df over this interval
+     *
+     * @param fx Value of the function
+     * @param df Derivative of the function
+     * @return The result with the gradient df times this gradient
+     */
+    GradientInterval chain(Interval fx, Interval df) {
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        double c = df.getInf(), d = df.getSup();
+        for (int i = 0; i < n; i++) {
+            ri[i] = mulInf(c, d, dinf[i], dsup[i]);
+            rs[i] = mulSup(c, d, dinf[i], dsup[i]);
+        }
+        return new GradientInterval(fx.getInf(), fx.getSup(), ri, rs);
+    }
+
+    /**
+     * Sum two intervals
+     * @param B Interval to add
+     * @return The sum and its gradient
+     */
+    public GradientInterval add(GradientInterval B) {
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ri[i] = Rounding.addDown(dinf[i], B.dinf[i]);
+            rs[i] = Rounding.addUp(dsup[i], B.dsup[i]);
+        }
+        return new GradientInterval(Rounding.addDown(inf, B.inf), Rounding.addUp(sup, B.sup), ri, rs);
+    }
+
+    /**
+     * Subtract two intervals
+     * @param B Interval to subtract
+     * @return The difference and its gradient
+     */
+    public GradientInterval sub(GradientInterval B) {
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ri[i] = Rounding.addDown(dinf[i], -B.dsup[i]);
+            rs[i] = Rounding.addUp(dsup[i], -B.dinf[i]);
+        }
+        return new GradientInterval(Rounding.addDown(inf, -B.sup), Rounding.addUp(sup, -B.inf), ri, rs);
+    }
+
+    /**
+     * Multiply two intervals, with (uv)' = u'v + uv'
+     * @param B Interval to multiply
+     * @return The product and its gradient
+     */
+    public GradientInterval mult(GradientInterval B) {
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ri[i] = Rounding.addDown(mulInf(dinf[i], dsup[i], B.inf, B.sup), mulInf(inf, sup, B.dinf[i], B.dsup[i]));
+            rs[i] = Rounding.addUp(mulSup(dinf[i], dsup[i], B.inf, B.sup), mulSup(inf, sup, B.dinf[i], B.dsup[i]));
+        }
+        return new GradientInterval(mulInf(inf, sup, B.inf, B.sup), mulSup(inf, sup, B.inf, B.sup), ri, rs);
+    }
+
+    /**
+     * Divide two intervals, with (u/v)' = (u' - (u/v)v')/v
+     * @param B Divisor
+     * @return The quotient and its gradient
+     * @throws ArithmeticException if the divisor contains zero
+     */
+    public GradientInterval div(GradientInterval B) {
+        if (!(B.inf > 0 || B.sup < 0))
+            throw new ArithmeticException("The interval contains zero");
+        double qi = Interval.divInf(inf, sup, B.inf, B.sup);
+        double qs = Interval.divSup(inf, sup, B.inf, B.sup);
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            double ti = Rounding.addDown(dinf[i], -mulSup(qi, qs, B.dinf[i], B.dsup[i]));
+            double ts = Rounding.addUp(dsup[i], -mulInf(qi, qs, B.dinf[i], B.dsup[i]));
+            ri[i] = Interval.divInf(ti, ts, B.inf, B.sup);
+            rs[i] = Interval.divSup(ti, ts, B.inf, B.sup);
+        }
+        return new GradientInterval(qi, qs, ri, rs);
+    }
+
+    /**
+     * Change the sign of the interval and of its gradient
+     * @return The negated interval
+     */
+    public GradientInterval INeg() {
+        int n = dinf.length;
+        double[] ri = new double[n], rs = new double[n];
+        for (int i = 0; i < n; i++) {
+            ri[i] = -dsup[i];
+            rs[i] = -dinf[i];
+        }
+        return new GradientInterval(-sup, -inf, ri, rs);
+    }
+
+    /**
+     * Returns the value and the gradient
+     * @return String like [1.0,2.0] d[[2.0,4.0],[0.0,0.0]]
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append('[').append(inf).append(',').append(sup).append("] d[");
+        for (int i = 0; i < dinf.length; i++) {
+            if (i > 0)
+                s.append(',');
+            s.append('[').append(dinf[i]).append(',').append(dsup[i]).append(']');
+        }
+        return s.append(']').toString();
+    }
+}
@@ -21,267 +21,155 @@ package br.edu.ufop.pujian;
  * 
  * @author Darlan Nunes de Brito
  */
-public class InterFunctions extends Interval{
-    
-    private static final Interval PlusOne = new Interval(1.0);
-    private static final Interval PlusTwo = new Interval(2.0);
-    private static final Interval Zero = new Interval(0.0);
-    private static final Interval Ln10 = new Interval(2.30258509299404568402);
+public final class InterFunctions {
+
     /**
-     * Determines which quadrant the angle is.
-     * @param x Angle to be evaluated
-     * @return 0, 1, 2, 3 which is what quadrant the angle is
+     * Only static methods, there is no instance of this class.
      */
-    private static int Quadrant (double x){
-	/**********************************************************************
-	 *  Calculation of the quadrant x is lying in (x in [0, 2Pi])
-	 */
-	if (x <= Math.PI/2) return 0;
-	if (x <= Math.PI) return 1;
-	if (x <= Math.PI + Math.PI/2) return 2;
-	return 3;
+    private InterFunctions() {
     }
+    
+    /**
+     * Error bound in ulps of the kernels of sinh, cosh and tanh. They use
+     * {@link Math#exp(double)}, within 1 ulp, and at most five more
+     * roundings.
+     */
+    private static final int HypUlps = 6;
+    /**
+     * Error bound in ulps of the inverse hyperbolic functions, which are
+     * computed with a few operations before {@link Math#log1p(double)}
+     */
+    private static final int InvHypUlps = 5;
+    /**
+     * Above this value x^2 + 1 rounds to x^2, and asinh(x) and acosh(x)
+     * are log(2x) to the precision of a double
+     */
+    private static final double Large = 0x1p28;
+    private static final double Ln2 = 0.6931471805599453;
+    /**
+     * Largest odd denominator tried by {@link #IPowerR(Interval, double)}
+     * for negative bases
+     */
+    private static final int MaxOddRoot = 15;
+    /**
+     * 2*Math.PI is below 2*Pi, so an interval with this width or more
+     * contains a whole period
+     */
+    private static final double TwoPi = 2*Math.PI;
 
     /**
-     * Scale the angle between 0 to two pi
-     * @param A Interval angle to be scaled
-     * @return The interval angled scaled from 0 to two pi.
-     * @throws ArithmeticException 
+     * Build an interval from two computed bounds in any order, rounding them
+     * outward with the {@link Rounding} policy in use.
+     * @param a One computed bound
+     * @param b The other computed bound
+     * @return The interval with the rounded bounds
      */
-    private static Interval ScaleTo2Pi(Interval A) throws ArithmeticException{
-        Interval B = new Interval(0.0,0.0);
-        if (A.getInf() >= 0 & A.getSup() <= Math.PI/2){
-            A.clone(B);
-            return B;
+    private static Interval Outward(double a, double b){
+        if (a > b) {
+            double tmp = a;
+            a = b;
+            b = tmp;
         }
-        double x_inf = A.getInf();
-        if (x_inf < 0.0) {
-		x_inf += 2*Math.PI;
-	}else if(x_inf > 2*Math.PI){
-            x_inf -= 2*Math.PI;
-        }
-        double x_sup = A.getSup();
-        if (x_sup > 2*Math.PI) {
-		x_sup -= 2*Math.PI;
-	}
-        if (x_inf < 0.0)
-            throw new ArithmeticException("ScaleTo2Pi (): inf < 0");
-	if (x_sup > 2*Math.PI)
-            throw new ArithmeticException("ScaleTo2Pi (): sup > 2Pi");
-
-        B.set(x_inf,x_sup);
-        return B;
+        return new Interval(Rounding.down(a), Rounding.up(b));
     }
-    
+
     /**
-     * Function used to compute the sine of an interval angle
-     * @param angle Interval angle to compute de sine.
-     * @return The sine of the interval angle.
-     * @throws ArithmeticException 
+     * Lower bound of sine or cossine over [a,b], where the function has its
+     * minimum at the quadrant boundaries k*Pi/2 with k mod 4 = minQuadrant.
+     * @param qa Quadrant of a
+     * @param qb Quadrant of b
+     * @param fa Value of the function at a
+     * @param fb Value of the function at b
+     * @param minQuadrant Quadrant boundary of the minimum
+     * @return The lower bound
      */
-    public static Interval Sin(Interval angle) throws ArithmeticException{
-        Interval cosResult = new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
-        if (angle.width() > 2*Math.PI)
-            return cosResult;
-	/* Reduction of x to [0, 2Pi] */
-	angle = ScaleTo2Pi (angle);
-	if (angle.getSup() >= angle.getInf() + 2*Math.PI) { /* security */
-            cosResult.set(-1.0,1.0);
-            return cosResult;
-	}
-	/* x_inf, x_sup are now in the range [0, 2Pi]
-	 * Quadrants:
-	 *  0 = [0,Pi/2]
-	 *  1 = [Pi/2,Pi]
-	 *  2 = [Pi,3Pi/2]
-	 *  3 = [3Pi/2,2Pi]
-	 */
-        int q_inf,q_sup;
-	q_inf = Quadrant (angle.getInf());
-	q_sup = Quadrant (angle.getSup());
-
-
-	if ((q_inf == q_sup) && (angle.getSup() > angle.getInf() + Math.PI)) {
-		cosResult.set(-1.0,1.0);
-		return cosResult;
-	}
-	switch ((q_sup << 2) + q_inf)
-	{
-	case 0:
-	case 3:
-	case 15:
-            cosResult.set(Math.sin(angle.getInf()),Math.sin(angle.getSup()));//x_sup = Sin (x_sup);
-            return cosResult;
-	case 1:
-	case 14:
-            cosResult.set(-1.0,Math.max(Math.sin(angle.getInf()), Math.sin(angle.getSup())));
-            return cosResult;
-	case 2:
-		/*y_inf = -1.0;
-		x_sup = Sin (x_sup);
-		y_sup = RoundUp (x_sup);
-		break;*/
-            cosResult.set(-1.0,Math.sin(angle.getSup()));
-            return cosResult;
-	case 4:
-	case 11:
-		/*y_sup = 1.0;
-		x_inf = Sin (x_inf);
-		x_sup = Sin (x_sup);
-		x_inf = RoundDown (x_inf);
-		x_sup = RoundDown (x_sup);
-		y_inf = Minimum(x_inf, x_sup);
-		break;*/
-            cosResult.set(1.0,Math.min(Math.sin(angle.getInf()), Math.sin(angle.getSup())));
-            return cosResult;
-	case 5:
-	case 9:
-	case 10:
-		/*x_inf = Sin (x_inf);
-		x_sup = Sin (x_sup);
-		y_inf = RoundDown (x_sup);
-		y_sup = RoundUp (x_inf);
-		break;*/
-            cosResult.set(Math.sin(angle.getInf()),Math.sin(angle.getSup()));
-            return cosResult;
-	case 6:
-	case 12:
-		//y_inf = -1.0; y_sup = 1.0; break;
-            cosResult.set(-1.0,1.0);
-            return cosResult;
-	case 7:
-		/*y_sup = 1.0;
-		x_inf = Sin (x_inf);
-		y_inf = RoundDown (x_inf);
-		break;*/
-            cosResult.set(1.0,Math.sin(angle.getInf()));
-            return cosResult;
-	case 8:
-		/*y_sup = 1.0;
-		x_sup = Sin (x_sup);
-		y_inf = RoundDown (x_sup);
-		break;*/
-            cosResult.set(1.0,Math.sin(angle.getSup()));
-            return cosResult;
-	case 13:
-		/*y_inf = -1.0;
-		x_inf = Sin (x_inf);
-		y_sup = RoundUp (x_inf);
-		break;*/
-            cosResult.set(-1.0,Math.sin(angle.getInf()));
-            return cosResult;
-	}
-        
-        cosResult.set(Math.sin(angle.getInf()),Math.sin(angle.getSup()));
-        return cosResult;
+    private static double PeriodicInf(int qa, int qb, double fa, double fb, int minQuadrant){
+        if (RangeReduction.crosses(qa, qb, minQuadrant))
+            return -1.0;
+        double y = Rounding.down((fa < fb) ? fa : fb);
+        return (y < -1.0) ? -1.0 : y;
     }
-    
+
     /**
-     * Function used to compute the cossine of an interval angle
+     * Upper bound of sine or cossine over [a,b], where the function has its
+     * maximum at the quadrant boundaries k*Pi/2 with k mod 4 = maxQuadrant.
+     * @param qa Quadrant of a
+     * @param qb Quadrant of b
+     * @param fa Value of the function at a
+     * @param fb Value of the function at b
+     * @param maxQuadrant Quadrant boundary of the maximum
+     * @return The upper bound
+     */
+    private static double PeriodicSup(int qa, int qb, double fa, double fb, int maxQuadrant){
+        if (RangeReduction.crosses(qa, qb, maxQuadrant))
+            return 1.0;
+        double y = Rounding.up((fa > fb) ? fa : fb);
+        return (y > 1.0) ? 1.0 : y;
+    }
+
+    /**
+     * Function used to compute the sine of an interval angle. Angles of any
+     * size are reduced with {@link RangeReduction}.
      * @param angle Interval angle to compute de sine.
      * @return The sine of the interval angle.
-     * @throws ArithmeticException 
      */
-    public static Interval Cos(Interval angle) throws ArithmeticException{
-        Interval angle_added_pi_2;
-        angle_added_pi_2 = new Interval(Math.PI/2);
-        angle_added_pi_2 = angle_added_pi_2.add(angle);
-        return Sin(angle_added_pi_2);
+    public static Interval Sin(Interval angle){
+        double a = angle.getInf(), b = angle.getSup();
+        if (!(b - a < TwoPi))
+            return new Interval(-1.0,1.0);
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        double fa = Math.sin(a), fb = Math.sin(b);
+        return new Interval(PeriodicInf(qa, qb, fa, fb, 3), PeriodicSup(qa, qb, fa, fb, 1));
     }
-    
+
     /**
      * Function used to compute the cossine of an interval angle
-     * @param angle Interval angle to compute de sine.
-     * @return The sine of the interval angle.
-     * @throws ArithmeticException 
+     * @param angle Interval angle to compute de cossine.
+     * @return The cossine of the interval angle.
      */
-    public static Interval Tan(Interval angle) throws ArithmeticException{
-	/*Double x_inf, x_sup;
-	Double y_inf, y_sup;
-	Integer q_inf, q_sup;
-
-	if (BiasDiam (pX) >= BiasTwoPi) {
-		BiasHullRR (pR, & BiasNegInf, & BiasPosInf);
-		return;
-	}
-	/* Reduction of x to [0, 2Pi] 
-	ScaleTo2Pi(& x_inf, & x_sup, pX);
-	if (x_sup >= x_inf + BiasTwoPi) { /* security 
-		BiasHullRR (pR, & BiasNegInf, & BiasPosInf);
-		return;
-	}
-	/* x_inf, x_sup are now in the range [0, 2Pi]
-	 * Quadrants:
-	 *  0 = [0,Pi/2]
-	 *  1 = [Pi/2,Pi]
-	 *  2 = [Pi,3Pi/2]
-	 *  3 = [3Pi/2,2Pi]
-	 *
-	q_inf = Quadrant (x_inf);
-	q_sup = Quadrant (x_sup);
-
-	if ((q_inf == q_sup) && (x_sup > x_inf + BiasPi)) {
-		BiasHullRR (pR, & BiasNegInf, & BiasPosInf);
-		return;
-	}
-        */
-        
-        Interval tanResult = new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
-        if (angle.width() > 2*Math.PI)
-            return tanResult;
-	/* Reduction of x to [0, 2Pi] */
-	angle = ScaleTo2Pi (angle);
-	if (angle.getSup() >= angle.getInf() + 2*Math.PI) { /* security */
-            tanResult.set(-1.0,1.0);
-            return tanResult;
-	}
-
-        int q_inf, q_sup;
-	/* x_inf, x_sup are now in the range [0, 2Pi]
-	 * Quadrants:
-	 *  0 = [0,Pi/2]
-	 *  1 = [Pi/2,Pi]
-	 *  2 = [Pi,3Pi/2]
-	 *  3 = [3Pi/2,2Pi]
-	 */
-	q_inf = Quadrant (angle.getInf());
-	q_sup = Quadrant (angle.getSup());
-
-	if ((q_inf == q_sup) && (angle.getSup() > angle.getInf() + Math.PI)) {
-		tanResult.set(-1.0,1.0);
-		return tanResult;
-	}
-	switch ((q_sup << 2) + q_inf)
-	{
-            case 0:
-            case 3:
-            case 5:
-            case 9:
-            case 10:
-            case 15:
-                    /*x_inf = Tan (x_inf);
-                    x_sup = Tan (x_sup);
-                    y_inf = RoundDown (x_inf);
-                    y_sup = RoundUp   (x_sup);*/
-                tanResult.set(Math.tan(angle.getInf()),Math.tan(angle.getSup()));
-                return tanResult;
-            default:
-                return tanResult;
-	}
-    }
-    /**
-     * Function used to compute the cotangent of an interval value
-     * @param tanvalue Interval with the value to compute cotangent.
-     * @return The cotangent of the interval angle.
-     * @throws ArithmeticException 
+    public static Interval Cos(Interval angle){
+        double a = angle.getInf(), b = angle.getSup();
+        if (!(b - a < TwoPi))
+            return new Interval(-1.0,1.0);
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        double fa = Math.cos(a), fb = Math.cos(b);
+        return new Interval(PeriodicInf(qa, qb, fa, fb, 2), PeriodicSup(qa, qb, fa, fb, 0));
+    }
+
+    /**
+     * Function used to compute the tangent of an interval angle
+     * @param angle Interval angle to compute de tangent.
+     * @return The tangent of the interval angle, or [-inf,inf] if the angle
+     * contains a pole Pi/2 + k*Pi.
      */
-    public static Interval Cot(Interval tanvalue) throws ArithmeticException{
-        Interval angle;
-        tanvalue.add(Math.PI/2);
-        angle = Tan(tanvalue);
-        angle.INeg();
-        return angle;
+    public static Interval Tan(Interval angle){
+        double a = angle.getInf(), b = angle.getSup();
+        if (!(b - a < Math.PI))
+            return new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        if (RangeReduction.crosses(qa, qb, 1) || RangeReduction.crosses(qa, qb, 3))
+            return new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
+        return Outward(Math.tan(a),Math.tan(b));
     }
+
+    /**
+     * Function used to compute the cotangent of an interval angle
+     * @param angle Interval angle to compute de cotangent.
+     * @return The cotangent of the interval angle, or [-inf,inf] if the angle
+     * contains a pole k*Pi.
+     */
+    public static Interval Cot(Interval angle){
+        double a = angle.getInf(), b = angle.getSup();
+        if (!(b - a < Math.PI) || a == 0 || b == 0)
+            return new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        if (RangeReduction.crosses(qa, qb, 0) || RangeReduction.crosses(qa, qb, 2))
+            return new Interval(Double.NEGATIVE_INFINITY,Double.POSITIVE_INFINITY);
+        // cot = 1/tan is decreasing and tan has the same sign in [a,b]
+        double ta = Math.tan(a), tb = Math.tan(b);
+        return new Interval(Rounding.divDown(1.0, Rounding.up(tb)), Rounding.divUp(1.0, Rounding.down(ta)));
+    }
+
     /**
      * Function used to compute the arc sine of an interval value
      * @param sinvalue Interval with the value to compute arc sine.
@@ -301,7 +189,7 @@ public class InterFunctions extends Interval{
 	BiasHullRR (pR, & x_inf, & x_sup);*/
         if(sinvalue.getInf() < -1.0 || sinvalue.getSup() > 1.0)
             throw new ArithmeticException("ArcSin argument out of range");
-        return new Interval(Math.asin(sinvalue.getInf()),Math.asin(sinvalue.getSup()));
+        return Outward(Math.asin(sinvalue.getInf()),Math.asin(sinvalue.getSup()));
     }
     /**
      * Function used to compute the arc cossine of an interval value
@@ -312,97 +200,215 @@ public class InterFunctions extends Interval{
     public static Interval ACos(Interval cosvalue) throws ArithmeticException {
 	if ((cosvalue.getInf() < -1.0) || (cosvalue.getSup() > 1.0))
 		throw new ArithmeticException("ArcCos argument out of range");
-        return new Interval(Math.acos(cosvalue.getSup()),Math.acos(cosvalue.getInf()));
+        return Outward(Math.acos(cosvalue.getSup()),Math.acos(cosvalue.getInf()));
     }
 
     /**
-     * Function used to compute the arc tangent of an interval value
-     * @param tanvalue Interval with the value to compute arc cossine.
-     * @return The arc cossine of the interval angle.
-     * @throws ArithmeticException 
+     * Function used to compute the arc tangent of an interval value. It is
+     * defined and increasing on the whole line.
+     * @param tanvalue Interval with the value to compute arc tangent.
+     * @return The arc tangent of the interval value.
      */
-    public static Interval ATan(Interval tanvalue) throws ArithmeticException {
-	if ((tanvalue.getInf() < -1.0) || (tanvalue.getSup() > 1.0))
-		throw new ArithmeticException("ArcCos argument out of range");
-        return new Interval(Math.atan(tanvalue.getSup()),Math.atan(tanvalue.getInf()));
+    public static Interval ATan(Interval tanvalue) {
+        return Outward(Math.atan(tanvalue.getSup()),Math.atan(tanvalue.getInf()));
     }
     /**
-     * Get the hyperbolic sine of a function
+     * Get the hyperbolic sine of a function. It is increasing, so only the
+     * bounds are computed.
      * @param angle Angle to get the hyperbolic sine
      * @return The hyperbolic sine
-     * @throws ArithmeticException 
      */
-    public static Interval Sinh(Interval angle) throws ArithmeticException {
-        Interval t1, t2, t3;
-	//BiasExp (& t1, pX);
-        t1 = Exp(angle);
-	//BiasDivRI (& t2, & PlusOne, & t1);
-        t2 = PlusOne.div(t1);
-	//BiasSubII (& t3, & t1, & t2);
-        t3 = t1.sub(t2);
-	//BiasDivIR (pR, & t3, & PlusTwo);
-        return t3.div(PlusTwo);
+    public static Interval Sinh(Interval angle) {
+        return new Interval(Rounding.down(sinh(angle.getInf()), HypUlps),
+                Rounding.up(sinh(angle.getSup()), HypUlps));
     }
     
     /**
-     * Get the hyperbolic cossine of a function
+     * Get the hyperbolic cossine of a function. It decreases up to zero and
+     * increases after it, where the minimum is 1.
      * @param angle Angle to get the hyperbolic cossine
      * @return The hyperbolic cossine
-     * @throws ArithmeticException 
      */
-    public static Interval Cosh(Interval angle) throws ArithmeticException {
-        Interval t1, t2, t3;
-	//BiasExp (& t1, pX);
-        t1 = Exp(angle);
-	//BiasDivRI (& t2, & PlusOne, & t1);
-        t2 = PlusOne.div(t1);
-	//BiasAddII (& t3, & t1, & t2);
-        t3 = t1.add(t2);
-	//BiasDivIR (pR, & t3, & PlusTwo);
-        return t3.div(PlusTwo);
-
+    public static Interval Cosh(Interval angle) {
+        double a = angle.getInf(), b = angle.getSup();
+        double lo;
+        if (a > 0)
+            lo = Rounding.down(cosh(a), HypUlps);
+        else if (b < 0)
+            lo = Rounding.down(cosh(b), HypUlps);
+        else
+            return new Interval(1.0, Rounding.up(cosh(Math.max(-a, b)), HypUlps));
+        return new Interval(Math.max(lo, 1.0),
+                Rounding.up(cosh(Math.max(Math.abs(a), Math.abs(b))), HypUlps));
     }
     
     /**
-     * Get the hyperbolic tangent of a function
+     * Get the hyperbolic tangent of a function. It is increasing and its
+     * values are in [-1,1].
      * @param angle Angle to get the hyperbolic tangent
-     * @return The hyperbolic cossine
-     * @throws ArithmeticException 
+     * @return The hyperbolic tangent
      */
-    public static Interval Tanh(Interval angle) throws ArithmeticException {
-	Interval t1, t2, t3, t4;
-
-	//BiasExp (& t1, pX);
-        t1 = Exp(angle);
-	//BiasDivRI (& t2, & PlusOne, & t1);
-        t2 = PlusOne.div(t1);
-	//BiasAddII (& t3, & t1, & t2);
-        t3 = t1.add(t2);
-	//BiasSubII (& t4, & t1, & t2);
-        t4 = t1.sub(t2);
-	//BiasDivII (pR, & t4, & t3);
-        return t4.div(t3);
+    public static Interval Tanh(Interval angle) {
+        return new Interval(Math.max(Rounding.down(tanh(angle.getInf()), HypUlps), -1.0),
+                Math.min(Rounding.up(tanh(angle.getSup()), HypUlps), 1.0));
     }
 
     /**
-     * Get the hyperbolic tangent of a function
-     * @param angle Angle to get the hyperbolic tangent
-     * @return The hyperbolic cossine
-     * @throws ArithmeticException 
+     * Get the hyperbolic cotangent of a function. It decreases on each side
+     * of its pole at zero and its values are out of (-1,1).
+     * @param angle Angle without zero to get the hyperbolic cotangent
+     * @return The hyperbolic cotangent
+     * @throws ArithmeticException if the angle contains zero
      */
     public static Interval Coth(Interval angle) throws ArithmeticException {
-	Interval t1, t2, t3, t4;
+        double a = angle.getInf(), b = angle.getSup();
+        if (!(a > 0 || b < 0))
+            throw new ArithmeticException("Coth argument contains zero");
+        double lo = Rounding.down(1.0 / tanh(b), HypUlps + 1);
+        double hi = Rounding.up(1.0 / tanh(a), HypUlps + 1);
+        if (a > 0)
+            return new Interval(Math.max(lo, 1.0), hi);
+        return new Interval(lo, Math.min(hi, -1.0));
+    }
+
+    /**
+     * sinh(x) with {@link Math#exp(double)}, which is much faster than
+     * {@link Math#sinh(double)}. Below 1/2 the odd Taylor series up to x^17
+     * avoids the cancellation of e - 1/e.
+     */
+    private static double sinh(double x) {
+        double t = Math.abs(x), y;
+        if (t < 0.5) {
+            double z = t * t;
+            double p = 1.0/355687428096000.0 * z + 1.0/1307674368000.0;
+            p = p * z + 1.0/6227020800.0;
+            p = p * z + 1.0/39916800;
+            p = p * z + 1.0/362880;
+            p = p * z + 1.0/5040;
+            p = p * z + 1.0/120;
+            p = p * z + 1.0/6;
+            y = t + t * z * p;
+        } else if (t < 22) {
+            double e = Math.exp(t);
+            y = 0.5 * (e - 1.0 / e);
+        } else {
+            // 1/e is below 2^-63 of e; exp(t/2) squared does not overflow first
+            double h = Math.exp(0.5 * t);
+            y = (0.5 * h) * h;
+        }
+        return (x < 0) ? -y : y;
+    }
+
+    /**
+     * cosh(x) with {@link Math#exp(double)}
+     */
+    private static double cosh(double x) {
+        double t = Math.abs(x);
+        if (t < 22) {
+            double e = Math.exp(t);
+            return 0.5 * (e + 1.0 / e);
+        }
+        double h = Math.exp(0.5 * t);
+        return (0.5 * h) * h;
+    }
+
+    /**
+     * tanh(x) as 1 - 2/(e^2x + 1), or as sinh(x)/sqrt(1 + sinh(x)^2) below
+     * 1/2 to avoid cancellation
+     */
+    private static double tanh(double x) {
+        double t = Math.abs(x), y;
+        if (t < 0.5) {
+            double s = sinh(t);
+            y = s / Math.sqrt(1.0 + s * s);
+        } else {
+            y = 1.0 - 2.0 / (Math.exp(2.0 * t) + 1.0);
+        }
+        return (x < 0) ? -y : y;
+    }
+
+    /**
+     * Get the inverse hyperbolic sine of an interval. It is increasing and
+     * odd, so it is computed for |x| as log1p(|x| + x^2/(1 + sqrt(1 + x^2))),
+     * which has no cancellation, or log(|x|) + log(2) for large |x|.
+     * @param A Interval to get the inverse hyperbolic sine
+     * @return The inverse hyperbolic sine
+     */
+    public static Interval ASinh(Interval A) {
+        return new Interval(Rounding.down(asinh(A.getInf()), InvHypUlps),
+                Rounding.up(asinh(A.getSup()), InvHypUlps));
+    }
+
+    private static double asinh(double x) {
+        double t = Math.abs(x), y;
+        if (t > Large)
+            y = Math.log(t) + Ln2;
+        else
+            y = Math.log1p(t + t * t / (1.0 + Math.sqrt(1.0 + t * t)));
+        return (x < 0) ? -y : y;
+    }
 
-	//BiasExp (& t1, pX);
-        t1 = Exp(angle);
-	//BiasDivRI (& t2, & PlusOne, & t1);
-        t2 = PlusOne.div(t1);
-	//BiasAddII (& t3, & t1, & t2);
-        t3 = t1.add(t2);
-	//BiasSubII (& t4, & t1, & t2);
-        t4 = t1.sub(t2);
-	//BiasDivII (pR, & t4, & t3);
-        return t3.div(t4);
+    /**
+     * Get the inverse hyperbolic cossine of an interval. It is increasing
+     * and computed as log1p(t + sqrt(t*(t + 2))) with t = x - 1, which is
+     * exact near 1, or log(x) + log(2) for large x.
+     * @param A Interval with values not less than 1
+     * @return The inverse hyperbolic cossine
+     * @throws ArithmeticException if A has values less than 1
+     */
+    public static Interval ACosh(Interval A) throws ArithmeticException {
+        if (A.getInf() < 1.0)
+            throw new ArithmeticException("ACosh argument out of range");
+        return new Interval(Math.max(Rounding.down(acosh(A.getInf()), InvHypUlps), 0.0),
+                Rounding.up(acosh(A.getSup()), InvHypUlps));
+    }
+
+    private static double acosh(double x) {
+        if (x > Large)
+            return Math.log(x) + Ln2;
+        double t = x - 1.0;
+        return Math.log1p(t + Math.sqrt(t * (t + 2.0)));
+    }
+
+    /**
+     * Get the inverse hyperbolic tangent of an interval. It is increasing
+     * and odd, so it is computed for |x| as log1p(2|x|/(1 - |x|))/2.
+     * @param A Interval with values in (-1,1)
+     * @return The inverse hyperbolic tangent
+     * @throws ArithmeticException if A has values out of (-1,1)
+     */
+    public static Interval ATanh(Interval A) throws ArithmeticException {
+        if (!(A.getInf() > -1.0 && A.getSup() < 1.0))
+            throw new ArithmeticException("ATanh argument out of range");
+        return new Interval(Rounding.down(atanh(A.getInf()), InvHypUlps),
+                Rounding.up(atanh(A.getSup()), InvHypUlps));
+    }
+
+    private static double atanh(double x) {
+        double t = Math.abs(x);
+        double y = 0.5 * Math.log1p(2.0 * t / (1.0 - t));
+        return (x < 0) ? -y : y;
+    }
+
+    /**
+     * Get the square root of an interval
+     * @param A Interval with non negative values
+     * @return The square root
+     * @throws ArithmeticException if A has negative values
+     */
+    public static Interval Sqrt(Interval A) throws ArithmeticException {
+        if (A.getInf() < 0.0)
+            throw new ArithmeticException("Sqrt argument out of range");
+        return new Interval(Rounding.sqrtDown(A.getInf()), Rounding.sqrtUp(A.getSup()));
+    }
+
+    /**
+     * Get the cube root of an interval. It is increasing on the whole line.
+     * @param A Interval to get the cube root
+     * @return The cube root
+     */
+    public static Interval Cbrt(Interval A) {
+        return new Interval(Rounding.down(Math.cbrt(A.getInf())), Rounding.up(Math.cbrt(A.getSup())));
     }
 
     //IMPLEMENTS THE ARCSINH 
@@ -435,37 +441,182 @@ public class InterFunctions extends Interval{
     }
 
     /**
-     * Get the power of an interval by a number
+     * Get the power of an interval by an integer. The bounds come from
+     * {@link Powers}: squaring up to the power {@value Powers#MaxSquaring}
+     * and {@link Math#pow(double, double)} after it. Odd powers are
+     * increasing, and even powers decrease up to zero and increase after it.
      * @param A Interval to be powered.
      * @param n Exponent to power
      * @return {@link Interval} The result of operation
+     * @throws ArithmeticException if n is negative and A contains zero
      */
     public static Interval IPowerN(Interval A,int n)
     /**********************************************************************
      *  R = X^n
      */
     {
-            int i, absn;
-            Interval y, z, xsqr;
-            y = new Interval();
-            z = new Interval();
-
-            absn = (n < 0) ? (-n) : n;
-            if (absn >= 2) {
-                    xsqr = ISqr(A);
-                    if (absn%2 != 0) y= xsqr.mult(A);
-                    else xsqr.clone(y);
-                    for (i = 3; i < absn; i += 2) {
-                            y.clone(z);
-                            y = z.mult(xsqr);
-                    }
+        double a = A.getInf(), b = A.getSup();
+        return new Interval(powerInf(a, b, n), powerSup(a, b, n));
+    }
+
+    /**
+     * Lower bound of [a,b]^n, used by {@link #IPowerN(Interval, int)} and
+     * by the powers of {@link IntervalArray}
+     * @param a Lower bound of the base
+     * @param b Upper bound of the base
+     * @param n Exponent
+     * @return The lower bound of the power
+     * @throws ArithmeticException if n is negative and [a,b] contains zero
+     */
+    static double powerInf(double a, double b, int n) {
+        if (n < 0) {
+            if (!(a > 0 || b < 0))
+                throw new ArithmeticException("The interval contains zero");
+            if (n == Integer.MIN_VALUE) {
+                // the even power n/2 is positive
+                double h = powerInf(a, b, n / 2);
+                return Math.max(Rounding.mulDown(h, h), 0.0);
             }
-            else if (absn%2 != 0) y = A;
-            else PlusOne.clone(y);
-            if (n < 0) y = PlusOne.div(y);
-            return y;
+            return Rounding.divDown(1.0, powerSup(a, b, -n));
+        }
+        if ((n & 1) != 0)
+            return (a < 0) ? -Powers.powUp(-a, n) : Powers.powDown(a, n);
+        if (a >= 0)
+            return Powers.powDown(a, n);
+        if (b <= 0)
+            return Powers.powDown(-b, n);
+        return (n == 0) ? 1.0 : 0.0;
     }
 
+    /**
+     * Upper bound of [a,b]^n
+     * @param a Lower bound of the base
+     * @param b Upper bound of the base
+     * @param n Exponent
+     * @return The upper bound of the power
+     * @throws ArithmeticException if n is negative and [a,b] contains zero
+     */
+    static double powerSup(double a, double b, int n) {
+        if (n < 0) {
+            if (!(a > 0 || b < 0))
+                throw new ArithmeticException("The interval contains zero");
+            if (n == Integer.MIN_VALUE) {
+                double h = powerSup(a, b, n / 2);
+                return Rounding.mulUp(h, h);
+            }
+            return Rounding.divUp(1.0, powerInf(a, b, -n));
+        }
+        if ((n & 1) != 0)
+            return (b < 0) ? -Powers.powDown(-b, n) : Powers.powUp(b, n);
+        if (a >= 0)
+            return Powers.powUp(b, n);
+        if (b <= 0)
+            return Powers.powUp(-a, n);
+        return Powers.powUp(Math.max(-a, b), n);
+    }
+
+    /**
+     * Get the power of an interval by a rational number p/q. The q-th root is
+     * computed first and then the power p, so the result is tight. Roots of
+     * odd index are defined for negative values too.
+     * @param A Interval to be powered
+     * @param p Numerator of the exponent
+     * @param q Denominator of the exponent, positive
+     * @return {@link Interval} The result of operation
+     * @throws ArithmeticException if q is even after reducing p/q and A has
+     * negative values, or if p is negative and the root contains zero
+     */
+    public static Interval IPowerQ(Interval A, int p, int q) throws ArithmeticException {
+        if (q <= 0)
+            throw new IllegalArgumentException("The denominator of the exponent must be positive");
+        int g = Gcd(Math.abs(p), q);
+        p /= g;
+        q /= g;
+        if (q == 1)
+            return IPowerN(A, p);
+        double a = A.getInf(), b = A.getSup();
+        if ((q & 1) == 0 && a < 0)
+            throw new ArithmeticException("Power: Base is negative");
+        double lo = rootInf(a, q), hi = rootSup(b, q);
+        return new Interval(powerInf(lo, hi, p), powerSup(lo, hi, p));
+    }
+
+    /**
+     * Lower bound of the q-th root of a, the lower bound of an interval. The
+     * root is increasing, so it is the lower bound of the root of the
+     * interval.
+     * @param a Lower bound, non negative if q is even
+     * @param q Index of the root, at least 2
+     * @return The lower bound of the root
+     */
+    static double rootInf(double a, int q) {
+        return (a < 0) ? -Powers.rootUp(-a, q) : Powers.rootDown(a, q);
+    }
+
+    /**
+     * Upper bound of the q-th root of b, the upper bound of an interval
+     * @param b Upper bound, non negative if q is even
+     * @param q Index of the root, at least 2
+     * @return The upper bound of the root
+     */
+    static double rootSup(double b, int q) {
+        return (b < 0) ? -Powers.rootDown(-b, q) : Powers.rootUp(b, q);
+    }
+
+    private static int Gcd(int a, int b){
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Get the power of an interval by a real number.
+     * <ul>
+     * <li> Integer exponents use {@link #IPowerN(Interval, int)}. </li>
+     * <li> Non negative bases use the bounds of {@link Math#pow(double, double)},
+     * because x^y is monotone in x. </li>
+     * <li> Negative bases are accepted only when the exponent is p/q with an
+     * odd q up to {@value #MaxOddRoot}, and use
+     * {@link #IPowerQ(Interval, int, int)}. </li>
+     * </ul>
+     * @param A Interval to be powered
+     * @param y Exponent
+     * @return {@link Interval} The result of operation
+     * @throws ArithmeticException if x^y is not defined for some x in A
+     */
+    public static Interval IPowerR(Interval A, double y) throws ArithmeticException {
+        if (y == Math.rint(y) && Math.abs(y) <= Integer.MAX_VALUE)
+            return IPowerN(A, (int) y);
+        double a = A.getInf(), b = A.getSup();
+        if (a < 0) {
+            int q = OddRoot(y);
+            if (q == 0)
+                throw new ArithmeticException("Power: Base is negative");
+            return IPowerQ(A, (int) Math.rint(y * q), q);
+        }
+        if (a == 0 && y < 0)
+            throw new ArithmeticException("Power: Negative exponent with zero base");
+        double lo = (y > 0) ? a : b, hi = (y > 0) ? b : a;
+        return new Interval(Math.max(Rounding.down(Math.pow(lo, y)), 0.0), Rounding.up(Math.pow(hi, y)));
+    }
+
+    /**
+     * Find an odd denominator of a real exponent
+     * @param y Exponent that is not an integer
+     * @return The smallest odd q up to {@value #MaxOddRoot} with y = p/q for
+     * an integer p, or 0 if there is none
+     */
+    static int OddRoot(double y) {
+        for (int q = 3; q <= MaxOddRoot; q += 2) {
+            double p = Math.rint(y * q);
+            if (p / q == y && Math.abs(p) <= Integer.MAX_VALUE)
+                return q;
+        }
+        return 0;
+    }
 
     /*
     VOID BiasLog (BIASINTERVAL * const pR,
@@ -497,7 +648,7 @@ public class InterFunctions extends Interval{
         if (A.getInf() <= 0)
             throw new ArithmeticException("Log argument out of range");
         else
-            return new Interval(Math.log(A.getInf()),Math.log(A.getSup()));
+            return Outward(Math.log(A.getInf()),Math.log(A.getSup()));
     }
  
     /*    VOID BiasLog10 (BIASINTERVAL * const pR,
@@ -522,14 +673,9 @@ public class InterFunctions extends Interval{
      * @return {@link Interval} with result
      */
     public static Interval Log10(Interval A){
-        Interval result;
         if (A.getInf() <= 0.0)
             throw new ArithmeticException("Log10 argument out of range");
-        else{
-            result = Log(A);
-            result = result.div(A);
-        }
-        return result;
+        return Outward(Math.log10(A.getInf()),Math.log10(A.getSup()));
     }
     /*VOID BiasExp (BIASINTERVAL * const pR,
                                                             const BIASINTERVAL * const pX)
@@ -552,45 +698,438 @@ public class InterFunctions extends Interval{
      * @return {@link Interval} with the result of the operation
      */
     public static Interval Exp(Interval A){
-        Interval result = new Interval(Math.exp(A.getInf()),Math.exp(A.getSup()));
-        if (result.getInf() < 0.0) result.set(0.0, result.getSup());
-        return result;
+        double y_inf = Rounding.down(Math.exp(A.getInf()));
+        if (y_inf < 0.0) y_inf = 0.0;
+        return new Interval(y_inf,Rounding.up(Math.exp(A.getSup())));
+    }
+
+    /*
+     * The functions on the bounds [a,b] of one interval, with the result
+     * written in rinf[k] and rsup[k]. They give the same bounds and throw in
+     * the same cases as the functions on Interval, without creating objects,
+     * for the tapes and programs that keep their values in columns.
+     */
+
+    /**
+     * Sine like {@link #Sin(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void SinInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (!(b - a < TwoPi)) {
+            rinf[k] = -1.0;
+            rsup[k] = 1.0;
+            return;
+        }
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        double fa = Math.sin(a), fb = Math.sin(b);
+        rinf[k] = PeriodicInf(qa, qb, fa, fb, 3);
+        rsup[k] = PeriodicSup(qa, qb, fa, fb, 1);
+    }
+
+    /**
+     * Cossine like {@link #Cos(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void CosInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (!(b - a < TwoPi)) {
+            rinf[k] = -1.0;
+            rsup[k] = 1.0;
+            return;
+        }
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        double fa = Math.cos(a), fb = Math.cos(b);
+        rinf[k] = PeriodicInf(qa, qb, fa, fb, 2);
+        rsup[k] = PeriodicSup(qa, qb, fa, fb, 0);
+    }
+
+    /**
+     * Tangent like {@link #Tan(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void TanInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Double.NEGATIVE_INFINITY;
+        rsup[k] = Double.POSITIVE_INFINITY;
+        if (!(b - a < Math.PI))
+            return;
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        if (RangeReduction.crosses(qa, qb, 1) || RangeReduction.crosses(qa, qb, 3))
+            return;
+        OutwardInto(Math.tan(a), Math.tan(b), rinf, rsup, k);
+    }
+
+    /**
+     * Cotangent like {@link #Cot(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void CotInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Double.NEGATIVE_INFINITY;
+        rsup[k] = Double.POSITIVE_INFINITY;
+        if (!(b - a < Math.PI) || a == 0 || b == 0)
+            return;
+        int qa = RangeReduction.quadrant(a), qb = RangeReduction.quadrant(b);
+        if (RangeReduction.crosses(qa, qb, 0) || RangeReduction.crosses(qa, qb, 2))
+            return;
+        double ta = Math.tan(a), tb = Math.tan(b);
+        rinf[k] = Rounding.divDown(1.0, Rounding.up(tb));
+        rsup[k] = Rounding.divUp(1.0, Rounding.down(ta));
+    }
+
+    /**
+     * Arc sine like {@link #ASin(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void ASinInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a < -1.0 || b > 1.0)
+            throw new ArithmeticException("ArcSin argument out of range");
+        OutwardInto(Math.asin(a), Math.asin(b), rinf, rsup, k);
+    }
+
+    /**
+     * Arc cossine like {@link #ACos(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void ACosInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a < -1.0 || b > 1.0)
+            throw new ArithmeticException("ArcCos argument out of range");
+        OutwardInto(Math.acos(b), Math.acos(a), rinf, rsup, k);
+    }
+
+    /**
+     * Arc tangent like {@link #ATan(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void ATanInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        OutwardInto(Math.atan(b), Math.atan(a), rinf, rsup, k);
+    }
+
+    /**
+     * Hyperbolic sine like {@link #Sinh(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void SinhInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Rounding.down(sinh(a), HypUlps);
+        rsup[k] = Rounding.up(sinh(b), HypUlps);
+    }
+
+    /**
+     * Hyperbolic cossine like {@link #Cosh(Interval)}, into rinf[k] and
+     * rsup[k]
+     */
+    static void CoshInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a > 0)
+            rinf[k] = Math.max(Rounding.down(cosh(a), HypUlps), 1.0);
+        else if (b < 0)
+            rinf[k] = Math.max(Rounding.down(cosh(b), HypUlps), 1.0);
+        else
+            rinf[k] = 1.0;
+        rsup[k] = Rounding.up(cosh(Math.max(Math.abs(a), Math.abs(b))), HypUlps);
+    }
+
+    /**
+     * Hyperbolic tangent like {@link #Tanh(Interval)}, into rinf[k] and
+     * rsup[k]
+     */
+    static void TanhInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Math.max(Rounding.down(tanh(a), HypUlps), -1.0);
+        rsup[k] = Math.min(Rounding.up(tanh(b), HypUlps), 1.0);
+    }
+
+    /**
+     * Hyperbolic cotangent like {@link #Coth(Interval)}, into rinf[k] and
+     * rsup[k]
+     */
+    static void CothInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (!(a > 0 || b < 0))
+            throw new ArithmeticException("Coth argument contains zero");
+        double lo = Rounding.down(1.0 / tanh(b), HypUlps + 1);
+        double hi = Rounding.up(1.0 / tanh(a), HypUlps + 1);
+        rinf[k] = (a > 0) ? Math.max(lo, 1.0) : lo;
+        rsup[k] = (a > 0) ? hi : Math.min(hi, -1.0);
+    }
+
+    /**
+     * Inverse hyperbolic sine like {@link #ASinh(Interval)}, into rinf[k]
+     * and rsup[k]
+     */
+    static void ASinhInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Rounding.down(asinh(a), InvHypUlps);
+        rsup[k] = Rounding.up(asinh(b), InvHypUlps);
+    }
+
+    /**
+     * Inverse hyperbolic cossine like {@link #ACosh(Interval)}, into rinf[k]
+     * and rsup[k]
+     */
+    static void ACoshInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a < 1.0)
+            throw new ArithmeticException("ACosh argument out of range");
+        rinf[k] = Math.max(Rounding.down(acosh(a), InvHypUlps), 0.0);
+        rsup[k] = Rounding.up(acosh(b), InvHypUlps);
+    }
+
+    /**
+     * Inverse hyperbolic tangent like {@link #ATanh(Interval)}, into rinf[k]
+     * and rsup[k]
+     */
+    static void ATanhInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (!(a > -1.0 && b < 1.0))
+            throw new ArithmeticException("ATanh argument out of range");
+        rinf[k] = Rounding.down(atanh(a), InvHypUlps);
+        rsup[k] = Rounding.up(atanh(b), InvHypUlps);
+    }
+
+    /**
+     * Absolute value like {@link #IAbs(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void IAbsInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a > 0.0) {
+            rinf[k] = a;
+            rsup[k] = b;
+        } else if (b < 0.0) {
+            rinf[k] = -b;
+            rsup[k] = -a;
+        } else {
+            rinf[k] = 0.0;
+            rsup[k] = Math.max(Math.abs(a), Math.abs(b));
+        }
+    }
+
+    /**
+     * Square like {@link #ISqr(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void ISqrInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        IAbsInto(a, b, rinf, rsup, k);
+        double c = rinf[k], d = rsup[k];
+        rinf[k] = Interval.multInf(c, d, c, d);
+        rsup[k] = Interval.multSup(c, d, c, d);
+    }
+
+    /**
+     * Square root like {@link #Sqrt(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void SqrtInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a < 0.0)
+            throw new ArithmeticException("Sqrt argument out of range");
+        rinf[k] = Rounding.sqrtDown(a);
+        rsup[k] = Rounding.sqrtUp(b);
+    }
+
+    /**
+     * Cube root like {@link #Cbrt(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void CbrtInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        rinf[k] = Rounding.down(Math.cbrt(a));
+        rsup[k] = Rounding.up(Math.cbrt(b));
+    }
+
+    /**
+     * Natural logarithm like {@link #Log(Interval)}, into rinf[k] and
+     * rsup[k]
+     */
+    static void LogInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a <= 0)
+            throw new ArithmeticException("Log argument out of range");
+        OutwardInto(Math.log(a), Math.log(b), rinf, rsup, k);
     }
+
+    /**
+     * Logarithm in the base 10 like {@link #Log10(Interval)}, into rinf[k]
+     * and rsup[k]
+     */
+    static void Log10Into(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a <= 0.0)
+            throw new ArithmeticException("Log10 argument out of range");
+        OutwardInto(Math.log10(a), Math.log10(b), rinf, rsup, k);
+    }
+
+    /**
+     * e^X like {@link #Exp(Interval)}, into rinf[k] and rsup[k]
+     */
+    static void ExpInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        double y_inf = Rounding.down(Math.exp(a));
+        rsup[k] = Rounding.up(Math.exp(b));
+        rinf[k] = (y_inf < 0.0) ? 0.0 : y_inf;
+    }
+
+    /**
+     * Power by a real number like {@link #IPowerR(Interval, double)}, into
+     * rinf[k] and rsup[k]
+     */
+    static void IPowerRInto(double a, double b, double y, double[] rinf, double[] rsup, int k) {
+        if (y == Math.rint(y) && Math.abs(y) <= Integer.MAX_VALUE) {
+            int n = (int) y;
+            double lo = powerInf(a, b, n);
+            rsup[k] = powerSup(a, b, n);
+            rinf[k] = lo;
+            return;
+        }
+        if (a < 0) {
+            int q = OddRoot(y);
+            if (q == 0)
+                throw new ArithmeticException("Power: Base is negative");
+            // q is the smallest odd denominator, so p/q is reduced
+            int p = (int) Math.rint(y * q);
+            double lo = rootInf(a, q), hi = rootSup(b, q);
+            rinf[k] = powerInf(lo, hi, p);
+            rsup[k] = powerSup(lo, hi, p);
+            return;
+        }
+        if (a == 0 && y < 0)
+            throw new ArithmeticException("Power: Negative exponent with zero base");
+        double lo = (y > 0) ? a : b, hi = (y > 0) ? b : a;
+        rinf[k] = Math.max(Rounding.down(Math.pow(lo, y)), 0.0);
+        rsup[k] = Rounding.up(Math.pow(hi, y));
+    }
+
+    /**
+     * Power by an interval like {@link #IPowerI(Interval, Interval)} of
+     * [a,b]^[c,d], into rinf[k] and rsup[k]
+     */
+    static void IPowerIInto(double a, double b, double c, double d, double[] rinf, double[] rsup, int k) {
+        if (c == d) {
+            IPowerRInto(a, b, c, rinf, rsup, k);
+            return;
+        }
+        if (a < 0.0) throw new ArithmeticException("Power: Base is negative");
+        if (a == 0.0 && c <= 0.0)
+            throw new ArithmeticException("Power: Negative or zero exponent with zero base");
+        double p0 = Math.pow(a, c), p1 = Math.pow(a, d);
+        double p2 = Math.pow(b, c), p3 = Math.pow(b, d);
+        rinf[k] = Math.max(Rounding.down(Math.min(Math.min(p0, p1), Math.min(p2, p3))), 0.0);
+        rsup[k] = Rounding.up(Math.max(Math.max(p0, p1), Math.max(p2, p3)));
+    }
+
+    /**
+     * Write two computed bounds in any order rounded outward, like
+     * {@link #Outward(double, double)}
+     */
+    private static void OutwardInto(double a, double b, double[] rinf, double[] rsup, int k) {
+        if (a > b) {
+            double tmp = a;
+            a = b;
+            b = tmp;
+        }
+        rinf[k] = Rounding.down(a);
+        rsup[k] = Rounding.up(b);
+    }
+
+    /**
+     * Sine of all intervals of an array
+     * @param A Interval array with the angles
+     * @param out Interval array that receives the results. It may be A.
+     */
+    public static void Sin(IntervalArray A, IntervalArray out){
+        CheckLength(A, out);
+        for (int i = 0; i < A.length(); i++)
+            SinInto(A.inf[i], A.sup[i], out.inf, out.sup, i);
+    }
+
+    /**
+     * Cossine of all intervals of an array
+     * @param A Interval array with the angles
+     * @param out Interval array that receives the results. It may be A.
+     */
+    public static void Cos(IntervalArray A, IntervalArray out){
+        CheckLength(A, out);
+        for (int i = 0; i < A.length(); i++)
+            CosInto(A.inf[i], A.sup[i], out.inf, out.sup, i);
+    }
+
+    /**
+     * e^X of all intervals of an array
+     * @param A Interval array with the exponents
+     * @param out Interval array that receives the results. It may be A.
+     */
+    public static void Exp(IntervalArray A, IntervalArray out){
+        CheckLength(A, out);
+        for (int i = 0; i < A.length(); i++)
+            ExpInto(A.inf[i], A.sup[i], out.inf, out.sup, i);
+    }
+
+    /**
+     * Natural logarithm of all intervals of an array
+     * @param A Interval array with the arguments
+     * @param out Interval array that receives the results. It may be A.
+     * @throws ArithmeticException if one interval has values not positive.
+     * Nothing is written in out in this case.
+     */
+    public static void Log(IntervalArray A, IntervalArray out){
+        CheckLength(A, out);
+        int n = A.length();
+        for (int i = 0; i < n; i++) {
+            if (A.inf[i] <= 0)
+                throw new ArithmeticException("Log argument out of range");
+        }
+        for (int i = 0; i < n; i++)
+            LogInto(A.inf[i], A.sup[i], out.inf, out.sup, i);
+    }
+
+    /**
+     * Natural logarithm of all intervals of an array, without exceptions.
+     * The logarithm is computed on the part of each interval in (0,+inf] and
+     * the status column tells what happened, see
+     * {@link Decoration#fromStatus(byte)}:
+     * <ul>
+     * <li> COM (or DAC for unbounded results): the interval is inside the
+     * domain. </li>
+     * <li> TRV: values not positive were removed. A result with nothing left
+     * is empty and its bounds are NaN. </li>
+     * </ul>
+     * @param A Interval array with the arguments
+     * @param out Interval array that receives the results. It may be A.
+     * @param status Array that receives the decorations of the results
+     */
+    public static void Log(IntervalArray A, IntervalArray out, byte[] status){
+        CheckLength(A, out);
+        if (status.length < A.length())
+            throw new IllegalArgumentException("The status column is shorter than the interval array");
+        final byte com = Decoration.COM.status(), dac = Decoration.DAC.status(), trv = Decoration.TRV.status();
+        double[] inf = A.inf, sup = A.sup, rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < A.length(); i++) {
+            double a = inf[i], b = sup[i];
+            if (b <= 0) {
+                rinf[i] = Double.NaN;
+                rsup[i] = Double.NaN;
+                status[i] = trv;
+                continue;
+            }
+            double y_sup = Rounding.up(Math.log(b));
+            if (a > 0) {
+                rinf[i] = Rounding.down(Math.log(a));
+                status[i] = (b < Double.POSITIVE_INFINITY) ? com : dac;
+            } else {
+                rinf[i] = Double.NEGATIVE_INFINITY;
+                status[i] = trv;
+            }
+            rsup[i] = y_sup;
+        }
+    }
+
+    private static void CheckLength(IntervalArray A, IntervalArray out){
+        if (A.length() != out.length())
+            throw new IllegalArgumentException("The interval arrays have different lengths");
+    }
+
     /**
      * Get the power of an interval with the exponent as an interval too.
+     * x^y = e^(y*ln(x)) and y*ln(x) is bilinear, so for a non negative base
+     * the bounds are at the corners and come directly from
+     * {@link Math#pow(double, double)}. A point exponent uses
+     * {@link #IPowerR(Interval, double)}.
      * @param pX Interval Base of the exponential function
      * @param pY Interval exponent
-     * @return 
+     * @return The result of the operation
+     * @throws ArithmeticException if the base is negative or is zero with a
+     * non positive exponent
      */
     public static Interval IPowerI (Interval pX,Interval pY)
     /**********************************************************************
      *  R = X^Y
      */
     {
-      double x_inf = pX.getInf();
-      double x_sup;
-      Interval t1, t2 = new Interval();
-      Interval result = null;
-
+        double y_inf = pY.getInf(), y_sup = pY.getSup();
+        if (y_inf == y_sup)
+            return IPowerR(pX, y_inf);
+        double x_inf = pX.getInf(), x_sup = pX.getSup();
         if (x_inf < 0.0) throw new ArithmeticException("Power: Base is negative");
-        if (x_inf == 0.0) {
-            if (pY.getInf() <= 0.0) {
-                throw new ArithmeticException("Power: Negative or zero exponent with zero base");
-            } else if ((x_sup = pX.getSup()) == 0.0) {
-                return Zero;
-            } else {
-                t2.set(x_sup, x_sup);
-                t1 = Log (t2);
-            }
-        }else t1 = Log(pX);
-        t2 = t1.mult(pY);//BiasMulII (& t2, & t1, pY);
-        if (x_inf == 0.0) {
-                t1 = Exp (t2);
-                result = t1.Hull(Zero);//BiasHullRI (pR, & Zero, & t1);
-        }
-        else result = Exp(t2);//BiasExp (pR, & t2);
-        return result;
-            
+        if (x_inf == 0.0 && y_inf <= 0.0)
+            throw new ArithmeticException("Power: Negative or zero exponent with zero base");
+        double p0 = Math.pow(x_inf, y_inf), p1 = Math.pow(x_inf, y_sup);
+        double p2 = Math.pow(x_sup, y_inf), p3 = Math.pow(x_sup, y_sup);
+        return new Interval(Math.max(Rounding.down(Math.min(Math.min(p0, p1), Math.min(p2, p3))), 0.0),
+                Rounding.up(Math.max(Math.max(p0, p1), Math.max(p2, p3))));
     }
 
 }
@@ -16,22 +16,23 @@
  */
 package br.edu.ufop.pujian;
 
-import java.util.Arrays;
-
-   
 /**
  * Class used to define the Interval type. This type
  * is used to make basic operations with intervals.
  * 
+ * Interval is a plain value made of two doubles. It does not carry any
+ * {@link Engine} state, so temporaries created by the operations are cheap.
+ * All operations return a new Interval and the bounds are final, so an
+ * interval can be shared.
  * 
  * @author Darlan Nunes de Brito
  * @author Jônata Lucas Nogueira
  */
-public class Interval extends Engine{
+public final class Interval {
     /**
      * Public member to inferior limit of the interval
      */
-    private double inf;
+    private final double inf;
     
     /**
      * Get the lower bound of the interval
@@ -41,24 +42,10 @@ public class Interval extends Engine{
         return inf;
     }
     
-    /**
-     * Set the lower bound value of the interval
-     * @param inf_val Value to set the lower bound
-     * @param sup_val Value to set the upper bound
-     */
-    public void set(double inf_val,double sup_val){
-        if(inf_val > sup_val){
-            inf = sup_val;
-            sup = inf_val;
-        }else{
-            inf = inf_val;
-            sup = sup_val;
-        }
-    }
     /**
      * Public member to superior limit of the interval
      */
-    private double sup;
+    private final double sup;
 
     /**
      * Get the upper bound of the interval
@@ -70,9 +57,32 @@ public class Interval extends Engine{
 
     
     /**
-     * Empty class constructor
+     * Class constructor of the interval [0,0]
      */
     public Interval( ) {
+        this(0.0);
+    }
+
+    /**
+     * Create an interval with bounds that are already in order. Unlike the
+     * constructor the bounds are never swapped.
+     *
+     * @param inf Interval inferior limit
+     * @param sup Interval superior limit
+     * @return The interval [inf,sup]
+     */
+    static Interval bounds(double inf, double sup) {
+        return new Interval(inf, sup, true);
+    }
+
+    /**
+     * Class constructor with bounds already in order, see
+     * {@link #bounds(double, double)}. The flag only selects this
+     * constructor.
+     */
+    private Interval(double inf, double sup, boolean ordered) {
+        this.inf = inf;
+        this.sup = sup;
     }
 
     /**
@@ -130,22 +140,6 @@ public class Interval extends Engine{
         return new Interval(-this.sup,-this.inf);
     }
     
-    /**
-     * Increment this interval by one
-     */
-    public void increment(){
-        this.inf=this.inf+1;
-        this.sup=this.sup+1;
-    }
-    /**
-     * Decrement this interval by one
-     *
-     */
-    public void decrement(){
-        this.inf = this.inf-1;
-        this.sup = this.sup-1;
-    }
-
     /**
      * Sum two intervals
      * 
@@ -153,17 +147,7 @@ public class Interval extends Engine{
      * @return Interval result
      */
     public Interval add(Interval A){
-        Interval sum = new Interval();
-        sum.inf = this.inf + A.inf;
-        sum.sup = this.sup + A.sup;
-        
-        if(sum.inf > sum.sup){
-            double tmp;
-            tmp = sum.inf;
-            sum.inf = sum.sup;
-            sum.sup = tmp;
-        }
-        return sum;
+        return new Interval(Rounding.addDown(inf, A.inf), Rounding.addUp(sup, A.sup));
     }
     
     /**
@@ -173,17 +157,7 @@ public class Interval extends Engine{
      * @return Interval result
      */
     public Interval add(double a){
-        Interval sum = new Interval();
-        sum.inf = this.inf + a;
-        sum.sup = this.sup + a;
-        
-        if(sum.inf > sum.sup){
-            double tmp;
-            tmp = sum.inf;
-            sum.inf = sum.sup;
-            sum.sup = tmp;
-        }
-        return sum;
+        return new Interval(Rounding.addDown(inf, a), Rounding.addUp(sup, a));
     }
     
     /**
@@ -193,37 +167,17 @@ public class Interval extends Engine{
      * @return Interval result
      */
     public Interval sub(Interval A){
-        Interval sub = new Interval();
-        sub.inf = this.inf - A.sup;
-        sub.sup = this.sup - A.inf;
-        
-        if(sub.inf > sub.sup){
-            double tmp;
-            tmp = sub.inf;
-            sub.inf = sub.sup;
-            sub.sup = tmp;
-        }
-        return sub;
+        return new Interval(Rounding.addDown(inf, -A.sup), Rounding.addUp(sup, -A.inf));
     } 
     
     /**
-     * Sum two intervals
+     * Subtract a real number from this interval
      * 
-     * @param a Double to make sum
+     * @param a Double to subtract
      * @return Interval result
      */
     public Interval sub(double a){
-        Interval sub = new Interval();
-        sub.inf = this.inf - a;
-        sub.sup = this.sup - a;
-        
-        if(this.inf > this.sup){
-            double tmp;
-            tmp = sub.inf;
-            sub.inf = sub.sup;
-            sub.sup = tmp;
-        }
-        return this;
+        return new Interval(Rounding.addDown(inf, -a), Rounding.addUp(sup, -a));
     }
     
     /**
@@ -233,25 +187,7 @@ public class Interval extends Engine{
      * @return Interval result
      */
     public Interval mult(Interval A){
-        double result[] = new double[4];
-        result[0] = this.inf * A.inf;
-        result[1] = this.inf * A.sup;
-        result[2] = this.sup * A.inf;
-        result[3] = this.sup * A.sup;
-        
-        Interval mult = new Interval();
-        
-        mult.inf = result[0];
-        mult.sup = result[0];
-        
-        for (int i = 1; i < 4; i++) {
-            if (result[i] < mult.inf) {
-                mult.inf = result[i];
-            } else if (result[i] > mult.sup){
-                mult.sup = result[i];
-            }
-        }
-        return mult;
+        return new Interval(multInf(inf, sup, A.inf, A.sup), multSup(inf, sup, A.inf, A.sup));
     }
     
     /**
@@ -262,35 +198,102 @@ public class Interval extends Engine{
      */
     public Interval div(Interval A){ 
         if(A.inf > 0 || A.sup < 0){
-            Interval x = new Interval(1/A.sup, 1/A.inf);
-            Interval div = mult(x);
-            return div;
+            return new Interval(divInf(inf, sup, A.inf, A.sup), divSup(inf, sup, A.inf, A.sup));
         }else{
             throw new ArithmeticException("The interval contains zero");
         }
     }
+
+    /**
+     * Lower bound of [x_inf,x_sup]*[y_inf,y_sup] chosen by the signs of the
+     * operands. Only the mixed-sign case computes two products.
+     * 
+     * @param x_inf Lower bound of the left operand
+     * @param x_sup Upper bound of the left operand
+     * @param y_inf Lower bound of the right operand
+     * @param y_sup Upper bound of the right operand
+     * @return The lower bound of the product
+     */
+    static double multInf(double x_inf, double x_sup, double y_inf, double y_sup){
+        if (x_inf >= 0) {
+            return (y_inf >= 0) ? Rounding.mulDown(x_inf, y_inf) : Rounding.mulDown(x_sup, y_inf);
+        } else if (x_sup <= 0) {
+            return (y_sup <= 0) ? Rounding.mulDown(x_sup, y_sup) : Rounding.mulDown(x_inf, y_sup);
+        } else if (y_inf >= 0) {
+            return Rounding.mulDown(x_inf, y_sup);
+        } else if (y_sup <= 0) {
+            return Rounding.mulDown(x_sup, y_inf);
+        }
+        return Math.min(Rounding.mulDown(x_inf, y_sup), Rounding.mulDown(x_sup, y_inf));
+    }
+
+    /**
+     * Upper bound of [x_inf,x_sup]*[y_inf,y_sup] chosen by the signs of the
+     * operands. Only the mixed-sign case computes two products.
+     * 
+     * @param x_inf Lower bound of the left operand
+     * @param x_sup Upper bound of the left operand
+     * @param y_inf Lower bound of the right operand
+     * @param y_sup Upper bound of the right operand
+     * @return The upper bound of the product
+     */
+    static double multSup(double x_inf, double x_sup, double y_inf, double y_sup){
+        if (x_inf >= 0) {
+            return (y_sup <= 0) ? Rounding.mulUp(x_inf, y_sup) : Rounding.mulUp(x_sup, y_sup);
+        } else if (x_sup <= 0) {
+            return (y_inf >= 0) ? Rounding.mulUp(x_sup, y_inf) : Rounding.mulUp(x_inf, y_inf);
+        } else if (y_inf >= 0) {
+            return Rounding.mulUp(x_sup, y_sup);
+        } else if (y_sup <= 0) {
+            return Rounding.mulUp(x_inf, y_inf);
+        }
+        return Math.max(Rounding.mulUp(x_inf, y_inf), Rounding.mulUp(x_sup, y_sup));
+    }
+
+    /**
+     * Lower bound of [x_inf,x_sup]/[y_inf,y_sup] chosen by the signs of the
+     * operands. The divisor must not contain zero.
+     * 
+     * @param x_inf Lower bound of the dividend
+     * @param x_sup Upper bound of the dividend
+     * @param y_inf Lower bound of the divisor
+     * @param y_sup Upper bound of the divisor
+     * @return The lower bound of the quotient
+     */
+    static double divInf(double x_inf, double x_sup, double y_inf, double y_sup){
+        if (y_inf > 0) {
+            return (x_inf >= 0) ? Rounding.divDown(x_inf, y_sup) : Rounding.divDown(x_inf, y_inf);
+        }
+        return (x_sup <= 0) ? Rounding.divDown(x_sup, y_inf) : Rounding.divDown(x_sup, y_sup);
+    }
+
+    /**
+     * Upper bound of [x_inf,x_sup]/[y_inf,y_sup] chosen by the signs of the
+     * operands. The divisor must not contain zero.
+     * 
+     * @param x_inf Lower bound of the dividend
+     * @param x_sup Upper bound of the dividend
+     * @param y_inf Lower bound of the divisor
+     * @param y_sup Upper bound of the divisor
+     * @return The upper bound of the quotient
+     */
+    static double divSup(double x_inf, double x_sup, double y_inf, double y_sup){
+        if (y_inf > 0) {
+            return (x_sup <= 0) ? Rounding.divUp(x_sup, y_sup) : Rounding.divUp(x_sup, y_inf);
+        }
+        return (x_inf >= 0) ? Rounding.divUp(x_inf, y_inf) : Rounding.divUp(x_inf, y_sup);
+    }
     
     /**
-     * Potentiates an interval
+     * Potentiates an interval, like {@link InterFunctions#IPowerR(Interval, double)}
      * 
      * @param power Double number to make the exponentiation 
      * @return Interval result
+     * @throws ArithmeticException if the power is not defined for some value
+     * of the interval
      */
     public Interval pow(double power){
-        Interval pow = new Interval();
-        if(this.inf > 0){
-            pow.inf = Math.pow(this.inf, power);
-            pow.sup = Math.pow(this.sup, power);
-        }
-        else if(this.sup < 0){
-            pow.inf = Math.pow(this.sup, power);
-            pow.sup = Math.pow(this.inf, power);
-        }else{
-            pow.inf = 0;
-            double max = Math.max(Math.abs(inf), Math.abs(sup));
-            pow.sup = Math.abs(max);
-        }
-        return pow;
+        return InterFunctions.IPowerR(this, power);
     }
     
     /**
@@ -306,6 +309,38 @@ public class Interval extends Engine{
             return 0.0;
     }
     
+    /**
+     * Value equality of two intervals. The bounds are compared by their bits
+     * like {@link Double#equals(Object)}, so -0.0 differs from 0.0. Calls with
+     * an {@link Interval} argument choose {@link #equals(Interval)}, so cast
+     * the argument to Object to use this method.
+     *
+     * @param o Object to compare
+     * @return True if o is an interval with the same bounds
+     */
+    @Override
+    public boolean equals(Object o){
+        if (this == o)
+            return true;
+        if (!(o instanceof Interval))
+            return false;
+        Interval A = (Interval) o;
+        return Double.doubleToLongBits(inf) == Double.doubleToLongBits(A.inf)
+                && Double.doubleToLongBits(sup) == Double.doubleToLongBits(A.sup);
+    }
+
+    /**
+     * Hash code consistent with {@link #equals(Object)}. The bounds are
+     * final, so an interval can be a key of a hash map.
+     *
+     * @return Hash of the bounds
+     */
+    @Override
+    public int hashCode(){
+        long h = Double.doubleToLongBits(inf) * 31 + Double.doubleToLongBits(sup);
+        return (int) (h ^ (h >>> 32));
+    }
+    
     /**
      * Comparison if this interval is different of the interval A
      * 
@@ -371,12 +406,7 @@ public class Interval extends Engine{
      * @return {@link Interval} with the hull
      */
     public Interval Hull(double b){
-        double[] arr = new double[3];
-        arr[0] = inf;
-        arr[1] = sup;
-        arr[2] = b;
-        Arrays.sort(arr);
-        return new Interval(arr[0],arr[2]);
+        return new Interval((b < inf) ? b : inf, (b > sup) ? b : sup);
     }
 
     /**
@@ -385,22 +415,8 @@ public class Interval extends Engine{
      * @return {@link Interval} with the hull
      */
     public Interval Hull(Interval B){
-        double[] arr = new double[4];
-        arr[0] = inf;
-        arr[1] = sup;
-        arr[2] = B.getInf();
-        arr[3] = B.getSup();
-        Arrays.sort(arr);
-        return new Interval(arr[0],arr[3]);
+        return new Interval((B.inf < inf) ? B.inf : inf, (B.sup > sup) ? B.sup : sup);
     }
-    /**
-     * Clone one interval to one another
-     * @param A Interval that is cloned to.
-     */
-    public void clone(Interval A){
-        A.set(inf,sup);
-    }
-    
     /**
      * Overrided method to print interval.
      *@return String with the formated Interval
@@ -0,0 +1,484 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Array of intervals stored as two primitive columns, one with the lower
+ * bounds and one with the upper bounds.
+ *
+ * The bulk operations have the same semantics as the scalar methods of
+ * {@link Interval} applied element by element. Results are written in an
+ * output array given by the caller, so loops over the columns do not create
+ * objects. The output may be the same array as one of the operands. The
+ * binary operations run on the backend chosen by {@link IntervalKernels}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class IntervalArray {
+
+    /**
+     * Lower bounds of the intervals
+     */
+    final double[] inf;
+
+    /**
+     * Upper bounds of the intervals
+     */
+    final double[] sup;
+
+    /**
+     * Class constructor with all intervals equal to [0,0]
+     *
+     * @param length Number of intervals in the array
+     */
+    public IntervalArray(int length) {
+        this.inf = new double[length];
+        this.sup = new double[length];
+    }
+
+    /**
+     * Class constructor that uses the given columns without copying them.
+     *
+     * @param inf Lower bounds of the intervals
+     * @param sup Upper bounds of the intervals
+     * @throws IllegalArgumentException if the columns have different lengths
+     */
+    public IntervalArray(double[] inf, double[] sup) {
+        if (inf.length != sup.length)
+            throw new IllegalArgumentException("The columns have different lengths");
+        this.inf = inf;
+        this.sup = sup;
+    }
+
+    /**
+     * Class constructor that copies an array of {@link Interval}
+     *
+     * @param values Intervals to be copied
+     */
+    public IntervalArray(Interval[] values) {
+        this(values.length);
+        for (int i = 0; i < values.length; i++) {
+            inf[i] = values[i].getInf();
+            sup[i] = values[i].getSup();
+        }
+    }
+
+    /**
+     * Get the number of intervals in the array
+     * @return The number of intervals
+     */
+    public int length() {
+        return inf.length;
+    }
+
+    /**
+     * Get the column with the lower bounds. The column is not copied.
+     * @return The lower bounds
+     */
+    public double[] getInfs() {
+        return inf;
+    }
+
+    /**
+     * Get the column with the upper bounds. The column is not copied.
+     * @return The upper bounds
+     */
+    public double[] getSups() {
+        return sup;
+    }
+
+    /**
+     * Get the lower bound of one interval
+     * @param i Index of the interval
+     * @return The lower bound
+     */
+    public double getInf(int i) {
+        return inf[i];
+    }
+
+    /**
+     * Get the upper bound of one interval
+     * @param i Index of the interval
+     * @return The upper bound
+     */
+    public double getSup(int i) {
+        return sup[i];
+    }
+
+    /**
+     * Get one element as an {@link Interval}
+     * @param i Index of the interval
+     * @return A new {@link Interval} with the bounds of the element
+     */
+    public Interval get(int i) {
+        return new Interval(inf[i], sup[i]);
+    }
+
+    /**
+     * Set the bounds of one element. The bounds are swapped if inf_val is
+     * greater than sup_val, like in {@link Interval}.
+     *
+     * @param i Index of the interval
+     * @param inf_val Value to set the lower bound
+     * @param sup_val Value to set the upper bound
+     */
+    public void set(int i, double inf_val, double sup_val) {
+        if (inf_val > sup_val) {
+            inf[i] = sup_val;
+            sup[i] = inf_val;
+        } else {
+            inf[i] = inf_val;
+            sup[i] = sup_val;
+        }
+    }
+
+    /**
+     * Set one element with the bounds of an {@link Interval}
+     * @param i Index of the interval
+     * @param value Interval to be copied
+     */
+    public void set(int i, Interval value) {
+        inf[i] = value.getInf();
+        sup[i] = value.getSup();
+    }
+
+    /**
+     * Sum two interval arrays element by element
+     *
+     * @param B Interval array to make the sum
+     * @param out Interval array that receives the result
+     */
+    public void add(IntervalArray B, IntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        IntervalKernels.get().add(inf, sup, B.inf, B.sup, out.inf, out.sup, inf.length);
+    }
+
+    /**
+     * Sum a real number to all intervals
+     *
+     * @param a Double to make the sum
+     * @param out Interval array that receives the result
+     */
+    public void add(double a, IntervalArray out) {
+        checkLength(out);
+        final double[] rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            rinf[i] = Rounding.addDown(inf[i], a);
+            rsup[i] = Rounding.addUp(sup[i], a);
+        }
+    }
+
+    /**
+     * Subtract two interval arrays element by element
+     *
+     * @param B Interval array to make the subtraction
+     * @param out Interval array that receives the result
+     */
+    public void sub(IntervalArray B, IntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        IntervalKernels.get().sub(inf, sup, B.inf, B.sup, out.inf, out.sup, inf.length);
+    }
+
+    /**
+     * Subtract a real number from all intervals
+     *
+     * @param a Double to subtract
+     * @param out Interval array that receives the result
+     */
+    public void sub(double a, IntervalArray out) {
+        checkLength(out);
+        final double[] rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            rinf[i] = Rounding.addDown(inf[i], -a);
+            rsup[i] = Rounding.addUp(sup[i], -a);
+        }
+    }
+
+    /**
+     * Multiply two interval arrays element by element
+     *
+     * @param B Interval array to make the multiplication
+     * @param out Interval array that receives the result
+     */
+    public void mult(IntervalArray B, IntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        IntervalKernels.get().mult(inf, sup, B.inf, B.sup, out.inf, out.sup, inf.length);
+    }
+
+    /**
+     * Divide two interval arrays element by element
+     *
+     * @param B Interval array with the divisors
+     * @param out Interval array that receives the result
+     * @throws ArithmeticException if one divisor contains zero. Nothing is
+     * written in out in this case.
+     */
+    public void div(IntervalArray B, IntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        final double[] binf = B.inf, bsup = B.sup;
+        for (int i = 0; i < inf.length; i++) {
+            if (!(binf[i] > 0 || bsup[i] < 0))
+                throw new ArithmeticException("The interval contains zero");
+        }
+        IntervalKernels.get().div(inf, sup, binf, bsup, out.inf, out.sup, inf.length);
+    }
+
+    /**
+     * Divide two interval arrays element by element without exceptions. A
+     * divisor with zero gives the hull of
+     * {@link IntervalUnion#div(Interval, Interval)} and TRV in the status
+     * column, see {@link Decoration#fromStatus(byte)}. The divisor [0,0]
+     * gives an empty result with NaN bounds. The other results are COM, or
+     * DAC if they are unbounded.
+     *
+     * @param B Interval array with the divisors
+     * @param out Interval array that receives the result
+     * @param status Array that receives the decorations of the results
+     */
+    public void div(IntervalArray B, IntervalArray out, byte[] status) {
+        checkLength(B);
+        checkLength(out);
+        checkStatus(status);
+        final double[] binf = B.inf, bsup = B.sup;
+        final byte trv = Decoration.TRV.status();
+        boolean zero = false;
+        // the status is computed before out, which may be this or B, is written
+        for (int i = 0; i < inf.length; i++) {
+            if (binf[i] > 0 || bsup[i] < 0) {
+                status[i] = decoration(inf[i], sup[i], binf[i], bsup[i]);
+            } else {
+                status[i] = trv;
+                zero = true;
+            }
+        }
+        final double[] rinf = out.inf, rsup = out.sup;
+        if (!zero) {
+            IntervalKernels.get().div(inf, sup, binf, bsup, rinf, rsup, inf.length);
+        } else {
+            for (int i = 0; i < inf.length; i++) {
+                double a = inf[i], b = sup[i], c = binf[i], d = bsup[i];
+                if (c > 0 || d < 0) {
+                    rinf[i] = Interval.divInf(a, b, c, d);
+                    rsup[i] = Interval.divSup(a, b, c, d);
+                    continue;
+                }
+                IntervalUnion.divHull(a, b, c, d, rinf, rsup, i);
+            }
+        }
+        // an overflow gives an unbounded result
+        final byte com = Decoration.COM.status();
+        for (int i = 0; i < inf.length; i++) {
+            if (status[i] == com && !(rinf[i] > Double.NEGATIVE_INFINITY && rsup[i] < Double.POSITIVE_INFINITY))
+                status[i] = Decoration.DAC.status();
+        }
+    }
+
+    /**
+     * Potentiates all intervals without exceptions, like
+     * {@link DecoratedFunctions#IPowerR(DecoratedInterval, double)}. Each
+     * element of the status column has the decoration of the result, see
+     * {@link Decoration#fromStatus(byte)}. Empty results have NaN bounds.
+     *
+     * @param power Double number to make the exponentiation
+     * @param out Interval array that receives the result
+     * @param status Array that receives the decorations of the results
+     */
+    public void pow(double power, IntervalArray out, byte[] status) {
+        checkLength(out);
+        checkStatus(status);
+        final double[] rinf = out.inf, rsup = out.sup;
+        // the exponent is p/q for all intervals
+        boolean integer = power == Math.rint(power) && Math.abs(power) <= Integer.MAX_VALUE;
+        int q = integer ? 1 : InterFunctions.OddRoot(power);
+        int p = integer ? (int) power : (int) Math.rint(power * q);
+        for (int i = 0; i < inf.length; i++) {
+            double a = inf[i], b = sup[i];
+            status[i] = DecoratedFunctions.IPowerRInto(a, b, decoration(a, b, 0.0, 0.0), power, p, q, rinf, rsup, i);
+        }
+    }
+
+    /**
+     * Status of an operation inside its domain: COM if the operands are
+     * bounded, DAC if not
+     */
+    private static byte decoration(double a, double b, double c, double d) {
+        return (a > Double.NEGATIVE_INFINITY && b < Double.POSITIVE_INFINITY
+                && c > Double.NEGATIVE_INFINITY && d < Double.POSITIVE_INFINITY)
+                ? Decoration.COM.status() : Decoration.DAC.status();
+    }
+
+    private void checkStatus(byte[] status) {
+        if (status.length < inf.length)
+            throw new IllegalArgumentException("The status column is shorter than the interval array");
+    }
+
+    /**
+     * Potentiates all intervals, like {@link Interval#pow(double)}
+     *
+     * @param power Double number to make the exponentiation
+     * @param out Interval array that receives the result
+     * @throws ArithmeticException if the power is not defined for some value
+     * of an interval. The intervals before it are already in out.
+     */
+    public void pow(double power, IntervalArray out) {
+        checkLength(out);
+        final double[] rinf = out.inf, rsup = out.sup;
+        if (power == Math.rint(power) && Math.abs(power) <= Integer.MAX_VALUE) {
+            int n = (int) power;
+            for (int i = 0; i < inf.length; i++) {
+                double a = inf[i], b = sup[i];
+                rinf[i] = InterFunctions.powerInf(a, b, n);
+                rsup[i] = InterFunctions.powerSup(a, b, n);
+            }
+            return;
+        }
+        // the smallest odd q with power = p/q, so p/q is reduced
+        int q = InterFunctions.OddRoot(power);
+        int p = (int) Math.rint(power * q);
+        for (int i = 0; i < inf.length; i++) {
+            double a = inf[i], b = sup[i];
+            if (a < 0) {
+                if (q == 0)
+                    throw new ArithmeticException("Power: Base is negative");
+                double lo = InterFunctions.rootInf(a, q), hi = InterFunctions.rootSup(b, q);
+                rinf[i] = InterFunctions.powerInf(lo, hi, p);
+                rsup[i] = InterFunctions.powerSup(lo, hi, p);
+                continue;
+            }
+            if (a == 0 && power < 0)
+                throw new ArithmeticException("Power: Negative exponent with zero base");
+            double lo = (power > 0) ? a : b, hi = (power > 0) ? b : a;
+            rinf[i] = Math.max(Rounding.down(Math.pow(lo, power)), 0.0);
+            rsup[i] = Rounding.up(Math.pow(hi, power));
+        }
+    }
+
+    /**
+     * Get the hull of two interval arrays element by element
+     *
+     * @param B Interval array to make the hull
+     * @param out Interval array that receives the result
+     */
+    public void Hull(IntervalArray B, IntervalArray out) {
+        checkLength(B);
+        checkLength(out);
+        IntervalKernels.get().hull(inf, sup, B.inf, B.sup, out.inf, out.sup, inf.length);
+    }
+
+    /**
+     * Get the hull of all intervals with a real number
+     *
+     * @param b Double value
+     * @param out Interval array that receives the result
+     */
+    public void Hull(double b, IntervalArray out) {
+        checkLength(out);
+        final double[] rinf = out.inf, rsup = out.sup;
+        for (int i = 0; i < inf.length; i++) {
+            rinf[i] = Math.min(inf[i], b);
+            rsup[i] = Math.max(sup[i], b);
+        }
+    }
+
+    /**
+     * Calculate the width of all intervals
+     *
+     * @param out Array that receives the widths
+     */
+    public void width(double[] out) {
+        checkLength(out);
+        for (int i = 0; i < inf.length; i++)
+            out[i] = sup[i] - inf[i];
+    }
+
+    /**
+     * Calculate the midpoint of all intervals
+     *
+     * @param out Array that receives the midpoints
+     */
+    public void midpoint(double[] out) {
+        checkLength(out);
+        for (int i = 0; i < inf.length; i++)
+            out[i] = (inf[i] + sup[i]) / 2;
+    }
+
+    /**
+     * Calculate the largest width in the array
+     *
+     * @return The largest width or zero if the array is empty
+     */
+    public double maxWidth() {
+        double max = 0;
+        for (int i = 0; i < inf.length; i++)
+            max = Math.max(max, sup[i] - inf[i]);
+        return max;
+    }
+
+    /**
+     * Get the hull of all intervals in the array
+     *
+     * @return {@link Interval} with the hull
+     * @throws IllegalStateException if the array is empty
+     */
+    public Interval Hull() {
+        if (inf.length == 0)
+            throw new IllegalStateException("The array is empty");
+        double x_inf = inf[0], x_sup = sup[0];
+        for (int i = 1; i < inf.length; i++) {
+            x_inf = Math.min(x_inf, inf[i]);
+            x_sup = Math.max(x_sup, sup[i]);
+        }
+        return new Interval(x_inf, x_sup);
+    }
+
+    /**
+     * Verify if other array has the same length of this array
+     * @param other The other interval array
+     */
+    private void checkLength(IntervalArray other) {
+        if (other.inf.length != inf.length)
+            throw new IllegalArgumentException("The interval arrays have different lengths");
+    }
+
+    /**
+     * Verify if an output column has the same length of this array
+     * @param out The output column
+     */
+    private void checkLength(double[] out) {
+        if (out.length != inf.length)
+            throw new IllegalArgumentException("The output array has a different length");
+    }
+
+    /**
+     * Overrided method to print the interval array.
+     * @return String with the formated intervals
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("{");
+        for (int i = 0; i < inf.length; i++) {
+            if (i > 0)
+                s.append(',');
+            s.append('[').append(inf[i]).append(',').append(sup[i]).append(']');
+        }
+        return s.append('}').toString();
+    }
+}
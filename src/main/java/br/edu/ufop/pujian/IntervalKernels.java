@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Kernels that make interval operations over primitive columns. Each
+ * operation reads the first n elements of the operand columns and writes
+ * the result columns, which may be the same arrays as the operands.
+ *
+ * The backend is chosen once at startup with the system property
+ * {@code pujian.kernels}:
+ * <ul>
+ * <li> scalar: one interval at a time with the same branches of
+ * {@link Interval} (default) </li>
+ * <li> lanes: branch-free loops that the JIT compiler turns into SIMD
+ * instructions. Only the hull is faster than scalar, see
+ * {@code KernelBenchmark}. </li>
+ * <li> the name of a class that extends IntervalKernels and has a public
+ * constructor without arguments, for example a backend built on
+ * {@code jdk.incubator.vector} with a newer JDK </li>
+ * </ul>
+ * If the class cannot be loaded, for example because the module is absent,
+ * the scalar backend is used.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public abstract class IntervalKernels {
+
+    /**
+     * Backend chosen at startup
+     */
+    private static final IntervalKernels SELECTED = select(System.getProperty("pujian.kernels", "scalar"));
+
+    /**
+     * Get the backend chosen at startup
+     * @return The selected kernels
+     */
+    public static IntervalKernels get() {
+        return SELECTED;
+    }
+
+    /**
+     * Get a backend by name
+     * @param name "lanes", "scalar" or the name of a class that extends IntervalKernels
+     * @return The kernels with that name or the scalar kernels if they cannot be created
+     */
+    public static IntervalKernels select(String name) {
+        if ("lanes".equals(name))
+            return new LaneKernels();
+        if ("scalar".equals(name))
+            return new ScalarKernels();
+        try {
+            return (IntervalKernels) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException ex) {
+            return new ScalarKernels();
+        }
+    }
+
+    /**
+     * Get the name of the backend
+     * @return The name used to select the backend
+     */
+    public abstract String name();
+
+    /**
+     * R = A + B
+     * @param ainf Lower bounds of A
+     * @param asup Upper bounds of A
+     * @param binf Lower bounds of B
+     * @param bsup Upper bounds of B
+     * @param rinf Lower bounds of the result
+     * @param rsup Upper bounds of the result
+     * @param n Number of elements
+     */
+    public abstract void add(double[] ainf, double[] asup, double[] binf, double[] bsup,
+            double[] rinf, double[] rsup, int n);
+
+    /**
+     * R = A - B
+     * @param ainf Lower bounds of A
+     * @param asup Upper bounds of A
+     * @param binf Lower bounds of B
+     * @param bsup Upper bounds of B
+     * @param rinf Lower bounds of the result
+     * @param rsup Upper bounds of the result
+     * @param n Number of elements
+     */
+    public abstract void sub(double[] ainf, double[] asup, double[] binf, double[] bsup,
+            double[] rinf, double[] rsup, int n);
+
+    /**
+     * R = A * B
+     * @param ainf Lower bounds of A
+     * @param asup Upper bounds of A
+     * @param binf Lower bounds of B
+     * @param bsup Upper bounds of B
+     * @param rinf Lower bounds of the result
+     * @param rsup Upper bounds of the result
+     * @param n Number of elements
+     */
+    public abstract void mult(double[] ainf, double[] asup, double[] binf, double[] bsup,
+            double[] rinf, double[] rsup, int n);
+
+    /**
+     * R = A / B. The caller must make sure that no element of B contains zero.
+     * @param ainf Lower bounds of A
+     * @param asup Upper bounds of A
+     * @param binf Lower bounds of B
+     * @param bsup Upper bounds of B
+     * @param rinf Lower bounds of the result
+     * @param rsup Upper bounds of the result
+     * @param n Number of elements
+     */
+    public abstract void div(double[] ainf, double[] asup, double[] binf, double[] bsup,
+            double[] rinf, double[] rsup, int n);
+
+    /**
+     * R = Hull(A, B)
+     * @param ainf Lower bounds of A
+     * @param asup Upper bounds of A
+     * @param binf Lower bounds of B
+     * @param bsup Upper bounds of B
+     * @param rinf Lower bounds of the result
+     * @param rsup Upper bounds of the result
+     * @param n Number of elements
+     */
+    public abstract void hull(double[] ainf, double[] asup, double[] binf, double[] bsup,
+            double[] rinf, double[] rsup, int n);
+
+    /**
+     * Branch-free kernels. Every loop is a straight sequence of operations on
+     * the same index. C2 turns add, sub and hull into SIMD instructions and
+     * the minimum and maximum of the products into conditional moves.
+     * When a verified {@link Rounding} policy is in use the operations that
+     * round run on the scalar kernels.
+     */
+    static final class LaneKernels extends IntervalKernels {
+
+        /**
+         * Kernels used when the bounds must be rounded outward
+         */
+        private static final IntervalKernels ROUNDED = new ScalarKernels();
+
+        @Override
+        public String name() {
+            return "lanes";
+        }
+
+        @Override
+        public void add(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            if (Rounding.isVerified()) {
+                ROUNDED.add(ainf, asup, binf, bsup, rinf, rsup, n);
+                return;
+            }
+            for (int i = 0; i < n; i++) {
+                rinf[i] = ainf[i] + binf[i];
+                rsup[i] = asup[i] + bsup[i];
+            }
+        }
+
+        @Override
+        public void sub(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            if (Rounding.isVerified()) {
+                ROUNDED.sub(ainf, asup, binf, bsup, rinf, rsup, n);
+                return;
+            }
+            for (int i = 0; i < n; i++) {
+                double x_inf = ainf[i] - bsup[i];
+                rsup[i] = asup[i] - binf[i];
+                rinf[i] = x_inf;
+            }
+        }
+
+        @Override
+        public void mult(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            if (Rounding.isVerified()) {
+                ROUNDED.mult(ainf, asup, binf, bsup, rinf, rsup, n);
+                return;
+            }
+            for (int i = 0; i < n; i++) {
+                double p0 = ainf[i] * binf[i];
+                double p1 = ainf[i] * bsup[i];
+                double p2 = asup[i] * binf[i];
+                double p3 = asup[i] * bsup[i];
+                double lo01 = p0 < p1 ? p0 : p1, lo23 = p2 < p3 ? p2 : p3;
+                double hi01 = p0 > p1 ? p0 : p1, hi23 = p2 > p3 ? p2 : p3;
+                rinf[i] = lo01 < lo23 ? lo01 : lo23;
+                rsup[i] = hi01 > hi23 ? hi01 : hi23;
+            }
+        }
+
+        @Override
+        public void div(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            if (Rounding.isVerified()) {
+                ROUNDED.div(ainf, asup, binf, bsup, rinf, rsup, n);
+                return;
+            }
+            for (int i = 0; i < n; i++) {
+                double p0 = ainf[i] / binf[i];
+                double p1 = ainf[i] / bsup[i];
+                double p2 = asup[i] / binf[i];
+                double p3 = asup[i] / bsup[i];
+                double lo01 = p0 < p1 ? p0 : p1, lo23 = p2 < p3 ? p2 : p3;
+                double hi01 = p0 > p1 ? p0 : p1, hi23 = p2 > p3 ? p2 : p3;
+                rinf[i] = lo01 < lo23 ? lo01 : lo23;
+                rsup[i] = hi01 > hi23 ? hi01 : hi23;
+            }
+        }
+
+        @Override
+        public void hull(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                rinf[i] = Math.min(ainf[i], binf[i]);
+                rsup[i] = Math.max(asup[i], bsup[i]);
+            }
+        }
+    }
+
+    /**
+     * Kernels that make one interval at a time with the sign-case branches
+     * of {@link Interval}.
+     */
+    static final class ScalarKernels extends IntervalKernels {
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public void add(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                rinf[i] = Rounding.addDown(ainf[i], binf[i]);
+                rsup[i] = Rounding.addUp(asup[i], bsup[i]);
+            }
+        }
+
+        @Override
+        public void sub(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                double x_inf = Rounding.addDown(ainf[i], -bsup[i]);
+                rsup[i] = Rounding.addUp(asup[i], -binf[i]);
+                rinf[i] = x_inf;
+            }
+        }
+
+        @Override
+        public void mult(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                double x_inf = ainf[i], x_sup = asup[i], y_inf = binf[i], y_sup = bsup[i];
+                rinf[i] = Interval.multInf(x_inf, x_sup, y_inf, y_sup);
+                rsup[i] = Interval.multSup(x_inf, x_sup, y_inf, y_sup);
+            }
+        }
+
+        @Override
+        public void div(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                double x_inf = ainf[i], x_sup = asup[i], y_inf = binf[i], y_sup = bsup[i];
+                rinf[i] = Interval.divInf(x_inf, x_sup, y_inf, y_sup);
+                rsup[i] = Interval.divSup(x_inf, x_sup, y_inf, y_sup);
+            }
+        }
+
+        @Override
+        public void hull(double[] ainf, double[] asup, double[] binf, double[] bsup,
+                double[] rinf, double[] rsup, int n) {
+            for (int i = 0; i < n; i++) {
+                double x_inf = ainf[i], x_sup = asup[i];
+                rinf[i] = (binf[i] < x_inf) ? binf[i] : x_inf;
+                rsup[i] = (bsup[i] > x_sup) ? bsup[i] : x_sup;
+            }
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Union of disjoint intervals sorted by their bounds. It is the result of
+ * the extended division {@link #div(Interval, Interval)}, which does not
+ * throw when the divisor contains zero, and it can be used in the other
+ * operations like an {@link Interval}.
+ *
+ * The operations are done on every pair of pieces and the results are
+ * joined again. Pieces that overlap or touch become one piece, and when
+ * there are more pieces than {@link #getMaxPieces()} the two nearest pieces
+ * are replaced by their hull, so the result is still an enclosure.
+ *
+ * The maximum number of pieces is read from the system property
+ * {@code pujian.union.pieces} and can be changed with
+ * {@link #setMaxPieces(int)}. Like {@link Rounding} it is global.
+ *
+ * A union is immutable and may be empty, which is the result of a division
+ * by [0,0].
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class IntervalUnion {
+
+    /**
+     * Default maximum number of pieces
+     */
+    private static final int DEFAULT_PIECES = 8;
+
+    /**
+     * Maximum number of pieces of a union
+     */
+    private static int maxPieces = parsePieces(System.getProperty("pujian.union.pieces"));
+
+    /**
+     * Empty union
+     */
+    private static final IntervalUnion EMPTY = new IntervalUnion(new double[0], new double[0]);
+
+    /**
+     * Bounds of the pieces in increasing order
+     */
+    private final double[] inf, sup;
+
+    /**
+     * Class constructor with already sorted and disjoint pieces
+     */
+    private IntervalUnion(double[] inf, double[] sup) {
+        this.inf = inf;
+        this.sup = sup;
+    }
+
+    /**
+     * Class constructor of a union with one piece
+     *
+     * @param A The only piece
+     */
+    public IntervalUnion(Interval A) {
+        this(new double[]{A.getInf()}, new double[]{A.getSup()});
+    }
+
+    /**
+     * Get the union of some intervals
+     *
+     * @param pieces Intervals to join
+     * @return The union, with at most {@link #getMaxPieces()} pieces
+     */
+    public static IntervalUnion of(Interval... pieces) {
+        double[] a = new double[pieces.length];
+        double[] b = new double[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            a[i] = pieces[i].getInf();
+            b[i] = pieces[i].getSup();
+        }
+        return join(a, b, pieces.length);
+    }
+
+    /**
+     * Get the empty union
+     * @return A union without pieces
+     */
+    public static IntervalUnion empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get the maximum number of pieces of the results
+     * @return The maximum number of pieces
+     */
+    public static int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Change the maximum number of pieces of the results
+     *
+     * @param pieces The new maximum, at least one
+     * @throws IllegalArgumentException if pieces is not positive
+     */
+    public static void setMaxPieces(int pieces) {
+        if (pieces <= 0)
+            throw new IllegalArgumentException("The number of pieces must be positive");
+        maxPieces = pieces;
+    }
+
+    /**
+     * Read the maximum number of pieces from a property
+     */
+    private static int parsePieces(String value) {
+        if (value == null)
+            return DEFAULT_PIECES;
+        try {
+            int n = Integer.parseInt(value.trim());
+            return (n > 0) ? n : DEFAULT_PIECES;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_PIECES;
+        }
+    }
+
+    /**
+     * Sort the first n pieces, join the pieces that overlap and merge the
+     * nearest pieces until there are at most {@link #getMaxPieces()}.
+     * The arrays are changed.
+     */
+    private static IntervalUnion join(double[] a, double[] b, int n) {
+        if (n == 0)
+            return EMPTY;
+        // insertion sort, the unions are small
+        for (int i = 1; i < n; i++) {
+            double x = a[i], y = b[i];
+            int j = i - 1;
+            while (j >= 0 && a[j] > x) {
+                a[j + 1] = a[j];
+                b[j + 1] = b[j];
+                j--;
+            }
+            a[j + 1] = x;
+            b[j + 1] = y;
+        }
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (a[i] <= b[m]) {
+                b[m] = Math.max(b[m], b[i]);
+            } else {
+                m++;
+                a[m] = a[i];
+                b[m] = b[i];
+            }
+        }
+        m++;
+        int max = maxPieces;
+        while (m > max) {
+            // the gaps are positive and finite between disjoint pieces
+            int k = 0;
+            double gap = a[1] - b[0];
+            for (int i = 1; i < m - 1; i++) {
+                if (a[i + 1] - b[i] < gap) {
+                    gap = a[i + 1] - b[i];
+                    k = i;
+                }
+            }
+            b[k] = b[k + 1];
+            System.arraycopy(a, k + 2, a, k + 1, m - k - 2);
+            System.arraycopy(b, k + 2, b, k + 1, m - k - 2);
+            m--;
+        }
+        return new IntervalUnion(copy(a, m), copy(b, m));
+    }
+
+    private static double[] copy(double[] x, int n) {
+        if (x.length == n)
+            return x;
+        double[] y = new double[n];
+        System.arraycopy(x, 0, y, 0, n);
+        return y;
+    }
+
+    /**
+     * Extended division of two intervals. When the divisor contains zero the
+     * quotient is the set {x/y : y != 0}, which has one or two pieces:
+     * <ul>
+     * <li> the divisor is [0,0]: the empty union; </li>
+     * <li> the dividend is [0,0]: [0,0]; </li>
+     * <li> zero is a bound of the dividend and of the divisor: a half line
+     * from zero; </li>
+     * <li> the dividend contains zero otherwise: the whole real line; </li>
+     * <li> zero is a bound of the divisor: a half line; </li>
+     * <li> zero is inside the divisor: two half lines. </li>
+     * </ul>
+     * Divisors without zero give the same interval as
+     * {@link Interval#div(Interval)}.
+     *
+     * @param x Dividend
+     * @param y Divisor
+     * @return The quotient
+     */
+    public static IntervalUnion div(Interval x, Interval y) {
+        double a = x.getInf(), b = x.getSup();
+        double c = y.getInf(), d = y.getSup();
+        if (c > 0 || d < 0)
+            return new IntervalUnion(new double[]{Interval.divInf(a, b, c, d)},
+                                     new double[]{Interval.divSup(a, b, c, d)});
+        if (c == 0 && d == 0)
+            return EMPTY;
+        double ninf = Double.NEGATIVE_INFINITY, pinf = Double.POSITIVE_INFINITY;
+        if (a <= 0 && b >= 0) {
+            if (a == 0 && b == 0)
+                return new IntervalUnion(new double[]{0.0}, new double[]{0.0});
+            // the sign of the quotient is known when both have one sign
+            boolean xpos = (a == 0), ypos = (c == 0);
+            if ((a == 0 || b == 0) && (c == 0 || d == 0))
+                return (xpos == ypos) ? new IntervalUnion(new double[]{0.0}, new double[]{pinf})
+                                      : new IntervalUnion(new double[]{ninf}, new double[]{0.0});
+            return new IntervalUnion(new double[]{ninf}, new double[]{pinf});
+        }
+        if (b < 0) {
+            if (c == 0)
+                return new IntervalUnion(new double[]{ninf}, new double[]{Rounding.divUp(b, d)});
+            if (d == 0)
+                return new IntervalUnion(new double[]{Rounding.divDown(b, c)}, new double[]{pinf});
+            return new IntervalUnion(new double[]{ninf, Rounding.divDown(b, c)},
+                                     new double[]{Rounding.divUp(b, d), pinf});
+        }
+        if (c == 0)
+            return new IntervalUnion(new double[]{Rounding.divDown(a, d)}, new double[]{pinf});
+        if (d == 0)
+            return new IntervalUnion(new double[]{ninf}, new double[]{Rounding.divUp(a, c)});
+        return new IntervalUnion(new double[]{ninf, Rounding.divDown(a, d)},
+                                 new double[]{Rounding.divUp(a, c), pinf});
+    }
+
+    /**
+     * Hull of [a,b]/[c,d] for a divisor [c,d] with zero, like the hull of
+     * {@link #div(Interval, Interval)}, into rinf[k] and rsup[k]. The two
+     * pieces of the quotient are unbounded, so the hull is unbounded unless
+     * zero is a bound of the divisor. The divisor [0,0] gives NaN bounds.
+     */
+    static void divHull(double a, double b, double c, double d, double[] rinf, double[] rsup, int k) {
+        double ninf = Double.NEGATIVE_INFINITY, pinf = Double.POSITIVE_INFINITY;
+        if (c == 0 && d == 0) {
+            rinf[k] = rsup[k] = Double.NaN;
+        } else if (a <= 0 && b >= 0) {
+            if (a == 0 && b == 0) {
+                rinf[k] = rsup[k] = 0.0;
+            } else if ((a == 0 || b == 0) && (c == 0 || d == 0)) {
+                // the sign of the quotient is known when both have one sign
+                boolean pos = (a == 0) == (c == 0);
+                rinf[k] = pos ? 0.0 : ninf;
+                rsup[k] = pos ? pinf : 0.0;
+            } else {
+                rinf[k] = ninf;
+                rsup[k] = pinf;
+            }
+        } else if (b < 0) {
+            rinf[k] = (d == 0) ? Rounding.divDown(b, c) : ninf;
+            rsup[k] = (c == 0) ? Rounding.divUp(b, d) : pinf;
+        } else {
+            rinf[k] = (c == 0) ? Rounding.divDown(a, d) : ninf;
+            rsup[k] = (d == 0) ? Rounding.divUp(a, c) : pinf;
+        }
+    }
+
+    /**
+     * Get the number of pieces
+     * @return The number of pieces, zero if the union is empty
+     */
+    public int size() {
+        return inf.length;
+    }
+
+    /**
+     * Test if the union is empty
+     * @return True if there is no piece
+     */
+    public boolean isEmpty() {
+        return inf.length == 0;
+    }
+
+    /**
+     * Get a piece
+     * @param i Index of the piece, the pieces are in increasing order
+     * @return The piece
+     */
+    public Interval get(int i) {
+        return new Interval(inf[i], sup[i]);
+    }
+
+    /**
+     * Get the smallest interval that contains all pieces
+     * @return The hull of the pieces
+     * @throws ArithmeticException if the union is empty
+     */
+    public Interval hull() {
+        if (inf.length == 0)
+            throw new ArithmeticException("The union is empty");
+        return new Interval(inf[0], sup[sup.length - 1]);
+    }
+
+    /**
+     * Test if a number is in a piece
+     * @param x The number
+     * @return True if some piece contains x
+     */
+    public boolean contains(double x) {
+        for (int i = 0; i < inf.length; i++)
+            if (inf[i] <= x && x <= sup[i])
+                return true;
+        return false;
+    }
+
+    /**
+     * Sum two unions
+     * @param A Union to add
+     * @return The union of the sums of the pieces
+     */
+    public IntervalUnion add(IntervalUnion A) {
+        int n = inf.length * A.inf.length;
+        double[] a = new double[n], b = new double[n];
+        int k = 0;
+        for (int i = 0; i < inf.length; i++) {
+            for (int j = 0; j < A.inf.length; j++, k++) {
+                a[k] = Rounding.addDown(inf[i], A.inf[j]);
+                b[k] = Rounding.addUp(sup[i], A.sup[j]);
+            }
+        }
+        return join(a, b, n);
+    }
+
+    /**
+     * Subtract two unions
+     * @param A Union to subtract
+     * @return The union of the differences of the pieces
+     */
+    public IntervalUnion sub(IntervalUnion A) {
+        int n = inf.length * A.inf.length;
+        double[] a = new double[n], b = new double[n];
+        int k = 0;
+        for (int i = 0; i < inf.length; i++) {
+            for (int j = 0; j < A.inf.length; j++, k++) {
+                a[k] = Rounding.addDown(inf[i], -A.sup[j]);
+                b[k] = Rounding.addUp(sup[i], -A.inf[j]);
+            }
+        }
+        return join(a, b, n);
+    }
+
+    /**
+     * Multiply two unions. A piece [0,0] times an unbounded piece is [0,0].
+     * @param A Union to multiply
+     * @return The union of the products of the pieces
+     */
+    public IntervalUnion mult(IntervalUnion A) {
+        int n = inf.length * A.inf.length;
+        double[] a = new double[n], b = new double[n];
+        int k = 0;
+        for (int i = 0; i < inf.length; i++) {
+            for (int j = 0; j < A.inf.length; j++, k++) {
+                if ((inf[i] == 0 && sup[i] == 0) || (A.inf[j] == 0 && A.sup[j] == 0)) {
+                    a[k] = 0;
+                    b[k] = 0;
+                } else {
+                    a[k] = Interval.multInf(inf[i], sup[i], A.inf[j], A.sup[j]);
+                    b[k] = Interval.multSup(inf[i], sup[i], A.inf[j], A.sup[j]);
+                }
+            }
+        }
+        return join(a, b, n);
+    }
+
+    /**
+     * Divide two unions with the extended division
+     * {@link #div(Interval, Interval)}
+     * @param A Divisor
+     * @return The union of the quotients of the pieces
+     */
+    public IntervalUnion div(IntervalUnion A) {
+        int n = 2 * inf.length * A.inf.length;
+        double[] a = new double[n], b = new double[n];
+        int k = 0;
+        for (int i = 0; i < inf.length; i++) {
+            Interval x = get(i);
+            for (int j = 0; j < A.inf.length; j++) {
+                IntervalUnion q = div(x, A.get(j));
+                for (int p = 0; p < q.inf.length; p++, k++) {
+                    a[k] = q.inf[p];
+                    b[k] = q.sup[p];
+                }
+            }
+        }
+        return join(a, b, k);
+    }
+
+    /**
+     * Change the sign of the union
+     * @return The union of the negated pieces
+     */
+    public IntervalUnion INeg() {
+        int n = inf.length;
+        double[] a = new double[n], b = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = -sup[n - 1 - i];
+            b[i] = -inf[n - 1 - i];
+        }
+        return new IntervalUnion(a, b);
+    }
+
+    /**
+     * Apply an interval function to every piece, for example
+     * {@code u.map(InterFunctions::Sin)}.
+     *
+     * @param f Function of {@link InterFunctions} or another interval function
+     * @return The union of the images of the pieces
+     * @throws ArithmeticException if the function is not defined on a piece
+     */
+    public IntervalUnion map(UnaryOperator<Interval> f) {
+        int n = inf.length;
+        double[] a = new double[n], b = new double[n];
+        for (int i = 0; i < n; i++) {
+            Interval r = f.apply(get(i));
+            a[i] = r.getInf();
+            b[i] = r.getSup();
+        }
+        return join(a, b, n);
+    }
+
+    /**
+     * Returns the pieces separated by "U"
+     * @return String with the pieces
+     */
+    @Override
+    public String toString() {
+        if (inf.length == 0)
+            return "[]";
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < inf.length; i++) {
+            if (i > 0)
+                s.append(" U ");
+            s.append('[').append(inf[i]).append(',').append(sup[i]).append(']');
+        }
+        return s.toString();
+    }
+}
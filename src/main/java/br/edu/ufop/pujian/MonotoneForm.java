@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Arrays;
+
+/**
+ * Evaluation of an expression recorded on an {@link AdjointTape} that uses
+ * its monotonicity. The sign of each partial derivative over the box is
+ * checked first; a variable in which the expression is monotone is replaced
+ * by one of its endpoints, so the minimum is computed at the lower box and
+ * the maximum at the upper box, and only the other variables are
+ * intervals. The variables left are checked again over the lower and the
+ * upper boxes, where the expression may have become monotone in them. If
+ * the expression is monotone in all variables the result is the range up to
+ * rounding.
+ *
+ * The endpoints bound the expression only where it is continuous, so when
+ * a value of the naive evaluation is unbounded, like a Tan that crosses a
+ * pole, the naive evaluation is the result and every variable is an
+ * interval.
+ *
+ * The result is intersected with the naive evaluation. The path taken for
+ * each variable by the last evaluation is kept, see {@link #getPath(int)}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class MonotoneForm {
+
+    /**
+     * How a variable was evaluated
+     */
+    public enum Path {
+        /**
+         * The partial derivative is zero, the variable is a point
+         */
+        CONSTANT,
+        /**
+         * The partial derivative is not negative, the lower endpoint gives
+         * the minimum and the upper endpoint the maximum
+         */
+        INCREASING,
+        /**
+         * The partial derivative is not positive, the upper endpoint gives
+         * the minimum and the lower endpoint the maximum
+         */
+        DECREASING,
+        /**
+         * The sign of the partial derivative is unknown, the variable is an
+         * interval
+         */
+        INTERVAL
+    }
+
+    private final AdjointTape tape;
+    private final double[] ginf, gsup, linf, lsup, uinf, usup;
+    private final Path[] paths;
+    private double ninf, nsup;
+
+    /**
+     * Class constructor
+     * @param tape Tape of the expression
+     */
+    public MonotoneForm(AdjointTape tape) {
+        this.tape = tape;
+        int n = tape.variables();
+        ginf = new double[n];
+        gsup = new double[n];
+        linf = new double[n];
+        lsup = new double[n];
+        uinf = new double[n];
+        usup = new double[n];
+        paths = new Path[n];
+    }
+
+    /**
+     * Evaluate the expression on a box
+     *
+     * @param xinf Lower bounds of the variables
+     * @param xsup Upper bounds of the variables
+     * @return The enclosure of the expression on the box
+     * @throws ArithmeticException if the naive evaluation is not defined on
+     * the box
+     */
+    public Interval evaluate(double[] xinf, double[] xsup) {
+        tape.forward(xinf, xsup);
+        ninf = tape.getInf();
+        nsup = tape.getSup();
+        if (!tape.isBounded()) {
+            Arrays.fill(paths, Path.INTERVAL);
+            return new Interval(ninf, nsup);
+        }
+        tape.backward();
+        tape.gradient(ginf, gsup);
+        boolean monotone = false;
+        for (int i = 0; i < paths.length; i++) {
+            double a = xinf[i], b = xsup[i];
+            if (ginf[i] == 0 && gsup[i] == 0)
+                paths[i] = Path.CONSTANT;
+            else if (ginf[i] >= 0)
+                paths[i] = Path.INCREASING;
+            else if (gsup[i] <= 0)
+                paths[i] = Path.DECREASING;
+            else
+                paths[i] = Path.INTERVAL;
+            switch (paths[i]) {
+                case CONSTANT:
+                case INCREASING:
+                    linf[i] = lsup[i] = a;
+                    uinf[i] = usup[i] = b;
+                    monotone = true;
+                    break;
+                case DECREASING:
+                    linf[i] = lsup[i] = b;
+                    uinf[i] = usup[i] = a;
+                    monotone = true;
+                    break;
+                default:
+                    linf[i] = uinf[i] = a;
+                    lsup[i] = usup[i] = b;
+                    break;
+            }
+        }
+        if (!monotone)
+            return new Interval(ninf, nsup);
+        // the lower and upper boxes are inside the box, so they are defined
+        double inf = Math.max(ninf, bound(xinf, xsup, linf, lsup, true));
+        double sup = Math.min(nsup, bound(xinf, xsup, uinf, usup, false));
+        return (inf <= sup) ? new Interval(inf, sup) : new Interval(ninf, nsup);
+    }
+
+    /**
+     * Evaluate the lower or the upper box. The variables that are still
+     * intervals are checked again over it, as fixing a variable may make
+     * the expression monotone in another one.
+     */
+    private double bound(double[] xinf, double[] xsup, double[] binf, double[] bsup, boolean lower) {
+        while (true) {
+            tape.forward(binf, bsup);
+            boolean interval = false;
+            for (int i = 0; i < paths.length && !interval; i++)
+                interval = binf[i] < bsup[i];
+            if (!interval)
+                break;
+            tape.backward();
+            tape.gradient(ginf, gsup);
+            boolean fixed = false;
+            for (int i = 0; i < paths.length; i++) {
+                if (!(binf[i] < bsup[i]))
+                    continue;
+                if (ginf[i] >= 0)
+                    binf[i] = bsup[i] = lower ? xinf[i] : xsup[i];
+                else if (gsup[i] <= 0)
+                    binf[i] = bsup[i] = lower ? xsup[i] : xinf[i];
+                else
+                    continue;
+                fixed = true;
+            }
+            if (!fixed)
+                break;
+        }
+        return lower ? tape.getInf() : tape.getSup();
+    }
+
+    /**
+     * Get the naive enclosure of the last evaluation
+     * @return The value of the tape on the box
+     */
+    public Interval getNaive() {
+        return new Interval(ninf, nsup);
+    }
+
+    /**
+     * Get the path taken for a variable by the last evaluation, from the
+     * sign of its partial derivative over the whole box
+     * @param i Index of the variable
+     * @return How the variable was evaluated
+     */
+    public Path getPath(int i) {
+        return paths[i];
+    }
+
+    /**
+     * Get the paths taken for all variables by the last evaluation
+     * @return How each variable was evaluated
+     */
+    public Path[] getPaths() {
+        return paths.clone();
+    }
+}
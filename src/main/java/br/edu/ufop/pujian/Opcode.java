@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Operators of {@link Engine.BinOp} and {@link Engine.UnaryOp}. The parser
+ * resolves the symbol of an operator once, so the evaluation compares
+ * constants instead of strings. Unary and binary operators with the same
+ * symbol, like "-", have the same opcode.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public enum Opcode {
+    ADD("+"), SUB("-"), MUL("*"), DIV("/"), MOD("%"), POW("^"),
+    EQ("=="), NE("!="), LE("<="), LT("<"), GE(">="), GT(">"),
+    COMMA(","), HULL("&"), ASSIGN("="), SEQ(";"),
+    INC("++"), DEC("--"), FACT("!"), HASH("@");
+
+    private static final Map<String, Opcode> SYMBOLS = new HashMap<>();
+
+    static {
+        for (Opcode code : values())
+            SYMBOLS.put(code.symbol, code);
+    }
+
+    /**
+     * Symbol of the operator
+     */
+    private final String symbol;
+
+    Opcode(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Get the opcode of an operator
+     * @param symbol Symbol of the operator
+     * @return The opcode, or null if the symbol is not a built-in operator
+     */
+    public static Opcode of(String symbol) {
+        return SYMBOLS.get(symbol);
+    }
+
+    /**
+     * Returns the symbol of the operator
+     * @return The symbol, like "+"
+     */
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
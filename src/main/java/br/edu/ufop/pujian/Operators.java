@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+
+/**
+ * Table of the binary operations on numbers and intervals, indexed by the
+ * type of the left operand, the type of the right operand and the
+ * {@link Opcode}. It is built once and used by {@link Engine.Num} and
+ * {@link Engine.Inter}; a missing entry means the operation is not defined
+ * for that pair of types.
+ *
+ * A number with an interval is a point interval, so [1,2]+3 is [4,5].
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class Operators {
+
+    /**
+     * Binary operation of the table
+     */
+    @FunctionalInterface
+    interface Operation {
+        Node apply(Engine engine, Node left, Node right) throws SemanticError;
+    }
+
+    /**
+     * Types of the operands, see {@link Engine.Node#type()}
+     */
+    static final int NUM = 0, INTER = 1;
+
+    private static final int TYPES = 2;
+    private static final int CODES = Opcode.values().length;
+    private static final Operation[] TABLE = new Operation[TYPES * TYPES * CODES];
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private Operators() {
+    }
+
+    /**
+     * Get an operation of the table
+     * @param left Type of the left operand
+     * @param right Type of the right operand, negative if it is not in the
+     * table
+     * @param code The operator
+     * @return The operation, or null if it is not defined
+     */
+    static Operation get(int left, int right, Opcode code) {
+        if (right < 0)
+            return null;
+        return TABLE[(left * TYPES + right) * CODES + code.ordinal()];
+    }
+
+    private static void put(int left, int right, Opcode code, Operation f) {
+        TABLE[(left * TYPES + right) * CODES + code.ordinal()] = f;
+    }
+
+    private static double num(Node n) {
+        return ((Num) n).val;
+    }
+
+    private static Interval inter(Node n) {
+        return (n instanceof Num) ? new Interval(((Num) n).val) : ((Inter) n).val;
+    }
+
+    /**
+     * Division of intervals. A divisor with zero gives one or two pieces
+     * instead of an exception.
+     */
+    private static Node div(Engine e, Interval a, Interval b) {
+        if (b.getInf() > 0 || b.getSup() < 0)
+            return e.new Inter(a.div(b));
+        return e.union(IntervalUnion.div(a, b));
+    }
+
+    static {
+        put(NUM, NUM, Opcode.ADD, (e, l, r) -> e.new Num(num(l) + num(r)));
+        put(NUM, NUM, Opcode.SUB, (e, l, r) -> e.new Num(num(l) - num(r)));
+        put(NUM, NUM, Opcode.MUL, (e, l, r) -> e.new Num(num(l) * num(r)));
+        put(NUM, NUM, Opcode.DIV, (e, l, r) -> e.new Num(num(l) / num(r)));
+        put(NUM, NUM, Opcode.MOD, (e, l, r) -> e.new Num(num(l) % num(r)));
+        put(NUM, NUM, Opcode.POW, (e, l, r) -> e.new Num(Math.pow(num(l), num(r))));
+        put(NUM, NUM, Opcode.EQ, (e, l, r) -> e.new Num(num(l) == num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.NE, (e, l, r) -> e.new Num(num(l) != num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.LE, (e, l, r) -> e.new Num(num(l) <= num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.LT, (e, l, r) -> e.new Num(num(l) < num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.GE, (e, l, r) -> e.new Num(num(l) >= num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.GT, (e, l, r) -> e.new Num(num(l) > num(r) ? 1 : 0));
+        put(NUM, NUM, Opcode.COMMA, (e, l, r) -> e.new Inter(num(l), num(r)));
+
+        // the interval operations, with a number as a point interval
+        for (int left = 0; left < TYPES; left++)
+            for (int right = 0; right < TYPES; right++) {
+                if (left == NUM && right == NUM)
+                    continue;
+                put(left, right, Opcode.ADD, (e, l, r) -> e.new Inter(inter(l).add(inter(r))));
+                put(left, right, Opcode.SUB, (e, l, r) -> e.new Inter(inter(l).sub(inter(r))));
+                put(left, right, Opcode.MUL, (e, l, r) -> e.new Inter(inter(l).mult(inter(r))));
+                put(left, right, Opcode.DIV, (e, l, r) -> div(e, inter(l), inter(r)));
+                put(left, right, Opcode.HULL, (e, l, r) -> e.new Inter(inter(l).Hull(inter(r))));
+            }
+        put(INTER, NUM, Opcode.POW, (e, l, r) -> e.new Inter(InterFunctions.IPowerR(inter(l), num(r))));
+        put(INTER, INTER, Opcode.POW, (e, l, r) -> e.new Inter(InterFunctions.IPowerI(inter(l), inter(r))));
+        put(NUM, INTER, Opcode.POW, (e, l, r) -> e.new Inter(InterFunctions.IPowerI(inter(l), inter(r))));
+    }
+}
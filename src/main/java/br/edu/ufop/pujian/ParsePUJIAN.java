@@ -183,6 +183,51 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         new TokInterFun(this, "Sin", 30).setLevel(10);
 
+        /**
+         * Used to creates interval trigonometric function of tangent
+         */
+        new TokInterFun(this, "Tan", 30).setLevel(10);
+
+        /**
+         * Used to creates interval trigonometric function of cotangent
+         */
+        new TokInterFun(this, "Cot", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of hyperbolic sine
+         */
+        new TokInterFun(this, "Sinh", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of hyperbolic cossine
+         */
+        new TokInterFun(this, "Cosh", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of hyperbolic tangent
+         */
+        new TokInterFun(this, "Tanh", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of hyperbolic cotangent
+         */
+        new TokInterFun(this, "Coth", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of inverse hyperbolic sine
+         */
+        new TokInterFun(this, "ASinh", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of inverse hyperbolic cossine
+         */
+        new TokInterFun(this, "ACosh", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of inverse hyperbolic tangent
+         */
+        new TokInterFun(this, "ATanh", 30).setLevel(10);
+
         /**
          * Used to creates interval function IAbs
          */
@@ -198,6 +243,16 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         new TokInterFun(this, "ISqr", 30).setLevel(10);
 
+        /**
+         * Used to creates interval function of square root
+         */
+        new TokInterFun(this, "Sqrt", 30).setLevel(10);
+
+        /**
+         * Used to creates interval function of cube root
+         */
+        new TokInterFun(this, "Cbrt", 30).setLevel(10);
+
         /**
          * Used to creates interval function to get natural logarithm of an interval
          */
@@ -213,6 +268,16 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
         */
         new TokInterFun(this, "Exp", 30).setLevel(10);
 
+        /**
+         * Used to creates the affine form of an interval
+         */
+        new TokInterFun(this, "Affine", 30).setLevel(10);
+
+        /**
+         * Used to creates the interval of an affine form
+         */
+        new TokInterFun(this, "Range", 30).setLevel(10);
+
         /**
          * Initialize an token == with left precedence equals to 40. As high left
          * precedence as operation is cast out first.i. e. "+" has lower precedence
@@ -292,6 +357,11 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
      * Used to creates and identify an Infix token, with position between two operands. Named as Infix.
      */
     class TokInfix extends Infix<Node> {
+        /**
+         * Opcode of the operator, resolved once for all its nodes
+         */
+        private final Opcode code;
+
         /**
          * Class constructor
          * @param parser Parser to initialize the token
@@ -300,6 +370,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         public TokInfix(Parser<Node> parser, String name, int lbp) {
             super(parser, name, lbp);
+            code = Opcode.of(name);
         }
 
         /**
@@ -311,6 +382,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         public TokInfix(Parser<Node> parser, String name, int lbp, boolean rightAssoc) {
             super(parser, name, lbp, rightAssoc);
+            code = Opcode.of(name);
         }
 
         /**
@@ -321,7 +393,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         @Override
         public Node makeInfixNode(Node left, Node right) {
-            return engine.new BinOp(name, left, right);
+            return engine.new BinOp(code, left, right);
         }
     }
 
@@ -329,6 +401,11 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
      * Used to create and identify a token that can be prefix and infix. i. e. "+" or "-"
      */
     class TokPrefixInfix extends PrefixInfix<Node> {
+        /**
+         * Opcode of the operator, resolved once for all its nodes
+         */
+        private final Opcode code;
+
         /**
          * Class constructor
          * 
@@ -339,6 +416,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         public TokPrefixInfix(Parser<Node> parser, String name, int pbp, int lbp) {
             super(parser, name, pbp, lbp);
+            code = Opcode.of(name);
         }
 
         /**
@@ -348,7 +426,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         @Override
         public Node makePrefixNode(Node operand) {
-            return engine.new UnaryOp(name, operand);
+            return engine.new UnaryOp(code, operand);
         }
 
         /**
@@ -359,7 +437,7 @@ public class ParsePUJIAN extends InteractiveParser<Node>{
          */
         @Override
         public Node makeInfixNode(Node left, Node right) {
-            return engine.new BinOp(name, left, right);
+            return engine.new BinOp(code, left, right);
         }
     }
 
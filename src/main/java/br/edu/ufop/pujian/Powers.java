@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Bounds of powers and roots of non negative numbers used by the power
+ * functions of {@link InterFunctions}.
+ * <ul>
+ * <li> x^n by squaring for n up to {@value #MaxSquaring}, with at most
+ * 2*log2(n) products rounded in the direction of the bound by
+ * {@link Rounding}. All values are non negative, so rounding every product
+ * down (or up) gives a lower (or upper) bound. The relative error of
+ * squaring grows like n ulps, so larger powers use
+ * {@link Math#pow(double, double)}, which is within one ulp. </li>
+ * <li> x^(1/q) from {@link Math#pow(double, double)}, checked with the
+ * bounds of the q-th power and moved until the check holds. </li>
+ * </ul>
+ * With the NONE policy the bounds are the values rounded to nearest.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class Powers {
+
+    /**
+     * Largest exponent computed by squaring. Up to it squaring was faster
+     * than {@link Math#pow(double, double)} and its bounds are at most n ulps
+     * apart.
+     */
+    static final int MaxSquaring = 64;
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private Powers() {
+    }
+
+    /**
+     * Lower bound of x^n
+     * @param x Non negative base
+     * @param n Non negative exponent
+     * @return A lower bound of x^n
+     */
+    static double powDown(double x, int n) {
+        if (n == 0)
+            return 1.0;
+        if (n > MaxSquaring)
+            return Math.max(Rounding.down(Math.pow(x, n)), 0.0);
+        double p = x;
+        while ((n & 1) == 0) {
+            p = Math.max(Rounding.mulDown(p, p), 0.0);
+            n >>= 1;
+        }
+        double r = p;
+        while ((n >>= 1) != 0) {
+            p = Math.max(Rounding.mulDown(p, p), 0.0);
+            if ((n & 1) != 0)
+                r = Math.max(Rounding.mulDown(r, p), 0.0);
+        }
+        return r;
+    }
+
+    /**
+     * Upper bound of x^n
+     * @param x Non negative base
+     * @param n Non negative exponent
+     * @return An upper bound of x^n
+     */
+    static double powUp(double x, int n) {
+        if (n == 0)
+            return 1.0;
+        if (n > MaxSquaring)
+            return Rounding.up(Math.pow(x, n));
+        double p = x;
+        while ((n & 1) == 0) {
+            p = Rounding.mulUp(p, p);
+            n >>= 1;
+        }
+        double r = p;
+        while ((n >>= 1) != 0) {
+            p = Rounding.mulUp(p, p);
+            if ((n & 1) != 0)
+                r = Rounding.mulUp(r, p);
+        }
+        return r;
+    }
+
+    /**
+     * Lower bound of the q-th root of x
+     * @param x Non negative value
+     * @param q Index of the root, at least 2
+     * @return A lower bound of x^(1/q)
+     */
+    static double rootDown(double x, int q) {
+        if (q == 2)
+            return Rounding.sqrtDown(x);
+        if (q == 3)
+            return Math.max(Rounding.down(Math.cbrt(x)), 0.0);
+        double y = Math.pow(x, 1.0 / q);
+        if (!Rounding.isVerified())
+            return y;
+        // y is a lower bound if y^q <= x
+        while (y > 0 && powUp(y, q) > x)
+            y = Math.nextDown(y);
+        return Math.max(y, 0.0);
+    }
+
+    /**
+     * Upper bound of the q-th root of x
+     * @param x Non negative value
+     * @param q Index of the root, at least 2
+     * @return An upper bound of x^(1/q)
+     */
+    static double rootUp(double x, int q) {
+        if (q == 2)
+            return Rounding.sqrtUp(x);
+        if (q == 3)
+            return Rounding.up(Math.cbrt(x));
+        double y = Math.pow(x, 1.0 / q);
+        if (!Rounding.isVerified())
+            return y;
+        // y is an upper bound if y^q >= x
+        while (y < Double.POSITIVE_INFINITY && powDown(y, q) < x)
+            y = Math.nextUp(y);
+        return y;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Reduction of angles by Pi/2 used by the trigonometric functions of
+ * {@link InterFunctions}. It gives the exact quadrant of any finite double:
+ * <ul>
+ * <li> Cody-Waite reduction with Pi/2 split in three parts for |x| &lt; 2^20 </li>
+ * <li> Payne-Hanek reduction with the bits of 2/Pi for larger arguments </li>
+ * </ul>
+ * The values of the functions at the bounds come from {@link Math}, which
+ * reduces exactly too, so only the quadrants are needed to know which maxima,
+ * minima and poles are inside an interval.
+ *
+ * The distance of a double to the nearest multiple of Pi/2 is larger than
+ * 2^-62, and the errors of both reductions are below 2^-99, so the quadrant
+ * is never wrong.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class RangeReduction {
+
+    /**
+     * Only static methods, there is no instance of this class.
+     */
+    private RangeReduction() {
+    }
+
+    /**
+     * Pi/2 split in three parts. The first two have 33 bits, so their
+     * products by a quadrant number below 2^20 are exact.
+     */
+    private static final double PIO2_1 = 0x1.921fb54400000p+0;
+    private static final double PIO2_2 = 0x1.0b4611a600000p-34;
+    private static final double PIO2_3 = 0x1.3198a2e037073p-69;
+    private static final double TWO_OVER_PI = 2 / Math.PI;
+
+    /**
+     * Largest argument of the Cody-Waite reduction
+     */
+    private static final double CODY_WAITE_LIMIT = 0x1p20;
+
+    /**
+     * The first 1216 bits of the fraction of 2/Pi
+     */
+    private static final long[] TWO_OVER_PI_BITS = {
+            0xa2f9836e4e441529L, 0xfc2757d1f534ddc0L, 0xdb6295993c439041L,
+            0xfe5163abdebbc561L, 0xb7246e3a424dd2e0L, 0x06492eea09d1921cL,
+            0xfe1deb1cb129a73eL, 0xe88235f52ebb4484L, 0xe99c7026b45f7e41L,
+            0x3991d639835339f4L, 0x9c845f8bbdf9283bL, 0x1ff897ffde05980fL,
+            0xef2f118b5a0a6d1fL, 0x6d367ecf27cb09b7L, 0x4f463f669e5fea2dL,
+            0x7527bac7ebe5f17bL, 0x3d0739f78a5292eaL, 0x6bfb5fb11f8d5d08L,
+            0x56033046fc7b6babL
+    };
+
+    /**
+     * Quadrant of an angle: floor(x / (Pi/2)) modulo 2^32. The difference of
+     * the quadrants of two angles less than 2^31 quadrants apart is exact in
+     * int arithmetic.
+     *
+     * @param x Finite angle
+     * @return The quadrant number of x
+     */
+    static int quadrant(double x) {
+        if (Math.abs(x) < CODY_WAITE_LIMIT) {
+            double q = Math.rint(x * TWO_OVER_PI);
+            double r = ((x - q * PIO2_1) - q * PIO2_2) - q * PIO2_3;
+            int n = (int) q;
+            return (r < 0) ? n - 1 : n;
+        }
+        int n = payneHanek(Math.abs(x));
+        // x/(Pi/2) is never an integer, so floor(-y) = -floor(y) - 1
+        return (x < 0) ? -n - 1 : n;
+    }
+
+    /**
+     * floor(x * 2/Pi) modulo 2^32 for x &gt;= 2^20.
+     *
+     * x = m * 2^e with an integer m of 53 bits. The bits of 2/Pi with weight
+     * 2^-j for j &lt;= e - 32 give multiples of 2^32 and are skipped, so m is
+     * multiplied by the 192 bits of 2/Pi after them and the integer part of
+     * x * 2/Pi is at bit 160 of the product.
+     */
+    private static int payneHanek(double x) {
+        long bits = Double.doubleToRawLongBits(x);
+        int e = (int) (bits >>> 52) - 1075;
+        long m = (bits & 0x000fffffffffffffL) | 0x0010000000000000L;
+        int j0 = e - 31;
+        long w2 = window(j0), w1 = window(j0 + 64), w0 = window(j0 + 128);
+        // product m * (w2:w1:w0), only the carries into bits 128..191 are needed
+        long hi0 = unsignedMultiplyHigh(m, w0);
+        long lo1 = m * w1;
+        long hi1 = unsignedMultiplyHigh(m, w1);
+        long lo2 = m * w2;
+        long p1 = hi0 + lo1;
+        long carry = (Long.compareUnsigned(p1, lo1) < 0) ? 1 : 0;
+        long p2 = hi1 + lo2 + carry;
+        return (int) (p2 >>> 32);
+    }
+
+    /**
+     * 64 bits of the fraction of 2/Pi from the bit with weight 2^-j. The bits
+     * with j &lt; 1 are zero.
+     */
+    private static long window(int j) {
+        int off = j - 1;
+        if (off <= -64)
+            return 0;
+        if (off < 0)
+            return TWO_OVER_PI_BITS[0] >>> -off;
+        int w = off >> 6, s = off & 63;
+        if (s == 0)
+            return TWO_OVER_PI_BITS[w];
+        return (TWO_OVER_PI_BITS[w] << s) | (TWO_OVER_PI_BITS[w + 1] >>> (64 - s));
+    }
+
+    /**
+     * High 64 bits of the unsigned product of a and b, for a &gt;= 0
+     */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((b >> 63) & a);
+    }
+
+    /**
+     * Tells if there is a quadrant boundary k*Pi/2 in (a,b] with k mod 4 equal
+     * to residue, where qa and qb are the quadrants of a and b.
+     *
+     * @param qa Quadrant of the lower bound
+     * @param qb Quadrant of the upper bound, at most 4 quadrants after qa
+     * @param residue Value of k mod 4
+     * @return True if the boundary is in the interval
+     */
+    static boolean crosses(int qa, int qb, int residue) {
+        // first k after qa with k mod 4 = residue is qa + offset
+        int offset = ((residue - qa - 1) & 3) + 1;
+        return offset <= qb - qa;
+    }
+}
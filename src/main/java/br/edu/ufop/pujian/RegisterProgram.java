@@ -0,0 +1,834 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.BinOp;
+import br.edu.ufop.pujian.Engine.Branch;
+import br.edu.ufop.pujian.Engine.Composite;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.IntervalFunc;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import br.edu.ufop.pujian.Engine.Sym;
+import br.edu.ufop.pujian.Engine.UnaryOp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Program of an {@link Engine} lowered to a register machine. The tree of
+ * nodes is turned into one array of instructions, each one with an opcode,
+ * a destination register and two operands, and the values are kept in a
+ * register file of inf and sup columns with the type of each register, a
+ * number or an interval. A number is a point interval with exact
+ * arithmetic, like {@link Engine.Num}.
+ *
+ * The first registers are the constants, then the variables of the
+ * program, which are read from the context when the program is run and
+ * written back when they are assigned, then the temporaries, which are
+ * reused. Running the program does not allocate: the functions and powers
+ * are computed on the bounds in the register file.
+ *
+ * Branches, sequences, assignments and calls of functions made with "fun"
+ * are lowered; a call is inlined with the function defined when the program
+ * is lowered, so a recursive function cannot be lowered. A number given to
+ * a built-in function is a point interval. Like {@link AdjointTape} a
+ * division by an interval with zero is an error, and the results are not
+ * refined, as if the precision threshold of the engine were infinite.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public final class RegisterProgram {
+
+    /**
+     * Instructions. Each one has three ints: the opcode and the destination,
+     * then a and b. The destination is in the bits above {@link #DIRTY}.
+     */
+    static final int MOV = 0, CHECK = 1, JZ = 2, JMP = 3,
+            ADD = 4, SUB = 5, MUL = 6, DIV = 7, MOD = 8, POW = 9,
+            EQ = 10, NE = 11, LE = 12, LT = 13, GE = 14, GT = 15,
+            PAIR = 16, HULL = 17, NEG = 18, INC = 19, DEC = 20, FACT = 21,
+            FUNC = 22, RABS = 23;
+
+    /**
+     * Bit of an instruction that assigns a variable of the program
+     */
+    static final int DIRTY = 0x80;
+
+    /**
+     * Symbols of the operations, for the errors
+     */
+    private static final String[] SYMBOLS = {"=", "", "", "",
+        "+", "-", "*", "/", "%", "^", "==", "!=", "<=", "<", ">=", ">",
+        ",", "&", "-", "++", "--", "!", "", ""};
+
+    /**
+     * Which fields of each instruction are registers: 1 the destination, 2
+     * a and 4 b
+     */
+    private static final int[] REGISTERS = {3, 2, 2, 0,
+        7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        7, 7, 3, 3, 3, 3, 3, 3};
+
+    /**
+     * Types of the registers
+     */
+    private static final byte NUM = 0, INTER = 1, UNDEFINED = 2, OTHER = 3;
+
+    private final Engine engine;
+    private final int[] code;
+    private final double[] inf, sup;
+    private final byte[] type;
+    private final Sym[] names;
+    private final Sym[] globals;
+    private final int firstGlobal;
+    private final boolean[] dirty;
+    private final int result;
+
+    private RegisterProgram(Engine engine, int[] code, double[] inf, double[] sup, byte[] type,
+            Sym[] names, Sym[] globals, int firstGlobal, int result) {
+        this.engine = engine;
+        this.code = code;
+        this.inf = inf;
+        this.sup = sup;
+        this.type = type;
+        this.names = names;
+        this.globals = globals;
+        this.firstGlobal = firstGlobal;
+        this.dirty = new boolean[globals.length];
+        this.result = result;
+    }
+
+    /**
+     * Lower a program
+     *
+     * @param engine Engine with the context of the program
+     * @param node Root of the program
+     * @return The program
+     * @throws SemanticError if the program has a node that cannot be
+     * lowered
+     */
+    static RegisterProgram lower(Engine engine, Node node) throws SemanticError {
+        return new Lowering(engine).lower(node);
+    }
+
+    /**
+     * Get the number of instructions
+     * @return The size of the program
+     */
+    public int size() {
+        return code.length / 3;
+    }
+
+    /**
+     * Get the number of registers, with the constants and the variables
+     * @return The size of the register file
+     */
+    public int registers() {
+        return type.length;
+    }
+
+    /**
+     * Run the program. The variables are read from the context and the
+     * ones assigned are written back, even if the program fails.
+     *
+     * @throws SemanticError if a variable is not defined or an operation is
+     * not defined for its types
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public void run() throws SemanticError {
+        for (int g = 0; g < globals.length; g++) {
+            load(firstGlobal + g, engine.context.get(globals[g]));
+            dirty[g] = false;
+        }
+        try {
+            execute();
+        } finally {
+            for (int g = 0; g < globals.length; g++)
+                if (dirty[g])
+                    engine.context.set(globals[g], node(firstGlobal + g));
+        }
+    }
+
+    /**
+     * Run the program and get its value
+     * @return A {@link Engine.Num} or an {@link Engine.Inter}
+     * @throws SemanticError if a variable is not defined or an operation is
+     * not defined for its types
+     * @throws ArithmeticException if an interval operation is not defined
+     */
+    public Node eval() throws SemanticError {
+        run();
+        return node(result);
+    }
+
+    /**
+     * Check if the value of the last run is a number
+     * @return true for a number, false for an interval
+     */
+    public boolean isNumber() {
+        return type[result] == NUM;
+    }
+
+    /**
+     * Get the lower bound of the value of the last run
+     * @return The lower bound, or the number
+     */
+    public double getInf() {
+        return inf[result];
+    }
+
+    /**
+     * Get the upper bound of the value of the last run
+     * @return The upper bound, or the number
+     */
+    public double getSup() {
+        return sup[result];
+    }
+
+    private void load(int r, Node val) {
+        if (val instanceof Num) {
+            inf[r] = sup[r] = ((Num) val).val;
+            type[r] = NUM;
+        } else if (val instanceof Inter) {
+            inf[r] = ((Inter) val).val.getInf();
+            sup[r] = ((Inter) val).val.getSup();
+            type[r] = INTER;
+        } else
+            type[r] = (val == null) ? UNDEFINED : OTHER;
+    }
+
+    private Node node(int r) {
+        if (type[r] == NUM)
+            return engine.new Num(inf[r]);
+        return engine.new Inter(Interval.bounds(inf[r], sup[r]));
+    }
+
+    /**
+     * Store an interval as {@link Interval#Interval(double, double)} does,
+     * which swaps the bounds if they are not in order
+     */
+    private void interval(int d, double x, double y) {
+        if (x < y) {
+            inf[d] = x;
+            sup[d] = y;
+        } else {
+            inf[d] = y;
+            sup[d] = x;
+        }
+        type[d] = INTER;
+    }
+
+    private void number(int d, double x) {
+        inf[d] = sup[d] = x;
+        type[d] = NUM;
+    }
+
+    private SemanticError undefined(int op) {
+        return new SemanticError(String.format("Operation '%s' not implemented.", SYMBOLS[op]));
+    }
+
+    private void execute() throws SemanticError {
+        final int[] code = this.code;
+        final double[] inf = this.inf, sup = this.sup;
+        final byte[] type = this.type;
+        int pc = 0;
+        while (pc < code.length) {
+            int w = code[pc], a = code[pc + 1], b = code[pc + 2];
+            int op = w & (DIRTY - 1), d = w >>> 8;
+            pc += 3;
+            boolean numbers = (REGISTERS[op] & 4) != 0 && type[a] == NUM && type[b] == NUM;
+            switch (op) {
+                case MOV:
+                    inf[d] = inf[a];
+                    sup[d] = sup[a];
+                    type[d] = type[a];
+                    break;
+                case CHECK:
+                    if (type[a] == UNDEFINED)
+                        throw new SemanticError(String.format("Undefined variable '%s'", names[b]));
+                    if (type[a] == OTHER)
+                        throw new SemanticError(String.format("Variable '%s' has no value.", names[b]));
+                    break;
+                case JZ:
+                    if (type[a] == NUM && inf[a] == 0)
+                        pc = b;
+                    break;
+                case JMP:
+                    pc = a;
+                    break;
+                case ADD:
+                    if (numbers)
+                        number(d, inf[a] + inf[b]);
+                    else
+                        interval(d, Rounding.addDown(inf[a], inf[b]), Rounding.addUp(sup[a], sup[b]));
+                    break;
+                case SUB:
+                    if (numbers)
+                        number(d, inf[a] - inf[b]);
+                    else
+                        interval(d, Rounding.addDown(inf[a], -sup[b]), Rounding.addUp(sup[a], -inf[b]));
+                    break;
+                case MUL:
+                    if (numbers)
+                        number(d, inf[a] * inf[b]);
+                    else
+                        interval(d, Interval.multInf(inf[a], sup[a], inf[b], sup[b]),
+                                Interval.multSup(inf[a], sup[a], inf[b], sup[b]));
+                    break;
+                case DIV:
+                    if (numbers)
+                        number(d, inf[a] / inf[b]);
+                    else if (inf[b] > 0 || sup[b] < 0)
+                        interval(d, Interval.divInf(inf[a], sup[a], inf[b], sup[b]),
+                                Interval.divSup(inf[a], sup[a], inf[b], sup[b]));
+                    else
+                        throw new ArithmeticException("The interval contains zero");
+                    break;
+                case POW:
+                    if (numbers)
+                        number(d, Math.pow(inf[a], inf[b]));
+                    else {
+                        if (type[b] == NUM)
+                            InterFunctions.IPowerRInto(inf[a], sup[a], inf[b], inf, sup, d);
+                        else
+                            InterFunctions.IPowerIInto(inf[a], sup[a], inf[b], sup[b], inf, sup, d);
+                        type[d] = INTER;
+                    }
+                    break;
+                case HULL:
+                    if (numbers)
+                        throw undefined(op);
+                    interval(d, (inf[b] < inf[a]) ? inf[b] : inf[a], (sup[b] > sup[a]) ? sup[b] : sup[a]);
+                    break;
+                case FUNC:
+                    GradientFunctions.ValueInto(b, inf[a], sup[a], inf, sup, d);
+                    type[d] = INTER;
+                    break;
+                case RABS:
+                    number(d, Math.max(Math.abs(inf[a]), Math.abs(sup[a])));
+                    break;
+                case NEG:
+                    if (type[a] == NUM)
+                        number(d, -inf[a]);
+                    else
+                        interval(d, -sup[a], -inf[a]);
+                    break;
+                case PAIR:
+                    if (!numbers)
+                        throw undefined(op);
+                    interval(d, inf[a], inf[b]);
+                    break;
+                case INC:
+                case DEC:
+                case FACT:
+                    if (type[a] != NUM)
+                        throw undefined(op);
+                    number(d, numeric(op, inf[a], 0));
+                    break;
+                default:
+                    // comparisons and the remainder, only for numbers
+                    if (!numbers)
+                        throw undefined(op);
+                    number(d, numeric(op, inf[a], inf[b]));
+                    break;
+            }
+            if ((w & DIRTY) != 0)
+                dirty[d - firstGlobal] = true;
+        }
+    }
+
+    private static double numeric(int op, double x, double y) {
+        switch (op) {
+            case MOD:
+                return x % y;
+            case EQ:
+                return (x == y) ? 1 : 0;
+            case NE:
+                return (x != y) ? 1 : 0;
+            case LE:
+                return (x <= y) ? 1 : 0;
+            case LT:
+                return (x < y) ? 1 : 0;
+            case GE:
+                return (x >= y) ? 1 : 0;
+            case GT:
+                return (x > y) ? 1 : 0;
+            case INC:
+                return x + 1;
+            case DEC:
+                return x - 1;
+            case FACT:
+                double r = 1;
+                while (x > 1)
+                    r *= x--;
+                return r;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Lowering of a tree of nodes. The registers are numbered by kind while
+     * lowering, and renumbered when the program is made.
+     */
+    private static final class Lowering {
+
+        private static final int CONSTANT = 0, GLOBAL = 1, TEMPORARY = 2;
+
+        /**
+         * Registers of the variables of a call, or of the program
+         */
+        private static final class Scope {
+            final Scope parent;
+            final Map<Sym, Integer> vars = new HashMap<>();
+            final Set<Sym> params = new HashSet<>();
+
+            Scope(Scope parent) {
+                this.parent = parent;
+            }
+
+            Integer get(Sym sym) {
+                for (Scope s = this; s != null; s = s.parent) {
+                    Integer v = s.vars.get(sym);
+                    if (v != null)
+                        return v;
+                }
+                return null;
+            }
+        }
+
+        private final Engine engine;
+        private int[] code = new int[64];
+        private int size;
+        private final List<double[]> constants = new ArrayList<>();
+        private final Map<List<Long>, Integer> constantIndex = new HashMap<>();
+        private final List<Sym> globals = new ArrayList<>();
+        private final List<Sym> names = new ArrayList<>();
+        private final Map<Sym, Integer> nameIndex = new HashMap<>();
+        private final Map<Node, Boolean> assigns = new IdentityHashMap<>();
+        private final List<Func> inlined = new ArrayList<>();
+        private final Set<Integer> defined = new HashSet<>();
+        private Scope scope = new Scope(null);
+        private int top, temporaries, last = -1, label;
+
+        Lowering(Engine engine) {
+            this.engine = engine;
+        }
+
+        RegisterProgram lower(Node node) throws SemanticError {
+            int r = operand(node);
+            int nconst = constants.size(), nglobal = globals.size();
+            int n = nconst + nglobal + temporaries;
+            double[] inf = new double[n], sup = new double[n];
+            byte[] type = new byte[n];
+            for (int i = 0; i < nconst; i++) {
+                double[] c = constants.get(i);
+                inf[i] = c[0];
+                sup[i] = c[1];
+                type[i] = (byte) c[2];
+            }
+            int[] program = Arrays.copyOf(code, size);
+            for (int pc = 0; pc < size; pc += 3) {
+                int w = program[pc], fields = REGISTERS[w & (DIRTY - 1)];
+                if ((fields & 1) != 0)
+                    program[pc] = (w & (2 * DIRTY - 1)) | (renumber(w >>> 8, nconst, nglobal) << 8);
+                for (int f = 1; f < 3; f++)
+                    if ((fields & (1 << f)) != 0)
+                        program[pc + f] = renumber(program[pc + f], nconst, nglobal);
+            }
+            return new RegisterProgram(engine, program, inf, sup, type, names.toArray(new Sym[0]),
+                    globals.toArray(new Sym[0]), nconst, renumber(r, nconst, nglobal));
+        }
+
+        private static int renumber(int r, int nconst, int nglobal) {
+            int index = r >> 2;
+            switch (r & 3) {
+                case CONSTANT:
+                    return index;
+                case GLOBAL:
+                    return nconst + index;
+                default:
+                    return nconst + nglobal + index;
+            }
+        }
+
+        private int emit(int op, int d, int a, int b) {
+            if (size + 3 > code.length)
+                code = Arrays.copyOf(code, 2 * code.length);
+            code[size] = op | (d << 8);
+            code[size + 1] = a;
+            code[size + 2] = b;
+            last = size;
+            size += 3;
+            return last;
+        }
+
+        /**
+         * Assign a register to a variable. The value is written by the last
+         * instruction when it is a temporary and no jump goes past it.
+         */
+        private void assign(int r, int v) {
+            int dirty = ((r & 3) == GLOBAL) ? DIRTY : 0;
+            if (last >= 0 && last + 3 == size && label != size && (code[last] >>> 8) == v
+                    && (v & 3) == TEMPORARY && !isVariable(v))
+                code[last] = (code[last] & (DIRTY - 1)) | dirty | (r << 8);
+            else
+                emit(MOV | dirty, r, v, 0);
+        }
+
+        private int alloc() {
+            int r = (top++ << 2) | TEMPORARY;
+            temporaries = Math.max(temporaries, top);
+            return r;
+        }
+
+        /**
+         * Free a temporary if it is the last one
+         */
+        private void free(int r) {
+            if ((r & 3) == TEMPORARY && (r >> 2) == top - 1)
+                top--;
+        }
+
+        private int constant(double inf, double sup, byte type) {
+            List<Long> key = Arrays.asList(Double.doubleToRawLongBits(inf), Double.doubleToRawLongBits(sup),
+                    (long) type);
+            Integer r = constantIndex.get(key);
+            if (r == null) {
+                r = (constants.size() << 2) | CONSTANT;
+                constants.add(new double[]{inf, sup, type});
+                constantIndex.put(key, r);
+            }
+            return r;
+        }
+
+        private int name(Sym sym) {
+            Integer i = nameIndex.get(sym);
+            if (i == null) {
+                i = names.size();
+                names.add(sym);
+                nameIndex.put(sym, i);
+            }
+            return i;
+        }
+
+        /**
+         * Get the register of a variable, which is a variable of the program
+         * if no call has it
+         */
+        private int variable(Sym sym) {
+            Integer r = scope.get(sym);
+            if (r != null)
+                return r;
+            r = (globals.size() << 2) | GLOBAL;
+            globals.add(sym);
+            Scope s = scope;
+            while (s.parent != null)
+                s = s.parent;
+            s.vars.put(sym, r);
+            return r;
+        }
+
+        /**
+         * Check if a register is the register of a variable
+         */
+        private boolean isVariable(int r) {
+            if ((r & 3) == GLOBAL)
+                return true;
+            for (Scope s = scope; s != null; s = s.parent)
+                if (s.vars.containsValue(r))
+                    return true;
+            return false;
+        }
+
+        private boolean isParam(Sym sym) {
+            for (Scope s = scope; s != null; s = s.parent)
+                if (s.vars.containsKey(sym))
+                    return s.params.contains(sym);
+            return false;
+        }
+
+        /**
+         * Check if a tree has an assignment
+         */
+        private boolean assigns(Node node) {
+            Boolean v = assigns.get(node);
+            if (v != null)
+                return v;
+            boolean r = false;
+            if (node instanceof BinOp) {
+                BinOp op = (BinOp) node;
+                r = op.code == Opcode.ASSIGN || assigns(op.left) || assigns(op.right);
+            } else if (node instanceof UnaryOp)
+                r = assigns(((UnaryOp) node).operand);
+            else if (node instanceof IntervalFunc)
+                r = assigns(((IntervalFunc) node).arg);
+            else if (node instanceof Branch) {
+                Branch br = (Branch) node;
+                r = assigns(br.head) || assigns(br.body) || assigns(br.tail);
+            } else if (node instanceof Composite)
+                for (Node arg : ((Composite) node).args)
+                    r |= assigns(arg);
+            assigns.put(node, r);
+            return r;
+        }
+
+        private SemanticError unsupported(Node node) {
+            return new SemanticError(String.format("'%s' cannot be lowered.", node));
+        }
+
+        /**
+         * Lower an expression
+         * @return The register of its value
+         */
+        int operand(Node node) throws SemanticError {
+            if (node instanceof Num) {
+                double v = ((Num) node).val;
+                return constant(v, v, NUM);
+            }
+            if (node instanceof Inter) {
+                Interval v = ((Inter) node).val;
+                return constant(v.getInf(), v.getSup(), INTER);
+            }
+            if (node instanceof Sym) {
+                Sym sym = (Sym) node;
+                int r = variable(sym);
+                // a variable of the program already assigned has a value
+                if (!isParam(sym) && !defined.contains(r))
+                    emit(CHECK, 0, r, name(sym));
+                return r;
+            }
+            if (node instanceof BinOp)
+                return binary((BinOp) node);
+            if (node instanceof UnaryOp)
+                return unary((UnaryOp) node);
+            if (node instanceof IntervalFunc)
+                return function((IntervalFunc) node);
+            if (node instanceof Branch)
+                return branch((Branch) node);
+            if (node instanceof Composite)
+                return call((Composite) node);
+            throw unsupported(node);
+        }
+
+        private int binary(BinOp node) throws SemanticError {
+            if (node.code == null)
+                throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+            switch (node.code) {
+                case SEQ:
+                    free(operand(node.left));
+                    return operand(node.right);
+                case ASSIGN:
+                    if (!(node.left instanceof Sym))
+                        throw new SemanticError(String.format("Operation '%s' not implemented.", node.op));
+                    int v = operand(node.right);
+                    int r = variable((Sym) node.left);
+                    assign(r, v);
+                    free(v);
+                    if ((r & 3) == GLOBAL)
+                        defined.add(r);
+                    return r;
+                default:
+                    break;
+            }
+            int op = opcode(node.code, node);
+            int a = operand(node.left);
+            // the right operand may assign the variable of the left one
+            if (isVariable(a) && assigns(node.right)) {
+                int t = alloc();
+                emit(MOV, t, a, 0);
+                a = t;
+            }
+            int b = operand(node.right);
+            free(b);
+            free(a);
+            int d = alloc();
+            emit(op, d, a, b);
+            return d;
+        }
+
+        private static int opcode(Opcode code, Node node) throws SemanticError {
+            switch (code) {
+                case ADD:
+                    return ADD;
+                case SUB:
+                    return SUB;
+                case MUL:
+                    return MUL;
+                case DIV:
+                    return DIV;
+                case MOD:
+                    return MOD;
+                case POW:
+                    return POW;
+                case EQ:
+                    return EQ;
+                case NE:
+                    return NE;
+                case LE:
+                    return LE;
+                case LT:
+                    return LT;
+                case GE:
+                    return GE;
+                case GT:
+                    return GT;
+                case COMMA:
+                    return PAIR;
+                case HULL:
+                    return HULL;
+                default:
+                    throw new SemanticError(String.format("'%s' cannot be lowered.", node));
+            }
+        }
+
+        private int unary(UnaryOp node) throws SemanticError {
+            int op;
+            if (node.code == Opcode.ADD)
+                return operand(node.operand);
+            if (node.code == Opcode.SUB)
+                op = NEG;
+            else if (node.code == Opcode.INC)
+                op = INC;
+            else if (node.code == Opcode.DEC)
+                op = DEC;
+            else if (node.code == Opcode.FACT)
+                op = FACT;
+            else
+                throw unsupported(node);
+            int a = operand(node.operand);
+            free(a);
+            int d = alloc();
+            emit(op, d, a, 0);
+            return d;
+        }
+
+        private int function(IntervalFunc node) throws SemanticError {
+            int f = GradientFunctions.Code(node.head);
+            if (f < 0 && !"RAbs".equals(node.head))
+                throw unsupported(node);
+            int a = operand(node.arg);
+            free(a);
+            int d = alloc();
+            if (f < 0)
+                emit(RABS, d, a, 0);
+            else
+                emit(FUNC, d, a, f);
+            return d;
+        }
+
+        private int branch(Branch node) throws SemanticError {
+            int d = alloc();
+            int h = operand(node.head);
+            free(h);
+            int otherwise = emit(JZ, 0, h, 0);
+            // only one of the arms assigns its variables
+            Set<Integer> before = new HashSet<>(defined);
+            int b = operand(node.body);
+            emit(MOV, d, b, 0);
+            free(b);
+            int end = emit(JMP, 0, 0, 0);
+            code[otherwise + 2] = size;
+            defined.retainAll(before);
+            int t = operand(node.tail);
+            emit(MOV, d, t, 0);
+            free(t);
+            code[end + 1] = size;
+            label = size;
+            defined.retainAll(before);
+            return d;
+        }
+
+        /**
+         * Call of a function made with "fun", inlined in a new scope with the
+         * arguments and the variables it assigns
+         */
+        private int call(Composite node) throws SemanticError {
+            if (node.bracketType == '{' || scope.get(node.head) != null)
+                throw unsupported(node);
+            Node def = engine.context.get(node.head);
+            if (!(def instanceof Func))
+                throw new SemanticError(String.format("'%s' is not a function.", node.head));
+            Func func = (Func) def;
+            if (func.args.length != node.args.length)
+                throw new SemanticError("Argument mismatch.");
+            if (inlined.contains(func))
+                throw unsupported(node);
+            int d = alloc();
+            Scope callee = new Scope(scope);
+            for (int i = 0; i < func.args.length; i++) {
+                int v = operand(node.args[i]);
+                int p = alloc();
+                emit(MOV, p, v, 0);
+                callee.vars.put((Sym) func.args[i], p);
+                callee.params.add((Sym) func.args[i]);
+            }
+            // a variable assigned in the body is local, with the value of
+            // the caller until it is assigned
+            for (Sym sym : targets(func.body, new ArrayList<>()))
+                if (!callee.vars.containsKey(sym)) {
+                    int outer = variable(sym);
+                    int local = alloc();
+                    emit(MOV, local, outer, 0);
+                    callee.vars.put(sym, local);
+                }
+            Scope caller = scope;
+            scope = callee;
+            inlined.add(func);
+            try {
+                int v = operand(func.body);
+                emit(MOV, d, v, 0);
+            } finally {
+                scope = caller;
+                inlined.remove(inlined.size() - 1);
+            }
+            top = (d >> 2) + 1;
+            return d;
+        }
+
+        /**
+         * Get the variables assigned in a tree
+         */
+        private static List<Sym> targets(Node node, List<Sym> syms) {
+            if (node instanceof BinOp) {
+                BinOp op = (BinOp) node;
+                if (op.code == Opcode.ASSIGN && op.left instanceof Sym && !syms.contains(op.left))
+                    syms.add((Sym) op.left);
+                targets(op.left, syms);
+                targets(op.right, syms);
+            } else if (node instanceof UnaryOp)
+                targets(((UnaryOp) node).operand, syms);
+            else if (node instanceof IntervalFunc)
+                targets(((IntervalFunc) node).arg, syms);
+            else if (node instanceof Branch) {
+                targets(((Branch) node).head, syms);
+                targets(((Branch) node).body, syms);
+                targets(((Branch) node).tail, syms);
+            } else if (node instanceof Composite)
+                for (Node arg : ((Composite) node).args)
+                    targets(arg, syms);
+            return syms;
+        }
+    }
+}
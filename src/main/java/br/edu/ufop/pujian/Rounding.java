@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+/**
+ * Policy used to round the bounds computed by {@link Interval},
+ * {@link IntervalKernels} and {@link InterFunctions}.
+ * <ul>
+ * <li> NONE: bounds are rounded to nearest, so enclosures are not guaranteed.
+ * This is the fastest policy and the default. </li>
+ * <li> ULP: every computed bound is moved one ulp outward with
+ * {@link Math#nextDown(double)} and {@link Math#nextUp(double)}. </li>
+ * <li> EFT: sums, products and quotients use error-free transforms (TwoSum
+ * and {@link Math#fma(double, double, double)}) and move a bound outward
+ * only when the rounded result is not exact and is on the wrong side.
+ * Elementary functions are moved one ulp outward like in ULP. </li>
+ * </ul>
+ * ULP and EFT give guaranteed bounds. EFT gives the same bounds as a
+ * directed rounding mode for the basic operations.
+ *
+ * The initial policy is read from the system property
+ * {@code pujian.rounding} ("none", "ulp" or "eft") and can be changed with
+ * {@link #set(Rounding)}. The policy is global, so it should be changed
+ * between evaluations and not while other threads compute.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public enum Rounding {
+    NONE, ULP, EFT;
+
+    /**
+     * Below this magnitude the error term of a product or quotient may
+     * underflow and the error-free transforms are not exact, so the bound is
+     * moved one ulp outward.
+     */
+    private static final double TINY = 0x1p-969;
+
+    /**
+     * Policy in use
+     */
+    private static Rounding mode = parse(System.getProperty("pujian.rounding", "none"));
+
+    /**
+     * Get the policy in use
+     * @return The current rounding policy
+     */
+    public static Rounding get() {
+        return mode;
+    }
+
+    /**
+     * Change the policy in use
+     * @param policy The new rounding policy
+     */
+    public static void set(Rounding policy) {
+        mode = policy;
+    }
+
+    /**
+     * Get a policy by name, ignoring case
+     * @param name "none", "ulp" or "eft"
+     * @return The policy with that name or NONE if the name is unknown
+     */
+    public static Rounding parse(String name) {
+        for (Rounding r : values())
+            if (r.name().equalsIgnoreCase(name))
+                return r;
+        return NONE;
+    }
+
+    /**
+     * Tells if the policy in use gives guaranteed bounds
+     * @return True if the policy is ULP or EFT
+     */
+    public static boolean isVerified() {
+        return mode != NONE;
+    }
+
+    /**
+     * Round a value computed by an elementary function to a lower bound.
+     * The functions of {@link Math} used in this project are within one ulp
+     * of the exact result.
+     * @param x The computed value
+     * @return A lower bound of the exact value
+     */
+    static double down(double x) {
+        return (mode == NONE) ? x : Math.nextDown(x);
+    }
+
+    /**
+     * Round a value computed by an elementary function to an upper bound.
+     * @param x The computed value
+     * @return An upper bound of the exact value
+     */
+    static double up(double x) {
+        return (mode == NONE) ? x : Math.nextUp(x);
+    }
+
+    /**
+     * Round a value computed by an elementary function with an error of more
+     * than one ulp to a lower bound. x - ulps*ulp(x) is exact or rounded by
+     * less than ulp(x), and the last step down covers it.
+     * @param x The computed value
+     * @param ulps Number of ulps of the error
+     * @return A lower bound of the exact value
+     */
+    static double down(double x, int ulps) {
+        if (mode == NONE)
+            return x;
+        if (Double.isInfinite(x))
+            return Math.nextDown(x);
+        return Math.nextDown(x - ulps * Math.ulp(x));
+    }
+
+    /**
+     * Round a value computed with an error of more than one ulp to an upper
+     * bound.
+     * @param x The computed value
+     * @param ulps Number of ulps of the error
+     * @return An upper bound of the exact value
+     */
+    static double up(double x, int ulps) {
+        if (mode == NONE)
+            return x;
+        if (Double.isInfinite(x))
+            return Math.nextUp(x);
+        return Math.nextUp(x + ulps * Math.ulp(x));
+    }
+
+    /**
+     * Lower bound of the square root of x. {@link Math#sqrt(double)} is
+     * correctly rounded, so EFT checks the side of the result with s*s - x.
+     * @param x Non negative value
+     * @return The square root rounded down
+     */
+    static double sqrtDown(double x) {
+        double s = Math.sqrt(x);
+        switch (mode) {
+            case NONE:
+                return s;
+            case ULP:
+                return (s > 0) ? Math.nextDown(s) : s;
+            default:
+                if (x < TINY)
+                    return (x == 0) ? s : Math.nextDown(s);
+                return (Math.fma(s, s, -x) > 0) ? Math.nextDown(s) : s;
+        }
+    }
+
+    /**
+     * Upper bound of the square root of x
+     * @param x Non negative value
+     * @return The square root rounded up
+     */
+    static double sqrtUp(double x) {
+        double s = Math.sqrt(x);
+        switch (mode) {
+            case NONE:
+                return s;
+            case ULP:
+                return Math.nextUp(s);
+            default:
+                if (x < TINY)
+                    return (x == 0) ? s : Math.nextUp(s);
+                return (Math.fma(s, s, -x) < 0) ? Math.nextUp(s) : s;
+        }
+    }
+
+    /**
+     * Lower bound of a + b
+     * @param a First operand
+     * @param b Second operand
+     * @return The sum rounded down
+     */
+    static double addDown(double a, double b) {
+        double s = a + b;
+        switch (mode) {
+            case NONE:
+                return s;
+            case ULP:
+                return Math.nextDown(s);
+            default:
+                if (s == Double.POSITIVE_INFINITY)
+                    return (a == s || b == s) ? s : Double.MAX_VALUE;
+                return (twoSumError(a, b, s) < 0) ? Math.nextDown(s) : s;
+        }
+    }
+
+    /**
+     * Upper bound of a + b
+     * @param a First operand
+     * @param b Second operand
+     * @return The sum rounded up
+     */
+    static double addUp(double a, double b) {
+        double s = a + b;
+        switch (mode) {
+            case NONE:
+                return s;
+            case ULP:
+                return Math.nextUp(s);
+            default:
+                if (s == Double.NEGATIVE_INFINITY)
+                    return (a == s || b == s) ? s : -Double.MAX_VALUE;
+                return (twoSumError(a, b, s) > 0) ? Math.nextUp(s) : s;
+        }
+    }
+
+    /**
+     * Lower bound of a * b
+     * @param a First operand
+     * @param b Second operand
+     * @return The product rounded down
+     */
+    static double mulDown(double a, double b) {
+        double p = a * b;
+        switch (mode) {
+            case NONE:
+                return p;
+            case ULP:
+                return Math.nextDown(p);
+            default:
+                if (Math.abs(p) < TINY)
+                    return (a == 0 || b == 0) ? p : Math.nextDown(p);
+                return (Math.fma(a, b, -p) < 0) ? Math.nextDown(p) : p;
+        }
+    }
+
+    /**
+     * Upper bound of a * b
+     * @param a First operand
+     * @param b Second operand
+     * @return The product rounded up
+     */
+    static double mulUp(double a, double b) {
+        double p = a * b;
+        switch (mode) {
+            case NONE:
+                return p;
+            case ULP:
+                return Math.nextUp(p);
+            default:
+                if (Math.abs(p) < TINY)
+                    return (a == 0 || b == 0) ? p : Math.nextUp(p);
+                return (Math.fma(a, b, -p) > 0) ? Math.nextUp(p) : p;
+        }
+    }
+
+    /**
+     * Lower bound of a / b
+     * @param a Dividend
+     * @param b Divisor
+     * @return The quotient rounded down
+     */
+    static double divDown(double a, double b) {
+        double q = a / b;
+        switch (mode) {
+            case NONE:
+                return q;
+            case ULP:
+                return Math.nextDown(q);
+            default:
+                if (Math.abs(a) < TINY)
+                    return (a == 0) ? q : Math.nextDown(q);
+                // a = q*b + r, so a/b = q + r/b
+                double r = Math.fma(-q, b, a);
+                return ((r < 0 && b > 0) || (r > 0 && b < 0)) ? Math.nextDown(q) : q;
+        }
+    }
+
+    /**
+     * Upper bound of a / b
+     * @param a Dividend
+     * @param b Divisor
+     * @return The quotient rounded up
+     */
+    static double divUp(double a, double b) {
+        double q = a / b;
+        switch (mode) {
+            case NONE:
+                return q;
+            case ULP:
+                return Math.nextUp(q);
+            default:
+                if (Math.abs(a) < TINY)
+                    return (a == 0) ? q : Math.nextUp(q);
+                double r = Math.fma(-q, b, a);
+                return ((r > 0 && b > 0) || (r < 0 && b < 0)) ? Math.nextUp(q) : q;
+        }
+    }
+
+    /**
+     * Error of the rounded sum s = a + b with the TwoSum algorithm
+     * @param a First operand
+     * @param b Second operand
+     * @param s The rounded sum
+     * @return The exact value of (a + b) - s
+     */
+    private static double twoSumError(double a, double b, double s) {
+        double bb = s - a;
+        return (a - (s - bb)) + (b - bb);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Node;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+
+/**
+ * The forward run of {@link AdjointTape}, which computes the functions on
+ * the bounds of its columns: it must give the same values and derivatives
+ * as {@link GradientFunctions} and must not allocate.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class AdjointTapeTest extends RoundingTestCase {
+
+    private static final int CASES = 2000;
+    private static final int FUNCTIONS = 21;
+    private static final int RUNS = 20000;
+
+    /**
+     * An interval with small bounds, where most functions are defined
+     */
+    private Interval small() {
+        double a = 4 * random.nextDouble() - 2, b = (random.nextInt(6) == 0) ? a : a + 2 * random.nextDouble();
+        return new Interval(a, b);
+    }
+
+    private Interval argument() {
+        if (random.nextBoolean())
+            return small();
+        double[] ab = IntervalPropertyTest.interval(random);
+        return new Interval(ab[0], ab[1]);
+    }
+
+    private static void assertInterval(Interval expected, double[] rinf, double[] rsup) {
+        if (expected == null)
+            return;
+        assertEquals(expected.getInf(), rinf[0], 0.0);
+        assertEquals(expected.getSup(), rsup[0], 0.0);
+    }
+
+    @Test
+    public void functionsOnTheBoundsAreTheFunctionsOnIntervals() {
+        double[] rinf = new double[1], rsup = new double[1];
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            for (int f = 0; f < FUNCTIONS; f++) {
+                for (int i = 0; i < CASES; i++) {
+                    Interval u = argument();
+                    Interval v;
+                    try {
+                        v = GradientFunctions.Value(f, u);
+                    } catch (ArithmeticException ex) {
+                        v = null;
+                    }
+                    try {
+                        GradientFunctions.ValueInto(f, u.getInf(), u.getSup(), rinf, rsup, 0);
+                        assertTrue(v != null);
+                    } catch (ArithmeticException ex) {
+                        assertTrue(v == null);
+                        continue;
+                    }
+                    assertInterval(v, rinf, rsup);
+                    GradientFunctions.DerivativeInto(f, u.getInf(), u.getSup(), v.getInf(), v.getSup(), rinf, rsup, 0);
+                    assertInterval(GradientFunctions.Derivative(f, u, v), rinf, rsup);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void powersOnTheBoundsAreThePowersOnIntervals() {
+        double[] rinf = new double[1], rsup = new double[1];
+        double[] exponents = {0, 1, 2, 3, -1, -2, 0.5, 1.0 / 3, -2.0 / 3, 2.5, 1.5, -0.5};
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            for (int i = 0; i < CASES; i++) {
+                Interval u = argument();
+                double y = exponents[random.nextInt(exponents.length)];
+                Interval v;
+                try {
+                    v = InterFunctions.IPowerR(u, y);
+                } catch (ArithmeticException ex) {
+                    v = null;
+                }
+                try {
+                    InterFunctions.IPowerRInto(u.getInf(), u.getSup(), y, rinf, rsup, 0);
+                    assertTrue(v != null);
+                    assertInterval(v, rinf, rsup);
+                } catch (ArithmeticException ex) {
+                    assertTrue(v == null);
+                }
+                GradientFunctions.PowerRDerivativeInto(u.getInf(), u.getSup(), y, rinf, rsup, 0);
+                assertInterval(GradientFunctions.PowerRDerivative(u, y), rinf, rsup);
+
+                Interval w = (random.nextInt(4) == 0) ? new Interval(y) : new Interval(y, y + random.nextDouble());
+                try {
+                    v = InterFunctions.IPowerI(u, w);
+                } catch (ArithmeticException ex) {
+                    v = null;
+                }
+                try {
+                    InterFunctions.IPowerIInto(u.getInf(), u.getSup(), w.getInf(), w.getSup(), rinf, rsup, 0);
+                    assertTrue(v != null);
+                    assertInterval(v, rinf, rsup);
+                } catch (ArithmeticException ex) {
+                    assertTrue(v == null);
+                    continue;
+                }
+                GradientFunctions.PowerIBaseInto(u.getInf(), u.getSup(), w.getInf(), w.getSup(), rinf, rsup, 0);
+                assertInterval(GradientFunctions.PowerIBase(u, w), rinf, rsup);
+                GradientFunctions.PowerIExponentInto(u.getInf(), u.getSup(), v.getInf(), v.getSup(), rinf, rsup, 0);
+                assertInterval(GradientFunctions.PowerIExponent(u, v), rinf, rsup);
+            }
+        }
+    }
+
+    /**
+     * Sin(x)*Exp(y) + x^2.5/Sqrt(y) + x^y
+     */
+    private static Node expression(Engine e) {
+        Node x = e.makeSym("x"), y = e.makeSym("y");
+        return e.new BinOp("+", e.new BinOp("+",
+                e.new BinOp("*", e.new IntervalFunc("Sin", x), e.new IntervalFunc("Exp", y)),
+                e.new BinOp("/", e.new BinOp("^", x, e.new Num(2.5)), e.new IntervalFunc("Sqrt", y))),
+                e.new BinOp("^", x, y));
+    }
+
+    /**
+     * Bytes allocated by the current thread, or -1 if it is not measured
+     */
+    private static long allocated() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void assertNoAllocation(Runnable run) {
+        for (int i = 0; i < RUNS; i++)
+            run.run();
+        long before = allocated();
+        for (int i = 0; i < RUNS; i++)
+            run.run();
+        long after = allocated();
+        // a few bytes may come from the measure itself, not one per run
+        if (before >= 0)
+            assertTrue(after - before < RUNS);
+    }
+
+    @Test
+    public void forwardDoesNotAllocate() throws SemanticError {
+        Engine e = new Engine();
+        AdjointTape tape = e.recordAdjoint(expression(e), "x", "y");
+        double[] xinf = {0.5, 1.0}, xsup = {0.75, 2.0};
+        assertNoAllocation(() -> tape.forward(xinf, xsup));
+    }
+
+    @Test
+    public void programDoesNotAllocate() throws SemanticError {
+        Engine e = new Engine();
+        e.push("x", e.new Inter(0.5, 0.75));
+        e.push("y", e.new Inter(1.0, 2.0));
+        RegisterProgram program = RegisterProgram.lower(e, expression(e));
+        assertNoAllocation(() -> {
+            try {
+                program.run();
+            } catch (SemanticError ex) {
+                throw new AssertionError(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Min-range approximations of {@link AffineFunctions}, which must enclose
+ * the function when the argument contains a pole.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class AffineFormTest {
+
+    private static AffineForm form(double a, double b) {
+        return AffineForm.of(new Interval(a, b));
+    }
+
+    private static boolean isEntire(Interval r) {
+        return r.getInf() == Double.NEGATIVE_INFINITY && r.getSup() == Double.POSITIVE_INFINITY;
+    }
+
+    @Test
+    public void tanAcrossAPoleIsUnbounded() {
+        assertTrue(isEntire(AffineFunctions.Tan(form(1.0, 1.5 + Math.PI)).toInterval()));
+        assertTrue(isEntire(AffineFunctions.Tan(form(1.0, 2.0)).toInterval()));
+    }
+
+    @Test
+    public void cotAcrossAPoleIsUnbounded() {
+        assertTrue(isEntire(AffineFunctions.Cot(form(0.5, 1.0 + Math.PI)).toInterval()));
+        assertTrue(isEntire(AffineFunctions.Cot(form(-0.5, 0.5)).toInterval()));
+    }
+
+    @Test
+    public void tanWithoutAPoleEnclosesTheRange() {
+        Interval r = AffineFunctions.Tan(form(0.1, 1.0)).toInterval();
+        for (int i = 0; i <= 100; i++) {
+            double t = Math.tan(0.1 + 0.009 * i);
+            assertTrue(r.getInf() <= t && t <= r.getSup());
+        }
+        assertEquals(Math.tan(1.0) - Math.tan(0.1), r.width(), 0.5);
+    }
+}
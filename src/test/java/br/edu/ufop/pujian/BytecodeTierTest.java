@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Code of {@link BytecodeTier} against {@link Engine.Node#eval()}. The
+ * threshold is zero, so the body is compiled on the first call.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class BytecodeTierTest {
+
+    private int threshold;
+    private Engine e;
+    private Sym x, y;
+
+    @Before
+    public void setUp() {
+        threshold = BytecodeTier.getThreshold();
+        BytecodeTier.setThreshold(0);
+        e = new Engine();
+        x = (Sym) e.makeSym("x");
+        y = (Sym) e.makeSym("y");
+        e.push("x", e.new Num(0));
+        e.push("y", e.new Num(0));
+    }
+
+    @After
+    public void tearDown() {
+        BytecodeTier.setThreshold(threshold);
+    }
+
+    /**
+     * Values of x and y for a mask of types, bit 0 for x and bit 1 for y
+     */
+    private void inputs(int mask) {
+        e.context.set(x, ((mask & 1) != 0) ? e.new Inter(1.0, 3.0) : e.new Num(2.5));
+        e.context.set(y, ((mask & 2) != 0) ? e.new Inter(0.5, 2.0) : e.new Num(-1.5));
+    }
+
+    private static String interpret(Node node) {
+        try {
+            return node.eval().toString();
+        } catch (SemanticError | RuntimeException ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    /**
+     * Run a new tier of the expression once
+     * @return The result, or null if it is left to the interpreter
+     */
+    private String compiled(Node node) {
+        try {
+            Node r = new BytecodeTier(e, null, node, new Node[0]).call(new Node[0]);
+            return (r == null) ? null : r.toString();
+        } catch (RuntimeException ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    /**
+     * Check the tier against the interpreter
+     * @return True if the tier ran the expression
+     */
+    private boolean check(Node node) {
+        String r = compiled(node);
+        if (r == null)
+            return false;
+        assertEquals(node.toString(), interpret(node), r);
+        return true;
+    }
+
+    @Test
+    public void operatorsOnEveryCombinationOfTypes() {
+        String[] always = {"+", "-", "*", "/", "^"};
+        String[] numbers = {"%", "==", "!=", "<=", "<", ">=", ">"};
+        for (int mask = 0; mask < 4; mask++) {
+            inputs(mask);
+            for (String op : always)
+                assertTrue(op + " " + mask, check(e.new BinOp(op, x, y)));
+            for (String op : numbers)
+                assertEquals(op + " " + mask, mask == 0, check(e.new BinOp(op, x, y)));
+            assertEquals("& " + mask, mask != 0, check(e.new BinOp("&", x, y)));
+            assertTrue(check(e.new UnaryOp("-", e.new BinOp("*", x, y))));
+            assertTrue(check(e.new BinOp("+", e.new Num(1), e.new BinOp("*", e.new Inter(-1.0, 2.0), x))));
+        }
+    }
+
+    @Test
+    public void functionsOfIntervals() {
+        String[] names = {"Cos", "Sin", "Tan", "Cot", "ASin", "ACos", "ATan", "Sinh", "Cosh", "Tanh", "Coth",
+            "ASinh", "ACosh", "ATanh", "IAbs", "ISqr", "Sqrt", "Cbrt", "Log", "Log10", "Exp"};
+        double[][] arguments = {{0.5, 0.75}, {-0.25, 0.5}, {1.5, 4.0}};
+        for (double[] a : arguments) {
+            e.context.set(x, e.new Inter(a[0], a[1]));
+            for (String name : names)
+                assertTrue(name, check(e.new IntervalFunc(name, x)));
+        }
+        // the interpreter does not take a number
+        e.context.set(x, e.new Num(0.5));
+        assertNull(compiled(e.new IntervalFunc("Sin", x)));
+    }
+
+    @Test
+    public void branchesOnNumbers() {
+        Node node = e.new Branch(e.new BinOp("<", x, y), e.new BinOp("*", x, y), e.new BinOp("-", x, y));
+        e.context.set(x, e.new Num(1.0));
+        for (double v : new double[]{0.0, 2.0}) {
+            e.context.set(y, e.new Num(v));
+            assertTrue(check(node));
+        }
+    }
+
+    /**
+     * fun p(n, z) is if n < 1 then z else p(n - 1, z*z/4 + 1) end, called
+     * with a number or an interval z
+     */
+    @Test
+    public void recursionThroughTheFunctionItself() throws SemanticError {
+        Sym p = (Sym) e.makeSym("p"), n = (Sym) e.makeSym("n"), z = (Sym) e.makeSym("z");
+        Node recursion = e.new Composite(p, new Node[]{e.new BinOp("-", n, e.new Num(1)),
+            e.new BinOp("+", e.new BinOp("/", e.new BinOp("*", z, z), e.new Num(4)), e.new Num(1))});
+        Func func = e.new Func(p, new Node[]{n, z}, e.new Branch(e.new BinOp("<", n, e.new Num(1)), z, recursion));
+        func.eval();
+        for (Node arg : new Node[]{e.new Num(0.5), e.new Inter(0.25, 1.5)}) {
+            Node call = e.new Composite(p, new Node[]{e.new Num(20), arg});
+            BytecodeTier.setThreshold(Integer.MAX_VALUE);
+            String expected = call.eval().toString();
+            BytecodeTier.setThreshold(0);
+            assertNotNull(func.tier().call(new Node[]{e.new Num(20), arg}));
+            assertEquals(expected, call.eval().toString());
+        }
+    }
+
+    @Test
+    public void divisorWithZeroIsLeftToTheInterpreter() {
+        e.context.set(x, e.new Inter(1.0, 2.0));
+        e.context.set(y, e.new Inter(-1.0, 1.0));
+        BytecodeTier tier = new BytecodeTier(e, null, e.new BinOp("/", x, y), new Node[0]);
+        assertNull(tier.call(new Node[0]));
+        // the types failed, even for a divisor without zero
+        e.context.set(y, e.new Inter(1.0, 2.0));
+        assertNull(tier.call(new Node[0]));
+        // other types are compiled
+        e.context.set(y, e.new Num(2.0));
+        assertEquals("[0.5,1.0]", tier.call(new Node[0]).toString());
+    }
+
+    @Test
+    public void unionIsLeftToTheInterpreter() {
+        e.context.set(x, e.new Union(new IntervalUnion(new Interval(1.0, 2.0))));
+        e.context.set(y, e.new Num(1.0));
+        assertNull(compiled(e.new BinOp("+", x, y)));
+    }
+}
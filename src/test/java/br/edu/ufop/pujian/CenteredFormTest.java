@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import org.junit.Test;
+
+/**
+ * The enclosures of {@link CenteredForm}: the result is contained in the
+ * natural extension, which is the normal evaluation of the expression, and
+ * it encloses the values of the expression at the points of the box.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class CenteredFormTest extends RoundingTestCase {
+
+    private static final int CASES = 500;
+    private static final int POINTS = 20;
+
+    /**
+     * Sin(x)*Exp(y) + x^2.5/Sqrt(y) - x*y, which is defined for positive x
+     * and y
+     */
+    private static Node expression(Engine e) {
+        Node x = e.makeSym("x"), y = e.makeSym("y");
+        return e.new BinOp("-", e.new BinOp("+",
+                e.new BinOp("*", e.new IntervalFunc("Sin", x), e.new IntervalFunc("Exp", y)),
+                e.new BinOp("/", e.new BinOp("^", x, e.new Num(2.5)), e.new IntervalFunc("Sqrt", y))),
+                e.new BinOp("*", x, y));
+    }
+
+    private static Interval natural(Engine e, Node node, double[] xinf, double[] xsup) throws SemanticError {
+        e.context.set((Sym) e.makeSym("x"), e.new Inter(xinf[0], xsup[0]));
+        e.context.set((Sym) e.makeSym("y"), e.new Inter(xinf[1], xsup[1]));
+        return ((Inter) node.eval()).val;
+    }
+
+    private static void assertContains(Interval outer, Interval inner) {
+        assertTrue(outer + " does not contain " + inner,
+                outer.getInf() <= inner.getInf() && inner.getSup() <= outer.getSup());
+    }
+
+    @Test
+    public void resultIsContainedInTheNaturalExtension() throws SemanticError {
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            Engine e = new Engine();
+            Node node = expression(e);
+            CenteredForm form = new CenteredForm(e.recordAdjoint(node, "x", "y"));
+            for (int i = 0; i < CASES; i++) {
+                double w = Math.pow(10, -4 * random.nextDouble());
+                double[] xinf = {0.1 + 2 * random.nextDouble(), 0.1 + 2 * random.nextDouble()};
+                double[] xsup = {xinf[0] + w * random.nextDouble(), xinf[1] + w * random.nextDouble()};
+                Interval c = form.evaluate(xinf, xsup);
+                Interval n = natural(e, node, xinf, xsup);
+                assertContains(n, c);
+                assertContains(form.getNaive(), c);
+                assertContains(form.getCentered(), c);
+                // the value at each point of the box is in the result
+                for (int k = 0; k < POINTS; k++) {
+                    double px = (k < 4) ? ((k & 1) == 0 ? xinf[0] : xsup[0]) : xinf[0] + (xsup[0] - xinf[0]) * random.nextDouble();
+                    double py = (k < 4) ? ((k & 2) == 0 ? xinf[1] : xsup[1]) : xinf[1] + (xsup[1] - xinf[1]) * random.nextDouble();
+                    Interval p = natural(e, node, new double[] {px, py}, new double[] {px, py});
+                    assertTrue(c + " does not meet " + p, c.getInf() <= p.getSup() && p.getInf() <= c.getSup());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void narrowBoxesUseTheCenteredForm() throws SemanticError {
+        Engine e = new Engine();
+        Node node = expression(e);
+        CenteredForm form = new CenteredForm(e.recordAdjoint(node, "x", "y"));
+        double[] xinf = {1.0, 1.0}, xsup = {1.001, 1.001};
+        Interval c = form.evaluate(xinf, xsup);
+        assertTrue(form.isCentered());
+        Interval n = natural(e, node, xinf, xsup);
+        assertTrue(c.getSup() - c.getInf() < n.getSup() - n.getInf());
+    }
+
+    @Test
+    public void dependencyIsRemoved() throws SemanticError {
+        Engine e = new Engine();
+        Node x = e.makeSym("x");
+        CenteredForm form = new CenteredForm(e.recordAdjoint(e.new BinOp("-", x, x), "x"));
+        Interval c = form.evaluate(new double[] {1.0}, new double[] {2.0});
+        assertEquals(0.0, c.getInf(), 0.0);
+        assertEquals(0.0, c.getSup(), 0.0);
+        assertEquals(-1.0, form.getNaive().getInf(), 0.0);
+        assertEquals(1.0, form.getNaive().getSup(), 0.0);
+    }
+
+    @Test
+    public void unboundedBoxGivesTheNaturalExtension() throws SemanticError {
+        Engine e = new Engine();
+        Node node = e.new IntervalFunc("Exp", e.new BinOp("-", e.makeSym("x"), e.makeSym("y")));
+        CenteredForm form = new CenteredForm(e.recordAdjoint(node, "x", "y"));
+        double[] xinf = {1.0, 0.0}, xsup = {2.0, Double.POSITIVE_INFINITY};
+        Interval c = form.evaluate(xinf, xsup);
+        assertFalse(form.isCentered());
+        Interval n = natural(e, node, xinf, xsup);
+        assertEquals(n.getInf(), c.getInf(), 0.0);
+        assertEquals(n.getSup(), c.getSup(), 0.0);
+    }
+}
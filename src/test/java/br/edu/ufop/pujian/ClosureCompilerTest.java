@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Closures of {@link ClosureCompiler} against {@link Engine.Node#eval()},
+ * with results refined by the precision threshold and variables that change
+ * between numbers and intervals from one run to the next.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class ClosureCompilerTest {
+
+    private static final String[] VARIABLES = {"x", "y", "z"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/"};
+    private static final String[] FUNCTIONS = {"Sin", "Exp", "ISqr", "Sqrt"};
+
+    /**
+     * A random expression, the same for the same seed
+     */
+    private static Node tree(Engine e, Random random, int depth) {
+        int k = random.nextInt(depth > 0 ? 6 : 2);
+        if (k == 0)
+            return e.makeSym(VARIABLES[random.nextInt(VARIABLES.length)]);
+        if (k == 1)
+            return e.new Num(random.nextInt(7) - 3);
+        if (k == 2)
+            return e.new IntervalFunc(FUNCTIONS[random.nextInt(FUNCTIONS.length)], tree(e, random, depth - 1));
+        return e.new BinOp(OPERATORS[random.nextInt(OPERATORS.length)], tree(e, random, depth - 1),
+                tree(e, random, depth - 1));
+    }
+
+    private static Node value(Engine e, Random random) {
+        if (random.nextBoolean())
+            return e.new Num(random.nextInt(9) - 4);
+        double a = 4 * random.nextDouble() - 2;
+        return e.new Inter(a, a + 2 * random.nextDouble());
+    }
+
+    private static String run(ClosureCompiler.Code code) {
+        try {
+            return code.run().toString();
+        } catch (Exception ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    private static String eval(Node node) {
+        try {
+            return node.eval().toString();
+        } catch (Exception ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    private static void compare(double threshold, long seed) {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(threshold);
+        for (String v : VARIABLES)
+            e.push(v, e.new Num(0));
+        Random values = new Random(seed);
+        for (int t = 0; t < 500; t++) {
+            // the same tree twice, so each one keeps its own refined values
+            Node source = tree(e, new Random(seed + t), 4), node = tree(e, new Random(seed + t), 4);
+            ClosureCompiler.Code code = new ClosureCompiler(e).compile(source);
+            for (int r = 0; r < 10; r++) {
+                for (String v : VARIABLES)
+                    e.context.set((Sym) e.makeSym(v), value(e, values));
+                assertEquals(node.toString(), eval(node), run(code));
+            }
+        }
+    }
+
+    @Test
+    public void closuresGiveTheResultsOfTheInterpreter() {
+        compare(Double.POSITIVE_INFINITY, 1);
+    }
+
+    @Test
+    public void refinedClosuresGiveTheResultsOfTheInterpreter() {
+        compare(1.0, 2);
+        compare(0.5, 3);
+        compare(0.0, 4);
+    }
+
+    @Test
+    public void numbersClearTheRefinedValue() throws SemanticError {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(0.5);
+        Node x = e.makeSym("x"), y = e.makeSym("y");
+        e.push("x", e.new Inter(1, 2));
+        e.push("y", e.new Inter(0, 1));
+        Node node = e.new BinOp("+", e.new BinOp("*", x, x), y);
+        ClosureCompiler.Code code = new ClosureCompiler(e).compile(node);
+        assertEquals("[1.0,5.0]", code.run().toString());
+        e.context.set((Sym) x, e.new Num(3));
+        assertEquals("[9.0,10.0]", code.run().toString());
+    }
+}
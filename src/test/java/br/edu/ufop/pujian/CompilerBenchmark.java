@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import br.edu.ufop.pujian.Engine.Node;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Comparison of the repeated evaluation of an expression by the interpreter,
+ * {@link Engine.Node#eval()}, and by its compiled node, see
+ * {@link Engine#compile(Engine.Node)}. The expression is
+ * (x*x - 2*x + 1)/(x + 3) for a number x, and
+ * (x*x - 2*x + 1)/(x + 3) + Sin(x)*Exp(x) for an interval x.
+ *
+ * Run it with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main CompilerBenchmark"}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilerBenchmark {
+
+    /**
+     * Type of the variable x: number or interval
+     */
+    @Param({"number", "interval"})
+    public String type;
+
+    private Node expression, compiled;
+
+    @Setup
+    public void setUp() {
+        Engine e = new Engine();
+        boolean interval = "interval".equals(type);
+        e.push("x", interval ? e.new Inter(0.5, 0.75) : e.new Num(0.5));
+        Node x = e.makeSym("x");
+        Node p = e.new BinOp("-", e.new BinOp("*", x, x), e.new BinOp("*", e.new Num(2), x));
+        expression = e.new BinOp("/", e.new BinOp("+", p, e.new Num(1)), e.new BinOp("+", x, e.new Num(3)));
+        if (interval)
+            expression = e.new BinOp("+", expression,
+                    e.new BinOp("*", e.new IntervalFunc("Sin", x), e.new IntervalFunc("Exp", x)));
+        compiled = e.compile(expression);
+    }
+
+    @Benchmark
+    public void eval(Blackhole bh) throws SemanticError {
+        bh.consume(expression.eval());
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) throws SemanticError {
+        bh.consume(compiled.eval());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import org.junit.Test;
+
+/**
+ * Decorations given by {@link DecoratedEvaluator} and
+ * {@link DecoratedFunctions} on Log and Sqrt, whose arguments may be partly
+ * outside their domain.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class DecoratedEvaluatorTest {
+
+    private static final double PInf = Double.POSITIVE_INFINITY;
+
+    private static final Decoration[] DECORATIONS = {
+        Decoration.COM, Decoration.DAC, Decoration.DEF, Decoration.TRV
+    };
+
+    private final Engine e = new Engine();
+
+    private DecoratedInterval eval(String head, double a, double b) {
+        return e.evalDecorated(e.new IntervalFunc(head, e.new Inter(a, b)));
+    }
+
+    private static void assertDecorated(DecoratedInterval r, double inf, double sup, Decoration d) {
+        assertEquals(inf, r.getInf(), 0.0);
+        assertEquals(sup, r.getSup(), 0.0);
+        assertEquals(d, r.getDecoration());
+    }
+
+    @Test
+    public void insideTheDomainIsCom() {
+        assertDecorated(eval("Sqrt", 1.0, 4.0), 1.0, 2.0, Decoration.COM);
+        Interval log = InterFunctions.Log(new Interval(1.0, 2.0));
+        assertDecorated(eval("Log", 1.0, 2.0), log.getInf(), log.getSup(), Decoration.COM);
+        Node x = e.makeSym("x");
+        e.context.set((Sym) x, e.new Inter(4.0, 9.0));
+        Node node = e.new IntervalFunc("Log", e.new IntervalFunc("Sqrt", x));
+        assertEquals(Decoration.COM, e.evalDecorated(node).getDecoration());
+    }
+
+    @Test
+    public void unboundedResultIsDac() {
+        // the argument is bounded and Exp overflows
+        DecoratedInterval r = e.evalDecorated(e.new IntervalFunc("Exp", e.new Inter(700.0, 710.0)));
+        assertEquals(PInf, r.getSup(), 0.0);
+        assertEquals(Decoration.DAC, r.getDecoration());
+        // DAC goes through Log and Sqrt inside their domain
+        Node node = e.new IntervalFunc("Sqrt", e.new IntervalFunc("Log", e.new IntervalFunc("Exp", e.new Inter(700.0, 710.0))));
+        r = e.evalDecorated(node);
+        assertEquals(PInf, r.getSup(), 0.0);
+        assertEquals(Decoration.DAC, r.getDecoration());
+        assertDecorated(eval("Sqrt", 0.0, PInf), 0.0, PInf, Decoration.DAC);
+    }
+
+    @Test
+    public void partlyOutsideTheDomainIsTrv() {
+        assertDecorated(eval("Sqrt", -1.0, 4.0), 0.0, 2.0, Decoration.TRV);
+        assertDecorated(eval("Log", 0.0, 1.0), Double.NEGATIVE_INFINITY, 0.0, Decoration.TRV);
+        assertDecorated(eval("Log", -1.0, 1.0), Double.NEGATIVE_INFINITY, 0.0, Decoration.TRV);
+        // the root of [-1,4] is [0,2], which reaches the pole of Log
+        Node node = e.new IntervalFunc("Log", e.new IntervalFunc("Sqrt", e.new Inter(-1.0, 4.0)));
+        DecoratedInterval r = e.evalDecorated(node);
+        assertEquals(Double.NEGATIVE_INFINITY, r.getInf(), 0.0);
+        assertEquals(Decoration.TRV, r.getDecoration());
+        // a TRV operand makes the whole expression TRV
+        node = e.new BinOp("+", e.new IntervalFunc("Sqrt", e.new Inter(-1.0, 4.0)), e.new IntervalFunc("Log", e.new Inter(1.0, 2.0)));
+        assertEquals(Decoration.TRV, e.evalDecorated(node).getDecoration());
+    }
+
+    @Test
+    public void outsideTheDomainIsEmpty() {
+        assertTrue(eval("Sqrt", -2.0, -1.0).isEmpty());
+        assertTrue(eval("Log", -2.0, 0.0).isEmpty());
+        Node node = e.new IntervalFunc("Sqrt", e.new IntervalFunc("Log", e.new Inter(-2.0, -1.0)));
+        DecoratedInterval r = e.evalDecorated(node);
+        assertTrue(r.isEmpty());
+        assertEquals(Decoration.TRV, r.getDecoration());
+    }
+
+    @Test
+    public void decorationsOnlyGetWorse() {
+        // COM, DAC and DEF are kept inside the domain and all become TRV
+        // when the argument leaves it
+        double[][] inside = {{1.0, 4.0}, {0.5, 0.5}, {1.0, PInf}};
+        double[][] partly = {{-1.0, 4.0}, {-Double.MIN_VALUE, 1.0}, {Double.NEGATIVE_INFINITY, 2.0}};
+        for (Decoration d : DECORATIONS) {
+            for (double[] x : inside) {
+                DecoratedInterval a = new DecoratedInterval(new Interval(x[0], x[1]), d);
+                assertEquals(a.getDecoration(), DecoratedFunctions.Sqrt(a).getDecoration());
+                assertEquals(a.getDecoration(), DecoratedFunctions.Log(a).getDecoration());
+            }
+            for (double[] x : partly) {
+                DecoratedInterval a = new DecoratedInterval(new Interval(x[0], x[1]), d);
+                assertEquals(Decoration.TRV, DecoratedFunctions.Sqrt(a).getDecoration());
+                assertEquals(Decoration.TRV, DecoratedFunctions.Log(a).getDecoration());
+            }
+        }
+        // the worst decoration of the operands is taken
+        DecoratedInterval def = DecoratedFunctions.Log(new DecoratedInterval(new Interval(1.0, 2.0), Decoration.DEF));
+        DecoratedInterval dac = DecoratedFunctions.Sqrt(new DecoratedInterval(new Interval(1.0, PInf)));
+        DecoratedInterval com = DecoratedFunctions.Sqrt(new DecoratedInterval(new Interval(1.0, 4.0)));
+        DecoratedInterval trv = DecoratedFunctions.Sqrt(new DecoratedInterval(new Interval(-1.0, 4.0)));
+        assertEquals(Decoration.COM, com.getDecoration());
+        assertEquals(Decoration.DAC, com.add(dac).getDecoration());
+        assertEquals(Decoration.DEF, com.add(dac).mult(def).getDecoration());
+        assertEquals(Decoration.TRV, com.add(dac).mult(def).sub(trv).getDecoration());
+    }
+
+    @Test
+    public void naiIsKept() {
+        // an undefined variable has no value
+        Node node = e.new IntervalFunc("Log", e.new IntervalFunc("Sqrt", e.makeSym("undefined")));
+        assertTrue(e.evalDecorated(node).isNaI());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import org.junit.Test;
+
+/**
+ * Refinement of interval results with {@link DDEvaluator}, which reuses the
+ * values of the children refined before their parent.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class EngineRefineTest {
+
+    private static final int DEPTH = 200;
+
+    /**
+     * Sin(Sin(...Sin(x) + x...) + x) + x
+     */
+    private static Node chain(Engine e) {
+        Node x = e.makeSym("x");
+        Node node = x;
+        for (int i = 0; i < DEPTH; i++)
+            node = e.new BinOp("+", e.new IntervalFunc("Sin", node), x);
+        return node;
+    }
+
+    private static void check(Engine e, double a, double b) throws SemanticError {
+        e.context.set((Engine.Sym) e.makeSym("x"), e.new Inter(a, b));
+        Node root = chain(e);
+        Interval r = ((Inter) root.eval()).val;
+        // a tree that was never refined is evaluated from the leaves
+        Interval dd = new DDEvaluator(e).eval(chain(e)).toInterval();
+        Interval memo = root.refined.toInterval();
+        assertEquals(dd.getInf(), memo.getInf(), 0.0);
+        assertEquals(dd.getSup(), memo.getSup(), 0.0);
+        assertTrue(dd.getInf() <= r.getInf() && r.getSup() <= dd.getSup());
+    }
+
+    @Test
+    public void refinedChildrenGiveTheSameValueAsTheWholeTree() throws SemanticError {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(0.0);
+        check(e, 0.5, 0.75);
+    }
+
+    @Test
+    public void storedValuesFollowTheVariables() throws SemanticError {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(0.0);
+        Node x = e.makeSym("x");
+        Node node = e.new BinOp("*", e.new IntervalFunc("Exp", x), x);
+        e.context.set((Engine.Sym) x, e.new Inter(1.0, 2.0));
+        node.eval();
+        e.context.set((Engine.Sym) x, e.new Inter(3.0, 4.0));
+        Interval r = ((Inter) node.eval()).val;
+        assertTrue(r.getInf() >= 3 * Math.exp(3.0) * (1 - 1e-15));
+        assertTrue(r.getSup() <= 4 * Math.exp(4.0) * (1 + 1e-15));
+        check(e, -1.0, 1.0);
+    }
+
+    @Test
+    public void valuesThatAreNotRefinedClearTheStoredOne() throws SemanticError {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(0.5);
+        Node x = e.makeSym("x");
+        e.push("x", e.new Inter(1.0, 2.0));
+        e.push("y", e.new Inter(0.0, 1.0));
+        Node square = e.new BinOp("*", x, x);
+        Node node = e.new BinOp("+", square, e.makeSym("y"));
+        node.eval();
+        assertNotNull(square.refined);
+        // a number is not refined
+        e.context.set((Engine.Sym) x, e.new Num(3));
+        assertEquals("[9.0,10.0]", node.eval().toString());
+        assertNull(square.refined);
+        // neither is a function of a union
+        e.setPrecisionThreshold(0.0);
+        Node sin = e.new IntervalFunc("Sin", e.new BinOp("/", e.new Num(1), x));
+        e.context.set((Engine.Sym) x, e.new Inter(1.0, 2.0));
+        e.new BinOp("+", sin, e.makeSym("y")).eval();
+        assertNotNull(sin.refined);
+        e.context.set((Engine.Sym) x, e.new Inter(-1.0, 1.0));
+        sin.eval();
+        assertNull(sin.refined);
+    }
+
+    @Test
+    public void disjointValuesGiveTheirHull() throws SemanticError {
+        Engine e = new Engine();
+        e.setPrecisionThreshold(0.0);
+        e.push("x", e.new Inter(1.0, 2.0));
+        Node node = e.new BinOp("+", e.makeSym("x"), e.new Num(1));
+        // a double result that disagrees with the double-double one
+        Interval r = ((Inter) e.refine(node, e.new Inter(100.0, 101.0))).val;
+        assertTrue(r.getInf() <= 2.0 && r.getInf() > 1.99);
+        assertEquals(101.0, r.getSup(), 0.0);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Union;
+import org.junit.Test;
+
+/**
+ * Operations of numbers with the unions given by a division by an interval
+ * with zero.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class EngineUnionTest {
+
+    private final Engine e = new Engine();
+
+    /**
+     * 1/[-1,1], that is [-inf,-1] and [1,inf]
+     */
+    private Node reciprocal() throws SemanticError {
+        Node u = e.new Num(1.0).doBinOp("/", e.new Inter(-1.0, 1.0));
+        assertTrue(u instanceof Union);
+        return u;
+    }
+
+    private static void assertPiece(IntervalUnion u, int i, double inf, double sup) {
+        assertEquals(inf, u.get(i).getInf(), 0.0);
+        assertEquals(sup, u.get(i).getSup(), 0.0);
+    }
+
+    @Test
+    public void numberTimesUnion() throws SemanticError {
+        Node r = e.new Num(2.0).doBinOp("*", reciprocal());
+        IntervalUnion u = ((Union) r).val;
+        assertEquals(2, u.size());
+        assertPiece(u, 0, Double.NEGATIVE_INFINITY, -2.0);
+        assertPiece(u, 1, 2.0, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void numberOverUnion() throws SemanticError {
+        // the pieces [-1,0] and [0,1] touch, so the result is one interval
+        Node r = e.new Num(1.0).doBinOp("/", reciprocal());
+        Interval a = ((Inter) r).val;
+        assertEquals(-1.0, a.getInf(), 0.0);
+        assertEquals(1.0, a.getSup(), 0.0);
+    }
+
+    @Test
+    public void numberPlusUnion() throws SemanticError {
+        Node r = e.new Num(1.0).doBinOp(Opcode.ADD, reciprocal());
+        IntervalUnion u = ((Union) r).val;
+        assertPiece(u, 0, Double.NEGATIVE_INFINITY, 0.0);
+        assertPiece(u, 1, 2.0, Double.POSITIVE_INFINITY);
+    }
+}
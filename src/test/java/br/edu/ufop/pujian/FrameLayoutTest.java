@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import br.edu.ufop.pujian.Engine.Context;
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Frames of the calls of functions defined by fun, see {@link FrameLayout},
+ * with the interpreter and with {@link Engine#compile(Engine.Node)}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class FrameLayoutTest {
+
+    private int threshold;
+    private Engine e;
+
+    @Before
+    public void setUp() {
+        // the frames are made by the interpreter and the closures only
+        threshold = BytecodeTier.getThreshold();
+        BytecodeTier.setThreshold(Integer.MAX_VALUE);
+        e = new Engine();
+    }
+
+    @After
+    public void tearDown() {
+        BytecodeTier.setThreshold(threshold);
+    }
+
+    private Sym sym(String name) {
+        return (Sym) e.makeSym(name);
+    }
+
+    private Func fun(String name, Node body, String... args) throws SemanticError {
+        Node[] syms = new Node[args.length];
+        for (int i = 0; i < args.length; i++)
+            syms[i] = sym(args[i]);
+        Func func = e.new Func(sym(name), syms, body);
+        func.eval();
+        return func;
+    }
+
+    private Node call(String name, Node... args) {
+        return e.new Composite(sym(name), args);
+    }
+
+    /**
+     * Evaluate a node with the interpreter and compiled
+     */
+    private void assertValue(String expected, Node node) throws SemanticError {
+        assertEquals(expected, node.eval().toString());
+        assertEquals(expected, e.compile(node).eval().toString());
+    }
+
+    @Test
+    public void recursiveCallsHaveTheirOwnFrames() throws SemanticError {
+        Node n = sym("n");
+        // fib(n) is if n < 2 then n else fib(n - 1) + fib(n - 2) end
+        fun("fib", e.new Branch(e.new BinOp("<", n, e.new Num(2)), n,
+                e.new BinOp("+", call("fib", e.new BinOp("-", n, e.new Num(1))),
+                        call("fib", e.new BinOp("-", n, e.new Num(2))))), "n");
+        assertValue("610.0", call("fib", e.new Num(15)));
+    }
+
+    @Test
+    public void framesAreReused() throws SemanticError {
+        Func func = fun("f", sym("a"), "a");
+        FrameLayout layout = func.layout();
+        Context first = layout.acquire(e, e.context), second = layout.acquire(e, e.context);
+        assertNotSame(first, second);
+        layout.release(second);
+        Context again = layout.acquire(e, e.context);
+        assertSame(second, again);
+        assertSame(e.context, again.parent);
+    }
+
+    @Test
+    public void argumentAssignedInTheBody() throws SemanticError {
+        Node a = sym("a");
+        e.push("a", e.new Num(100));
+        // f(a) is a = a + 1; a * 2 end
+        fun("f", e.new BinOp(";", e.new BinOp("=", a, e.new BinOp("+", a, e.new Num(1))),
+                e.new BinOp("*", a, e.new Num(2))), "a");
+        assertValue("8.0", call("f", e.new Num(3)));
+        assertValue("202.0", call("f", a));
+        // the variable of the caller is not changed
+        assertEquals("100.0", e.context.get(sym("a")).toString());
+    }
+
+    @Test
+    public void variablesOfTheCaller() throws SemanticError {
+        e.push("k", e.new Num(10));
+        // g(a) is a + k end, where k is not in the frame of g
+        fun("g", e.new BinOp("+", sym("a"), sym("k")), "a");
+        assertValue("11.0", call("g", e.new Num(1)));
+        // h(k) is g(1) end, so g reads the k of the frame of h
+        fun("h", call("g", e.new Num(1)), "k");
+        assertValue("6.0", call("h", e.new Num(5)));
+        assertEquals("10.0", e.context.get(sym("k")).toString());
+    }
+
+    @Test
+    public void callThatThrowsReleasesItsFrame() throws SemanticError {
+        // f(a) is a + undefined end
+        Func func = fun("f", e.new BinOp("+", sym("a"), sym("undefined")), "a");
+        FrameLayout layout = func.layout();
+        Context global = e.context;
+        Context frame = layout.acquire(e, global);
+        layout.release(frame);
+        for (Node node : new Node[]{call("f", e.new Num(1)), e.compile(call("f", e.new Num(1)))}) {
+            try {
+                node.eval();
+                fail("The variable is not defined");
+            } catch (SemanticError ex) {
+                // expected
+            }
+            assertSame(global, e.context);
+            // the frame of the call is free again
+            Context again = layout.acquire(e, global);
+            assertSame(frame, again);
+            layout.release(again);
+        }
+    }
+}
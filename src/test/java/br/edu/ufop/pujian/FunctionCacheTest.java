@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import org.junit.Test;
+
+/**
+ * Hits, misses and evictions of {@link FunctionCache}, and its use by the
+ * interval functions of {@link Engine}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class FunctionCacheTest extends RoundingTestCase {
+
+    private static final Interval X = new Interval(0.5, 0.75);
+
+    @Test
+    public void hitAndMiss() {
+        FunctionCache cache = new FunctionCache(16);
+        assertNull(cache.get("Sin", X));
+        Interval r = InterFunctions.Sin(X);
+        cache.put("Sin", X, r);
+        assertSame(r, cache.get("Sin", X));
+        // another function or other bits of the bounds
+        assertNull(cache.get("Cos", X));
+        assertNull(cache.get("Sin", new Interval(0.5, Math.nextUp(0.75))));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(0.25, cache.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void resultsAreKeptForTheirRounding() {
+        FunctionCache cache = new FunctionCache(16);
+        Rounding.set(Rounding.NONE);
+        cache.put("Exp", X, InterFunctions.Exp(X));
+        Rounding.set(Rounding.EFT);
+        assertNull(cache.get("Exp", X));
+        Rounding.set(Rounding.NONE);
+        assertEquals(InterFunctions.Exp(X), cache.get("Exp", X));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        // one set of four slots
+        FunctionCache cache = new FunctionCache(4);
+        assertEquals(4, cache.capacity());
+        Interval[] args = new Interval[5];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = new Interval(i, i + 1);
+            cache.put("Exp", args[i], InterFunctions.Exp(args[i]));
+            if (i == 2)
+                // args[0] becomes the most recently used
+                cache.get("Exp", args[0]);
+        }
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("Exp", args[1]));
+        assertEquals(InterFunctions.Exp(args[0]), cache.get("Exp", args[0]));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("Exp", args[0]));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void engineUsesTheCache() throws SemanticError {
+        Engine e = new Engine();
+        FunctionCache cache = new FunctionCache(64);
+        e.setFunctionCache(cache);
+        e.push("x", e.new Inter(0.5, 0.75));
+        Node sin = e.new IntervalFunc("Sin", e.makeSym("x"));
+        Interval first = ((Inter) sin.eval()).val, second = ((Inter) sin.eval()).val;
+        assertEquals(InterFunctions.Sin(X), first);
+        assertEquals(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void redefinedFunctionDoesNotTakeTheOldResult() throws SemanticError {
+        Engine e = new Engine();
+        e.setFunctionCache(new FunctionCache(64));
+        e.push("x", e.new Inter(0.5, 0.75));
+        Sym f = (Sym) e.makeSym("f"), a = (Sym) e.makeSym("a");
+        Node call = e.new Composite(f, new Node[]{e.makeSym("x")});
+        e.new Func(f, new Node[]{a}, e.new IntervalFunc("Sin", a)).eval();
+        assertEquals(InterFunctions.Sin(X), ((Inter) call.eval()).val);
+        e.new Func(f, new Node[]{a}, e.new IntervalFunc("Cos", a)).eval();
+        assertEquals(InterFunctions.Cos(X), ((Inter) call.eval()).val);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Derivatives of {@link GradientFunctions}, which must not claim that a
+ * function is monotone across a pole.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class GradientFunctionsTest {
+
+    private static boolean isEntire(Interval d) {
+        return d.getInf() == Double.NEGATIVE_INFINITY && d.getSup() == Double.POSITIVE_INFINITY;
+    }
+
+    @Test
+    public void tanCrossingAPoleHasNoSign() {
+        GradientInterval x = GradientInterval.variable(new Interval(1.0, 1.5 + Math.PI), 1, 0);
+        assertTrue(isEntire(GradientFunctions.Tan(x).getDerivative(0)));
+        // pi/2 is in [1,2], where the width is less than pi
+        x = GradientInterval.variable(new Interval(1.0, 2.0), 1, 0);
+        assertTrue(isEntire(GradientFunctions.Tan(x).getDerivative(0)));
+    }
+
+    @Test
+    public void cotCrossingAPoleHasNoSign() {
+        GradientInterval x = GradientInterval.variable(new Interval(0.5, 1.0 + Math.PI), 1, 0);
+        assertTrue(isEntire(GradientFunctions.Cot(x).getDerivative(0)));
+        x = GradientInterval.variable(new Interval(-0.5, 0.5), 1, 0);
+        assertTrue(isEntire(GradientFunctions.Cot(x).getDerivative(0)));
+    }
+
+    @Test
+    public void tanAndCotWithoutAPoleAreMonotone() {
+        GradientInterval x = GradientInterval.variable(new Interval(0.1, 1.0), 1, 0);
+        Interval d = GradientFunctions.Tan(x).getDerivative(0);
+        double t = Math.tan(0.1), u = Math.tan(1.0);
+        assertEquals(1 + t * t, d.getInf(), 1e-12);
+        assertEquals(1 + u * u, d.getSup(), 1e-12);
+        d = GradientFunctions.Cot(x).getDerivative(0);
+        assertTrue(d.getSup() < 0 && d.getInf() > Double.NEGATIVE_INFINITY);
+    }
+}
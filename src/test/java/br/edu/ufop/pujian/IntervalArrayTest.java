@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Operations of {@link IntervalArray} without exceptions, which must give
+ * the same results and decorations as {@link IntervalUnion} and
+ * {@link DecoratedFunctions}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class IntervalArrayTest extends RoundingTestCase {
+
+    private static final int CASES = 20000;
+    private static final double[] EXPONENTS = {0, 1, 2, 3, 5, -1, -2, -3, -5, 0.5, 1.0 / 3, -2.0 / 3,
+        2.5, -0.5, 0.2, Math.PI, Double.NaN};
+
+    private IntervalArray intervals() {
+        double[] inf = new double[CASES / 10], sup = new double[inf.length];
+        for (int i = 0; i < inf.length; i++) {
+            double[] ab = IntervalPropertyTest.interval(random);
+            inf[i] = ab[0];
+            sup[i] = ab[1];
+        }
+        return new IntervalArray(inf, sup);
+    }
+
+    private static void assertBound(double expected, double actual) {
+        assertEquals(Double.doubleToLongBits(expected + 0.0), Double.doubleToLongBits(actual + 0.0));
+    }
+
+    @Test
+    public void divIsTheHullOfTheUnion() {
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            for (int k = 0; k < 10; k++) {
+                IntervalArray A = intervals(), B = intervals(), out = new IntervalArray(A.length());
+                byte[] status = new byte[A.length()];
+                A.div(B, out, status);
+                for (int i = 0; i < A.length(); i++) {
+                    IntervalUnion q = IntervalUnion.div(A.get(i), B.get(i));
+                    assertBound(q.isEmpty() ? Double.NaN : q.hull().getInf(), out.getInf(i));
+                    assertBound(q.isEmpty() ? Double.NaN : q.hull().getSup(), out.getSup(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void powIsDecoratedIPowerR() {
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            for (double y : EXPONENTS) {
+                IntervalArray A = intervals(), out = new IntervalArray(A.length());
+                byte[] status = new byte[A.length()];
+                A.pow(y, out, status);
+                for (int i = 0; i < A.length(); i++) {
+                    DecoratedInterval e;
+                    try {
+                        e = DecoratedFunctions.IPowerR(new DecoratedInterval(A.get(i)), y);
+                    } catch (ArithmeticException ex) {
+                        // a power that underflows to [0,0] has no hull
+                        continue;
+                    }
+                    assertBound(e.isEmpty() ? Double.NaN : e.getInf(), out.getInf(i));
+                    assertBound(e.isEmpty() ? Double.NaN : e.getSup(), out.getSup(i));
+                    assertEquals(e.getDecoration(), Decoration.fromStatus(status[i]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Comparison of the sign-case multiplication and division and of the hull
+ * of {@link Interval} with the old code, see {@link LegacyInterval}. Each
+ * operation is applied to 4096 pairs of intervals. The chain benchmarks
+ * compare x.add(y).mult(y).Hull(x) with the interval that extended
+ * {@link Engine}; add {@code -prof gc} to the arguments to see the bytes
+ * allocated by each one.
+ *
+ * Run it with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main IntervalBenchmark"}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalBenchmark {
+
+    private static final int N = 4096;
+
+    /**
+     * Signs of the operands: positive or random
+     */
+    @Param({"positive", "mixed"})
+    public String signs;
+
+    private Interval[] x, y;
+    private LegacyInterval.EngineInterval[] ex, ey;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(2021);
+        x = new Interval[N];
+        y = new Interval[N];
+        for (int i = 0; i < N; i++) {
+            double a = random.nextDouble(), b = random.nextDouble();
+            double c = random.nextDouble(), d = random.nextDouble();
+            if ("mixed".equals(signs)) {
+                a -= 0.5;
+                b -= 0.5;
+                c = random.nextBoolean() ? c + 0.1 : -c - 0.1;
+                d = (c > 0) ? c + d : c - d;
+            } else
+                d += c;
+            x[i] = new Interval(a, b);
+            y[i] = new Interval(c, d);
+        }
+        ex = new LegacyInterval.EngineInterval[N];
+        ey = new LegacyInterval.EngineInterval[N];
+        for (int i = 0; i < N; i++) {
+            ex[i] = new LegacyInterval.EngineInterval(x[i].getInf(), x[i].getSup());
+            ey[i] = new LegacyInterval.EngineInterval(y[i].getInf(), y[i].getSup());
+        }
+    }
+
+    @Benchmark
+    public void mult(Blackhole bh) {
+        for (int i = 0; i < N; i++)
+            bh.consume(x[i].mult(y[i]));
+    }
+
+    @Benchmark
+    public void multLegacy(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            double[] r = LegacyInterval.mult(x[i].getInf(), x[i].getSup(), y[i].getInf(), y[i].getSup());
+            bh.consume(new Interval(r[0], r[1]));
+        }
+    }
+
+    @Benchmark
+    public void div(Blackhole bh) {
+        for (int i = 0; i < N; i++)
+            bh.consume(x[i].div(y[i]));
+    }
+
+    @Benchmark
+    public void divLegacy(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            double[] r = LegacyInterval.div(x[i].getInf(), x[i].getSup(), y[i].getInf(), y[i].getSup());
+            bh.consume(new Interval(r[0], r[1]));
+        }
+    }
+
+    @Benchmark
+    public void hull(Blackhole bh) {
+        for (int i = 0; i < N; i++)
+            bh.consume(x[i].Hull(y[i]));
+    }
+
+    @Benchmark
+    public void hullLegacy(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            double[] r = LegacyInterval.hull(x[i].getInf(), x[i].getSup(), y[i].getInf(), y[i].getSup());
+            bh.consume(new Interval(r[0], r[1]));
+        }
+    }
+
+    @Benchmark
+    public void chain(Blackhole bh) {
+        for (int i = 0; i < N; i++)
+            bh.consume(x[i].add(y[i]).mult(y[i]).Hull(x[i]));
+    }
+
+    @Benchmark
+    public void chainLegacy(Blackhole bh) {
+        for (int i = 0; i < N; i++)
+            bh.consume(ex[i].add(ey[i]).mult(ey[i]).Hull(ex[i]));
+    }
+}
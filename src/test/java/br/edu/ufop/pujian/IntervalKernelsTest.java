@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * The lanes backend of {@link IntervalKernels} against the scalar one, and
+ * the scalar one against {@link Interval}, with operands of mixed signs and
+ * results written over the operands.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class IntervalKernelsTest extends RoundingTestCase {
+
+    private static final int N = 2000;
+    private static final String[] OPERATIONS = {"add", "sub", "mult", "div", "hull"};
+
+    private final IntervalKernels scalar = IntervalKernels.select("scalar");
+    private final IntervalKernels lanes = IntervalKernels.select("lanes");
+
+    /**
+     * A bound with zeros and values of both signs
+     */
+    private double bound() {
+        switch (random.nextInt(6)) {
+            case 0:
+                return 0.0;
+            case 1:
+                return random.nextInt(7) - 3;
+            default:
+                return 8 * random.nextDouble() - 4;
+        }
+    }
+
+    /**
+     * Columns of intervals. A divisor has no zero.
+     */
+    private double[][] columns(boolean divisor) {
+        double[] inf = new double[N], sup = new double[N];
+        for (int i = 0; i < N; i++) {
+            double a = bound(), b = (random.nextInt(5) == 0) ? a : bound();
+            if (divisor) {
+                double s = random.nextBoolean() ? 1 : -1;
+                a = s * (Math.abs(a) + 0.125);
+                b = s * (Math.abs(b) + 0.125);
+            }
+            inf[i] = Math.min(a, b);
+            sup[i] = Math.max(a, b);
+        }
+        return new double[][]{inf, sup};
+    }
+
+    private static void run(IntervalKernels k, String op, double[][] a, double[][] b, double[][] r) {
+        switch (op) {
+            case "add":
+                k.add(a[0], a[1], b[0], b[1], r[0], r[1], N);
+                break;
+            case "sub":
+                k.sub(a[0], a[1], b[0], b[1], r[0], r[1], N);
+                break;
+            case "mult":
+                k.mult(a[0], a[1], b[0], b[1], r[0], r[1], N);
+                break;
+            case "div":
+                k.div(a[0], a[1], b[0], b[1], r[0], r[1], N);
+                break;
+            default:
+                k.hull(a[0], a[1], b[0], b[1], r[0], r[1], N);
+        }
+    }
+
+    private static Interval apply(String op, Interval a, Interval b) {
+        switch (op) {
+            case "add":
+                return a.add(b);
+            case "sub":
+                return a.sub(b);
+            case "mult":
+                return a.mult(b);
+            case "div":
+                return a.div(b);
+            default:
+                return a.Hull(b);
+        }
+    }
+
+    private static double[][] copy(double[][] a) {
+        return new double[][]{a[0].clone(), a[1].clone()};
+    }
+
+    private static void assertColumns(String message, double[][] expected, double[][] actual) {
+        for (int i = 0; i < N; i++) {
+            assertEquals(message + " inf " + i, expected[0][i], actual[0][i], 0.0);
+            assertEquals(message + " sup " + i, expected[1][i], actual[1][i], 0.0);
+        }
+    }
+
+    private void check(Rounding policy) {
+        Rounding.set(policy);
+        for (String op : OPERATIONS) {
+            double[][] a = columns(false), b = columns("div".equals(op));
+            double[][] expected = new double[2][N], r = new double[2][N];
+            run(scalar, op, a, b, expected);
+            for (int i = 0; i < N; i++) {
+                Interval v = apply(op, new Interval(a[0][i], a[1][i]), new Interval(b[0][i], b[1][i]));
+                assertEquals(op + " " + i, v.getInf(), expected[0][i], 0.0);
+                assertEquals(op + " " + i, v.getSup(), expected[1][i], 0.0);
+            }
+            run(lanes, op, a, b, r);
+            assertColumns(op, expected, r);
+            // the result over the first or the second operand
+            for (IntervalKernels k : new IntervalKernels[]{scalar, lanes}) {
+                double[][] x = copy(a);
+                run(k, op, x, b, x);
+                assertColumns(k.name() + " " + op + " over A", expected, x);
+                double[][] y = copy(b);
+                run(k, op, a, y, y);
+                assertColumns(k.name() + " " + op + " over B", expected, y);
+            }
+        }
+    }
+
+    @Test
+    public void lanesGiveTheScalarResults() {
+        check(Rounding.NONE);
+    }
+
+    @Test
+    public void lanesRoundLikeTheScalarKernels() {
+        check(Rounding.ULP);
+        check(Rounding.EFT);
+    }
+
+    @Test
+    public void scalarIsTheDefault() {
+        assertEquals("scalar", IntervalKernels.get().name());
+        assertEquals("scalar", IntervalKernels.select("no.such.Backend").name());
+    }
+}
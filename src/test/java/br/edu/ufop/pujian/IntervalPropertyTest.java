@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Properties of the sign-case multiplication and division and of the hull
+ * of {@link Interval}: they give the same enclosures as the old code, see
+ * {@link LegacyInterval}, or tighter ones.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class IntervalPropertyTest extends RoundingTestCase {
+
+    private static final int CASES = 100000;
+    private static final MathContext PRECISION = new MathContext(80);
+
+    /**
+     * A bound with zeros, tiny and huge values of both signs
+     */
+    static double value(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return 0.0;
+            case 1:
+                return -0.0;
+            case 2:
+                return (random.nextDouble() - 0.5) * 1e-300;
+            case 3:
+                return (random.nextDouble() - 0.5) * 1e300;
+            case 4:
+                return random.nextInt(21) - 10;
+            default:
+                return (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(21) - 10);
+        }
+    }
+
+    /**
+     * An interval as {inf, sup}
+     */
+    static double[] interval(Random random) {
+        double a = value(random), b = random.nextInt(6) == 0 ? a : value(random);
+        return (a <= b) ? new double[]{a, b} : new double[]{b, a};
+    }
+
+    private static BigDecimal[] products(double[] x, double[] y) {
+        BigDecimal a = new BigDecimal(x[0]), b = new BigDecimal(x[1]);
+        BigDecimal c = new BigDecimal(y[0]), d = new BigDecimal(y[1]);
+        return new BigDecimal[]{a.multiply(c), a.multiply(d), b.multiply(c), b.multiply(d)};
+    }
+
+    private static BigDecimal[] quotients(double[] x, double[] y) {
+        BigDecimal a = new BigDecimal(x[0]), b = new BigDecimal(x[1]);
+        BigDecimal c = new BigDecimal(y[0]), d = new BigDecimal(y[1]);
+        return new BigDecimal[]{a.divide(c, PRECISION), a.divide(d, PRECISION),
+            b.divide(c, PRECISION), b.divide(d, PRECISION)};
+    }
+
+    private static BigDecimal min(BigDecimal[] v) {
+        BigDecimal m = v[0];
+        for (BigDecimal x : v)
+            m = m.min(x);
+        return m;
+    }
+
+    private static BigDecimal max(BigDecimal[] v) {
+        BigDecimal m = v[0];
+        for (BigDecimal x : v)
+            m = m.max(x);
+        return m;
+    }
+
+    private static boolean finite(double... v) {
+        for (double x : v)
+            if (Double.isInfinite(x) || Double.isNaN(x))
+                return false;
+        return true;
+    }
+
+    /**
+     * Compare v with the exact quotient a/b
+     * @return The sign of v - a/b
+     */
+    private static int compare(double v, double a, double b) {
+        int c = new BigDecimal(v).multiply(new BigDecimal(b)).compareTo(new BigDecimal(a));
+        return (b > 0) ? c : -c;
+    }
+
+    /**
+     * Below this magnitude EFT moves a bound one ulp outward, see
+     * {@link Rounding}
+     */
+    private static boolean tiny(double x) {
+        return x != 0 && Math.abs(x) < 0x1p-969;
+    }
+
+    private static void assertEncloses(String what, double inf, double sup, BigDecimal lo, BigDecimal hi) {
+        assertTrue(what + " lower bound " + inf, new BigDecimal(inf).compareTo(lo) <= 0);
+        assertTrue(what + " upper bound " + sup, new BigDecimal(sup).compareTo(hi) >= 0);
+    }
+
+    /**
+     * Check that a lower bound is the largest double not above the exact
+     * value, and an upper bound the smallest double not below it
+     */
+    private static void assertTight(String what, double inf, double sup, BigDecimal lo, BigDecimal hi) {
+        assertTrue(what + " lower bound " + inf, new BigDecimal(inf).compareTo(lo) <= 0
+                && new BigDecimal(Math.nextUp(inf)).compareTo(lo) > 0);
+        assertTrue(what + " upper bound " + sup, new BigDecimal(sup).compareTo(hi) >= 0
+                && new BigDecimal(Math.nextDown(sup)).compareTo(hi) < 0);
+    }
+
+    @Test
+    public void multIsTheSameAsFourProducts() {
+        Rounding.set(Rounding.NONE);
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            double[] old = LegacyInterval.mult(x[0], x[1], y[0], y[1]);
+            Interval r = new Interval(x[0], x[1]).mult(new Interval(y[0], y[1]));
+            assertEquals(old[0], r.getInf(), 0.0);
+            assertEquals(old[1], r.getSup(), 0.0);
+        }
+    }
+
+    @Test
+    public void multIsTheTightestEnclosureWithEft() {
+        Rounding.set(Rounding.EFT);
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            Interval r = new Interval(x[0], x[1]).mult(new Interval(y[0], y[1]));
+            if (!finite(r.getInf(), r.getSup()))
+                continue;
+            BigDecimal[] p = products(x, y);
+            if (tiny(r.getInf()) || tiny(r.getSup()))
+                assertEncloses("product", r.getInf(), r.getSup(), min(p), max(p));
+            else
+                assertTight("product", r.getInf(), r.getSup(), min(p), max(p));
+        }
+    }
+
+    @Test
+    public void divIsRoundedToNearest() {
+        Rounding.set(Rounding.NONE);
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            if (!(y[0] > 0 || y[1] < 0))
+                continue;
+            Interval r = new Interval(x[0], x[1]).div(new Interval(y[0], y[1]));
+            if (!finite(r.getInf(), r.getSup()))
+                continue;
+            BigDecimal[] q = quotients(x, y);
+            assertEquals(min(q).doubleValue(), r.getInf(), 0.0);
+            assertEquals(max(q).doubleValue(), r.getSup(), 0.0);
+        }
+    }
+
+    @Test
+    public void divIsAsTightAsTheReciprocalOrTighter() {
+        Rounding.set(Rounding.NONE);
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            if (!(y[0] > 0 || y[1] < 0))
+                continue;
+            Interval r = new Interval(x[0], x[1]).div(new Interval(y[0], y[1]));
+            double[] old = LegacyInterval.div(x[0], x[1], y[0], y[1]);
+            if (!finite(r.getInf(), r.getSup(), old[0], old[1]))
+                continue;
+            BigDecimal[] q = quotients(x, y);
+            // the distance to the exact bounds is never larger than before
+            assertTrue(new BigDecimal(r.getInf()).subtract(min(q)).abs()
+                    .compareTo(new BigDecimal(old[0]).subtract(min(q)).abs()) <= 0);
+            assertTrue(new BigDecimal(r.getSup()).subtract(max(q)).abs()
+                    .compareTo(new BigDecimal(old[1]).subtract(max(q)).abs()) <= 0);
+        }
+    }
+
+    @Test
+    public void divIsTheTightestEnclosureWithEft() {
+        Rounding.set(Rounding.EFT);
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            if (!(y[0] > 0 || y[1] < 0))
+                continue;
+            Interval r = new Interval(x[0], x[1]).div(new Interval(y[0], y[1]));
+            if (!finite(r.getInf(), r.getSup()))
+                continue;
+            boolean tight = !tiny(x[0]) && !tiny(x[1]);
+            // the bounds are compared with the quotients exactly
+            int below = 0, above = 0;
+            for (double a : x)
+                for (double b : y) {
+                    assertTrue("quotient lower bound " + r.getInf(), compare(r.getInf(), a, b) <= 0);
+                    assertTrue("quotient upper bound " + r.getSup(), compare(r.getSup(), a, b) >= 0);
+                    below = Math.max(below, compare(Math.nextUp(r.getInf()), a, b));
+                    above = Math.min(above, compare(Math.nextDown(r.getSup()), a, b));
+                }
+            if (tight)
+                assertTrue("quotient " + r, below > 0 && above < 0);
+        }
+    }
+
+    @Test
+    public void hullIsTheSameAsSorting() {
+        for (int n = 0; n < CASES; n++) {
+            double[] x = interval(random), y = interval(random);
+            double[] old = LegacyInterval.hull(x[0], x[1], y[0], y[1]);
+            Interval r = new Interval(x[0], x[1]).Hull(new Interval(y[0], y[1]));
+            assertEquals(old[0], r.getInf(), 0.0);
+            assertEquals(old[1], r.getSup(), 0.0);
+            Interval p = new Interval(x[0], x[1]).Hull(y[0]);
+            assertEquals(Math.min(x[0], y[0]), p.getInf(), 0.0);
+            assertEquals(Math.max(x[1], y[0]), p.getSup(), 0.0);
+        }
+    }
+}
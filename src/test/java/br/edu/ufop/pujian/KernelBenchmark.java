@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Comparison of the backends of {@link IntervalKernels} on columns of 4096
+ * intervals, with the default {@link Rounding} policy.
+ *
+ * Run it with
+ * {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main KernelBenchmark"}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelBenchmark {
+
+    private static final int N = 4096;
+
+    @Param({"scalar", "lanes"})
+    public String backend;
+
+    /**
+     * Signs of the operands: positive or random
+     */
+    @Param({"positive", "mixed"})
+    public String signs;
+
+    private IntervalKernels kernels;
+    private final double[] ainf = new double[N], asup = new double[N], binf = new double[N], bsup = new double[N];
+    private final double[] rinf = new double[N], rsup = new double[N];
+
+    @Setup
+    public void setUp() {
+        kernels = IntervalKernels.select(backend);
+        Random random = new Random(2021);
+        for (int i = 0; i < N; i++) {
+            double a = random.nextDouble(), b = random.nextDouble();
+            double c = random.nextDouble(), d = random.nextDouble();
+            if ("mixed".equals(signs)) {
+                a -= 0.5;
+                c = random.nextBoolean() ? c + 0.1 : -c - 0.1;
+                d = (c > 0) ? c + d : c - d;
+            } else
+                d += c;
+            ainf[i] = a;
+            asup[i] = a + b;
+            binf[i] = Math.min(c, d);
+            bsup[i] = Math.max(c, d);
+        }
+    }
+
+    @Benchmark
+    public double[] add() {
+        kernels.add(ainf, asup, binf, bsup, rinf, rsup, N);
+        return rinf;
+    }
+
+    @Benchmark
+    public double[] sub() {
+        kernels.sub(ainf, asup, binf, bsup, rinf, rsup, N);
+        return rinf;
+    }
+
+    @Benchmark
+    public double[] mult() {
+        kernels.mult(ainf, asup, binf, bsup, rinf, rsup, N);
+        return rinf;
+    }
+
+    @Benchmark
+    public double[] div() {
+        kernels.div(ainf, asup, binf, bsup, rinf, rsup, N);
+        return rinf;
+    }
+
+    @Benchmark
+    public double[] hull() {
+        kernels.hull(ainf, asup, binf, bsup, rinf, rsup, N);
+        return rinf;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Arrays;
+
+/**
+ * The operations of {@link Interval} before the sign-case tables, and the
+ * interval that extended {@link Engine}, kept to compare the new code with
+ * them in the tests and the benchmarks.
+ *
+ * @author Darlan Nunes de Brito
+ */
+final class LegacyInterval {
+
+    private LegacyInterval() {
+    }
+
+    /**
+     * Product with the four endpoint products in an array
+     */
+    static double[] mult(double xinf, double xsup, double yinf, double ysup) {
+        double result[] = new double[4];
+        result[0] = xinf * yinf;
+        result[1] = xinf * ysup;
+        result[2] = xsup * yinf;
+        result[3] = xsup * ysup;
+        double inf = result[0], sup = result[0];
+        for (int i = 1; i < 4; i++) {
+            if (result[i] < inf)
+                inf = result[i];
+            else if (result[i] > sup)
+                sup = result[i];
+        }
+        return new double[]{inf, sup};
+    }
+
+    /**
+     * Quotient as the product by the reciprocal of the divisor
+     */
+    static double[] div(double xinf, double xsup, double yinf, double ysup) {
+        if (!(yinf > 0 || ysup < 0))
+            throw new ArithmeticException("The interval contains zero");
+        double a = 1 / ysup, b = 1 / yinf;
+        return (a < b) ? mult(xinf, xsup, a, b) : mult(xinf, xsup, b, a);
+    }
+
+    /**
+     * Hull of two intervals with a sorted array
+     */
+    static double[] hull(double xinf, double xsup, double yinf, double ysup) {
+        double[] arr = new double[4];
+        arr[0] = xinf;
+        arr[1] = xsup;
+        arr[2] = yinf;
+        arr[3] = ysup;
+        Arrays.sort(arr);
+        return new double[]{arr[0], arr[3]};
+    }
+
+    /**
+     * Interval as it was when it extended {@link Engine}: each one builds
+     * the symbol table and the context of an engine.
+     */
+    static final class EngineInterval extends Engine {
+
+        final double inf, sup;
+
+        EngineInterval(double inf, double sup) {
+            this.inf = inf;
+            this.sup = sup;
+        }
+
+        EngineInterval add(EngineInterval B) {
+            return new EngineInterval(inf + B.inf, sup + B.sup);
+        }
+
+        EngineInterval mult(EngineInterval B) {
+            double[] r = LegacyInterval.mult(inf, sup, B.inf, B.sup);
+            return new EngineInterval(r[0], r[1]);
+        }
+
+        EngineInterval Hull(EngineInterval B) {
+            double[] r = LegacyInterval.hull(inf, sup, B.inf, B.sup);
+            return new EngineInterval(r[0], r[1]);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Endpoint evaluation of {@link MonotoneForm}, which must enclose the range
+ * when the expression crosses a pole.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class MonotoneFormTest {
+
+    private static Interval monotone(String function, double a, double b) throws SemanticError {
+        Engine e = new Engine();
+        e.push("x", e.new Inter(a, b));
+        return e.evalMonotone(e.new IntervalFunc(function, e.makeSym("x")), "x");
+    }
+
+    private static boolean contains(Interval r, double v) {
+        return r.getInf() <= v && v <= r.getSup();
+    }
+
+    @Test
+    public void tanAcrossAPoleIsUnbounded() throws SemanticError {
+        Interval r = monotone("Tan", 1.0, 1.5 + Math.PI);
+        assertTrue(contains(r, Math.tan(2.0)));
+        assertEquals(Double.NEGATIVE_INFINITY, r.getInf(), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, r.getSup(), 0.0);
+    }
+
+    @Test
+    public void cotAcrossAPoleIsUnbounded() throws SemanticError {
+        Interval r = monotone("Cot", 0.5, 1.0 + Math.PI);
+        assertTrue(contains(r, 1.0 / Math.tan(1.6)));
+        assertEquals(Double.NEGATIVE_INFINITY, r.getInf(), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, r.getSup(), 0.0);
+    }
+
+    @Test
+    public void poleInsideTheExpressionUsesTheNaiveValue() throws SemanticError {
+        Engine e = new Engine();
+        e.push("x", e.new Inter(1.0, 2.0));
+        Engine.Node tan = e.new IntervalFunc("Tan", e.makeSym("x"));
+        MonotoneForm form = new MonotoneForm(e.recordAdjoint(e.new IntervalFunc("ATan", tan), "x"));
+        Interval r = form.evaluate(new double[]{1.0}, new double[]{2.0});
+        // atan(tan(2)) = 2 - pi
+        assertTrue(contains(r, 2.0 - Math.PI));
+        assertTrue(contains(r, 1.0));
+        assertEquals(MonotoneForm.Path.INTERVAL, form.getPath(0));
+    }
+
+    @Test
+    public void tanWithoutAPoleUsesTheEndpoints() throws SemanticError {
+        Interval r = monotone("Tan", 0.1, 1.0);
+        assertEquals(Math.tan(0.1), r.getInf(), 1e-12);
+        assertEquals(Math.tan(1.0), r.getSup(), 1e-12);
+    }
+}
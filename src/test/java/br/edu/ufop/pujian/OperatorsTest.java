@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Num;
+import org.junit.Test;
+
+/**
+ * The table of {@link Operators} against the dispatch on the symbol of the
+ * operator that {@link Engine.Num} and {@link Engine.Inter} had before it.
+ * The old dispatch cast the right operand to its own type; the table takes
+ * a number as a point interval instead, so a mixed pair that failed with a
+ * cast is compared with the old operation on two intervals.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class OperatorsTest {
+
+    private static final double[] NUMBERS = {0.0, -0.0, 1.0, -2.5, 3.0, 1e300, -7e-310};
+
+    private static final double[][] INTERVALS = {
+        {1.0, 2.0}, {-3.0, -0.5}, {-1.0, 4.0}, {0.0, 2.0}, {-2.0, 0.0}, {0.0, 0.0}, {2.5, 2.5}
+    };
+
+    private final Engine e = new Engine();
+
+    /**
+     * Num.doBinOp(String, Node) before the table
+     */
+    private Node legacyNum(String op, double val, Node other) throws SemanticError {
+        Num that = (Num) other;
+        switch (op) {
+            case "+":
+                return e.new Num(val + that.val);
+            case "-":
+                return e.new Num(val - that.val);
+            case "*":
+                return e.new Num(val * that.val);
+            case "/":
+                return e.new Num(val / that.val);
+            case "%":
+                return e.new Num(val % that.val);
+            case "^":
+                return e.new Num(Math.pow(val, that.val));
+            case "==":
+                return e.new Num(val == that.val ? 1 : 0);
+            case "!=":
+                return e.new Num(val != that.val ? 1 : 0);
+            case "<=":
+                return e.new Num(val <= that.val ? 1 : 0);
+            case "<":
+                return e.new Num(val < that.val ? 1 : 0);
+            case ">=":
+                return e.new Num(val >= that.val ? 1 : 0);
+            case ">":
+                return e.new Num(val > that.val ? 1 : 0);
+            case ",":
+                return e.new Inter(val, that.val);
+            default:
+                return legacyNode(op, other);
+        }
+    }
+
+    /**
+     * Inter.doBinOp(String, Node) before the table
+     */
+    private Node legacyInter(String op, Interval val, Node other) throws SemanticError {
+        switch (op) {
+            case "+":
+                return e.new Inter(val.add(((Inter) other).val));
+            case "-":
+                return e.new Inter(val.sub(((Inter) other).val));
+            case "*":
+                return e.new Inter(val.mult(((Inter) other).val));
+            case "/":
+                Interval d = (other instanceof Num) ? new Interval(((Num) other).val) : ((Inter) other).val;
+                if (d.getInf() > 0 || d.getSup() < 0)
+                    return e.new Inter(val.div(d));
+                return e.union(IntervalUnion.div(val, d));
+            case "^":
+                if (other instanceof Num)
+                    return e.new Inter(InterFunctions.IPowerR(val, ((Num) other).val));
+                return e.new Inter(InterFunctions.IPowerI(val, ((Inter) other).val));
+            case "&":
+                if (other instanceof Num)
+                    return e.new Inter(val.Hull(((Num) other).val));
+                return e.new Inter(val.Hull(((Inter) other).val));
+            default:
+                return legacyNode(op, other);
+        }
+    }
+
+    /**
+     * Node.doBinOp(String, Node)
+     */
+    private static Node legacyNode(String op, Node other) throws SemanticError {
+        if (";".equals(op))
+            return other.eval();
+        throw new SemanticError(String.format("Operation '%s' not implemented.", op));
+    }
+
+    private Node legacy(String op, Node left, Node right) throws SemanticError {
+        try {
+            return (left instanceof Num) ? legacyNum(op, ((Num) left).val, right) : legacyInter(op, ((Inter) left).val, right);
+        } catch (ClassCastException ex) {
+            if (left.type() == right.type())
+                throw ex;
+            return legacy(op, point(left), point(right));
+        }
+    }
+
+    private Node point(Node n) {
+        return (n instanceof Num) ? e.new Inter(((Num) n).val, ((Num) n).val) : n;
+    }
+
+    private static String describe(Node n) {
+        return n.getClass().getSimpleName() + " " + n;
+    }
+
+    private void check(Opcode code, Node left, Node right) {
+        String where = left + " " + code + " " + right;
+        Node expected;
+        try {
+            expected = legacy(code.toString(), left, right);
+        } catch (SemanticError ex) {
+            expected = null;
+        } catch (ArithmeticException ex) {
+            return;
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            Node actual;
+            try {
+                actual = (pass == 0) ? left.doBinOp(code, right) : left.doBinOp(code.toString(), right);
+            } catch (SemanticError ex) {
+                assertTrue(where + " gave " + ex.getMessage(), expected == null);
+                continue;
+            }
+            if (expected == null)
+                fail(where + " is not defined, it gave " + actual);
+            assertEquals(where, describe(expected), describe(actual));
+        }
+    }
+
+    private Node[] operands(int type) {
+        if (type == Operators.NUM) {
+            Node[] r = new Node[NUMBERS.length];
+            for (int i = 0; i < r.length; i++)
+                r[i] = e.new Num(NUMBERS[i]);
+            return r;
+        }
+        Node[] r = new Node[INTERVALS.length];
+        for (int i = 0; i < r.length; i++)
+            r[i] = e.new Inter(INTERVALS[i][0], INTERVALS[i][1]);
+        return r;
+    }
+
+    @Test
+    public void everyCellIsTheOldOperation() {
+        int[] types = {Operators.NUM, Operators.INTER};
+        for (int left : types)
+            for (int right : types)
+                for (Opcode code : Opcode.values())
+                    for (Node l : operands(left))
+                        for (Node r : operands(right))
+                            check(code, l, r);
+    }
+
+    @Test
+    public void missingCellsAreNotImplemented() {
+        Node a = e.new Inter(1.0, 2.0), b = e.new Num(3.0);
+        Opcode[] codes = {Opcode.MOD, Opcode.EQ, Opcode.LT, Opcode.COMMA, Opcode.ASSIGN};
+        for (Opcode code : codes) {
+            assertTrue(Operators.get(Operators.INTER, Operators.INTER, code) == null);
+            try {
+                a.doBinOp(code, b);
+                fail(code + " on an interval is not defined");
+            } catch (SemanticError ex) {
+                assertTrue(ex.getMessage().contains(code.toString()));
+            }
+        }
+        assertTrue(Operators.get(Operators.NUM, -1, Opcode.ADD) == null);
+    }
+
+    @Test
+    public void numberWithIntervalIsAPointInterval() throws SemanticError {
+        Node r = e.new Num(3.0).doBinOp(Opcode.SUB, e.new Inter(-1.0, 2.0));
+        assertEquals("[1.0,4.0]", r.toString());
+        r = e.new Inter(1.0, 2.0).doBinOp(Opcode.ADD, e.new Num(3.0));
+        assertEquals("[4.0,5.0]", r.toString());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Powers by squaring of {@link Powers} and the powers of
+ * {@link IntervalArray}, which must be the same as
+ * {@link InterFunctions#IPowerR(Interval, double)}.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class PowerTest extends RoundingTestCase {
+
+    private static final int CASES = 20000;
+    private static final double[] EXPONENTS = {0, 1, 2, 3, 4, 5, 7, 17, 64, 65, -1, -2, -3, -6,
+        0.5, 1.0 / 3, -2.0 / 3, 2.5, 0.2, -1.4, Math.PI};
+
+    @Test
+    public void squaringEnclosesTheExactPower() {
+        for (Rounding r : new Rounding[]{Rounding.ULP, Rounding.EFT}) {
+            Rounding.set(r);
+            for (int i = 0; i < CASES; i++) {
+                double x = 0.5 + 1.5 * random.nextDouble();
+                int n = 1 + random.nextInt(Powers.MaxSquaring);
+                BigDecimal exact = new BigDecimal(x).pow(n);
+                assertTrue(new BigDecimal(Powers.powDown(x, n)).compareTo(exact) <= 0);
+                assertTrue(new BigDecimal(Powers.powUp(x, n)).compareTo(exact) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void arrayPowIsIPowerR() {
+        for (Rounding r : Rounding.values()) {
+            Rounding.set(r);
+            for (double y : EXPONENTS) {
+                for (int i = 0; i < CASES / EXPONENTS.length; i++) {
+                    double[] ab = IntervalPropertyTest.interval(random);
+                    IntervalArray A = new IntervalArray(new double[]{ab[0]}, new double[]{ab[1]});
+                    Interval expected;
+                    try {
+                        expected = InterFunctions.IPowerR(new Interval(ab[0], ab[1]), y);
+                    } catch (ArithmeticException ex) {
+                        expected = null;
+                    }
+                    try {
+                        A.pow(y, A);
+                        assertTrue(expected != null);
+                        assertEquals(expected.getInf(), A.getInf(0), 0.0);
+                        assertEquals(expected.getSup(), A.getSup(0), 0.0);
+                    } catch (ArithmeticException ex) {
+                        assertTrue(expected == null);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import org.junit.Test;
+
+/**
+ * Quadrants of {@link RangeReduction} against floor(x / (Pi/2)) computed
+ * with {@link BigDecimal}, for the Cody-Waite and the Payne-Hanek paths.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class RangeReductionTest extends RoundingTestCase {
+
+    /**
+     * Digits of the reference, enough for the largest double
+     */
+    private static final MathContext DIGITS = new MathContext(800);
+    private static final BigDecimal HALF_PI = pi().divide(BigDecimal.valueOf(2), DIGITS);
+
+    /**
+     * Pi = 16 atan(1/5) - 4 atan(1/239)
+     */
+    private static BigDecimal pi() {
+        return atanInverse(5).multiply(BigDecimal.valueOf(16)).subtract(atanInverse(239).multiply(BigDecimal.valueOf(4)));
+    }
+
+    /**
+     * atan(1/n) = sum of (-1)^k / ((2k+1) n^(2k+1))
+     */
+    private static BigDecimal atanInverse(int n) {
+        BigDecimal eps = BigDecimal.ONE.movePointLeft(DIGITS.getPrecision() + 10);
+        BigDecimal power = BigDecimal.ONE.divide(BigDecimal.valueOf(n), DIGITS);
+        BigDecimal n2 = BigDecimal.valueOf((long) n * n), sum = BigDecimal.ZERO;
+        for (int k = 0; power.compareTo(eps) > 0; k++) {
+            BigDecimal term = power.divide(BigDecimal.valueOf(2 * k + 1), DIGITS);
+            sum = (k % 2 == 0) ? sum.add(term) : sum.subtract(term);
+            power = power.divide(n2, DIGITS);
+        }
+        return sum;
+    }
+
+    /**
+     * floor(x / (Pi/2))
+     */
+    private static BigInteger quadrant(double x) {
+        return new BigDecimal(x).divide(HALF_PI, DIGITS).setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+    }
+
+    /**
+     * Distance of x / (Pi/2) to the nearest integer
+     */
+    private static double residue(double x) {
+        BigDecimal q = new BigDecimal(x).divide(HALF_PI, DIGITS);
+        BigDecimal f = q.subtract(q.setScale(0, RoundingMode.HALF_EVEN)).abs();
+        return f.doubleValue();
+    }
+
+    private static void assertQuadrant(double x) {
+        assertEquals(Double.toString(x), quadrant(x).intValue(), RangeReduction.quadrant(x));
+    }
+
+    @Test
+    public void hugeArguments() {
+        double[] xs = {1e22, -1e22, 0x1p20, -0x1p20, Math.nextDown(0x1p20), 1e300, 0x1p1023,
+            Math.nextDown(Double.MAX_VALUE), Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (double x : xs)
+            assertQuadrant(x);
+        // sin(1e22) = -0.852... and cos(1e22) = 0.523..., in quadrant 3 mod 4
+        assertEquals(3, RangeReduction.quadrant(1e22) & 3);
+        for (double x : xs)
+            assertTrue(residue(x) > 0x1p-62);
+    }
+
+    @Test
+    public void quadrantsGiveTheSignsOfSineAndCossine() {
+        for (int i = 0; i < 20000; i++) {
+            double x = Math.scalb(1 + random.nextDouble(), random.nextInt(1024)) * (random.nextBoolean() ? 1 : -1);
+            int q = RangeReduction.quadrant(x) & 3;
+            double s = Math.sin(x), c = Math.cos(x);
+            assertTrue(x + " " + q, (q < 2) == (s > 0) && (q == 0 || q == 3) == (c > 0));
+        }
+    }
+
+    @Test
+    public void randomArguments() {
+        for (int i = 0; i < 2000; i++) {
+            double x = Math.scalb(1 + random.nextDouble(), random.nextInt(1084) - 60) * (random.nextBoolean() ? 1 : -1);
+            assertQuadrant(x);
+        }
+    }
+
+    @Test
+    public void neighboursOfTheMultiplesOfHalfPi() {
+        long[] ks = {1, 2, 3, 4, 5, 1000, 123456, 1L << 19, (1L << 20) + 3, 1L << 30, 1L << 40, 1L << 52};
+        for (long k : ks) {
+            double x = HALF_PI.multiply(BigDecimal.valueOf(k)).doubleValue();
+            for (double y : new double[]{x, Math.nextUp(x), Math.nextDown(x), -x, -Math.nextUp(x)}) {
+                assertQuadrant(y);
+                // the distance is far above the errors of the reductions
+                assertTrue(residue(y) > 0x1p-62);
+            }
+        }
+    }
+
+    @Test
+    public void crossesFindsTheBoundaries() {
+        double[] scales = {1.0, 10.0, 1e6, 1e15, 1e22};
+        for (int i = 0; i < 4000; i++) {
+            double s = scales[random.nextInt(scales.length)];
+            double a = s * (2 * random.nextDouble() - 1);
+            double b = (random.nextBoolean()) ? a + 6 * random.nextDouble() : Math.nextUp(a);
+            BigInteger qa = quadrant(a), qb = quadrant(b);
+            if (qb.subtract(qa).compareTo(BigInteger.valueOf(4)) > 0)
+                continue;
+            for (int residue = 0; residue < 4; residue++) {
+                // the boundaries k*Pi/2 in (a,b] are the k in (qa, qb]
+                boolean expected = false;
+                for (BigInteger k = qa.add(BigInteger.ONE); k.compareTo(qb) <= 0; k = k.add(BigInteger.ONE))
+                    expected |= k.mod(BigInteger.valueOf(4)).intValue() == residue;
+                assertEquals(a + " " + b, expected,
+                        RangeReduction.crosses(RangeReduction.quadrant(a), RangeReduction.quadrant(b), residue));
+            }
+        }
+    }
+}
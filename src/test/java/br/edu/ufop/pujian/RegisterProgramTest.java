@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import br.edu.ufop.pujian.Engine.Func;
+import br.edu.ufop.pujian.Engine.Inter;
+import br.edu.ufop.pujian.Engine.Node;
+import br.edu.ufop.pujian.Engine.Sym;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Programs of {@link RegisterProgram} against {@link Engine.Node#eval()},
+ * and the cases where they differ on purpose.
+ *
+ * @author Darlan Nunes de Brito
+ */
+public class RegisterProgramTest {
+
+    private static final String[] VARIABLES = {"x", "y", "z"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "&"};
+    private static final String[] FUNCTIONS = {"Sin", "Cos", "Exp", "ATan", "ISqr", "Sqrt", "Log", "IAbs"};
+
+    /**
+     * A random expression where the interpreter and the program agree: the
+     * argument of a function is an interval and a divisor has no zero
+     */
+    private static Node tree(Engine e, Random random, int depth) {
+        int k = random.nextInt(depth > 0 ? 6 : 2);
+        if (k == 0)
+            return e.makeSym(VARIABLES[random.nextInt(VARIABLES.length)]);
+        if (k == 1)
+            return e.new Num(random.nextInt(7) - 3);
+        if (k == 2)
+            return function(e, random, tree(e, random, depth - 1));
+        String op = OPERATORS[random.nextInt(OPERATORS.length)];
+        Node left = tree(e, random, depth - 1), right = tree(e, random, depth - 1);
+        if ("/".equals(op))
+            right = e.new BinOp("+", e.new IntervalFunc("Exp", interval(e, right)), e.new Num(1));
+        return e.new BinOp(op, left, right);
+    }
+
+    private static Node function(Engine e, Random random, Node arg) {
+        return e.new IntervalFunc(FUNCTIONS[random.nextInt(FUNCTIONS.length)], interval(e, arg));
+    }
+
+    /**
+     * The node made an interval, if it is a number
+     */
+    private static Node interval(Engine e, Node node) {
+        return e.new BinOp("&", node, e.new Inter(0.0, 0.5));
+    }
+
+    private static Node value(Engine e, Random random) {
+        if (random.nextBoolean())
+            return e.new Num(random.nextInt(9) - 4);
+        double a = 4 * random.nextDouble() - 2;
+        return e.new Inter(a, a + 2 * random.nextDouble());
+    }
+
+    private static String eval(Node node) {
+        try {
+            return node.eval().toString();
+        } catch (SemanticError | RuntimeException ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    @Test
+    public void programsGiveTheResultsOfTheInterpreter() throws SemanticError {
+        Engine e = new Engine();
+        for (String v : VARIABLES)
+            e.push(v, e.new Num(0));
+        Random random = new Random(2021);
+        int compared = 0;
+        for (int t = 0; t < 500; t++) {
+            Node node = tree(e, random, 4);
+            RegisterProgram program = e.lower(node);
+            for (int r = 0; r < 10; r++) {
+                for (String v : VARIABLES)
+                    e.context.set((Sym) e.makeSym(v), value(e, random));
+                String expected = eval(node);
+                assertEquals(node.toString(), expected, eval(program));
+                compared++;
+            }
+        }
+        assertEquals(5000, compared);
+    }
+
+    private static String eval(RegisterProgram program) {
+        try {
+            return program.eval().toString();
+        } catch (SemanticError | RuntimeException ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    @Test
+    public void divisorWithZeroIsAnError() throws SemanticError {
+        Engine e = new Engine();
+        e.push("x", e.new Inter(1.0, 2.0));
+        e.push("y", e.new Inter(-1.0, 1.0));
+        Node node = e.new BinOp("/", e.makeSym("x"), e.makeSym("y"));
+        // the interpreter gives a union
+        assertTrue(node.eval() instanceof Engine.Union);
+        RegisterProgram program = e.lower(node);
+        try {
+            program.eval();
+            fail("The divisor contains zero");
+        } catch (ArithmeticException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void numberToBuiltInIsAPointInterval() throws SemanticError {
+        Engine e = new Engine();
+        e.push("x", e.new Num(0.5));
+        Node node = e.new IntervalFunc("Sin", e.makeSym("x"));
+        Node r = e.lower(node).eval();
+        assertTrue(r instanceof Inter);
+        Interval expected = InterFunctions.Sin(new Interval(0.5));
+        assertEquals(expected.getInf(), ((Inter) r).val.getInf(), 0.0);
+        assertEquals(expected.getSup(), ((Inter) r).val.getSup(), 0.0);
+    }
+
+    @Test(expected = SemanticError.class)
+    public void recursiveFunctionIsRejected() throws SemanticError {
+        Engine e = new Engine();
+        Sym p = (Sym) e.makeSym("p"), n = (Sym) e.makeSym("n");
+        Node recursion = e.new Composite(p, new Node[]{e.new BinOp("-", n, e.new Num(1))});
+        e.new Func(p, new Node[]{n}, e.new Branch(e.new BinOp("<", n, e.new Num(1)), e.new Num(0), recursion)).eval();
+        e.lower(e.new Composite(p, new Node[]{e.new Num(3)}));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021 Darlan Nunes de Brito
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package br.edu.ufop.pujian;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Base of the tests that change the global {@link Rounding} policy. The
+ * policy is restored after each test, and each test gets random values
+ * from the same seed.
+ *
+ * @author Darlan Nunes de Brito
+ */
+abstract class RoundingTestCase {
+
+    private Rounding policy;
+
+    /**
+     * Source of the random cases, with a fixed seed
+     */
+    protected Random random;
+
+    @Before
+    public void savePolicy() {
+        policy = Rounding.get();
+        random = new Random(20211);
+    }
+
+    @After
+    public void restorePolicy() {
+        Rounding.set(policy);
+    }
+}